@@ -2,13 +2,17 @@ package pl.where2play.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @EnableMethodSecurity
 @SpringBootApplication
 public class W2pApiApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(W2pApiApplication.class, args);
+        SpringApplication application = new SpringApplication(W2pApiApplication.class);
+        // Startup steps (bean creation, Liquibase, Hibernate) for GET /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
\ No newline at end of file
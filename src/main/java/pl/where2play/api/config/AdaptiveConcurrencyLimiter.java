@@ -0,0 +1,131 @@
+package pl.where2play.api.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to the latency the requests observe (gradient algorithm).
+ * <p>
+ * Every endpoint group keeps two moving averages of its round-trip time: a long-term one, which serves as the
+ * group's baseline, and a short-term one. After each request the shared limit is multiplied by the gradient
+ * {@code tolerance * long / short} (between 0.5 and 1) and a headroom of {@code sqrt(limit)} is added: while
+ * latency stays near the baseline the limit grows, once it rises past {@code tolerance} times the baseline the
+ * limit shrinks. Comparing each group against its own baseline keeps slow list calls from being mistaken for
+ * overload. A request that ends in a timeout or 503 cuts the limit by 10% right away.
+ * <p>
+ * {@link Priority#BULK} requests may only use {@code bulkShare} of the limit, so they are shed first and the rest
+ * stays available to {@link Priority#CRITICAL} ones.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        CRITICAL, BULK
+    }
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double bulkShare;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longWindow;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<String, Rtt> groups = new ConcurrentHashMap<>();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double bulkShare, double tolerance,
+                                      double smoothing, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.bulkShare = bulkShare;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits a request if the requests in flight stay within the limit for its priority. An admitted request must be
+     * followed by {@link #release}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.CRITICAL ? (int) limit : Math.max(1, (int) (limit * bulkShare));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit to its round-trip time.
+     *
+     * @param group      endpoint group the request belongs to
+     * @param rttNanos   time the request took
+     * @param overloaded whether the request timed out or was rejected downstream
+     */
+    public void release(String group, long rttNanos, boolean overloaded) {
+        int inflightBefore = inflight.getAndDecrement();
+        onSample(group, rttNanos, inflightBefore, overloaded);
+    }
+
+    private synchronized void onSample(String group, long rttNanos, int inflightBefore, boolean overloaded) {
+        if (overloaded) {
+            limit = clamp(limit * BACKOFF_RATIO);
+            return;
+        }
+        Rtt rtt = groups.computeIfAbsent(group, g -> new Rtt(rttNanos));
+        rtt.shortRtt += (rttNanos - rtt.shortRtt) / SHORT_WINDOW;
+        rtt.longRtt += (rttNanos - rtt.longRtt) / longWindow;
+        // Latency dropped well below the baseline (e.g. after a slow period): let the baseline catch up quicker
+        if (rtt.longRtt > 2 * rtt.shortRtt) {
+            rtt.longRtt *= 0.95;
+        }
+        // Requests in flight far below the limit tell nothing about whether it could be higher
+        if (inflightBefore < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * rtt.longRtt / rtt.shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Long-term round-trip time of a group in milliseconds, 0 if it has not seen requests yet.
+     */
+    public double getBaselineRttMillis(String group) {
+        Rtt rtt = groups.get(group);
+        return rtt == null ? 0 : rtt.longRtt / 1_000_000;
+    }
+
+    // Guarded by the limiter's monitor
+    private static final class Rtt {
+        double shortRtt;
+        double longRtt;
+
+        Rtt(long initial) {
+            this.shortRtt = initial;
+            this.longRtt = initial;
+        }
+    }
+}
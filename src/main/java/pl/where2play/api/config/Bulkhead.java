@@ -0,0 +1,13 @@
+package pl.where2play.api.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs the annotated method within the bulkhead of a workload ({@link Bulkheads}), outside of its transaction.
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+    Bulkheads.Workload value();
+}
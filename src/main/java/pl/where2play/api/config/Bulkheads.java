@@ -0,0 +1,178 @@
+package pl.where2play.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.exception.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkheads isolating the calendar event workloads from each other.
+ * <p>
+ * Each workload may run a bounded number of calls at once; further calls wait up to the workload's queue timeout
+ * for a slot and are then rejected with {@link BulkheadFullException} (503). Slots are taken before the call's
+ * transaction begins and connections are only held within the call ({@code spring.jpa.open-in-view} is off), so a
+ * storm of one workload can only exhaust its own share of connections. The limits add up to less than the
+ * connection pool size; the rest is left for unguarded work such as scheduler locks, the change feed and health
+ * checks. A thread already inside a bulkhead passes nested calls through.
+ */
+@Aspect
+@Component
+// Outside the transaction advice; after ExposeInvocationInterceptor, which annotation binding relies on
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class Bulkheads {
+
+    public enum Workload {
+        // Substring (LIKE) searches
+        SEARCH,
+        // List and range reads
+        LIST,
+        // Single events by ID
+        DETAIL,
+        // Creates, updates and deletes
+        WRITE,
+        // Bulk imports, for their whole duration
+        IMPORT,
+        // ICS feeds and free/busy
+        FEED,
+        // Batches of background jobs
+        JOB
+    }
+
+    private static final Map<Workload, Integer> DEFAULT_MAX_CONCURRENT = Map.of(
+            Workload.SEARCH, 2, Workload.LIST, 2, Workload.DETAIL, 2, Workload.WRITE, 2,
+            Workload.IMPORT, 1, Workload.FEED, 1, Workload.JOB, 1);
+
+    private final Map<Workload, Compartment> compartments = new EnumMap<>(Workload.class);
+    private final ThreadLocal<Workload> current = new ThreadLocal<>();
+
+    public Bulkheads(Environment environment, MeterRegistry meterRegistry) {
+        for (Workload workload : Workload.values()) {
+            String name = workload.name().toLowerCase(Locale.ROOT);
+            String prefix = "calendar-events.bulkheads." + name + ".";
+            Compartment compartment = new Compartment(name,
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, DEFAULT_MAX_CONCURRENT.get(workload)),
+                    Binder.get(environment).bind(prefix + "queue-timeout", Duration.class).orElse(Duration.ofSeconds(1)),
+                    meterRegistry);
+            compartments.put(workload, compartment);
+        }
+    }
+
+    /**
+     * Runs the call within the workload's bulkhead.
+     *
+     * @throws BulkheadFullException if no slot becomes free within the queue timeout
+     */
+    public <T> T call(Workload workload, Supplier<T> call) {
+        Compartment compartment = enter(workload);
+        try {
+            return call.get();
+        } finally {
+            exit(compartment);
+        }
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object aroundBulkhead(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        Compartment compartment = enter(bulkhead.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            exit(compartment);
+        }
+    }
+
+    /**
+     * Takes a slot, or returns null if the thread already holds one.
+     */
+    private Compartment enter(Workload workload) {
+        if (current.get() != null) {
+            return null;
+        }
+        Compartment compartment = compartments.get(workload);
+        compartment.acquire();
+        current.set(workload);
+        return compartment;
+    }
+
+    private void exit(Compartment compartment) {
+        if (compartment != null) {
+            current.remove();
+            compartment.semaphore.release();
+        }
+    }
+
+    int getAvailableSlots(Workload workload) {
+        return compartments.get(workload).semaphore.availablePermits();
+    }
+
+    private static final class Compartment {
+
+        private final String name;
+        private final int maxConcurrent;
+        private final Duration queueTimeout;
+        private final Semaphore semaphore;
+        private final Counter rejected;
+        private final Timer wait;
+
+        Compartment(String name, int maxConcurrent, Duration queueTimeout, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.queueTimeout = queueTimeout;
+            this.semaphore = new Semaphore(maxConcurrent, true);
+            Gauge.builder("calendar.events.bulkhead.active", semaphore, s -> maxConcurrent - s.availablePermits())
+                    .tag("workload", name)
+                    .description("Calls running within the bulkhead")
+                    .register(meterRegistry);
+            Gauge.builder("calendar.events.bulkhead.saturation", semaphore,
+                            s -> (double) (maxConcurrent - s.availablePermits()) / maxConcurrent)
+                    .tag("workload", name)
+                    .description("Share of the bulkhead's slots in use")
+                    .register(meterRegistry);
+            Gauge.builder("calendar.events.bulkhead.queued", semaphore, Semaphore::getQueueLength)
+                    .tag("workload", name)
+                    .description("Calls waiting for a slot")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("calendar.events.bulkhead.rejected")
+                    .tag("workload", name)
+                    .description("Calls rejected because no slot became free within the queue timeout")
+                    .register(meterRegistry);
+            this.wait = Timer.builder("calendar.events.bulkhead.wait")
+                    .tag("workload", name)
+                    .description("Time calls waited for a slot")
+                    .register(meterRegistry);
+        }
+
+        void acquire() {
+            long started = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new BulkheadFullException(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package pl.where2play.api.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.lang.reflect.Type;
+
+/**
+ * Tags calendar events created by E2E suites with their test run, taken from the {@value #TEST_RUN_HEADER} header,
+ * so that {@code POST /api/e2e-support/calendar/delete} can remove them afterwards. The event's {@code testRunId}
+ * cannot be set through the JSON body, and outside the E2E environments this advice does not exist.
+ */
+@E2ETestSupport
+@ControllerAdvice
+public class E2ETestRunTagging extends RequestBodyAdviceAdapter {
+
+    public static final String TEST_RUN_HEADER = "X-Test-Run-Id";
+
+    private static final int MAX_TEST_RUN_ID_LENGTH = 64;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return CalendarEvent.class.equals(targetType);
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        String testRunId = inputMessage.getHeaders().getFirst(TEST_RUN_HEADER);
+        if (testRunId != null && !testRunId.isBlank()) {
+            if (testRunId.length() > MAX_TEST_RUN_ID_LENGTH) {
+                throw new InvalidRequestException("Invalid test run ID", TEST_RUN_HEADER,
+                        "Must be at most " + MAX_TEST_RUN_ID_LENGTH + " characters");
+            }
+            ((CalendarEvent) body).setTestRunId(testRunId);
+        }
+        return body;
+    }
+}
@@ -30,7 +30,8 @@ public class E2ETestSupportAspect {
         StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
         boolean calledFromE2EController = false;
 
-        for (int i = 1; i < stackTrace.length && i < 10; i++) {
+        // Not just the nearest frames: proxies of other aspects (e.g. bulkheads) sit between the controller and here
+        for (int i = 1; i < stackTrace.length; i++) {
             String className = stackTrace[i].getClassName();
             // Check if caller is an E2E controller (this is simplified)
             if (className.contains("E2ETestSupportController")) {
@@ -0,0 +1,126 @@
+package pl.where2play.api.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skips Liquibase at startup when the changelog set has not changed since it was last applied.
+ * <p>
+ * The checksum covers every changelog file next to and below the master changelog, plus the contexts and labels
+ * Liquibase runs with. It is stored in {@code changelog_checksums} after Liquibase has run successfully; while it
+ * matches, startup neither parses the changelogs nor takes the Liquibase lock. Meant for deployments that apply
+ * migrations before the new version starts (the first instance to start with a new changelog set still runs
+ * Liquibase, which then finds nothing to do).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "migrations.fast-path.enabled", havingValue = "true")
+public class LiquibaseFastPath implements BeanPostProcessor {
+
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+    // Checksums of Liquibase beans that are running, stored once they have finished
+    private final Map<String, String> pendingChecksums = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase) {
+            String checksum = checksum(liquibase);
+            if (checksum.equals(storedChecksum(liquibase))) {
+                log.info("Changelog set {} unchanged (checksum {}), skipping Liquibase", liquibase.getChangeLog(), checksum);
+                liquibase.setShouldRun(false);
+            } else {
+                pendingChecksums.put(beanName, checksum);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        String checksum = pendingChecksums.remove(beanName);
+        if (checksum != null && bean instanceof SpringLiquibase liquibase) {
+            storeChecksum(liquibase, checksum);
+        }
+        return bean;
+    }
+
+    String checksum(SpringLiquibase liquibase) {
+        String changeLog = liquibase.getChangeLog();
+        String location = changeLog.substring(changeLog.indexOf(':') + 1);
+        String directory = location.substring(0, location.lastIndexOf('/') + 1);
+        try {
+            // Sorted by path relative to the changelog directory, which is the same in every environment
+            Map<String, Resource> files = new TreeMap<>();
+            for (Resource resource : resourceResolver.getResources("classpath*:" + directory + "**/*.xml")) {
+                String url = resource.getURL().toString();
+                files.put(url.substring(url.lastIndexOf(directory) + directory.length()), resource);
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((changeLog + "\n" + liquibase.getContexts() + "\n" + liquibase.getLabelFilter() + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, Resource> file : files.entrySet()) {
+                digest.update((file.getKey() + "\n").getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = file.getValue().getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read changelogs in " + directory, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String storedChecksum(SpringLiquibase liquibase) {
+        try {
+            return new JdbcTemplate(liquibase.getDataSource())
+                    .query("SELECT checksum FROM changelog_checksums WHERE name = ?",
+                            rs -> rs.next() ? rs.getString(1) : null, liquibase.getChangeLog());
+        } catch (DataAccessException e) {
+            // No table yet: a new database, or one from before the fast path
+            log.debug("No stored changelog checksum: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeChecksum(SpringLiquibase liquibase, String checksum) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(liquibase.getDataSource());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update("UPDATE changelog_checksums SET checksum = ?, applied_at = ? WHERE name = ?",
+                checksum, now, liquibase.getChangeLog());
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO changelog_checksums (name, checksum, applied_at) VALUES (?, ?, ?)",
+                        liquibase.getChangeLog(), checksum, now);
+            } catch (DuplicateKeyException e) {
+                // Another instance started with the same changelog set at the same time
+                return;
+            }
+        }
+        log.info("Stored checksum {} of changelog set {}", checksum, liquibase.getChangeLog());
+    }
+}
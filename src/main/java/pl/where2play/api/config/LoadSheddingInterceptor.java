@@ -0,0 +1,145 @@
+package pl.where2play.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.where2play.api.config.AdaptiveConcurrencyLimiter.Priority;
+import pl.where2play.api.exception.GlobalExceptionHandler.ErrorResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds calendar event requests beyond an adaptive concurrency limit ({@link AdaptiveConcurrencyLimiter}) with an
+ * immediate 503, instead of letting them queue for threads and database connections until they time out.
+ * <p>
+ * Requests are grouped by kind: {@code write} and {@code detail} (single event by ID) are critical, {@code list}
+ * and {@code import} are bulk and shed first. The change feed stream is long-lived and not limited.
+ * <p>
+ * An asynchronous request keeps its permit from the initial dispatch until the dispatch that completes it; that
+ * dispatch passes through without taking a second one.
+ */
+@Slf4j
+@Component
+public class LoadSheddingInterceptor implements HandlerInterceptor {
+
+    static final List<String> GROUPS = List.of("write", "detail", "list", "import");
+
+    private static final String START_ATTRIBUTE = LoadSheddingInterceptor.class.getName() + ".start";
+    private static final String GROUP_ATTRIBUTE = LoadSheddingInterceptor.class.getName() + ".group";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+
+    @Value("${calendar-events.load-shedding.enabled:true}")
+    private boolean enabled = true;
+
+    public LoadSheddingInterceptor(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                   @Value("${calendar-events.load-shedding.initial-limit:20}") int initialLimit,
+                                   @Value("${calendar-events.load-shedding.min-limit:4}") int minLimit,
+                                   @Value("${calendar-events.load-shedding.max-limit:200}") int maxLimit,
+                                   @Value("${calendar-events.load-shedding.bulk-share:0.75}") double bulkShare,
+                                   @Value("${calendar-events.load-shedding.rtt-tolerance:2.0}") double rttTolerance,
+                                   @Value("${calendar-events.load-shedding.smoothing:0.2}") double smoothing,
+                                   @Value("${calendar-events.load-shedding.long-window:600}") int longWindow) {
+        this.objectMapper = objectMapper;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, bulkShare, rttTolerance,
+                smoothing, longWindow);
+        Gauge.builder("api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive concurrency limit of the calendar event API")
+                .register(meterRegistry);
+        Gauge.builder("api.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Calendar event API requests in flight")
+                .register(meterRegistry);
+        for (String group : GROUPS) {
+            Gauge.builder("api.concurrency.rtt", limiter, l -> l.getBaselineRttMillis(group))
+                    .tag("group", group)
+                    .description("Long-term round-trip time the limit is adapted against")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            shedCounters.put(group, Counter.builder("api.concurrency.shed")
+                    .tag("group", group)
+                    .description("Requests rejected with 503 because the concurrency limit was reached")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)
+                || SseEmitter.class.isAssignableFrom(handlerMethod.getMethod().getReturnType())) {
+            return true;
+        }
+        String group = group(request);
+        Priority priority = "write".equals(group) || "detail".equals(group) ? Priority.CRITICAL : Priority.BULK;
+        if (!limiter.tryAcquire(priority)) {
+            shedCounters.get(group).increment();
+            log.debug("Shedding {} request {} at concurrency limit {}", group, request.getRequestURI(), limiter.getLimit());
+            reject(request, response);
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        request.setAttribute(GROUP_ATTRIBUTE, group);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String group = (String) request.getAttribute(GROUP_ATTRIBUTE);
+        if (group == null) {
+            return;
+        }
+        request.removeAttribute(GROUP_ATTRIBUTE);
+        long rtt = System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE);
+        boolean overloaded = ex != null || response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value();
+        limiter.release(group, rtt, overloaded);
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    private static String group(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null && pattern.endsWith("/import")) {
+            return "import";
+        }
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return "write";
+        }
+        return pattern != null && pattern.endsWith("/{id}") ? "detail" : "list";
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "OVERLOADED",
+                "Too many concurrent requests, retry shortly",
+                LocalDateTime.now(),
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
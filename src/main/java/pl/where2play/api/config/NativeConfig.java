@@ -0,0 +1,69 @@
+package pl.where2play.api.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import pl.where2play.api.exception.GlobalExceptionHandler;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.model.CalendarEventTombstone;
+import pl.where2play.api.model.EventClusters;
+import pl.where2play.api.model.FreeBusy;
+import pl.where2play.api.model.ImportReport;
+import pl.where2play.api.model.NearbyCalendarEvent;
+import pl.where2play.api.model.SyntheticDataJob;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.model.TestRunCleanup;
+
+/**
+ * Runtime hints for the native image (mvn -Pnative native:compile). Spring AOT covers beans, repositories and
+ * controller signatures; these cover what is only reached reflectively at runtime.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeConfig.Hints.class)
+public class NativeConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        // JSON bodies: Jackson binds them through the Lombok-generated getters and setters
+        private static final Class<?>[] JSON_TYPES = {
+                CalendarEvent.class, CalendarEventDailyStat.class, CalendarEventSyncPage.class,
+                CalendarEventTombstone.class, EventClusters.class, FreeBusy.class, ImportReport.class,
+                NearbyCalendarEvent.class, RateLimitConfig.Limit.class, SyntheticDataJob.class, SyntheticDataSpec.class,
+                TestRunCleanup.class,
+                // Also written by RateLimitFilter, outside of any controller signature
+                GlobalExceptionHandler.ErrorResponse.class
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+            // Liquibase reads the master changelog and includes its changesets by path
+            hints.resources().registerPattern("db/changelog/*.xml");
+            hints.resources().registerPattern("db/changelog/changes/*.xml");
+
+            // The aspect's advice is looked up by annotation when the proxy is built
+            hints.reflection().registerType(E2ETestSupportAspect.class, MemberCategory.INVOKE_DECLARED_METHODS);
+            hints.reflection().registerType(E2ETestOnly.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(E2ETestSupport.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // Caffeine instantiates its size-bounded cache and node classes reflectively
+            hints.reflection().registerTypeIfPresent(classLoader, "com.github.benmanes.caffeine.cache.SSMS",
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerTypeIfPresent(classLoader, "com.github.benmanes.caffeine.cache.PSMS",
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // OpenAPI document generated at build time (ApiDocsController)
+            hints.resources().registerPattern("openapi/api-docs.json");
+
+            // Swagger UI is served from the webjar, whose version springdoc reads from the Maven metadata
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/*/*");
+            hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+        }
+    }
+}
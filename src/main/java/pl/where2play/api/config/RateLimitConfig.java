@@ -0,0 +1,163 @@
+package pl.where2play.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Configuration class for managing per-client rate limits.
+ * Limits are read from application.yml ({@code rate-limiting.*}); the setters change them on the fly, e.g. in tests,
+ * and {@link pl.where2play.api.controller.RateLimitController} shows the current ones.
+ */
+@Slf4j
+@Component
+public class RateLimitConfig {
+
+    // Route key of the bucket shared by all /api requests without a route-specific limit
+    public static final String DEFAULT_ROUTE = "*";
+
+    private final Environment environment;
+
+    @Getter
+    private volatile boolean enabled;
+
+    @Getter
+    private volatile Limit defaultLimit;
+
+    // Key: route pattern, optionally for one method (e.g. "GET /api/events", "/api/events/*")
+    private final Map<String, Limit> routeLimits = new ConcurrentHashMap<>();
+
+    // Prefix patterns, longest first, so that the most specific one wins; rebuilt on every change
+    private volatile List<Limit> prefixLimits = List.of();
+
+    @Value("${rate-limiting.enabled:false}")
+    private boolean configuredEnabled;
+
+    @Value("${rate-limiting.default.requests-per-second:50}")
+    private double defaultRequestsPerSecond = 50;
+
+    @Value("${rate-limiting.default.burst:100}")
+    private int defaultBurst = 100;
+
+    public RateLimitConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        resetRateLimitSettings();
+        log.info("Rate limiting {}; default {}, routes {}", enabled ? "enabled" : "disabled", defaultLimit, routeLimits);
+    }
+
+    /**
+     * Finds the limit for a request: an exact route, then the longest matching {@code /*} route, then the default.
+     * Routes of the request's method take precedence over routes of any method.
+     *
+     * @param method the HTTP method
+     * @param uri    the request URI
+     * @return the limit, or null if requests to this URI are not limited
+     */
+    public Limit limitFor(String method, String uri) {
+        Limit limit = routeLimits.get(method + ' ' + uri);
+        if (limit == null) {
+            limit = routeLimits.get(uri);
+        }
+        if (limit != null) {
+            return limit.unlimited() ? null : limit;
+        }
+        for (Limit prefixLimit : prefixLimits) {
+            if (uri.startsWith(prefixLimit.prefix()) && (prefixLimit.method() == null || prefixLimit.method().equals(method))) {
+                return prefixLimit.unlimited() ? null : prefixLimit;
+            }
+        }
+        return defaultLimit.unlimited() ? null : defaultLimit;
+    }
+
+    /**
+     * Sets the limit of a route.
+     *
+     * @param route             the route pattern, optionally preceded by a method (e.g. "GET /api/events", "/api/events/*")
+     * @param requestsPerSecond sustained rate per client; 0 leaves the route unlimited
+     * @param burst             requests a client may send at once
+     */
+    public void setRouteLimit(String route, double requestsPerSecond, int burst) {
+        routeLimits.put(route, Limit.of(route, requestsPerSecond, burst));
+        rebuildPrefixLimits();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Resets all rate limit settings to the values from application.yml.
+     */
+    public void resetRateLimitSettings() {
+        enabled = configuredEnabled;
+        defaultLimit = Limit.of(DEFAULT_ROUTE, defaultRequestsPerSecond, defaultBurst);
+        routeLimits.clear();
+        Map<String, RouteProperties> configured = Binder.get(environment)
+                .bind("rate-limiting.routes", Bindable.mapOf(String.class, RouteProperties.class))
+                .orElse(Map.of());
+        configured.forEach((route, properties) ->
+                routeLimits.put(route, Limit.of(route, properties.getRequestsPerSecond(), properties.getBurst())));
+        rebuildPrefixLimits();
+    }
+
+    /**
+     * Gets the current route-specific limits.
+     *
+     * @return a map of route patterns to their limits
+     */
+    public Map<String, Limit> getRouteLimits() {
+        return new TreeMap<>(routeLimits);
+    }
+
+    private void rebuildPrefixLimits() {
+        prefixLimits = routeLimits.values().stream()
+                .filter(limit -> limit.prefix() != null)
+                .sorted(Comparator.comparingInt((Limit limit) -> limit.prefix().length()).reversed()
+                        .thenComparing(limit -> limit.method() == null))
+                .toList();
+    }
+
+    /**
+     * A limit of one route, with the GCRA emission interval precomputed for {@link RateLimiter}.
+     */
+    public record Limit(String route, double requestsPerSecond, int burst, long intervalNanos, String method, String prefix) {
+
+        static Limit of(String route, double requestsPerSecond, int burst) {
+            if (requestsPerSecond < 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate limit of " + route + " needs requestsPerSecond >= 0 and burst >= 1");
+            }
+            long intervalNanos = requestsPerSecond == 0 ? 0 : Math.max(1, Math.round(1_000_000_000 / requestsPerSecond));
+            int space = route.indexOf(' ');
+            String method = space > 0 ? route.substring(0, space) : null;
+            String path = route.substring(space + 1);
+            String prefix = path.endsWith("/*") ? path.substring(0, path.length() - 1) : null;
+            return new Limit(route, requestsPerSecond, burst, intervalNanos, method, prefix);
+        }
+
+        public boolean unlimited() {
+            return intervalNanos == 0;
+        }
+    }
+
+    @Data
+    public static class RouteProperties {
+        private double requestsPerSecond;
+        private int burst = 1;
+    }
+}
@@ -0,0 +1,146 @@
+package pl.where2play.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pl.where2play.api.exception.GlobalExceptionHandler.ErrorResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filter applying per-client rate limits ({@link RateLimitConfig}) to all API calls.
+ * <p>
+ * A client is identified by its API key header if the key is one of {@code rate-limiting.api-keys}, otherwise by its
+ * IP address, so that sending made-up keys neither escapes the limit nor floods the bucket map. Each client has one
+ * token bucket per limited route, where routes may be specific to a method. Requests over the limit get 429 with a
+ * {@code Retry-After} header. Limits also apply while the instance refuses traffic (warm-up, shutdown); only the
+ * requests of {@link WarmUpRunner} itself are let through.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimitConfig rateLimitConfig;
+    private final ApplicationAvailability applicationAvailability;
+    private final WarmUpRunner warmUpRunner;
+    private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+
+    @Value("${rate-limiting.api-key-header:X-API-Key}")
+    private String apiKeyHeader = "X-API-Key";
+
+    // Keys of registered clients, which get buckets of their own; other keys are ignored
+    @Value("${rate-limiting.api-keys:}")
+    private Set<String> apiKeys = Set.of();
+
+    // Header with the client address set by a reverse proxy (e.g. X-Forwarded-For); empty uses the remote address
+    @Value("${rate-limiting.client-ip-header:}")
+    private String clientIpHeader = "";
+
+    public RateLimitFilter(RateLimitConfig rateLimitConfig, ApplicationAvailability applicationAvailability,
+                           WarmUpRunner warmUpRunner, ObjectMapper objectMapper,
+                           @Value("${rate-limiting.max-clients:100000}") int maxClients) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.applicationAvailability = applicationAvailability;
+        this.warmUpRunner = warmUpRunner;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = new RateLimiter(maxClients);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String uri = request.getRequestURI();
+        if (!rateLimitConfig.isEnabled() || !uri.startsWith("/api")
+                || (applicationAvailability.getReadinessState() == ReadinessState.REFUSING_TRAFFIC
+                && warmUpRunner.isWarmUpRequest(request))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimitConfig.Limit limit = rateLimitConfig.limitFor(request.getMethod(), uri);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long wait = rateLimiter.tryAcquire(limit.route() + ' ' + clientKey(request), limit.intervalNanos(),
+                limit.burst(), System.nanoTime());
+        if (wait == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        reject(request, response, limit, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Clears all buckets, so every client starts with a full one.
+     */
+    public void resetBuckets() {
+        rateLimiter.clear();
+    }
+
+    public int getBucketCount() {
+        return rateLimiter.size();
+    }
+
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        String address = clientIpHeader.isEmpty() ? null : request.getHeader(clientIpHeader);
+        if (address == null || address.isEmpty()) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        // The last entry is the one added by the proxy in front of us; earlier ones come from the client
+        address = address.substring(address.lastIndexOf(',') + 1).trim();
+        return "ip:" + stripPort(address);
+    }
+
+    /**
+     * Removes the port some proxies append to the client address ("1.2.3.4:5678", "[2001:db8::1]:5678").
+     */
+    private static String stripPort(String address) {
+        if (address.startsWith("[")) {
+            int end = address.indexOf(']');
+            return end > 0 ? address.substring(1, end) : address;
+        }
+        int colon = address.indexOf(':');
+        return colon > 0 && colon == address.lastIndexOf(':') ? address.substring(0, colon) : address;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RateLimitConfig.Limit limit,
+                        long retryAfterSeconds) throws IOException {
+        log.debug("Rate limit of {} exceeded by {}", limit.route(), clientKey(request));
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "RATE_LIMITED",
+                "Rate limit of " + limit.requestsPerSecond() + " requests per second exceeded, retry in "
+                        + retryAfterSeconds + " s",
+                LocalDateTime.now(),
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,90 @@
+package pl.where2play.api.config;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key, kept in a bounded map.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time (GCRA): the time at which the
+ * bucket would be full again. A request is allowed when adding one emission interval keeps that time within
+ * {@code burst} intervals from now, and the new time is set with one compare-and-set. A bucket whose time has
+ * passed is full and therefore equivalent to a missing one, so idle buckets are dropped when the map is full.
+ */
+public class RateLimiter {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int maxBuckets;
+
+    public RateLimiter(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Takes a token from the key's bucket.
+     *
+     * @param key the client and route the bucket belongs to
+     * @param intervalNanos time in which one token is added (one second divided by the rate)
+     * @param burst bucket size
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, long intervalNanos, int burst, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(key, nowNanos);
+        }
+        long window = intervalNanos * burst;
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - window;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    private AtomicLong newBucket(String key, long nowNanos) {
+        if (buckets.size() >= maxBuckets) {
+            evict(nowNanos);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(EMPTY));
+    }
+
+    /**
+     * Drops full buckets; if that is not enough (many clients active at once), drops arbitrary ones down to 90% of
+     * the capacity, which resets those clients' buckets.
+     */
+    private void evict(long nowNanos) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() <= nowNanos);
+            int excess = buckets.size() - maxBuckets * 9 / 10;
+            for (Iterator<AtomicLong> it = buckets.values().iterator(); excess > 0 && it.hasNext(); excess--) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
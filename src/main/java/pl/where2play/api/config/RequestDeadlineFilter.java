@@ -0,0 +1,61 @@
+package pl.where2play.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the deadline a client sets with the {@code X-Request-Timeout} header (milliseconds it waits for the
+ * response), so that work done for the request can stop once the client has given up on it. The servlet stack does
+ * not notice a client going away while a request is processed; the client stating how long it waits is what lets
+ * queries be cut at that point (see {@code QueryTimeouts}).
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    static final String DEADLINE_ATTRIBUTE = RequestDeadlineFilter.class.getName() + ".deadline";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String timeout = request.getHeader(HEADER);
+        if (timeout != null) {
+            try {
+                long timeoutMillis = Long.parseLong(timeout.trim());
+                if (timeoutMillis > 0) {
+                    request.setAttribute(DEADLINE_ATTRIBUTE, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", HEADER, timeout);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Nanoseconds left until the deadline of the current request, null outside a request or if the client set none.
+     */
+    public static Long remainingNanos() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Long deadline = (Long) attributes.getAttribute(DEADLINE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return deadline == null ? null : deadline - System.nanoTime();
+    }
+}
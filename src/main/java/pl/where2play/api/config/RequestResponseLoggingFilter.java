@@ -2,11 +2,14 @@ package pl.where2play.api.config;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.method.HandlerMethod;
@@ -16,6 +19,7 @@ import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.List;
@@ -70,9 +74,20 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         // Add request ID to response header
         response.setHeader("X-Request-ID", requestId);
 
+        // Streaming responses (SSE) must not be buffered, so they bypass body logging
+        if (acceptsOnlyEventStream(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                MDC.remove(REQUEST_ID_ATTRIBUTE);
+                MDC.remove(REQUEST_API_INFO_ATTRIBUTE);
+            }
+            return;
+        }
+
         // Wrap request and response to cache their content
         ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        EventStreamAwareResponseWrapper wrappedResponse = new EventStreamAwareResponseWrapper(response);
 
         // Proceed with the filter chain
         try {
@@ -85,11 +100,15 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
             if (loggingEnabled) {
                 // Log request and response after the request has been processed
                 logRequest(wrappedRequest);
-                logResponse(wrappedResponse);
+                if (!wrappedResponse.isEventStream()) {
+                    logResponse(wrappedResponse);
+                }
             }
 
-            // Copy content to the original response
-            wrappedResponse.copyBodyToResponse();
+            // Copy content to the original response (an event stream has been written to it directly)
+            if (!wrappedResponse.isEventStream()) {
+                wrappedResponse.copyBodyToResponse();
+            }
 
             // Clear MDC
             MDC.remove(REQUEST_ID_ATTRIBUTE);
@@ -150,6 +169,16 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         }
     }
 
+    private boolean acceptsOnlyEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.trim().toLowerCase().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)
+                && !accept.contains(",");
+    }
+
+    private static boolean isEventStream(String contentType) {
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
     private boolean shouldLog(String contentType) {
         if (contentType == null) {
             return false;
@@ -158,4 +187,63 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         return VISIBLE_TYPES.stream()
                 .anyMatch(visibleType -> contentType.toLowerCase().contains(visibleType));
     }
+
+    /**
+     * Caches the response body for logging, unless the handler turns out to produce an event stream (detected from
+     * the response content type). From then on writes go straight to the client, since a cached stream would never
+     * be flushed.
+     */
+    private static final class EventStreamAwareResponseWrapper extends ContentCachingResponseWrapper {
+
+        private boolean eventStream;
+
+        private EventStreamAwareResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        boolean isEventStream() {
+            return eventStream;
+        }
+
+        @Override
+        public void setContentType(String type) {
+            super.setContentType(type);
+            eventStream |= RequestResponseLoggingFilter.isEventStream(type);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            super.setHeader(name, value);
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                eventStream |= RequestResponseLoggingFilter.isEventStream(value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            super.addHeader(name, value);
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                eventStream |= RequestResponseLoggingFilter.isEventStream(value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return eventStream ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return eventStream ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (eventStream) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package pl.where2play.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database-backed lock ensuring that a scheduled job runs on only one application instance at a time.
+ * <p>
+ * A lock is a row in {@code scheduler_locks}; it is taken by moving {@code locked_until} into the future
+ * and expires on its own if the holder dies, so {@code lockAtMostFor} must exceed the job's worst-case duration.
+ * Statements run outside of any application transaction so that the lock is visible to other instances immediately.
+ */
+@Slf4j
+@Component
+public class SchedulerLock {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+
+    public SchedulerLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Runs the task if the named lock can be acquired.
+     *
+     * @param name the lock name, usually the job name
+     * @param lockAtMostFor how long the lock is held if this instance dies while running the task
+     * @param task the job to run
+     * @return true if the task ran, false if another instance holds the lock
+     */
+    public boolean runExclusively(String name, Duration lockAtMostFor, Runnable task) {
+        if (!tryLock(name, lockAtMostFor)) {
+            log.debug("Skipping {}: lock held by another instance", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            unlock(name);
+        }
+    }
+
+    boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp lockedUntil = Timestamp.valueOf(now.plus(lockAtMostFor));
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_locks SET locked_until = ?, locked_at = ?, locked_by = ? WHERE name = ? AND locked_until <= ?",
+                lockedUntil, Timestamp.valueOf(now), instanceId, name, Timestamp.valueOf(now));
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                    name, lockedUntil, Timestamp.valueOf(now), instanceId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Row exists and the lock is held by someone else
+            return false;
+        }
+    }
+
+    void unlock(String name) {
+        jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND locked_by = ?",
+                Timestamp.valueOf(LocalDateTime.now()), name, instanceId);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
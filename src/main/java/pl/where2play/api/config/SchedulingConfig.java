@@ -0,0 +1,12 @@
+package pl.where2play.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (change feed heartbeats, maintenance jobs).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
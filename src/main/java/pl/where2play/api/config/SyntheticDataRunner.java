@@ -0,0 +1,60 @@
+package pl.where2play.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.service.SyntheticEventGenerator;
+
+/**
+ * Generates a synthetic dataset at startup, for running benchmarks and query-plan tests against production-scale
+ * data, e.g. {@code java -jar w2p-api.jar --calendar-events.synthetic-data.generate=true
+ * --calendar-events.synthetic-data.count=5000000}. The other {@code calendar-events.synthetic-data.*} properties
+ * are the fields of {@link SyntheticDataSpec}. The application exits when the data has been inserted, unless
+ * {@code calendar-events.synthetic-data.exit=false}. Refuses to run with the prod profile.
+ */
+@Slf4j
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "calendar-events.synthetic-data.generate", havingValue = "true")
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    static final String PREFIX = "calendar-events.synthetic-data";
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final SyntheticEventGenerator generator;
+
+    public SyntheticDataRunner(ApplicationContext applicationContext, Environment environment,
+                               SyntheticEventGenerator generator) {
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+        this.generator = generator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (environment.acceptsProfiles(Profiles.of("prod"))) {
+            log.warn("Synthetic data is never generated with the prod profile");
+            return;
+        }
+        generator.generate(spec());
+        if (environment.getProperty(PREFIX + ".exit", Boolean.class, true)) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    SyntheticDataSpec spec() {
+        return Binder.get(environment).bind(PREFIX, Bindable.ofInstance(new SyntheticDataSpec()))
+                .orElseGet(SyntheticDataSpec::new);
+    }
+}
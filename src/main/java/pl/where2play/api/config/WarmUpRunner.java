@@ -0,0 +1,218 @@
+package pl.where2play.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the application up before it reports itself ready to take traffic.
+ * <p>
+ * Readiness is switched to {@code REFUSING_TRAFFIC} while the connection pool is filled and a synthetic mix of
+ * read-only API calls is sent to the application's own port: one measured round cold, {@code rounds} rounds spread
+ * over {@code concurrency} threads, and one measured round warm. The calls go through the whole stack (filters,
+ * Jackson, Hibernate query plans, JDBC statements), so the first real requests do not pay for it. Readiness goes
+ * back to {@code ACCEPTING_TRAFFIC} afterwards, also when the warm-up fails or runs out of time.
+ * <p>
+ * In the mix, {@code {from}} and {@code {to}} stand for now and a week from now. The requests carry a token that is
+ * new on every start, by which {@link RateLimitFilter} tells them from client requests.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmUpRunner implements ApplicationRunner {
+
+    static final String TOKEN_HEADER = "X-Warm-Up-Token";
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final String token = UUID.randomUUID().toString();
+    private volatile WarmUpResult lastResult;
+
+    @Value("${calendar-events.warm-up.enabled:false}")
+    private boolean enabled;
+
+    @Value("${calendar-events.warm-up.requests:/api/events/between?start={from}&end={to}}")
+    private String[] requests = {"/api/events/between?start={from}&end={to}"};
+
+    @Value("${calendar-events.warm-up.rounds:50}")
+    private int rounds = 50;
+
+    @Value("${calendar-events.warm-up.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${calendar-events.warm-up.max-duration:PT2M}")
+    private Duration maxDuration = Duration.ofMinutes(2);
+
+    public WarmUpRunner(ApplicationContext applicationContext, Environment environment, DataSource dataSource,
+                        MeterRegistry meterRegistry) {
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+        this.dataSource = dataSource;
+        TimeGauge.builder("application.warmup.duration", this, TimeUnit.MILLISECONDS,
+                        runner -> runner.lastResult == null ? 0 : runner.lastResult.durationMs())
+                .description("Duration of the warm-up before readiness")
+                .register(meterRegistry);
+        Gauge.builder("application.warmup.latency.p99", this, runner -> runner.lastResult == null ? 0 : runner.lastResult.coldP99Ms())
+                .tag("phase", "cold")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("application.warmup.latency.p99", this, runner -> runner.lastResult == null ? 0 : runner.lastResult.warmP99Ms())
+                .tag("phase", "warm")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (!enabled || port == null) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        try {
+            lastResult = warmUp(port);
+            log.info("Warm-up finished in {} ms: {} requests ({} failed), {} connections; p99 cold {} ms, warm {} ms",
+                    lastResult.durationMs(), lastResult.requests(), lastResult.failed(), lastResult.connections(),
+                    lastResult.coldP99Ms(), lastResult.warmP99Ms());
+        } catch (Exception e) {
+            log.warn("Warm-up failed, accepting traffic cold", e);
+        } finally {
+            AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    /**
+     * Whether the request was sent by this warm-up.
+     */
+    public boolean isWarmUpRequest(HttpServletRequest request) {
+        return token.equals(request.getHeader(TOKEN_HEADER));
+    }
+
+    WarmUpResult warmUp(int port) throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        int connections = fillConnectionPool();
+        List<URI> mix = mix(port);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long[] cold = round(mix, sent, failed);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            AtomicInteger remaining = new AtomicInteger(rounds);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0 && System.nanoTime() < deadline) {
+                        round(mix, sent, failed);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long[] warm = round(mix, sent, failed);
+
+        return new WarmUpResult(Duration.ofNanos(System.nanoTime() - started).toMillis(), sent.get(), failed.get(),
+                connections, p99(cold), p99(warm));
+    }
+
+    /**
+     * Opens connections until the pool holds its minimum number of idle ones, then returns them all.
+     */
+    private int fillConnectionPool() throws SQLException {
+        int target = dataSource instanceof HikariDataSource hikari ? hikari.getMinimumIdle() : 1;
+        List<Connection> connections = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(2);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    private List<URI> mix(int port) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        return Arrays.stream(requests)
+                .map(String::trim)
+                .filter(request -> !request.isEmpty())
+                .map(request -> request.replace("{from}", now.toString()).replace("{to}", now.plusDays(7).toString()))
+                .map(request -> URI.create("http://localhost:" + port + request))
+                .toList();
+    }
+
+    /**
+     * Sends every request of the mix once and returns their latencies in microseconds.
+     */
+    private long[] round(List<URI> mix, AtomicInteger sent, AtomicInteger failed) throws IOException, InterruptedException {
+        long[] latencies = new long[mix.size()];
+        for (int i = 0; i < mix.size(); i++) {
+            long started = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(mix.get(i)).header(TOKEN_HEADER, token).GET().build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies[i] = (System.nanoTime() - started) / 1000;
+            sent.incrementAndGet();
+            if (response.statusCode() >= 400) {
+                failed.incrementAndGet();
+                log.debug("Warm-up request {} returned {}", mix.get(i), response.statusCode());
+            }
+        }
+        return latencies;
+    }
+
+    private static long p99(long[] latenciesMicros) {
+        long[] sorted = latenciesMicros.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(sorted.length * 0.99) - 1;
+        return sorted.length == 0 ? 0 : sorted[Math.max(index, 0)] / 1000;
+    }
+
+    record WarmUpResult(long durationMs, int requests, int failed, int connections, long coldP99Ms, long warmP99Ms) {
+    }
+}
@@ -0,0 +1,30 @@
+package pl.where2play.api.controller;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the OpenAPI document generated at build time, so that no instance has to scan the controllers for it.
+ * The document is regenerated and checked by {@code OpenApiDocumentTest}.
+ */
+@Hidden
+@RestController
+public class ApiDocsController {
+
+    static final String DOCUMENT_LOCATION = "openapi/api-docs.json";
+
+    private final Resource document = new ClassPathResource(DOCUMENT_LOCATION);
+
+    @GetMapping(value = "/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Resource> getApiDocs() {
+        if (!document.exists()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(document);
+    }
+}
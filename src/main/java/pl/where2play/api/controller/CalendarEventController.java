@@ -2,18 +2,39 @@ package pl.where2play.api.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import pl.where2play.api.config.E2ETestOnly;
 import pl.where2play.api.config.E2ETestSupport;
+import pl.where2play.api.exception.InvalidRequestException;
 import pl.where2play.api.exception.ResourceNotFoundException;
 import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.model.EventClusters;
+import pl.where2play.api.model.ImportReport;
+import pl.where2play.api.model.NearbyCalendarEvent;
+import pl.where2play.api.service.CalendarEventArchiveService;
+import pl.where2play.api.service.CalendarEventChangeFeed;
+import pl.where2play.api.service.CalendarEventImportService;
 import pl.where2play.api.service.CalendarEventService;
+import pl.where2play.api.service.EventClusterService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/events")
@@ -21,9 +42,24 @@ import java.util.List;
 public class CalendarEventController {
 
     private final CalendarEventService calendarEventService;
+    private final CalendarEventChangeFeed calendarEventChangeFeed;
+    private final EventClusterService eventClusterService;
+    private final CalendarEventArchiveService calendarEventArchiveService;
+    private final CalendarEventImportService calendarEventImportService;
 
+    @Value("${calendar-events.clusters.cache-max-age:PT30S}")
+    private Duration clusterCacheMaxAge = Duration.ofSeconds(30);
+
+    /**
+     * All events in the hot table. The archive only grows, so it is not listed in full: archived events are
+     * included through {@code /between}, which bounds them by a time window.
+     */
     @GetMapping
-    public ResponseEntity<List<CalendarEvent>> getAllEvents() {
+    public ResponseEntity<List<CalendarEvent>> getAllEvents(@RequestParam(defaultValue = "false") boolean includeArchived) {
+        if (includeArchived) {
+            throw new InvalidRequestException("Archived events need a time window", "includeArchived",
+                    "Use /api/events/between with start and end to include archived events");
+        }
         return ResponseEntity.ok(calendarEventService.getAllEvents());
     }
 
@@ -34,12 +70,33 @@ public class CalendarEventController {
                 .orElseThrow(() -> new ResourceNotFoundException("CalendarEvent", id));
     }
 
+    /**
+     * Creates an event. With {@code checkConflicts=true} the request is rejected with 409 Conflict
+     * if the event overlaps existing events at the same location.
+     */
     @PostMapping
-    public ResponseEntity<CalendarEvent> createEvent(@Valid @RequestBody CalendarEvent event) {
-        CalendarEvent createdEvent = calendarEventService.createEvent(event);
+    public ResponseEntity<CalendarEvent> createEvent(@Valid @RequestBody CalendarEvent event,
+                                                     @RequestParam(defaultValue = "false") boolean checkConflicts) {
+        CalendarEvent createdEvent = checkConflicts
+                ? calendarEventService.createEventIfNoConflicts(event)
+                : calendarEventService.createEvent(event);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdEvent);
     }
 
+    /**
+     * Imports events from a CSV or iCalendar upload. The format is taken from {@code format}, or else from the
+     * file name or content type. Returns a report with row-level errors; valid rows are imported either way.
+     */
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importEvents(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(required = false) String format,
+                                                     @RequestParam(required = false) String createdBy) throws IOException {
+        CalendarEventImportService.Format importFormat = importFormat(file, format);
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(calendarEventImportService.importEvents(input, importFormat, createdBy));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CalendarEvent> updateEvent(@PathVariable Long id, @Valid @RequestBody CalendarEvent event) {
         CalendarEvent updatedEvent = calendarEventService.updateEvent(id, event);
@@ -53,30 +110,133 @@ public class CalendarEventController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Streams create/update/delete notifications as Server-Sent Events.
+     * Clients reconnecting with {@code Last-Event-ID} receive the changes they missed
+     * (or a {@code resync} event when the history no longer covers them).
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return calendarEventChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Delta sync: returns events changed and IDs deleted since the given token.
+     * Omit {@code since} for the initial full sync, then keep passing the returned {@code nextToken}.
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<CalendarEventSyncPage> syncEvents(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(calendarEventService.getChangesSince(since, limit));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<CalendarEvent>> searchEventsByTitle(@RequestParam String title) {
-        return ResponseEntity.ok(calendarEventService.searchEventsByTitle(title));
+    public ResponseEntity<List<CalendarEvent>> searchEventsByTitle(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(withArchived(calendarEventService.searchEventsByTitle(title), includeArchived,
+                () -> calendarEventArchiveService.searchArchivedEventsByTitle(title)));
     }
 
     @GetMapping("/between")
     public ResponseEntity<List<CalendarEvent>> getEventsBetweenDates(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return ResponseEntity.ok(calendarEventService.getEventsBetweenDates(start, end));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<CalendarEvent> events = withArchived(calendarEventService.getEventsBetweenDates(start, end), includeArchived,
+                () -> calendarEventArchiveService.getArchivedEventsBetweenDates(start, end));
+        if (includeArchived) {
+            events.sort(Comparator.comparing(CalendarEvent::getStartTime));
+        }
+        return ResponseEntity.ok(events);
+    }
+
+    /**
+     * Events within {@code radiusKm} of the given point, nearest first, with their distance.
+     * The time window defaults to the next 30 days.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyCalendarEvent>> getNearbyEvents(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(calendarEventService.findNearbyEvents(lat, lon, radiusKm, from, to, limit));
+    }
+
+    /**
+     * Pre-aggregated clusters for a map viewport ({@code bbox=minLon,minLat,maxLon,maxLat}).
+     * Responses carry an ETag derived from their content, so unchanged tiles revalidate with 304 on any instance.
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<EventClusters> getEventClusters(
+            @RequestParam String bbox,
+            @RequestParam int zoom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        EventClusters clusters = eventClusterService.getClusters(bbox, zoom, from, to);
+        return ResponseEntity.ok()
+                .eTag(clusters.getEtag())
+                .cacheControl(CacheControl.maxAge(clusterCacheMaxAge).cachePublic())
+                .body(clusters);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<CalendarEvent>> getEventsByStatus(@PathVariable CalendarEvent.EventStatus status) {
-        return ResponseEntity.ok(calendarEventService.getEventsByStatus(status));
+    public ResponseEntity<List<CalendarEvent>> getEventsByStatus(
+            @PathVariable CalendarEvent.EventStatus status,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(withArchived(calendarEventService.getEventsByStatus(status), includeArchived,
+                () -> calendarEventArchiveService.getArchivedEventsByStatus(status)));
     }
 
     @GetMapping("/location")
-    public ResponseEntity<List<CalendarEvent>> getEventsByLocation(@RequestParam String location) {
-        return ResponseEntity.ok(calendarEventService.getEventsByLocation(location));
+    public ResponseEntity<List<CalendarEvent>> getEventsByLocation(
+            @RequestParam String location,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(withArchived(calendarEventService.getEventsByLocation(location), includeArchived,
+                () -> calendarEventArchiveService.getArchivedEventsByLocation(location)));
     }
 
     @GetMapping("/creator")
-    public ResponseEntity<List<CalendarEvent>> getEventsByCreator(@RequestParam String createdBy) {
-        return ResponseEntity.ok(calendarEventService.getEventsByCreator(createdBy));
+    public ResponseEntity<List<CalendarEvent>> getEventsByCreator(
+            @RequestParam String createdBy,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(withArchived(calendarEventService.getEventsByCreator(createdBy), includeArchived,
+                () -> calendarEventArchiveService.getArchivedEventsByCreator(createdBy)));
+    }
+
+    /**
+     * Appends archived events to the result when requested ({@code includeArchived=true} on list endpoints).
+     */
+    private static List<CalendarEvent> withArchived(List<CalendarEvent> events, boolean includeArchived,
+                                                    Supplier<List<CalendarEvent>> archived) {
+        if (!includeArchived) {
+            return events;
+        }
+        List<CalendarEvent> all = new ArrayList<>(events);
+        all.addAll(archived.get());
+        return all;
+    }
+
+    private static CalendarEventImportService.Format importFormat(MultipartFile file, String format) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        String contentType = file.getContentType() == null ? "" : file.getContentType();
+        if (format != null) {
+            try {
+                return CalendarEventImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unsupported import format", "format", "Must be csv or ics");
+            }
+        }
+        if (name.endsWith(".ics") || contentType.startsWith("text/calendar")) {
+            return CalendarEventImportService.Format.ICS;
+        }
+        if (name.endsWith(".csv") || contentType.startsWith("text/csv")) {
+            return CalendarEventImportService.Format.CSV;
+        }
+        throw new InvalidRequestException("Unsupported import format", "format", "Upload a .csv or .ics file or pass format=csv|ics");
     }
 }
@@ -0,0 +1,34 @@
+package pl.where2play.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.service.CalendarEventStatsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/events/stats")
+@RequiredArgsConstructor
+public class CalendarEventStatsController {
+
+    private final CalendarEventStatsService calendarEventStatsService;
+
+    /**
+     * Per-day event counts by status and location (e.g. for month view heatmaps).
+     * Both dates are inclusive.
+     */
+    @GetMapping("/daily")
+    public ResponseEntity<List<CalendarEventDailyStat>> getDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String location) {
+        return ResponseEntity.ok(calendarEventStatsService.getDailyStats(from, to, location));
+    }
+}
@@ -0,0 +1,52 @@
+package pl.where2play.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.where2play.api.model.CalendarFeed;
+import pl.where2play.api.service.CalendarFeedService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * iCalendar subscription feeds for calendar apps. Responses carry an ETag and Last-Modified,
+ * so polls of unchanged feeds are answered with 304 Not Modified.
+ */
+@RestController
+@RequestMapping("/api/calendars")
+@RequiredArgsConstructor
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+
+    @Value("${calendar-events.feeds.cache-max-age:PT5M}")
+    private Duration cacheMaxAge = Duration.ofMinutes(5);
+
+    @GetMapping("/creator/{createdBy}.ics")
+    public ResponseEntity<byte[]> getCreatorFeed(@PathVariable String createdBy) {
+        return feed(calendarFeedService.getCreatorFeed(createdBy));
+    }
+
+    @GetMapping("/location/{location}.ics")
+    public ResponseEntity<byte[]> getLocationFeed(@PathVariable String location) {
+        return feed(calendarFeedService.getLocationFeed(location));
+    }
+
+    private ResponseEntity<byte[]> feed(CalendarFeed feed) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(feed.getEtag())
+                .lastModified(feed.getLastModified())
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePublic())
+                .body(feed.getContent());
+    }
+}
@@ -3,7 +3,16 @@ package pl.where2play.api.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pl.where2play.api.config.E2ETestSupport;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.SyntheticDataJob;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.model.TestRunCleanup;
 import pl.where2play.api.service.CalendarEventService;
+import pl.where2play.api.service.SyntheticEventGenerator;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Controller that provides endpoints for E2E testing support.
@@ -14,9 +23,12 @@ import pl.where2play.api.service.CalendarEventService;
 public class E2ETestSupportController {
 
     private final CalendarEventService calendarEventService;
+    private final SyntheticEventGenerator syntheticEventGenerator;
 
-    public E2ETestSupportController(CalendarEventService calendarEventService) {
+    public E2ETestSupportController(CalendarEventService calendarEventService,
+                                    SyntheticEventGenerator syntheticEventGenerator) {
         this.calendarEventService = calendarEventService;
+        this.syntheticEventGenerator = syntheticEventGenerator;
     }
 
     /**
@@ -29,4 +41,45 @@ public class E2ETestSupportController {
         calendarEventService.deleteEventForTesting(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes the listed events and every event tagged with the test run ID in one set-based statement, for
+     * cleaning up after a test run. IDs of events that no longer exist are ignored.
+     * This endpoint is only available in non-production environments.
+     */
+    @E2ETestSupport
+    @PostMapping("/calendar/delete")
+    public ResponseEntity<Map<String, Object>> deleteEvents(@RequestBody TestRunCleanup cleanup) {
+        List<Long> ids = cleanup.getIds() != null ? cleanup.getIds() : List.of();
+        if (ids.isEmpty() && cleanup.getTestRunId() == null) {
+            throw new InvalidRequestException("Either ids or testRunId is required");
+        }
+        int deleted = calendarEventService.deleteEventsForTesting(ids, cleanup.getTestRunId());
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
+    /**
+     * Starts generating a synthetic dataset for benchmarks in the background; the same spec always yields the same
+     * events. Returns the job, whose progress can be followed at the {@code Location} it is returned with. The
+     * events are tagged with the spec's test run ID, so they can be deleted with {@link #deleteEvents}.
+     * This endpoint is only available in non-production environments.
+     */
+    @E2ETestSupport
+    @PostMapping("/calendar/synthetic")
+    public ResponseEntity<SyntheticDataJob> generateEvents(@RequestBody SyntheticDataSpec spec) {
+        SyntheticDataJob job = syntheticEventGenerator.startForTesting(spec);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/e2e-support/calendar/synthetic/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Returns the status of a synthetic dataset generation.
+     * This endpoint is only available in non-production environments.
+     */
+    @E2ETestSupport
+    @GetMapping("/calendar/synthetic/{jobId}")
+    public ResponseEntity<SyntheticDataJob> getGenerationJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(syntheticEventGenerator.getJob(jobId));
+    }
+}
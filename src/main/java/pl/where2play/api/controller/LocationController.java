@@ -0,0 +1,33 @@
+package pl.where2play.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.where2play.api.model.FreeBusy;
+import pl.where2play.api.service.LocationAvailabilityService;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/locations")
+@RequiredArgsConstructor
+public class LocationController {
+
+    private final LocationAvailabilityService locationAvailabilityService;
+
+    /**
+     * Busy and free periods of a location within [from, to).
+     */
+    @GetMapping("/{location}/freebusy")
+    public ResponseEntity<FreeBusy> getFreeBusy(
+            @PathVariable String location,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(locationAvailabilityService.getFreeBusy(location, from, to));
+    }
+}
@@ -0,0 +1,40 @@
+package pl.where2play.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.where2play.api.config.RateLimitConfig;
+import pl.where2play.api.config.RateLimitFilter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only view of the per-client rate limits. The API has no authentication, so limits are only changed through
+ * configuration ({@code rate-limiting.*}); otherwise any client could lift its own limit.
+ */
+@RestController
+@RequestMapping("/api/rate-limits")
+@RequiredArgsConstructor
+public class RateLimitController {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimitFilter rateLimitFilter;
+
+    /**
+     * Get the current rate limit settings.
+     *
+     * @return a map containing the global status, the default and route-specific limits, and the number of buckets
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRateLimitSettings() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("enabled", rateLimitConfig.isEnabled());
+        settings.put("defaultLimit", rateLimitConfig.getDefaultLimit());
+        settings.put("routeLimits", rateLimitConfig.getRouteLimits());
+        settings.put("buckets", rateLimitFilter.getBucketCount());
+        return ResponseEntity.ok(settings);
+    }
+}
@@ -0,0 +1,22 @@
+package pl.where2play.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a workload's bulkhead has no free slot within its queue timeout.
+ * The request is rejected so that it does not take threads and connections other workloads need.
+ */
+public class BulkheadFullException extends BaseException {
+
+    private static final HttpStatus STATUS = HttpStatus.SERVICE_UNAVAILABLE;
+    private static final String ERROR_CODE = "BULKHEAD_FULL";
+
+    /**
+     * Constructs a new BulkheadFullException for the specified workload.
+     *
+     * @param workload the name of the workload whose bulkhead is full
+     */
+    public BulkheadFullException(String workload) {
+        super(String.format("Too many concurrent %s requests, retry shortly", workload), STATUS, ERROR_CODE);
+    }
+}
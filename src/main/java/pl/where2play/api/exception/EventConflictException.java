@@ -0,0 +1,37 @@
+package pl.where2play.api.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Exception thrown when an event would overlap existing events at the same location.
+ */
+public class EventConflictException extends BaseException {
+
+    private static final HttpStatus STATUS = HttpStatus.CONFLICT;
+    private static final String ERROR_CODE = "EVENT_CONFLICT";
+
+    private final List<Long> conflictingEventIds;
+
+    /**
+     * Constructs a new EventConflictException listing the events the new event overlaps.
+     *
+     * @param location the location of the event
+     * @param conflictingEventIds IDs of the overlapping events (series IDs for recurring events)
+     */
+    public EventConflictException(String location, List<Long> conflictingEventIds) {
+        super(String.format("Event overlaps existing events at location '%s': %s", location, conflictingEventIds),
+                STATUS, ERROR_CODE);
+        this.conflictingEventIds = conflictingEventIds;
+    }
+
+    /**
+     * Returns the IDs of the overlapping events.
+     *
+     * @return the conflicting event IDs
+     */
+    public List<Long> getConflictingEventIds() {
+        return conflictingEventIds;
+    }
+}
@@ -3,8 +3,10 @@ package pl.where2play.api.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -190,6 +192,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles queries cancelled by their statement timeout and reads whose transaction ran out of time.
+     */
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class,
+            TransactionTimedOutException.class})
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ResponseEntity<ErrorResponse> handleQueryTimeout(RuntimeException ex, HttpServletRequest request) {
+        logError(ex, request);
+
+        String requestId = (String) request.getAttribute("requestId");
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                "QUERY_TIMEOUT",
+                "The query took too long and was cancelled",
+                LocalDateTime.now(),
+                request.getRequestURI(),
+                requestId
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     /**
      * Fallback handler for all other exceptions.
      */
@@ -1,6 +1,10 @@
 package pl.where2play.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -33,6 +37,33 @@ public class CalendarEvent {
 
     private String location;
 
+    // Normalized location (see LocationKeys), used for per-location lookups; maintained on every save
+    @JsonIgnore
+    @Column(nullable = false)
+    private String locationKey = "";
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    // Geohash of latitude/longitude (see Geohash); maintained on every save
+    @JsonIgnore
+    @Column(length = 12)
+    private String geohash;
+
+    // Search cells containing the event (prefixes of the geohash), looked up by nearby searches; maintained on every save
+    @JsonIgnore
+    @Column(length = 6)
+    private String geohashFine;
+
+    @JsonIgnore
+    @Column(length = 4)
+    private String geohashCoarse;
+
     @Enumerated(EnumType.STRING)
     private EventStatus status = EventStatus.SCHEDULED;
 
@@ -43,15 +74,59 @@ public class CalendarEvent {
 
     private LocalDateTime updatedAt;
 
+    // Monotonic change sequence, assigned on every create/update (used by delta sync)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long changeSeq;
+
+    // iCalendar RRULE (e.g. "FREQ=WEEKLY;BYDAY=TU,TH;COUNT=24"); set on series masters only
+    @Column(length = 500)
+    private String recurrenceRule;
+
+    // Comma-separated start times of occurrences removed from the series (EXDATE), e.g. "2025-03-11T18:00:00"
+    @Column(length = 4000)
+    private String recurrenceExceptions;
+
+    // End of the series' last occurrence (null = repeats forever); maintained by the service layer
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime recurrenceUntil;
+
+    // For occurrences and overrides: ID of the series master
+    private Long seriesId;
+
+    // For occurrences and overrides: the start time of the occurrence as generated by the series rule
+    private LocalDateTime originalStartTime;
+
+    // Test run that created the event; set from a header by E2E suites only, see E2ETestRunTagging
+    @Column(length = 64)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String testRunId;
+
+    // Loaded from calendar_events_archive; archived events are read-only
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean archived;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // The same instant, so that an event that was never updated can be told apart
+        updatedAt = createdAt;
+        deriveLookupKeys();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        deriveLookupKeys();
+    }
+
+    private void deriveLookupKeys() {
+        locationKey = LocationKeys.normalize(location);
+        geohash = latitude != null && longitude != null
+                ? Geohash.encode(latitude, longitude, Geohash.STORED_PRECISION)
+                : null;
+        geohashFine = Geohash.cell(geohash, Geohash.FINE_CELL_PRECISION);
+        geohashCoarse = Geohash.cell(geohash, Geohash.COARSE_CELL_PRECISION);
     }
 
     public enum EventStatus {
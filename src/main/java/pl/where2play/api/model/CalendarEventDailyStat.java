@@ -0,0 +1,60 @@
+package pl.where2play.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of events on a given day with a given status and location.
+ * Multi-day events are counted on every day they cover, recurring series on the days of their occurrences.
+ */
+@Entity
+@Table(name = "calendar_event_daily_stats")
+@IdClass(CalendarEventDailyStat.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarEventDailyStat {
+
+    @Id
+    private LocalDate statDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private CalendarEvent.EventStatus status;
+
+    @Id
+    private String locationKey;
+
+    private long eventCount;
+
+    public Key getKey() {
+        return new Key(statDate, status, locationKey);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable, Comparable<Key> {
+
+        private LocalDate statDate;
+        private CalendarEvent.EventStatus status;
+        private String locationKey;
+
+        @Override
+        public int compareTo(Key other) {
+            int result = statDate.compareTo(other.statDate);
+            if (result == 0) {
+                result = status.compareTo(other.status);
+            }
+            if (result == 0) {
+                result = locationKey.compareTo(other.locationKey);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a delta sync response: events changed and events deleted since the client's token.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarEventSyncPage {
+
+    // Events created or updated since the token, ordered by change sequence
+    private List<CalendarEvent> events;
+
+    // IDs of events deleted since the token
+    private List<Long> deletedIds;
+
+    // Token to pass as "since" on the next call
+    private String nextToken;
+
+    // Whether more changes are available right away
+    private boolean hasMore;
+
+    // The token is older than the tombstone retention; the client must discard its data and sync from scratch
+    private boolean fullResyncRequired;
+}
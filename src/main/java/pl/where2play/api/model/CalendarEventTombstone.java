@@ -0,0 +1,29 @@
+package pl.where2play.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind when a calendar event is deleted, so that delta sync clients learn about the deletion.
+ * Tombstones are purged once they are older than the configured retention period.
+ */
+@Entity
+@Table(name = "calendar_event_tombstones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarEventTombstone {
+
+    @Id
+    private Long eventId;
+
+    private Long changeSeq;
+
+    private LocalDateTime deletedAt;
+}
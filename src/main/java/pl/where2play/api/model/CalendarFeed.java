@@ -0,0 +1,25 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A pre-rendered iCalendar subscription feed with its validators for conditional requests.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeed {
+
+    // text/calendar body, UTF-8 encoded
+    private byte[] content;
+
+    // Strong ETag (quoted) derived from the content
+    private String etag;
+
+    // When the feed was rendered
+    private Instant lastModified;
+}
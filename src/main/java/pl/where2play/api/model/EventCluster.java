@@ -0,0 +1,20 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Events of one map cluster cell: their centroid and count.
+ * For a cell holding a single (non-recurring) event, {@code eventId} identifies that event.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCluster {
+
+    private double latitude;
+    private double longitude;
+    private long count;
+    private Long eventId;
+}
@@ -0,0 +1,34 @@
+package pl.where2play.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Clusters for a map viewport.
+ * <p>
+ * {@code tileKey} identifies the viewport snapped to the cluster grid of the zoom level, so requests for
+ * slightly different viewports covering the same cells share one response. {@code version} is the version
+ * of this instance's index the clusters were computed from; {@code etag} is derived from the content, so it is
+ * the same on every instance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventClusters {
+
+    private String tileKey;
+    private int zoom;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    @JsonIgnore
+    private long version;
+    // Strong ETag (quoted) derived from the content
+    @JsonIgnore
+    private String etag;
+    private List<EventCluster> clusters;
+}
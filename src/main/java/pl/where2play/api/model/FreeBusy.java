@@ -0,0 +1,24 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Busy and free periods of a location within [from, to). Overlapping and back-to-back events
+ * are merged into a single busy slot; cancelled events do not occupy the location.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeBusy {
+
+    private String location;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<TimeSlot> busy;
+    private List<TimeSlot> free;
+}
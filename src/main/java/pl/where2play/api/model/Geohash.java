@@ -0,0 +1,150 @@
+package pl.where2play.api.model;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and the cell arithmetic needed for radius searches.
+ * <p>
+ * A geohash interleaves longitude and latitude bits (longitude first) and encodes them in base 32, so that
+ * points sharing a prefix lie in the same rectangular cell. Events store the prefixes of a few fixed precisions
+ * as search cells, so that radius searches look cells up by equality rather than by prefix.
+ */
+public final class Geohash {
+
+    // Precision stored on events (cells of roughly 5 x 5 m)
+    public static final int STORED_PRECISION = 9;
+
+    // Precisions of the search cells stored on events for exact-match lookups (cells of roughly 1.2 x 0.6 km and
+    // 39 x 20 km at the equator); the full geohash starts with both
+    public static final int FINE_CELL_PRECISION = 6;
+    public static final int COARSE_CELL_PRECISION = 4;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        char[] hash = new char[precision];
+        boolean longitudeBit = true;
+        for (int i = 0; i < precision; i++) {
+            int value = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                value <<= 1;
+                if (longitudeBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        value |= 1;
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        value |= 1;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                longitudeBit = !longitudeBit;
+            }
+            hash[i] = BASE32[value];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Returns the cell of the given precision containing the point with the given geohash, or null for no geohash.
+     */
+    public static String cell(String geohash, int precision) {
+        return geohash == null ? null : geohash.substring(0, Math.min(precision, geohash.length()));
+    }
+
+    /**
+     * Returns the number of cells of the given precision covering the bounding box of a circle.
+     */
+    public static long coveringCellCount(double latitude, double longitude, double radiusKm, int precision) {
+        Grid grid = new Grid(latitude, longitude, radiusKm, precision);
+        return grid.rows * grid.columns;
+    }
+
+    /**
+     * Returns the cells of the given precision covering the bounding box of a circle.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusKm, int precision) {
+        Grid grid = new Grid(latitude, longitude, radiusKm, precision);
+        Set<String> cells = new LinkedHashSet<>();
+        double firstRow = Math.floor((grid.minLat + 90) / grid.cellHeight);
+        double firstColumn = Math.floor((grid.minLon + 180) / grid.cellWidth);
+        for (long row = 0; row < grid.rows; row++) {
+            double cellLat = Math.min(-90 + (firstRow + row + 0.5) * grid.cellHeight, grid.maxLat);
+            for (long column = 0; column < grid.columns; column++) {
+                double cellLon = -180 + (firstColumn + column + 0.5) * grid.cellWidth;
+                cells.add(encode(cellLat, normalizeLongitude(cellLon), precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle distance in kilometres (haversine formula).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        double normalized = (longitude + 180) % 360;
+        return (normalized < 0 ? normalized + 360 : normalized) - 180;
+    }
+
+    private static int lonBits(int precision) {
+        return (5 * precision + 1) / 2;
+    }
+
+    private static int latBits(int precision) {
+        return 5 * precision / 2;
+    }
+
+    /**
+     * The cells of one precision spanned by the bounding box of a circle.
+     */
+    private static final class Grid {
+
+        private final double minLat;
+        private final double maxLat;
+        private final double minLon;
+        private final double cellHeight;
+        private final double cellWidth;
+        private final long rows;
+        private final long columns;
+
+        private Grid(double latitude, double longitude, double radiusKm, int precision) {
+            double latDelta = radiusKm / KM_PER_DEGREE;
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            // Near the poles the box spans all longitudes
+            double lonDelta = cosLat < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+            minLat = Math.max(-90, latitude - latDelta);
+            maxLat = Math.min(90, latitude + latDelta);
+            minLon = longitude - lonDelta;
+            cellHeight = 180 / Math.pow(2, latBits(precision));
+            cellWidth = 360 / Math.pow(2, lonBits(precision));
+            rows = (long) Math.floor((maxLat + 90) / cellHeight) - (long) Math.floor((minLat + 90) / cellHeight) + 1;
+            columns = Math.min((long) Math.floor((longitude + lonDelta + 180) / cellWidth)
+                    - (long) Math.floor((minLon + 180) / cellWidth) + 1, Math.round(360 / cellWidth));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were read and imported, and why the others were rejected.
+ * Rows are written in batches as they are read, so rows imported before a failure stay imported.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    // Format the upload was parsed as (CSV or ICS)
+    private String format;
+
+    // Data rows (CSV records or VEVENT blocks) found in the upload
+    private long rowsRead;
+
+    private long imported;
+
+    private long failed;
+
+    // Row-level errors, up to the configured limit
+    private List<RowError> errors = new ArrayList<>();
+
+    // More rows failed than errors are listed
+    private boolean errorsTruncated;
+
+    private long durationMs;
+
+    public ImportReport(String format) {
+        this.format = format;
+    }
+
+    /**
+     * A rejected row. {@code line} is the line of the upload the row starts on.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long line;
+        private String field;
+        private String message;
+    }
+}
@@ -0,0 +1,25 @@
+package pl.where2play.api.model;
+
+import java.util.Locale;
+
+/**
+ * Normalization of free-text event locations into keys used for grouping and lookups.
+ */
+public final class LocationKeys {
+
+    public static final int MAX_LENGTH = 255;
+
+    private LocationKeys() {
+    }
+
+    /**
+     * Returns the trimmed, lower-case location, or an empty string when there is no location.
+     */
+    public static String normalize(String location) {
+        if (location == null) {
+            return "";
+        }
+        String key = location.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_LENGTH ? key.substring(0, MAX_LENGTH) : key;
+    }
+}
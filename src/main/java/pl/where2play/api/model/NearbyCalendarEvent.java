@@ -0,0 +1,20 @@
+package pl.where2play.api.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event found by a nearby search, serialized as the event's fields plus its distance from the search point.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyCalendarEvent {
+
+    @JsonUnwrapped
+    private CalendarEvent event;
+
+    private double distanceKm;
+}
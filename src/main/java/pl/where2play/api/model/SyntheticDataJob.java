@@ -0,0 +1,33 @@
+package pl.where2play.api.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A synthetic dataset generation running in the background (see SyntheticEventGenerator). Updated by the job
+ * while it runs; {@code generated} counts the events inserted so far.
+ */
+@Data
+@NoArgsConstructor
+public class SyntheticDataJob {
+
+    private String id;
+
+    // Tag of the generated events, for deleting them afterwards
+    private String testRunId;
+
+    private volatile Status status = Status.QUEUED;
+
+    private long requested;
+
+    private volatile long generated;
+
+    private volatile long durationMs;
+
+    // Why the job failed; batches inserted before the failure stay inserted
+    private volatile String error;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
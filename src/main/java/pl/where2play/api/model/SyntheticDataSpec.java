@@ -0,0 +1,44 @@
+package pl.where2play.api.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * What the synthetic dataset generator produces (see SyntheticEventGenerator). The same spec, including the seed
+ * and the anchor date, always yields the same events.
+ */
+@Data
+@NoArgsConstructor
+public class SyntheticDataSpec {
+
+    private long count = 100_000;
+
+    private long seed = 42;
+
+    // Events per JDBC batch (and per transaction)
+    private int batchSize = 1000;
+
+    // Batches inserted in parallel; each holds a pooled connection
+    private int threads = 4;
+
+    // Distinct locations and creators; both are Zipf-distributed, so a few of them get most of the events
+    private int locations = 500;
+
+    private int creators = 5000;
+
+    // Zipf exponent: 0 is uniform, around 1 is typical of real popularity distributions
+    private double skew = 1.1;
+
+    // Events start between pastDays before and futureDays after the anchor
+    private int pastDays = 730;
+
+    private int futureDays = 180;
+
+    // Day the time spread is relative to (null = today); fix it to reproduce a dataset on another day
+    private LocalDate anchor;
+
+    // Tag of the generated events (CalendarEvent.testRunId; null = "synthetic-<seed>")
+    private String testRunId;
+}
@@ -0,0 +1,22 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Events an E2E test run wants deleted: the given IDs, plus every event tagged with the given test run ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestRunCleanup {
+
+    private List<Long> ids = new ArrayList<>();
+
+    // Matches CalendarEvent.testRunId
+    private String testRunId;
+}
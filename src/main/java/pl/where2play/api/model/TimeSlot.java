@@ -0,0 +1,19 @@
+package pl.where2play.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Half-open time interval [start, end).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlot {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
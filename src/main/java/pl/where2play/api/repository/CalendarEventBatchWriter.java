@@ -0,0 +1,163 @@
+package pl.where2play.api.repository;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.Geohash;
+import pl.where2play.api.model.LocationKeys;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts new calendar events in bulk, bypassing the persistence context.
+ * <p>
+ * On PostgreSQL the rows are streamed with {@code COPY}, with IDs and change sequence values allocated up front;
+ * elsewhere they are written with a batched {@code INSERT}. Either way every row gets its own change sequence
+ * value, so delta sync picks the events up like single creations. Must run in a transaction.
+ */
+@Repository
+public class CalendarEventBatchWriter {
+
+    private static final String COLUMNS = "title, description, start_time, end_time, location, status, created_by, "
+            + "created_at, updated_at, recurrence_rule, recurrence_exceptions, recurrence_until, location_key, "
+            + "latitude, longitude, geohash, geohash_fine, geohash_coarse, test_run_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CalendarEventChangeSequence changeSequence;
+    private volatile Boolean postgres;
+
+    public CalendarEventBatchWriter(JdbcTemplate jdbcTemplate, CalendarEventChangeSequence changeSequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Inserts the events and sets their IDs and derived fields (timestamps, location key, geohash and cells) as
+     * {@link CalendarEvent} does when it is persisted.
+     */
+    public void insert(List<CalendarEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (CalendarEvent event : events) {
+            event.setCreatedAt(now);
+            event.setUpdatedAt(now);
+            event.setLocationKey(LocationKeys.normalize(event.getLocation()));
+            event.setGeohash(event.getLatitude() != null && event.getLongitude() != null
+                    ? Geohash.encode(event.getLatitude(), event.getLongitude(), Geohash.STORED_PRECISION)
+                    : null);
+            event.setGeohashFine(Geohash.cell(event.getGeohash(), Geohash.FINE_CELL_PRECISION));
+            event.setGeohashCoarse(Geohash.cell(event.getGeohash(), Geohash.COARSE_CELL_PRECISION));
+        }
+        changeSequence.register();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (isPostgres(connection)) {
+                copy(connection, events);
+            } else {
+                batchInsert(connection, events);
+            }
+            return null;
+        });
+    }
+
+    private void copy(Connection connection, List<CalendarEvent> events) throws SQLException {
+        List<Long> ids = allocate("SELECT nextval(pg_get_serial_sequence('calendar_events', 'id')) FROM generate_series(1, ?)", events.size());
+        List<Long> changeSeqs = allocate("SELECT nextval('" + CalendarEventChangeSequence.SEQUENCE_NAME + "') FROM generate_series(1, ?)", events.size());
+        StringBuilder csv = new StringBuilder(events.size() * 256);
+        for (int i = 0; i < events.size(); i++) {
+            CalendarEvent event = events.get(i);
+            event.setId(ids.get(i));
+            event.setChangeSeq(changeSeqs.get(i));
+            csv.append(event.getId()).append(',').append(event.getChangeSeq());
+            for (Object value : values(event)) {
+                csv.append(',');
+                appendCsv(csv, value);
+            }
+            csv.append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY calendar_events (id, change_seq, " + COLUMNS + ") FROM STDIN WITH (FORMAT csv)", new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into calendar_events failed", e);
+        }
+    }
+
+    private void batchInsert(Connection connection, List<CalendarEvent> events) throws SQLException {
+        String sql = "INSERT INTO calendar_events (change_seq, " + COLUMNS + ") VALUES ("
+                + changeSequence.nextValueExpression() + ", ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+            for (CalendarEvent event : events) {
+                Object[] values = values(event);
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == null) {
+                        statement.setNull(i + 1, Types.NULL);
+                    } else {
+                        statement.setObject(i + 1, values[i]);
+                    }
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (CalendarEvent event : events) {
+                    if (!keys.next()) {
+                        throw new SQLException("Fewer generated keys than inserted events");
+                    }
+                    event.setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    // Values in the order of COLUMNS
+    private static Object[] values(CalendarEvent event) {
+        return new Object[]{event.getTitle(), event.getDescription(), timestamp(event.getStartTime()),
+                timestamp(event.getEndTime()), event.getLocation(), event.getStatus().name(), event.getCreatedBy(),
+                timestamp(event.getCreatedAt()), timestamp(event.getUpdatedAt()), event.getRecurrenceRule(),
+                event.getRecurrenceExceptions(), timestamp(event.getRecurrenceUntil()), event.getLocationKey(),
+                event.getLatitude(), event.getLongitude(), event.getGeohash(), event.getGeohashFine(),
+                event.getGeohashCoarse(), event.getTestRunId()};
+    }
+
+    private List<Long> allocate(String sql, int count) {
+        List<Long> values = new ArrayList<>(count);
+        jdbcTemplate.query(sql, rs -> {
+            values.add(rs.getLong(1));
+        }, count);
+        return values;
+    }
+
+    private static void appendCsv(StringBuilder csv, Object value) {
+        if (value == null) {
+            // Unquoted empty value is NULL in COPY's CSV format
+            return;
+        }
+        String text = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime().toString() : value.toString();
+        csv.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        }
+        return postgres;
+    }
+}
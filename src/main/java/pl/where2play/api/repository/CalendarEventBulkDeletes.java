@@ -0,0 +1,43 @@
+package pl.where2play.api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Set-based deletion of calendar events, used to clean up after E2E test runs and to remove archived events.
+ * Each deleted event leaves a tombstone with its own value of the change sequence, so delta sync picks the deletions
+ * up like single deletes.
+ */
+@Repository
+public class CalendarEventBulkDeletes {
+
+    private final EntityManager entityManager;
+    private final CalendarEventChangeSequence changeSequence;
+
+    public CalendarEventBulkDeletes(EntityManager entityManager, CalendarEventChangeSequence changeSequence) {
+        this.entityManager = entityManager;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Records tombstones for the given events and deletes them, one statement each; IDs of events that do not exist
+     * are ignored. Must run in a transaction.
+     *
+     * @return the number of events deleted
+     */
+    public int delete(Collection<Long> ids, LocalDateTime deletedAt) {
+        changeSequence.register();
+        entityManager.createNativeQuery("INSERT INTO calendar_event_tombstones (event_id, change_seq, deleted_at) "
+                        + "SELECT id, " + changeSequence.nextValueExpression() + ", :deletedAt "
+                        + "FROM calendar_events WHERE id IN (:ids)")
+                .setParameter("deletedAt", deletedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return entityManager.createNativeQuery("DELETE FROM calendar_events WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
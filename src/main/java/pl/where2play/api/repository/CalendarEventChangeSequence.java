@@ -0,0 +1,162 @@
+package pl.where2play.api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Access to the {@code calendar_event_change_seq} database sequence that orders changes for delta sync.
+ * The SQL is taken from the Hibernate dialect so that it works on both H2 and PostgreSQL.
+ * <p>
+ * Sequence values are taken when a change is written but become visible only when its transaction commits, so
+ * changes may become visible out of sequence order. A transaction therefore {@linkplain #register() registers}
+ * before it takes values, and readers only return changes below the {@linkplain #horizon() horizon}: the lowest
+ * value a transaction still in flight may have taken. On PostgreSQL the registration is a transaction-scoped
+ * advisory lock on the next sequence value, which other instances see in {@code pg_locks}; on other databases
+ * (H2, single instance) it is kept in memory.
+ */
+@Repository
+public class CalendarEventChangeSequence {
+
+    public static final String SEQUENCE_NAME = "calendar_event_change_seq";
+
+    private static final String NEXT_UNTAKEN_VALUE =
+            "SELECT CASE WHEN is_called THEN last_value + 1 ELSE last_value END FROM " + SEQUENCE_NAME;
+    // Single-bigint advisory keys show up in pg_locks split into classid/objid with objsubid = 1
+    private static final String LOWEST_REGISTERED_VALUE = "SELECT MIN((classid::bigint << 32) | objid::bigint) "
+            + "FROM pg_locks WHERE locktype = 'advisory' AND objsubid = 1 "
+            + "AND database = (SELECT oid FROM pg_database WHERE datname = current_database())";
+
+    private final EntityManager entityManager;
+    private volatile String nextValueQuery;
+    private volatile String nextValueExpression;
+    private volatile Boolean postgres;
+
+    // Registered values of the transactions in flight on this instance (in-memory mode only)
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    public CalendarEventChangeSequence(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns the next value of the change sequence, registering the current transaction first.
+     */
+    public long next() {
+        register();
+        return nextValue();
+    }
+
+    /**
+     * Returns an SQL expression yielding the next value of the change sequence, evaluated once per row
+     * when used in a set-based {@code UPDATE}. The transaction must {@link #register()} before running it.
+     */
+    public String nextValueExpression() {
+        if (nextValueExpression == null) {
+            nextValueExpression = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect()
+                    .getSequenceSupport()
+                    .getSelectSequenceNextValString(SEQUENCE_NAME);
+        }
+        return nextValueExpression;
+    }
+
+    /**
+     * Marks the current transaction as one that takes change sequence values, holding the horizon below them
+     * until it completes. Must be called before the first value is taken; later calls in the same transaction
+     * do nothing.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void register() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change sequence values must be taken in a transaction");
+        }
+        if (TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(Registration.class::isInstance)) {
+            return;
+        }
+        if (isPostgres()) {
+            // Every value taken afterwards is at least the locked one; the lock is released on commit or rollback
+            long floor = ((Number) entityManager.createNativeQuery(NEXT_UNTAKEN_VALUE).getSingleResult()).longValue();
+            entityManager.createNativeQuery("SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock_shared(:floor)) locked")
+                    .setParameter("floor", floor)
+                    .getSingleResult();
+            TransactionSynchronizationManager.registerSynchronization(new Registration(null));
+        } else {
+            long floor;
+            // Taking the value and publishing it must be atomic, or a reader could miss a value already taken
+            synchronized (inFlight) {
+                floor = nextValue();
+                inFlight.add(floor);
+            }
+            TransactionSynchronizationManager.registerSynchronization(new Registration(floor));
+        }
+    }
+
+    /**
+     * Returns the exclusive upper bound of change sequence values that are final: every change below it has
+     * either been committed, and is visible to queries started afterwards, or rolled back.
+     */
+    public long horizon() {
+        if (isPostgres()) {
+            // Read the sequence before the locks: a writer that took a value below it has registered by then
+            long nextUntaken = ((Number) entityManager.createNativeQuery(NEXT_UNTAKEN_VALUE).getSingleResult()).longValue();
+            Number lowestRegistered = (Number) entityManager.createNativeQuery(LOWEST_REGISTERED_VALUE).getSingleResult();
+            return lowestRegistered == null ? nextUntaken : Math.min(nextUntaken, lowestRegistered.longValue());
+        }
+        return inFlight.isEmpty() ? Long.MAX_VALUE : inFlight.first();
+    }
+
+    private long nextValue() {
+        Object value = entityManager.createNativeQuery(nextValueQuery()).getSingleResult();
+        return ((Number) value).longValue();
+    }
+
+    private String nextValueQuery() {
+        if (nextValueQuery == null) {
+            nextValueQuery = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect()
+                    .getSequenceSupport()
+                    .getSequenceNextValString(SEQUENCE_NAME);
+        }
+        return nextValueQuery;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+
+    /**
+     * Marks a registered transaction and releases its in-memory registration when it completes.
+     */
+    private final class Registration implements TransactionSynchronization {
+
+        private final Long floor;
+
+        private Registration(Long floor) {
+            this.floor = floor;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (floor != null) {
+                inFlight.remove(floor);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package pl.where2play.api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.where2play.api.model.CalendarEventDailyStat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CalendarEventDailyStatRepository
+        extends JpaRepository<CalendarEventDailyStat, CalendarEventDailyStat.Key> {
+
+    // Non-empty aggregate rows in the date range (backed by the primary key, which starts with stat_date)
+    List<CalendarEventDailyStat> findByStatDateBetweenAndEventCountGreaterThanOrderByStatDateAsc(
+            LocalDate from, LocalDate to, long eventCount);
+
+    List<CalendarEventDailyStat> findByStatDateBetweenAndLocationKeyAndEventCountGreaterThanOrderByStatDateAsc(
+            LocalDate from, LocalDate to, String locationKey, long eventCount);
+
+    // Aggregate rows of a date range, including empty ones
+    List<CalendarEventDailyStat> findByStatDateBetween(LocalDate from, LocalDate to);
+
+    @Query("select min(s.statDate) from CalendarEventDailyStat s")
+    LocalDate findMinStatDate();
+
+    @Query("select max(s.statDate) from CalendarEventDailyStat s")
+    LocalDate findMaxStatDate();
+}
@@ -0,0 +1,118 @@
+package pl.where2play.api.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes to {@code calendar_event_daily_stats} on the caller's connection and transaction.
+ * <p>
+ * Deltas are applied with a single upsert, so creating a missing row needs neither a second connection nor a
+ * second transaction. Writers hold shared day locks until they commit and the repair job holds exclusive ones
+ * while it recomputes a window, so that rows created during a repair cannot be overwritten by it. On PostgreSQL
+ * the day locks are transaction-scoped advisory locks, seen by all instances; on other databases (H2, single
+ * instance) a single in-memory read-write lock stands in for them.
+ */
+@Repository
+public class CalendarEventDailyStatUpdates {
+
+    // Advisory lock space of the day locks: pg_advisory_xact_lock(DAY_LOCK_SPACE, epoch day)
+    static final int DAY_LOCK_SPACE = 0x53746174;
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO calendar_event_daily_stats "
+            + "(stat_date, status, location_key, event_count) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (stat_date, status, location_key) "
+            + "DO UPDATE SET event_count = calendar_event_daily_stats.event_count + EXCLUDED.event_count";
+
+    private static final String MERGE = "MERGE INTO calendar_event_daily_stats t USING (VALUES (CAST(? AS DATE), "
+            + "CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) s(stat_date, status, location_key, delta) "
+            + "ON t.stat_date = s.stat_date AND t.status = s.status AND t.location_key = s.location_key "
+            + "WHEN MATCHED THEN UPDATE SET event_count = t.event_count + s.delta "
+            + "WHEN NOT MATCHED THEN INSERT (stat_date, status, location_key, event_count) "
+            + "VALUES (s.stat_date, s.status, s.location_key, s.delta)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock localDayLock = new ReentrantReadWriteLock();
+    private volatile Boolean postgres;
+
+    public CalendarEventDailyStatUpdates(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds {@code delta} to the row, creating it if it does not exist yet.
+     */
+    public void add(LocalDate statDate, String status, String locationKey, long delta) {
+        if (isPostgres()) {
+            jdbcTemplate.update(POSTGRES_UPSERT, statDate, status, locationKey, delta);
+            return;
+        }
+        try {
+            jdbcTemplate.update(MERGE, statDate, status, locationKey, delta);
+        } catch (DuplicateKeyException e) {
+            // A concurrent transaction inserted the row first; it exists now, so the retry updates it
+            jdbcTemplate.update(MERGE, statDate, status, locationKey, delta);
+        }
+    }
+
+    /**
+     * Takes shared locks on the given days until the current transaction completes. Writers must call this
+     * before changing rows of those days.
+     */
+    public void lockDaysShared(Collection<LocalDate> days) {
+        if (isPostgres()) {
+            // Ascending order, like the repair job, so that the two cannot deadlock on each other
+            for (LocalDate day : new TreeSet<>(days)) {
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock_shared(?, ?)) locked",
+                        Long.class, DAY_LOCK_SPACE, (int) day.toEpochDay());
+            }
+        } else {
+            holdUntilCompletion(localDayLock.readLock());
+        }
+    }
+
+    /**
+     * Takes exclusive locks on the days in [from, to) until the current transaction completes, waiting for
+     * writers of those days to finish and blocking new ones.
+     */
+    public void lockDaysExclusive(LocalDate from, LocalDate to) {
+        if (isPostgres()) {
+            for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(?, ?)) locked",
+                        Long.class, DAY_LOCK_SPACE, (int) day.toEpochDay());
+            }
+        } else {
+            holdUntilCompletion(localDayLock.writeLock());
+        }
+    }
+
+    private void holdUntilCompletion(Lock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Daily stats must be changed in a transaction");
+        }
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
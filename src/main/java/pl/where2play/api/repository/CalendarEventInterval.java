@@ -0,0 +1,15 @@
+package pl.where2play.api.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an event onto the time interval it occupies.
+ */
+public interface CalendarEventInterval {
+
+    Long getId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
@@ -0,0 +1,69 @@
+package pl.where2play.api.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transaction-scoped locks on locations, serializing the conflict check and insert of events at the same location.
+ * <p>
+ * On PostgreSQL the lock is an advisory lock on a hash of the location key, seen by all instances; on other
+ * databases (H2, single instance) it is one of a fixed set of in-memory locks. Distinct locations may share a lock
+ * and then wait for each other, which is harmless.
+ */
+@Repository
+public class CalendarEventLocationLocks {
+
+    // Advisory lock space of the location locks: pg_advisory_xact_lock(LOCATION_LOCK_SPACE, hashtext(location key))
+    static final int LOCATION_LOCK_SPACE = 0x4C6F6361;
+
+    private static final int LOCAL_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock[] localLocks = new ReentrantLock[LOCAL_STRIPES];
+    private volatile Boolean postgres;
+
+    public CalendarEventLocationLocks(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (int i = 0; i < LOCAL_STRIPES; i++) {
+            localLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the location until the current transaction completes, waiting for other transactions holding it.
+     *
+     * @param locationKey the normalized location (see {@link pl.where2play.api.model.LocationKeys})
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lock(String locationKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Locations must be locked in a transaction");
+        }
+        if (isPostgres()) {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(?, hashtext(?))) locked",
+                    Long.class, LOCATION_LOCK_SPACE, locationKey);
+            return;
+        }
+        ReentrantLock lock = localLocks[Math.floorMod(locationKey.hashCode(), LOCAL_STRIPES)];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
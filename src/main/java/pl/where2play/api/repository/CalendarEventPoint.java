@@ -0,0 +1,17 @@
+package pl.where2play.api.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an event onto its position on the map and in time.
+ */
+public interface CalendarEventPoint {
+
+    Long getId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    LocalDateTime getStartTime();
+}
@@ -1,20 +1,39 @@
 package pl.where2play.api.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.where2play.api.model.CalendarEvent;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CalendarEventRepository extends JpaRepository<CalendarEvent, Long> {
+
+    // Columns shared by calendar_events and calendar_events_archive
+    String EVENT_COLUMNS = "id, title, description, start_time, end_time, location, status, created_by, created_at, "
+            + "updated_at, change_seq, recurrence_rule, recurrence_exceptions, recurrence_until, series_id, "
+            + "original_start_time, location_key, latitude, longitude, geohash, geohash_fine, geohash_coarse, test_run_id";
     
     // Find events by title (case-insensitive, partial match)
     List<CalendarEvent> findByTitleContainingIgnoreCase(String title);
     
-    // Find events between start and end times
-    List<CalendarEvent> findByStartTimeBetween(LocalDateTime start, LocalDateTime end);
+    // Find events between start and end times. Bounds are plain range predicates on start_time, so on the
+    // partitioned prod table only the partitions of the months in [start, end] are scanned.
+    @Query("select e from CalendarEvent e where e.startTime >= :start and e.startTime <= :end")
+    List<CalendarEvent> findByStartTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
     // Find events by status
     List<CalendarEvent> findByStatus(CalendarEvent.EventStatus status);
@@ -24,4 +43,159 @@ public interface CalendarEventRepository extends JpaRepository<CalendarEvent, Lo
     
     // Find events created by a specific user
     List<CalendarEvent> findByCreatedBy(String createdBy);
-}
\ No newline at end of file
+
+    // Events to clean up after an E2E test run: the given IDs plus the run's events (idx_calendar_events_test_run_id)
+    @Query("select e from CalendarEvent e where e.id in :ids or e.testRunId = :testRunId")
+    List<CalendarEvent> findByIdInOrTestRunId(@Param("ids") Collection<Long> ids, @Param("testRunId") String testRunId);
+
+    // Streams the events of a creator for calendar feeds: events starting after 'since' and series still
+    // recurring then. Must be consumed within a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from CalendarEvent e where e.createdBy = :createdBy and (e.startTime >= :since "
+            + "or (e.recurrenceRule is not null and (e.recurrenceUntil is null or e.recurrenceUntil >= :since))) "
+            + "order by e.startTime")
+    Stream<CalendarEvent> streamFeedByCreatedBy(@Param("createdBy") String createdBy, @Param("since") LocalDateTime since);
+
+    // Same for a location (backed by idx_calendar_events_location_key_start_time)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from CalendarEvent e where e.locationKey = :locationKey and (e.startTime >= :since "
+            + "or (e.recurrenceRule is not null and (e.recurrenceUntil is null or e.recurrenceUntil >= :since))) "
+            + "order by e.startTime")
+    Stream<CalendarEvent> streamFeedByLocationKey(@Param("locationKey") String locationKey, @Param("since") LocalDateTime since);
+
+    // Locks single events (not recurring series) with the given status that ended before the given time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CalendarEvent> findByStatusAndEndTimeBeforeAndRecurrenceRuleIsNullOrderByIdAsc(CalendarEvent.EventStatus status,
+                                                                                       LocalDateTime endTime, Pageable pageable);
+
+    // Find events changed after the given change sequence and below the horizon (backed by idx_calendar_events_change_seq)
+    List<CalendarEvent> findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(Long changeSeq, Long horizon,
+                                                                                          Pageable pageable);
+
+    // Highest change sequence of an event below the horizon (null if there is none)
+    @Query("select max(e.changeSeq) from CalendarEvent e where e.changeSeq < :horizon")
+    Long findMaxChangeSeqBelow(@Param("horizon") Long horizon);
+
+    // Events that may cover a day in [from, to): starting before 'to' and either starting or still running at 'from'.
+    // Events starting before 'earliestStart' are not considered, which also bounds the partitions scanned.
+    // Keyset-paginated by id for batch processing.
+    @Query("select e from CalendarEvent e where e.startTime >= :earliestStart and e.startTime < :to "
+            + "and (e.startTime >= :from or e.endTime > :from) and e.id > :afterId order by e.id")
+    List<CalendarEvent> findCoveringDaysAfterId(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                @Param("earliestStart") LocalDateTime earliestStart,
+                                                @Param("afterId") Long afterId, Pageable pageable);
+
+    // Recurring series that may have an occurrence starting within [start, end]
+    @Query("select e from CalendarEvent e where e.recurrenceRule is not null and e.startTime <= :end "
+            + "and (e.recurrenceUntil is null or e.recurrenceUntil >= :start)")
+    List<CalendarEvent> findRecurringSeriesOverlapping(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Single events in the given fine/coarse search cells starting within [start, end]. The cells are matched by
+    // equality, so the (cell, start_time) indexes seek straight to the time range within each cell
+    List<CalendarEvent> findByGeohashFineInAndStartTimeBetweenAndRecurrenceRuleIsNull(
+            Collection<String> cells, LocalDateTime start, LocalDateTime end);
+
+    List<CalendarEvent> findByGeohashCoarseInAndStartTimeBetweenAndRecurrenceRuleIsNull(
+            Collection<String> cells, LocalDateTime start, LocalDateTime end);
+
+    // Recurring series in the given fine/coarse search cells that may have an occurrence starting within [start, end]
+    @Query("select e from CalendarEvent e where e.geohashFine in :cells "
+            + "and e.recurrenceRule is not null and e.startTime <= :end "
+            + "and (e.recurrenceUntil is null or e.recurrenceUntil >= :start)")
+    List<CalendarEvent> findRecurringSeriesInFineCells(@Param("cells") Collection<String> cells,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
+
+    @Query("select e from CalendarEvent e where e.geohashCoarse in :cells "
+            + "and e.recurrenceRule is not null and e.startTime <= :end "
+            + "and (e.recurrenceUntil is null or e.recurrenceUntil >= :start)")
+    List<CalendarEvent> findRecurringSeriesInCoarseCells(@Param("cells") Collection<String> cells,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end);
+
+    // Positions of single events with coordinates, keyset-paginated by id (used to build the cluster index)
+    @Query("select e.id as id, e.latitude as latitude, e.longitude as longitude, e.startTime as startTime "
+            + "from CalendarEvent e where e.latitude is not null and e.recurrenceRule is null and e.id > :afterId order by e.id")
+    List<CalendarEventPoint> findPointsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Recurring series with coordinates
+    List<CalendarEvent> findByRecurrenceRuleIsNotNullAndLatitudeIsNotNull();
+
+    // Non-cancelled single events at a location overlapping [from, to). The lower bound on start_time keeps the
+    // scan of idx_calendar_events_location_key_start_time bounded; events starting before it are not considered.
+    @Query("select e.id as id, e.startTime as startTime, e.endTime as endTime from CalendarEvent e "
+            + "where e.locationKey = :locationKey and e.startTime >= :earliestStart and e.startTime < :to "
+            + "and e.endTime > :from and e.status <> pl.where2play.api.model.CalendarEvent.EventStatus.CANCELLED "
+            + "and e.recurrenceRule is null")
+    List<CalendarEventInterval> findOverlappingAtLocation(@Param("locationKey") String locationKey,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to,
+                                                          @Param("earliestStart") LocalDateTime earliestStart);
+
+    // Non-cancelled recurring series at a location that may have an occurrence overlapping [from, to)
+    @Query("select e from CalendarEvent e where e.locationKey = :locationKey and e.recurrenceRule is not null "
+            + "and e.startTime < :to and (e.recurrenceUntil is null or e.recurrenceUntil > :from) "
+            + "and e.status <> pl.where2play.api.model.CalendarEvent.EventStatus.CANCELLED")
+    List<CalendarEvent> findRecurringSeriesAtLocation(@Param("locationKey") String locationKey,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to);
+
+    // Overrides (moved, changed or cancelled occurrences) of the given series' occurrences originally starting within [start, end]
+    List<CalendarEvent> findBySeriesIdInAndOriginalStartTimeBetween(Collection<Long> seriesIds, LocalDateTime start, LocalDateTime end);
+
+    // All overrides of a series
+    List<CalendarEvent> findBySeriesId(Long seriesId);
+
+    // Recurring series starting within [earliestStart, to), keyset-paginated by id
+    @Query("select e from CalendarEvent e where e.recurrenceRule is not null and e.startTime >= :earliestStart "
+            + "and e.startTime < :to and e.id > :afterId order by e.id")
+    List<CalendarEvent> findSeriesStartingBetweenAfterId(@Param("earliestStart") LocalDateTime earliestStart,
+                                                         @Param("to") LocalDateTime to,
+                                                         @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select max(e.startTime) from CalendarEvent e where e.recurrenceRule is not null")
+    LocalDateTime findMaxSeriesStartTime();
+
+    @Query("select min(e.startTime) from CalendarEvent e")
+    LocalDateTime findMinStartTime();
+
+    @Query("select max(e.startTime) from CalendarEvent e")
+    LocalDateTime findMaxStartTime();
+
+    // Archivable events after 'afterId': past completed or cancelled single events (series and their overrides stay).
+    // The rows are locked so that concurrent updates wait until the batch has been moved.
+    @Query(value = "SELECT id FROM calendar_events WHERE status IN ('COMPLETED', 'CANCELLED') AND end_time < :cutoff "
+            + "AND recurrence_rule IS NULL AND series_id IS NULL AND id > :afterId ORDER BY id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO calendar_events_archive (" + EVENT_COLUMNS + ", archived_at) "
+            + "SELECT " + EVENT_COLUMNS + ", :archivedAt FROM calendar_events WHERE id IN (:ids)", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query(value = "SELECT id FROM calendar_events_archive WHERE id IN (:ids)", nativeQuery = true)
+    List<Long> findArchivedIds(@Param("ids") Collection<Long> ids);
+
+    // Reads from calendar_events_archive, mapped onto the entity
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive WHERE id = :id", nativeQuery = true)
+    Optional<CalendarEvent> findArchivedById(@Param("id") Long id);
+
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive "
+            + "WHERE LOWER(title) LIKE LOWER(CONCAT('%', :title, '%'))", nativeQuery = true)
+    List<CalendarEvent> findArchivedByTitleContaining(@Param("title") String title);
+
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive "
+            + "WHERE start_time >= :start AND start_time <= :end", nativeQuery = true)
+    List<CalendarEvent> findArchivedByStartTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive WHERE status = :status", nativeQuery = true)
+    List<CalendarEvent> findArchivedByStatus(@Param("status") String status);
+
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive "
+            + "WHERE LOWER(location) LIKE LOWER(CONCAT('%', :location, '%'))", nativeQuery = true)
+    List<CalendarEvent> findArchivedByLocationContaining(@Param("location") String location);
+
+    @Query(value = "SELECT " + EVENT_COLUMNS + " FROM calendar_events_archive WHERE created_by = :createdBy", nativeQuery = true)
+    List<CalendarEvent> findArchivedByCreatedBy(@Param("createdBy") String createdBy);
+}
@@ -0,0 +1,43 @@
+package pl.where2play.api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Set-based status changes of calendar events.
+ * Each changed row gets its own value of the change sequence, so delta sync picks the changes up like single updates.
+ */
+@Repository
+public class CalendarEventStatusUpdates {
+
+    private final EntityManager entityManager;
+    private final CalendarEventChangeSequence changeSequence;
+
+    public CalendarEventStatusUpdates(EntityManager entityManager, CalendarEventChangeSequence changeSequence) {
+        this.entityManager = entityManager;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Moves the given events from {@code from} to {@code to} in one statement; events no longer in {@code from}
+     * are left alone. Must run in a transaction.
+     *
+     * @return the number of events changed
+     */
+    public int changeStatus(Collection<Long> ids, CalendarEvent.EventStatus from, CalendarEvent.EventStatus to,
+                            LocalDateTime updatedAt) {
+        changeSequence.register();
+        return entityManager.createNativeQuery("UPDATE calendar_events SET status = :to, updated_at = :updatedAt, "
+                        + "change_seq = " + changeSequence.nextValueExpression() + " "
+                        + "WHERE id IN (:ids) AND status = :from")
+                .setParameter("to", to.name())
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("ids", ids)
+                .setParameter("from", from.name())
+                .executeUpdate();
+    }
+}
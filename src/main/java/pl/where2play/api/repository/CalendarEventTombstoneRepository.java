@@ -0,0 +1,29 @@
+package pl.where2play.api.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.where2play.api.model.CalendarEventTombstone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CalendarEventTombstoneRepository extends JpaRepository<CalendarEventTombstone, Long> {
+
+    // Find tombstones recorded after the given change sequence and below the horizon (backed by idx_calendar_event_tombstones_change_seq)
+    List<CalendarEventTombstone> findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(Long changeSeq, Long horizon,
+                                                                                                   Pageable pageable);
+
+    // Highest change sequence of a tombstone below the horizon (null if there is none)
+    @Query("select max(t.changeSeq) from CalendarEventTombstone t where t.changeSeq < :horizon")
+    Long findMaxChangeSeqBelow(@Param("horizon") Long horizon);
+
+    // Purge tombstones older than the retention period
+    @Modifying
+    @Query("delete from CalendarEventTombstone t where t.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,190 @@
+package pl.where2play.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.config.SchedulerLock;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.repository.CalendarEventBulkDeletes;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves past completed and cancelled events from {@code calendar_events} to {@code calendar_events_archive}.
+ * <p>
+ * Events are moved in batches, each in its own transaction: the batch's rows are locked, copied to the archive
+ * and deleted, so a transaction never holds more than {@code batch-size} row locks. The job pauses between
+ * batches to leave room for regular traffic and stops after {@code max-run-duration}; the next run continues.
+ * Series masters and their overrides are left in place since occurrences are computed from them.
+ * <p>
+ * For everything reading the hot table an archived event is deleted: each one leaves a tombstone, so delta sync
+ * drops it, and each batch is published as {@code ARCHIVED} changes, so caches and the change feed follow. The daily
+ * stats keep counting archived events.
+ * <p>
+ * Publishes the number of moved rows, the throughput of the last run and the size of the hot table as metrics.
+ */
+@Slf4j
+@Component
+public class CalendarEventArchiveJob {
+
+    static final String LOCK_NAME = "calendar-event-archive";
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final CalendarEventBulkDeletes bulkDeletes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SchedulerLock schedulerLock;
+    private final Bulkheads bulkheads;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final Counter archivedRows;
+    private final AtomicLong hotTableRows = new AtomicLong();
+    private final AtomicLong hotTableBytes = new AtomicLong(-1);
+    private volatile double lastRunRowsPerSecond;
+
+    @Value("${calendar-events.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${calendar-events.archive.archive-after:P180D}")
+    private Duration archiveAfter = Duration.ofDays(180);
+
+    @Value("${calendar-events.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${calendar-events.archive.pause-between-batches:PT0.2S}")
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+
+    @Value("${calendar-events.archive.max-run-duration:PT30M}")
+    private Duration maxRunDuration = Duration.ofMinutes(30);
+
+    @Value("${calendar-events.archive.lock-at-most-for:PT1H}")
+    private Duration lockAtMostFor = Duration.ofHours(1);
+
+    public CalendarEventArchiveJob(CalendarEventRepository calendarEventRepository,
+                                   CalendarEventBulkDeletes bulkDeletes,
+                                   ApplicationEventPublisher eventPublisher,
+                                   SchedulerLock schedulerLock,
+                                   Bulkheads bulkheads,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.bulkDeletes = bulkDeletes;
+        this.eventPublisher = eventPublisher;
+        this.schedulerLock = schedulerLock;
+        this.bulkheads = bulkheads;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.archivedRows = Counter.builder("calendar.events.archive.rows")
+                .description("Events moved to the archive")
+                .register(meterRegistry);
+        Gauge.builder("calendar.events.archive.rate", this, job -> job.lastRunRowsPerSecond)
+                .description("Events moved per second during the last archive run")
+                .register(meterRegistry);
+        Gauge.builder("calendar.events.hot.rows", hotTableRows, AtomicLong::get)
+                .description("Rows in calendar_events after the last archive run")
+                .register(meterRegistry);
+        Gauge.builder("calendar.events.hot.size", hotTableBytes, AtomicLong::get)
+                .description("Size of calendar_events including indexes after the last archive run (-1 if unknown)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${calendar-events.archive.cron:0 45 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            schedulerLock.runExclusively(LOCK_NAME, lockAtMostFor, this::archive);
+        }
+    }
+
+    /**
+     * Archives events that ended before now minus {@code archive-after}. Callers are responsible for cluster-wide exclusion.
+     */
+    public ArchiveResult archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+        long started = System.nanoTime();
+        long deadline = started + maxRunDuration.toNanos();
+        long moved = 0;
+        int batches = 0;
+        long afterId = 0;
+        while (true) {
+            long batchAfterId = afterId;
+            List<Long> archived = bulkheads.call(Workload.JOB,
+                    () -> batchTransaction.execute(tx -> archiveBatch(cutoff, batchAfterId)));
+            if (archived == null || archived.isEmpty()) {
+                break;
+            }
+            moved += archived.size();
+            batches++;
+            afterId = archived.get(archived.size() - 1);
+            archivedRows.increment(archived.size());
+            if (archived.size() < batchSize || System.nanoTime() > deadline || !pause()) {
+                break;
+            }
+        }
+
+        double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        lastRunRowsPerSecond = moved / seconds;
+        refreshHotTableStats();
+        log.info("Archived {} calendar events ended before {} in {} batches ({} rows/s)",
+                moved, cutoff, batches, Math.round(lastRunRowsPerSecond));
+        return new ArchiveResult(moved, batches, lastRunRowsPerSecond);
+    }
+
+    List<Long> archiveBatch(LocalDateTime cutoff, long afterId) {
+        List<Long> ids = calendarEventRepository.lockArchivableIds(cutoff, afterId, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        // Loaded before the move, so that listeners get the archived state as with deletes
+        List<CalendarEvent> events = calendarEventRepository.findAllById(ids);
+        LocalDateTime now = LocalDateTime.now();
+        int copied = calendarEventRepository.copyToArchive(ids, now);
+        int deleted = bulkDeletes.delete(ids, now);
+        if (copied != ids.size() || deleted != ids.size()) {
+            // Rolls the batch back
+            throw new IllegalStateException("Archive batch moved " + copied + " and deleted " + deleted + " of " + ids.size() + " events");
+        }
+        eventPublisher.publishEvent(new CalendarEventsChangedEvent(events.stream().map(CalendarEventChange::archived).toList()));
+        return ids;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void refreshHotTableStats() {
+        hotTableRows.set(calendarEventRepository.count());
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(product)) {
+            // Partitioned tables have no storage of their own; add up their partitions
+            Long bytes = jdbcTemplate.queryForObject("SELECT pg_total_relation_size('calendar_events') + COALESCE("
+                    + "(SELECT SUM(pg_total_relation_size(inhrelid)) FROM pg_inherits WHERE inhparent = 'calendar_events'::regclass), 0)",
+                    Long.class);
+            hotTableBytes.set(bytes == null ? -1 : bytes);
+        }
+    }
+
+    public record ArchiveResult(long rowsMoved, int batches, double rowsPerSecond) {
+    }
+}
@@ -0,0 +1,25 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to events moved to {@code calendar_events_archive}. Returned events are marked as archived.
+ */
+public interface CalendarEventArchiveService {
+
+    Optional<CalendarEvent> getArchivedEventById(Long id);
+
+    List<CalendarEvent> searchArchivedEventsByTitle(String title);
+
+    List<CalendarEvent> getArchivedEventsBetweenDates(LocalDateTime start, LocalDateTime end);
+
+    List<CalendarEvent> getArchivedEventsByStatus(CalendarEvent.EventStatus status);
+
+    List<CalendarEvent> getArchivedEventsByLocation(String location);
+
+    List<CalendarEvent> getArchivedEventsByCreator(String createdBy);
+}
@@ -0,0 +1,59 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CalendarEventArchiveServiceImpl implements CalendarEventArchiveService {
+
+    private final CalendarEventRepository calendarEventRepository;
+
+    @Override
+    public Optional<CalendarEvent> getArchivedEventById(Long id) {
+        return calendarEventRepository.findArchivedById(id).map(CalendarEventArchiveServiceImpl::markArchived);
+    }
+
+    @Override
+    public List<CalendarEvent> searchArchivedEventsByTitle(String title) {
+        return markArchived(calendarEventRepository.findArchivedByTitleContaining(title));
+    }
+
+    @Override
+    public List<CalendarEvent> getArchivedEventsBetweenDates(LocalDateTime start, LocalDateTime end) {
+        return markArchived(calendarEventRepository.findArchivedByStartTimeBetween(start, end));
+    }
+
+    @Override
+    public List<CalendarEvent> getArchivedEventsByStatus(CalendarEvent.EventStatus status) {
+        return markArchived(calendarEventRepository.findArchivedByStatus(status.name()));
+    }
+
+    @Override
+    public List<CalendarEvent> getArchivedEventsByLocation(String location) {
+        return markArchived(calendarEventRepository.findArchivedByLocationContaining(location));
+    }
+
+    @Override
+    public List<CalendarEvent> getArchivedEventsByCreator(String createdBy) {
+        return markArchived(calendarEventRepository.findArchivedByCreatedBy(createdBy));
+    }
+
+    private static List<CalendarEvent> markArchived(List<CalendarEvent> events) {
+        events.forEach(CalendarEventArchiveServiceImpl::markArchived);
+        return events;
+    }
+
+    private static CalendarEvent markArchived(CalendarEvent event) {
+        event.setArchived(true);
+        return event;
+    }
+}
@@ -0,0 +1,43 @@
+package pl.where2play.api.service;
+
+import lombok.Value;
+import pl.where2play.api.model.CalendarEvent;
+
+/**
+ * A single change applied to a calendar event.
+ * Carries snapshots of the event before and after the change so that listeners
+ * can work out deltas without reading the database again.
+ */
+@Value
+public class CalendarEventChange {
+
+    Type type;
+    Long eventId;
+    // State before the change (null for CREATED)
+    CalendarEvent before;
+    // State after the change (null for DELETED and ARCHIVED)
+    CalendarEvent after;
+
+    public static CalendarEventChange created(CalendarEvent after) {
+        return new CalendarEventChange(Type.CREATED, after.getId(), null, after);
+    }
+
+    public static CalendarEventChange updated(CalendarEvent before, CalendarEvent after) {
+        return new CalendarEventChange(Type.UPDATED, after.getId(), before, after);
+    }
+
+    public static CalendarEventChange deleted(CalendarEvent before) {
+        return new CalendarEventChange(Type.DELETED, before.getId(), before, null);
+    }
+
+    /**
+     * Moved to the archive: gone from the hot table like a deleted event, but still counted in the daily stats.
+     */
+    public static CalendarEventChange archived(CalendarEvent before) {
+        return new CalendarEventChange(Type.ARCHIVED, before.getId(), before, null);
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, ARCHIVED
+    }
+}
@@ -0,0 +1,383 @@
+package pl.where2play.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Server-Sent Events feed of calendar event changes.
+ * <p>
+ * Every instance reads committed changes of all instances from the database ({@link CalendarEventChangeLog}),
+ * every {@code poll-interval} and right after its own commits. Event IDs are change sequence values, so a client
+ * can resume with {@code Last-Event-ID} on any instance and after restarts; positions the history of this instance
+ * no longer covers get a {@code resync} event instead.
+ * <p>
+ * All subscribers read from a single shared ring buffer holding the most recent changes, each already
+ * serialized to JSON. A subscriber is just a cursor into that buffer, so the per-subscriber cost does
+ * not depend on how many changes are pending. Subscribers that fall so far behind that their cursor
+ * has been overwritten are disconnected; they can reconnect with {@code Last-Event-ID}.
+ * <p>
+ * At most one send per subscriber is in progress at any time, so a stalled client ties up at most one
+ * dispatch thread. Subscribers whose send has not finished within the send timeout are dropped and get no
+ * further sends; the blocked write itself ends with the container's write timeout, which then closes the stream.
+ */
+@Slf4j
+@Component
+public class CalendarEventChangeFeed {
+
+    static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final CalendarEventChangeLog changeLog;
+    private final int historySize;
+    private final int maxBatchFanout;
+    private final long emitterTimeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Executor dispatchExecutor;
+    private final ExecutorService pollExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+
+    // Shared fan-out buffer; slot = position % historySize
+    private final AtomicReferenceArray<FeedEntry> history;
+    // Position of the most recently published entry (0 = nothing published yet)
+    private volatile long lastPosition;
+    // Change sequence the history covers from: every change after it is in the history (-1 = not started yet)
+    private volatile long coveredFrom = -1;
+    // Change sequence up to which changes have been read from the database; only touched while polling
+    private long polledSeq = -1;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CalendarEventChangeFeed(ObjectMapper objectMapper,
+                                   CalendarEventChangeLog changeLog,
+                                   @Value("${calendar-events.change-feed.history-size:10000}") int historySize,
+                                   @Value("${calendar-events.change-feed.max-batch-fanout:1000}") int maxBatchFanout,
+                                   @Value("${calendar-events.change-feed.emitter-timeout:PT30M}") Duration emitterTimeout,
+                                   @Value("${calendar-events.change-feed.send-timeout:PT10S}") Duration sendTimeout,
+                                   @Value("${calendar-events.change-feed.dispatch-threads:4}") int dispatchThreads) {
+        this(objectMapper, changeLog, historySize, maxBatchFanout, emitterTimeout, sendTimeout,
+                newDispatchExecutor(dispatchThreads));
+    }
+
+    CalendarEventChangeFeed(ObjectMapper objectMapper, CalendarEventChangeLog changeLog, int historySize,
+                            int maxBatchFanout, Duration emitterTimeout, Duration sendTimeout, Executor dispatchExecutor) {
+        this.objectMapper = objectMapper;
+        this.changeLog = changeLog;
+        this.historySize = historySize;
+        this.maxBatchFanout = maxBatchFanout;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.dispatchExecutor = dispatchExecutor;
+        this.history = new AtomicReferenceArray<>(historySize);
+    }
+
+    /**
+     * Opens a new subscription.
+     *
+     * @param lastEventId the last change sequence the client has seen (from the {@code Last-Event-ID} header), or null
+     * @return the emitter streaming changes to the client
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        register(emitter, lastEventId);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter, Long lastEventId) {
+        long head = lastPosition;
+        Subscriber subscriber = new Subscriber(emitter, head + 1);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        if (lastEventId != null) {
+            long covered = coveredFrom;
+            Long cursor = covered < 0 || lastEventId < covered ? null : positionAfter(lastEventId, head);
+            if (cursor != null) {
+                subscriber.cursor = cursor;
+                // Another instance may already have delivered changes this one has not read yet
+                subscriber.skipThrough = lastEventId;
+            } else {
+                // History no longer covers the client's position (or this instance has just started)
+                log.debug("Last-Event-ID {} not covered by history from {}, requesting resync", lastEventId, covered);
+                FeedEntry last = head > 0 ? history.get(slot(head)) : null;
+                long resyncId = last != null && last.position == head ? last.changeSeq : Math.max(0, covered);
+                if (!send(subscriber, SseEmitter.event().id(String.valueOf(resyncId)).name(RESYNC_EVENT).data("{}"))) {
+                    return;
+                }
+                subscriber.skipThrough = resyncId;
+            }
+        }
+
+        subscribers.add(subscriber);
+        // Catch up on anything published between reading the head and registering
+        signal(subscriber);
+    }
+
+    /**
+     * Reads changes committed by any instance since the last poll and appends them to the feed.
+     */
+    @Scheduled(fixedDelayString = "${calendar-events.change-feed.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (polledSeq < 0) {
+            // Start from now: earlier positions are not covered and get a resync
+            polledSeq = changeLog.lastFinal();
+            coveredFrom = polledSeq;
+            return;
+        }
+        CalendarEventChangeLog.Batch batch;
+        do {
+            batch = changeLog.readAfter(polledSeq, maxBatchFanout);
+            if (batch.truncated()) {
+                // Bulk operations would flush the whole history; ask clients to resync instead
+                publish(batch.lastSeq(), RESYNC_EVENT, Map.of());
+            }
+            for (CalendarEventChangeLog.Change change : batch.changes()) {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("type", change.type());
+                payload.put("eventId", change.eventId());
+                payload.put("event", change.event());
+                publish(change.changeSeq(), change.type().name().toLowerCase(), payload);
+            }
+            polledSeq = batch.lastSeq();
+        } while (batch.changes().size() == maxBatchFanout);
+    }
+
+    /**
+     * Polls right after changes were committed on this instance, so that they do not wait for the next poll.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsChanged(CalendarEventsChangedEvent event) {
+        if (pollRequested.compareAndSet(false, true)) {
+            pollExecutor.execute(() -> {
+                pollRequested.set(false);
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    log.warn("Change feed poll failed, retrying with the next scheduled poll", e);
+                }
+            });
+        }
+    }
+
+    private void publish(long changeSeq, String name, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize change feed entry", e);
+            return;
+        }
+
+        synchronized (this) {
+            long position = lastPosition + 1;
+            FeedEntry overwritten = history.get(slot(position));
+            if (overwritten != null) {
+                coveredFrom = overwritten.changeSeq;
+            }
+            history.set(slot(position), new FeedEntry(position, changeSeq, name, json));
+            lastPosition = position;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            signal(subscriber);
+        }
+    }
+
+    /**
+     * Sends a comment line to every idle subscriber so that dead connections are detected
+     * and intermediaries do not close idle streams, and drops subscribers whose send is stuck.
+     */
+    @Scheduled(fixedDelayString = "${calendar-events.change-feed.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long sendStartedAt = subscriber.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutNanos) {
+                disconnectStalledConsumer(subscriber);
+            } else if (subscriber.draining.compareAndSet(false, true)) {
+                // A subscriber that is being drained is receiving data anyway and needs no heartbeat
+                dispatchExecutor.execute(() -> {
+                    if (send(subscriber, SseEmitter.event().comment("heartbeat"))) {
+                        drain(subscriber);
+                    }
+                });
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+
+    private void signal(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatchExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            long head = lastPosition;
+            while (subscriber.cursor <= head) {
+                FeedEntry entry = history.get(slot(subscriber.cursor));
+                if (entry == null || entry.position != subscriber.cursor) {
+                    disconnectSlowConsumer(subscriber);
+                    return;
+                }
+                if (entry.changeSeq > subscriber.skipThrough) {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                            .id(String.valueOf(entry.changeSeq))
+                            .name(entry.name)
+                            .data(entry.json);
+                    if (!send(subscriber, builder)) {
+                        return;
+                    }
+                }
+                subscriber.cursor++;
+            }
+
+            subscriber.draining.set(false);
+            // Re-check: a publish may have happened after we read the head but before we released the flag
+            if (lastPosition < subscriber.cursor || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder builder) {
+        if (subscriber.dropped) {
+            return false;
+        }
+        subscriber.sendStartedAt = Math.max(1, System.nanoTime());
+        try {
+            subscriber.emitter.send(builder);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, the emitter already completed or the write timed out
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+        if (subscriber.dropped) {
+            // The send completed after all, but too late; the subscriber was dropped meanwhile
+            subscriber.emitter.completeWithError(new IOException("Change feed send timed out"));
+            return false;
+        }
+        return true;
+    }
+
+    private void disconnectStalledConsumer(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        log.info("Disconnecting stalled change feed subscriber, send pending for more than {} ms",
+                Duration.ofNanos(sendTimeoutNanos).toMillis());
+        // Completing the emitter would wait for the stuck send; the sending thread completes it once the send ends
+        subscriber.dropped = true;
+    }
+
+    private void disconnectSlowConsumer(Subscriber subscriber) {
+        log.info("Disconnecting slow change feed subscriber at position {} (head {})", subscriber.cursor, lastPosition);
+        subscribers.remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    /**
+     * Returns the position of the first entry after the given change sequence, or null if it is no longer in
+     * the history.
+     */
+    private Long positionAfter(long changeSeq, long head) {
+        long low = Math.max(1, head - historySize + 1);
+        long high = head + 1;
+        // Entries are ordered by change sequence; find the first one above it
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            FeedEntry entry = history.get(slot(middle));
+            if (entry == null || entry.position != middle) {
+                return null;
+            }
+            if (entry.changeSeq > changeSeq) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private int slot(long position) {
+        return (int) (position % historySize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollExecutor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (dispatchExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newDispatchExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record FeedEntry(long position, long changeSeq, String name, String json) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the send in progress started (0 = no send in progress)
+        private volatile long sendStartedAt;
+        // Dropped after its send stalled; nothing more is sent to it
+        private volatile boolean dropped;
+        // Next position to deliver; only touched by the thread holding 'draining' (or before registration)
+        private long cursor;
+        // Entries up to this change sequence were already seen by the client
+        private long skipThrough = -1;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package pl.where2play.api.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventTombstone;
+import pl.where2play.api.repository.CalendarEventChangeSequence;
+import pl.where2play.api.repository.CalendarEventRepository;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads committed changes of all instances from the database in change sequence order, for the change feed.
+ * <p>
+ * Like delta sync, it only returns changes below the {@linkplain CalendarEventChangeSequence#horizon() horizon},
+ * so a change read once is never followed by a lower one. Created and updated events come from the events table
+ * (an event whose {@code updatedAt} equals its {@code createdAt} was never updated); deleted and archived ones
+ * from the tombstones, archived ones being those found in the archive table.
+ */
+@Component
+public class CalendarEventChangeLog {
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final CalendarEventTombstoneRepository tombstoneRepository;
+    private final CalendarEventChangeSequence changeSequence;
+    private final TransactionTemplate readTransaction;
+
+    public CalendarEventChangeLog(CalendarEventRepository calendarEventRepository,
+                                  CalendarEventTombstoneRepository tombstoneRepository,
+                                  CalendarEventChangeSequence changeSequence,
+                                  PlatformTransactionManager transactionManager) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeSequence = changeSequence;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the highest change sequence value of a change that is final, or 0 if there is none.
+     */
+    public long lastFinal() {
+        return readTransaction.execute(tx -> lastBelow(changeSequence.horizon()));
+    }
+
+    /**
+     * Reads up to {@code limit} final changes after {@code afterSeq}. If there are more, the batch is truncated:
+     * it holds no changes and {@link Batch#lastSeq()} is the last final change, so that the reader can skip them.
+     */
+    public Batch readAfter(long afterSeq, int limit) {
+        return readTransaction.execute(tx -> {
+            long horizon = changeSequence.horizon();
+            // One extra row from each source tells whether there are more
+            PageRequest window = PageRequest.of(0, limit + 1);
+            List<CalendarEvent> events = calendarEventRepository
+                    .findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(afterSeq, horizon, window);
+            List<CalendarEventTombstone> tombstones = tombstoneRepository
+                    .findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(afterSeq, horizon, window);
+            if (events.size() + tombstones.size() > limit) {
+                return new Batch(List.of(), lastBelow(horizon), true);
+            }
+
+            Set<Long> archivedIds = tombstones.isEmpty() ? Set.of() : new HashSet<>(calendarEventRepository
+                    .findArchivedIds(tombstones.stream().map(CalendarEventTombstone::getEventId).toList()));
+            List<Change> changes = new ArrayList<>(events.size() + tombstones.size());
+            int eventIndex = 0;
+            int tombstoneIndex = 0;
+            while (eventIndex < events.size() || tombstoneIndex < tombstones.size()) {
+                boolean takeEvent = tombstoneIndex >= tombstones.size()
+                        || (eventIndex < events.size()
+                        && events.get(eventIndex).getChangeSeq() < tombstones.get(tombstoneIndex).getChangeSeq());
+                if (takeEvent) {
+                    CalendarEvent event = events.get(eventIndex++);
+                    CalendarEventChange.Type type = event.getUpdatedAt() != null && event.getUpdatedAt().equals(event.getCreatedAt())
+                            ? CalendarEventChange.Type.CREATED : CalendarEventChange.Type.UPDATED;
+                    changes.add(new Change(event.getChangeSeq(), type, event.getId(), event));
+                } else {
+                    CalendarEventTombstone tombstone = tombstones.get(tombstoneIndex++);
+                    CalendarEventChange.Type type = archivedIds.contains(tombstone.getEventId())
+                            ? CalendarEventChange.Type.ARCHIVED : CalendarEventChange.Type.DELETED;
+                    changes.add(new Change(tombstone.getChangeSeq(), type, tombstone.getEventId(), null));
+                }
+            }
+            return new Batch(changes, changes.isEmpty() ? afterSeq : changes.get(changes.size() - 1).changeSeq(), false);
+        });
+    }
+
+    private long lastBelow(long horizon) {
+        Long lastEvent = calendarEventRepository.findMaxChangeSeqBelow(horizon);
+        Long lastTombstone = tombstoneRepository.findMaxChangeSeqBelow(horizon);
+        return Math.max(lastEvent == null ? 0 : lastEvent, lastTombstone == null ? 0 : lastTombstone);
+    }
+
+    /**
+     * A committed change; {@code event} is the event after the change, null for deletions.
+     */
+    public record Change(long changeSeq, CalendarEventChange.Type type, Long eventId, CalendarEvent event) {
+    }
+
+    /**
+     * Changes read in one go, and the change sequence value to continue after.
+     */
+    public record Batch(List<Change> changes, long lastSeq, boolean truncated) {
+    }
+}
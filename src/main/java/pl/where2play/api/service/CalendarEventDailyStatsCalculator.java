@@ -0,0 +1,257 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.model.LocationKeys;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Works out which daily aggregate rows an event contributes to.
+ * Used both for incremental maintenance and by the repair job, so that both count events the same way.
+ * <p>
+ * A recurring series counts each of its occurrences starting within {@link #SERIES_HORIZON_DAYS} of the series
+ * start, like a single event with the series' status, location and duration. Exception dates and occurrences
+ * replaced by an override are left out; overrides are counted as the regular events they are. The horizon is
+ * fixed relative to the series start, so that the counts of a series do not depend on when they are computed.
+ */
+final class CalendarEventDailyStatsCalculator {
+
+    // Upper bound of days a single event is counted on, protecting the aggregate from runaway end times
+    static final int MAX_DAYS_PER_EVENT = 366;
+    // Occurrences of a series are counted if they start within this many days of the series start
+    static final int SERIES_HORIZON_DAYS = 2 * 366;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private CalendarEventDailyStatsCalculator() {
+    }
+
+    /**
+     * Net change of every aggregate row affected by the given changes, for changes that involve no recurring
+     * series (e.g. generated single events).
+     */
+    static Map<CalendarEventDailyStat.Key, Long> deltas(List<CalendarEventChange> changes) {
+        return deltas(changes, SeriesState.NONE);
+    }
+
+    /**
+     * Net change of every aggregate row affected by the given changes. Rows whose contributions
+     * cancel out (e.g. an update that only changed the title) are omitted.
+     * The map is sorted so that rows are always updated in the same order, avoiding deadlocks.
+     *
+     * @param series state of the series touched by the changes, after the changes
+     */
+    static Map<CalendarEventDailyStat.Key, Long> deltas(List<CalendarEventChange> changes, SeriesState series) {
+        Map<CalendarEventDailyStat.Key, Long> deltas = new TreeMap<>();
+        Map<Long, SeriesChange> seriesChanges = new LinkedHashMap<>();
+        for (CalendarEventChange change : changes) {
+            addOwnContribution(deltas, seriesChanges, change, change.getBefore(), -1);
+            addOwnContribution(deltas, seriesChanges, change, change.getAfter(), 1);
+        }
+
+        seriesChanges.forEach((seriesId, change) -> {
+            Set<Long> overriddenAfter = series.overriddenStarts(seriesId);
+            Set<Long> overriddenBefore = new HashSet<>(overriddenAfter);
+            overriddenBefore.removeAll(change.overridesAdded);
+            overriddenBefore.addAll(change.overridesRemoved);
+            if (change.masterChanged) {
+                addContribution(deltas, change.masterBefore, -1, LocalDate.MIN, LocalDate.MAX, overriddenBefore);
+                addContribution(deltas, change.masterAfter, 1, LocalDate.MIN, LocalDate.MAX, overriddenAfter);
+                return;
+            }
+            // Only overrides changed: just the occurrences they released or replaced move
+            CalendarEvent master = series.master(seriesId);
+            if (master == null || master.getRecurrenceRule() == null) {
+                return;
+            }
+            for (Long start : overriddenBefore) {
+                if (!overriddenAfter.contains(start)) {
+                    addOccurrence(deltas, master, start, 1, LocalDate.MIN, LocalDate.MAX);
+                }
+            }
+            for (Long start : overriddenAfter) {
+                if (!overriddenBefore.contains(start)) {
+                    addOccurrence(deltas, master, start, -1, LocalDate.MIN, LocalDate.MAX);
+                }
+            }
+        });
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    /**
+     * Counts a single event or override right away; series masters and the occurrences overrides replace are
+     * collected per series, since they depend on the other overrides of the series.
+     */
+    private static void addOwnContribution(Map<CalendarEventDailyStat.Key, Long> deltas, Map<Long, SeriesChange> seriesChanges,
+                                           CalendarEventChange change, CalendarEvent event, long sign) {
+        if (event == null) {
+            return;
+        }
+        if (event.getRecurrenceRule() != null) {
+            SeriesChange seriesChange = seriesChanges.computeIfAbsent(change.getEventId(), id -> new SeriesChange());
+            seriesChange.masterChanged = true;
+            if (sign < 0) {
+                seriesChange.masterBefore = event;
+            } else {
+                seriesChange.masterAfter = event;
+            }
+            return;
+        }
+        addContribution(deltas, event, sign);
+        if (event.getSeriesId() != null && event.getOriginalStartTime() != null) {
+            SeriesChange seriesChange = seriesChanges.computeIfAbsent(event.getSeriesId(), id -> new SeriesChange());
+            long originalStart = RecurrenceExpander.toEpochSecond(event.getOriginalStartTime());
+            (sign < 0 ? seriesChange.overridesRemoved : seriesChange.overridesAdded).add(originalStart);
+        }
+    }
+
+    /**
+     * Adds {@code sign} to every row the event is counted in, optionally limited to days in [from, to).
+     * A series master is counted with all of its occurrences.
+     */
+    static void addContribution(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent event, long sign) {
+        addContribution(counts, event, sign, LocalDate.MIN, LocalDate.MAX);
+    }
+
+    static void addContribution(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent event, long sign,
+                                LocalDate from, LocalDate to) {
+        addContribution(counts, event, sign, from, to, Set.of());
+    }
+
+    /**
+     * Like {@link #addContribution(Map, CalendarEvent, long, LocalDate, LocalDate)}, leaving out the occurrences
+     * of a series master that start at one of {@code overriddenStarts} (epoch seconds of the overrides'
+     * {@code originalStartTime}).
+     */
+    static void addContribution(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent event, long sign,
+                                LocalDate from, LocalDate to, Set<Long> overriddenStarts) {
+        if (event == null || event.getStartTime() == null) {
+            return;
+        }
+        if (event.getRecurrenceRule() == null) {
+            addDays(counts, event, event.getStartTime(), lastDay(event), sign, from, to);
+            return;
+        }
+        // Only occurrences that can reach a day in [from, to) are expanded
+        long windowStart = toEpochSecond(event.getStartTime());
+        if (from.isAfter(event.getStartTime().toLocalDate())) {
+            windowStart = Math.max(windowStart, toEpochSecond(from.minusDays(MAX_DAYS_PER_EVENT - 1).atStartOfDay()));
+        }
+        long windowEnd = horizonEnd(event);
+        if (!to.equals(LocalDate.MAX)) {
+            windowEnd = Math.min(windowEnd, toEpochSecond(to.atStartOfDay()) - 1);
+        }
+        for (long start : occurrenceStarts(event, windowStart, windowEnd)) {
+            if (!overriddenStarts.contains(start)) {
+                addOccurrenceDays(counts, event, start, sign, from, to);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code sign} for the occurrence of the series starting at {@code start}, if the series has one there.
+     */
+    static void addOccurrence(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent series, long start, long sign,
+                              LocalDate from, LocalDate to) {
+        if (start <= horizonEnd(series) && occurrenceStarts(series, start, start).length == 1) {
+            addOccurrenceDays(counts, series, start, sign, from, to);
+        }
+    }
+
+    private static long[] occurrenceStarts(CalendarEvent series, long windowStart, long windowEnd) {
+        return RecurrenceExpander.expand(RecurrenceRule.parse(series.getRecurrenceRule()),
+                toEpochSecond(series.getStartTime()), RecurrenceExpander.parseExceptions(series.getRecurrenceExceptions()),
+                windowStart, windowEnd, Integer.MAX_VALUE, new RecurrenceExpander.LongList());
+    }
+
+    private static long horizonEnd(CalendarEvent series) {
+        return toEpochSecond(series.getStartTime()) + SERIES_HORIZON_DAYS * SECONDS_PER_DAY - 1;
+    }
+
+    private static void addOccurrenceDays(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent series, long start,
+                                          long sign, LocalDate from, LocalDate to) {
+        LocalDateTime startTime = RecurrenceExpander.occurrenceStart(series, start);
+        Duration duration = RecurrenceExpander.duration(series);
+        addDays(counts, series, startTime, lastDay(startTime, startTime.plus(duration)), sign, from, to);
+    }
+
+    private static void addDays(Map<CalendarEventDailyStat.Key, Long> counts, CalendarEvent event, LocalDateTime startTime,
+                                LocalDate lastDay, long sign, LocalDate from, LocalDate to) {
+        CalendarEvent.EventStatus status = event.getStatus() != null ? event.getStatus() : CalendarEvent.EventStatus.SCHEDULED;
+        String locationKey = LocationKeys.normalize(event.getLocation());
+        LocalDate firstDay = startTime.toLocalDate();
+        for (LocalDate day = firstDay.isBefore(from) ? from : firstDay; !day.isAfter(lastDay) && day.isBefore(to); day = day.plusDays(1)) {
+            counts.merge(new CalendarEventDailyStat.Key(day, status, locationKey), sign, Long::sum);
+        }
+    }
+
+    /**
+     * Last day the event is counted on. An event ending exactly at midnight does not cover the following day.
+     */
+    static LocalDate lastDay(CalendarEvent event) {
+        return lastDay(event.getStartTime(), event.getEndTime());
+    }
+
+    private static LocalDate lastDay(LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDate firstDay = startTime.toLocalDate();
+        if (endTime == null || !endTime.isAfter(startTime)) {
+            return firstDay;
+        }
+        LocalDate lastDay = endTime.minusNanos(1).toLocalDate();
+        LocalDate maxLastDay = firstDay.plusDays(MAX_DAYS_PER_EVENT - 1);
+        return lastDay.isAfter(maxLastDay) ? maxLastDay : lastDay;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return RecurrenceExpander.toEpochSecond(dateTime);
+    }
+
+    /**
+     * Current state of recurring series, for changes to overrides of series that did not change themselves.
+     */
+    interface SeriesState {
+
+        SeriesState NONE = new SeriesState() {
+            @Override
+            public CalendarEvent master(Long seriesId) {
+                return null;
+            }
+
+            @Override
+            public Set<Long> overriddenStarts(Long seriesId) {
+                return Set.of();
+            }
+        };
+
+        /**
+         * The series master, or null if it no longer exists.
+         */
+        CalendarEvent master(Long seriesId);
+
+        /**
+         * Epoch seconds of the {@code originalStartTime} of the series' overrides.
+         */
+        Set<Long> overriddenStarts(Long seriesId);
+    }
+
+    /**
+     * What the changes of one batch did to a series.
+     */
+    private static final class SeriesChange {
+        private boolean masterChanged;
+        private CalendarEvent masterBefore;
+        private CalendarEvent masterAfter;
+        private final Set<Long> overridesRemoved = new HashSet<>();
+        private final Set<Long> overridesAdded = new HashSet<>();
+    }
+}
@@ -0,0 +1,252 @@
+package pl.where2play.api.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.config.SchedulerLock;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.repository.CalendarEventDailyStatRepository;
+import pl.where2play.api.repository.CalendarEventDailyStatUpdates;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes {@code calendar_event_daily_stats} from the events table and corrects any drift.
+ * <p>
+ * The date range is processed in windows, each in its own short transaction: the window's days are locked
+ * exclusively, the events covering the window are read in keyset batches, and only rows whose stored count
+ * differs from the recomputed one are written. Drift is logged, since with incremental maintenance in place
+ * it points at writes that bypassed the service layer. Recurring series are read separately, as their
+ * occurrences reach the window from further back than single events.
+ */
+@Slf4j
+@Component
+public class CalendarEventDailyStatsRepairJob {
+
+    static final String LOCK_NAME = "calendar-event-daily-stats-repair";
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final CalendarEventDailyStatRepository dailyStatRepository;
+    private final CalendarEventDailyStatUpdates dailyStatUpdates;
+    private final SchedulerLock schedulerLock;
+    private final Bulkheads bulkheads;
+    private final EntityManager entityManager;
+    private final TransactionTemplate windowTransaction;
+
+    @Value("${calendar-events.stats.repair-window-days:31}")
+    private int windowDays = 31;
+
+    @Value("${calendar-events.stats.repair-batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${calendar-events.stats.repair-lock-at-most-for:PT1H}")
+    private Duration lockAtMostFor = Duration.ofHours(1);
+
+    @Value("${calendar-events.stats.repair-on-startup:true}")
+    private boolean repairOnStartup = true;
+
+    @Value("${calendar-events.archive.enabled:true}")
+    private boolean archiveEnabled = true;
+
+    @Value("${calendar-events.archive.archive-after:P180D}")
+    private Duration archiveAfter = Duration.ofDays(180);
+
+    public CalendarEventDailyStatsRepairJob(CalendarEventRepository calendarEventRepository,
+                                            CalendarEventDailyStatRepository dailyStatRepository,
+                                            CalendarEventDailyStatUpdates dailyStatUpdates,
+                                            SchedulerLock schedulerLock,
+                                            Bulkheads bulkheads,
+                                            EntityManager entityManager,
+                                            PlatformTransactionManager transactionManager) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.dailyStatRepository = dailyStatRepository;
+        this.dailyStatUpdates = dailyStatUpdates;
+        this.schedulerLock = schedulerLock;
+        this.bulkheads = bulkheads;
+        this.entityManager = entityManager;
+        this.windowTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${calendar-events.stats.repair-cron:0 0 4 * * *}")
+    public void scheduledRepair() {
+        schedulerLock.runExclusively(LOCK_NAME, lockAtMostFor, this::repair);
+    }
+
+    /**
+     * Builds the aggregate on first start (e.g. right after the table was introduced or the database was restored).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairIfEmptyOnStartup() {
+        if (repairOnStartup && dailyStatRepository.count() == 0 && calendarEventRepository.count() > 0) {
+            log.info("Daily stats aggregate is empty, building it from calendar events");
+            scheduledRepair();
+        }
+    }
+
+    /**
+     * Recomputes the whole aggregate. Callers are responsible for cluster-wide exclusion.
+     */
+    public RepairResult repair() {
+        LocalDate first = min(toDate(calendarEventRepository.findMinStartTime()), dailyStatRepository.findMinStatDate());
+        if (archiveEnabled && first != null) {
+            // Days up to the archive cutoff keep the counts of events that were moved to the archive
+            first = max(first, LocalDateTime.now().minus(archiveAfter).toLocalDate().plusDays(1));
+        }
+        LocalDate maxStart = toDate(calendarEventRepository.findMaxStartTime());
+        LocalDate maxSeriesStart = toDate(calendarEventRepository.findMaxSeriesStartTime());
+        LocalDate last = max(maxStart == null ? null : maxStart.plusDays(CalendarEventDailyStatsCalculator.MAX_DAYS_PER_EVENT - 1),
+                dailyStatRepository.findMaxStatDate());
+        if (maxSeriesStart != null) {
+            last = max(last, maxSeriesStart.plusDays(CalendarEventDailyStatsCalculator.SERIES_HORIZON_DAYS
+                    + CalendarEventDailyStatsCalculator.MAX_DAYS_PER_EVENT - 1));
+        }
+        if (first == null || last == null) {
+            return new RepairResult(0, 0, 0);
+        }
+
+        long started = System.nanoTime();
+        int windows = 0;
+        long rowsChecked = 0;
+        long rowsRepaired = 0;
+        for (LocalDate from = first; !from.isAfter(last); from = from.plusDays(windowDays)) {
+            LocalDate windowStart = from;
+            LocalDate windowEnd = min(from.plusDays(windowDays), last.plusDays(1));
+            RepairResult window = bulkheads.call(Workload.JOB,
+                    () -> windowTransaction.execute(tx -> repairWindow(windowStart, windowEnd)));
+            windows++;
+            rowsChecked += window.rowsChecked();
+            rowsRepaired += window.rowsRepaired();
+        }
+
+        RepairResult result = new RepairResult(windows, rowsChecked, rowsRepaired);
+        if (rowsRepaired > 0) {
+            log.warn("Daily stats repair corrected {} of {} rows between {} and {} ({} ms)", rowsRepaired, rowsChecked,
+                    first, last, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } else {
+            log.info("Daily stats repair found no drift in {} rows between {} and {} ({} ms)", rowsChecked,
+                    first, last, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+        return result;
+    }
+
+    /**
+     * Recomputes the rows of days in [from, to).
+     */
+    RepairResult repairWindow(LocalDate from, LocalDate to) {
+        // Lock the days first: writers that committed before this point are fully reflected in both tables,
+        // writers touching these days afterwards (including ones creating new rows) wait until the window is repaired
+        dailyStatUpdates.lockDaysExclusive(from, to);
+        Map<CalendarEventDailyStat.Key, CalendarEventDailyStat> stored = dailyStatRepository
+                .findByStatDateBetween(from, to.minusDays(1)).stream()
+                .collect(Collectors.toMap(CalendarEventDailyStat::getKey, Function.identity()));
+
+        Map<CalendarEventDailyStat.Key, Long> expected = new TreeMap<>();
+        LocalDateTime windowStart = from.atStartOfDay();
+        LocalDateTime windowEnd = to.atStartOfDay();
+        // Events are counted on at most MAX_DAYS_PER_EVENT days, so earlier starts cannot reach the window
+        LocalDateTime earliestStart = windowStart.minusDays(CalendarEventDailyStatsCalculator.MAX_DAYS_PER_EVENT - 1);
+        long afterId = 0;
+        List<CalendarEvent> batch;
+        do {
+            batch = calendarEventRepository.findCoveringDaysAfterId(windowStart, windowEnd, earliestStart, afterId, PageRequest.of(0, batchSize));
+            for (CalendarEvent event : batch) {
+                if (event.getRecurrenceRule() == null) {
+                    CalendarEventDailyStatsCalculator.addContribution(expected, event, 1, from, to);
+                }
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            // Keep the persistence context small; corrections below are written explicitly
+            entityManager.clear();
+        } while (batch.size() == batchSize);
+
+        // Occurrences of series counted on at most SERIES_HORIZON_DAYS after the series start
+        LocalDateTime earliestSeriesStart = earliestStart.minusDays(CalendarEventDailyStatsCalculator.SERIES_HORIZON_DAYS);
+        afterId = 0;
+        do {
+            batch = calendarEventRepository.findSeriesStartingBetweenAfterId(earliestSeriesStart, windowEnd, afterId, PageRequest.of(0, batchSize));
+            Map<Long, Set<Long>> overriddenStarts = new HashMap<>();
+            if (!batch.isEmpty()) {
+                for (CalendarEvent override : calendarEventRepository.findBySeriesIdInAndOriginalStartTimeBetween(
+                        batch.stream().map(CalendarEvent::getId).toList(), earliestStart, windowEnd)) {
+                    overriddenStarts.computeIfAbsent(override.getSeriesId(), id -> new HashSet<>())
+                            .add(RecurrenceExpander.toEpochSecond(override.getOriginalStartTime()));
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            for (CalendarEvent series : batch) {
+                CalendarEventDailyStatsCalculator.addContribution(expected, series, 1, from, to,
+                        overriddenStarts.getOrDefault(series.getId(), Set.of()));
+            }
+            entityManager.clear();
+        } while (batch.size() == batchSize);
+
+        TreeSet<CalendarEventDailyStat.Key> keys = new TreeSet<>(stored.keySet());
+        keys.addAll(expected.keySet());
+        long repaired = 0;
+        for (CalendarEventDailyStat.Key key : keys) {
+            long expectedCount = expected.getOrDefault(key, 0L);
+            CalendarEventDailyStat row = stored.get(key);
+            long storedCount = row == null ? 0 : row.getEventCount();
+            if (expectedCount == storedCount) {
+                if (row != null && storedCount == 0) {
+                    // Housekeeping: drop rows that are left empty after deletions
+                    dailyStatRepository.delete(row);
+                }
+                continue;
+            }
+            repaired++;
+            log.debug("Daily stats drift for {}: stored {}, expected {}", key, storedCount, expectedCount);
+            if (expectedCount == 0) {
+                dailyStatRepository.delete(row);
+            } else {
+                dailyStatRepository.save(new CalendarEventDailyStat(key.getStatDate(), key.getStatus(), key.getLocationKey(), expectedCount));
+            }
+        }
+        return new RepairResult(1, keys.size(), repaired);
+    }
+
+    private static LocalDate toDate(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+
+    public record RepairResult(int windows, long rowsChecked, long rowsRepaired) {
+    }
+}
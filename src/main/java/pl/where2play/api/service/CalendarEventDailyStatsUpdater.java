@@ -0,0 +1,69 @@
+package pl.where2play.api.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.repository.CalendarEventDailyStatUpdates;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code calendar_event_daily_stats} in step with calendar event changes.
+ * <p>
+ * Runs synchronously inside the transaction that changed the events, so the aggregate commits or rolls back
+ * together with them. Each batch is reduced to net per-row deltas first; changes that do not move an event
+ * between days, statuses or locations cost no writes at all. Every delta is a single upsert on the caller's
+ * connection, applied in key order so that concurrent writers lock rows in the same order.
+ * <p>
+ * Changes to recurring series and their overrides move the series' occurrences; the overrides of a series are
+ * read from the database on the same connection, so they include the changes being applied.
+ */
+@Component
+public class CalendarEventDailyStatsUpdater {
+
+    private final CalendarEventDailyStatUpdates dailyStatUpdates;
+    private final CalendarEventDailyStatsCalculator.SeriesState seriesState;
+
+    public CalendarEventDailyStatsUpdater(CalendarEventDailyStatUpdates dailyStatUpdates,
+                                          CalendarEventRepository calendarEventRepository) {
+        this.dailyStatUpdates = dailyStatUpdates;
+        this.seriesState = new CalendarEventDailyStatsCalculator.SeriesState() {
+            @Override
+            public CalendarEvent master(Long seriesId) {
+                return calendarEventRepository.findById(seriesId).orElse(null);
+            }
+
+            @Override
+            public Set<Long> overriddenStarts(Long seriesId) {
+                return calendarEventRepository.findBySeriesId(seriesId).stream()
+                        .filter(override -> override.getOriginalStartTime() != null)
+                        .map(override -> RecurrenceExpander.toEpochSecond(override.getOriginalStartTime()))
+                        .collect(Collectors.toSet());
+            }
+        };
+    }
+
+    @EventListener
+    public void onEventsChanged(CalendarEventsChangedEvent event) {
+        // Archived events keep counting on their days; the repair job leaves days up to the archive cutoff alone
+        applyDeltas(CalendarEventDailyStatsCalculator.deltas(event.getChanges().stream()
+                .filter(change -> change.getType() != CalendarEventChange.Type.ARCHIVED)
+                .toList(), seriesState));
+    }
+
+    void applyDeltas(Map<CalendarEventDailyStat.Key, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Keeps the repair job from recomputing these days until this transaction has committed
+        dailyStatUpdates.lockDaysShared(deltas.keySet().stream()
+                .map(CalendarEventDailyStat.Key::getStatDate)
+                .collect(Collectors.toSet()));
+        deltas.forEach((key, delta) ->
+                dailyStatUpdates.add(key.getStatDate(), key.getStatus().name(), key.getLocationKey(), delta));
+    }
+}
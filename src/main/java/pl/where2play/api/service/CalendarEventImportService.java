@@ -0,0 +1,25 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CalendarEventImportService {
+
+    /**
+     * Imports events from a CSV or iCalendar upload. The input is read row by row and valid rows are written
+     * in batches as they come, each batch in its own transaction; invalid rows are reported and skipped.
+     *
+     * @param input UTF-8 encoded upload
+     * @param format format of the upload
+     * @param createdBy creator set on rows that do not name one, or null
+     * @return counts and row-level errors
+     * @throws pl.where2play.api.exception.InvalidRequestException if the file itself is malformed (e.g. an unknown CSV column)
+     */
+    ImportReport importEvents(InputStream input, Format format, String createdBy) throws IOException;
+
+    enum Format {
+        CSV, ICS
+    }
+}
@@ -0,0 +1,179 @@
+package pl.where2play.api.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.config.Bulkhead;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.ImportReport;
+import pl.where2play.api.repository.CalendarEventBatchWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Slf4j
+@Service
+public class CalendarEventImportServiceImpl implements CalendarEventImportService {
+
+    // Text fields with the sizes of their calendar_events columns
+    private static final List<TextField> TEXT_FIELDS = List.of(
+            new TextField("title", CalendarEvent::getTitle, 255),
+            new TextField("description", CalendarEvent::getDescription, 1000),
+            new TextField("location", CalendarEvent::getLocation, 255),
+            new TextField("createdBy", CalendarEvent::getCreatedBy, 255),
+            new TextField("recurrenceRule", CalendarEvent::getRecurrenceRule, 500),
+            new TextField("recurrenceExceptions", CalendarEvent::getRecurrenceExceptions, 4000));
+
+    private final CalendarEventBatchWriter batchWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecurrenceExpander recurrenceExpander;
+    private final Validator validator;
+    private final TransactionTemplate batchTransaction;
+
+    @Value("${calendar-events.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${calendar-events.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    // Same limit as for single events, see CalendarEventServiceImpl
+    @Value("${calendar-events.availability.max-event-duration:P30D}")
+    private Duration maxEventDuration = Duration.ofDays(30);
+
+    public CalendarEventImportServiceImpl(CalendarEventBatchWriter batchWriter,
+                                          ApplicationEventPublisher eventPublisher,
+                                          RecurrenceExpander recurrenceExpander,
+                                          Validator validator,
+                                          PlatformTransactionManager transactionManager) {
+        this.batchWriter = batchWriter;
+        this.eventPublisher = eventPublisher;
+        this.recurrenceExpander = recurrenceExpander;
+        this.validator = validator;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Bulkhead(Workload.IMPORT)
+    public ImportReport importEvents(InputStream input, Format format, String createdBy) throws IOException {
+        long started = System.nanoTime();
+        ImportReport report = new ImportReport(format.name());
+        BufferedReader text = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<CalendarEvent> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        try (ImportRecordReader reader = format == Format.CSV
+                ? new CsvEventReader(text)
+                : new IcsEventReader(text, ZoneId.systemDefault())) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                Map<String, String> errors = validate(record, createdBy);
+                if (!errors.isEmpty()) {
+                    long line = record.line();
+                    errors.forEach((field, message) -> addError(report, line, field, message));
+                    report.setFailed(report.getFailed() + 1);
+                    continue;
+                }
+                batch.add(record.event());
+                batchLines.add(record.line());
+                if (batch.size() == batchSize) {
+                    write(batch, batchLines, report);
+                }
+            }
+        }
+        write(batch, batchLines, report);
+
+        report.setDurationMs(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        log.info("Imported {} of {} {} rows in {} ms", report.getImported(), report.getRowsRead(), format, report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Writes one batch in its own transaction. Listeners (daily stats, change feed, map clusters) get the whole
+     * batch as one change event.
+     */
+    private void write(List<CalendarEvent> batch, List<Long> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchTransaction.executeWithoutResult(tx -> {
+                batchWriter.insert(batch);
+                eventPublisher.publishEvent(new CalendarEventsChangedEvent(
+                        batch.stream().map(CalendarEventChange::created).toList()));
+            });
+            report.setImported(report.getImported() + batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} events failed", batch.size(), e);
+            String message = "Batch rejected by the database: " + e.getMostSpecificCause().getMessage();
+            for (Long line : batchLines) {
+                addError(report, line, null, message);
+            }
+            report.setFailed(report.getFailed() + batch.size());
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private Map<String, String> validate(ImportRecord record, String createdBy) {
+        Map<String, String> errors = new LinkedHashMap<>(record.errors());
+        CalendarEvent event = record.event();
+        if (event.getCreatedBy() == null) {
+            event.setCreatedBy(createdBy);
+        }
+        for (ConstraintViolation<CalendarEvent> violation : validator.validate(event)) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        for (TextField field : TEXT_FIELDS) {
+            String value = field.getter().apply(event);
+            if (value != null && value.length() > field.maxLength()) {
+                errors.putIfAbsent(field.name(), "Must be at most " + field.maxLength() + " characters");
+            }
+        }
+        if ((event.getLatitude() == null) != (event.getLongitude() == null)) {
+            errors.putIfAbsent("latitude", "Latitude and longitude must be given together");
+        }
+        if (event.getStartTime() != null && event.getEndTime() != null && event.getEndTime().isBefore(event.getStartTime())) {
+            errors.putIfAbsent("endTime", "Must not be before startTime");
+        } else if (event.getStartTime() != null && event.getEndTime() != null
+                && Duration.between(event.getStartTime(), event.getEndTime()).compareTo(maxEventDuration) > 0) {
+            errors.putIfAbsent("endTime", "Event must not last longer than " + maxEventDuration.toDays() + " days");
+        }
+        if (errors.isEmpty() && event.getRecurrenceRule() != null) {
+            try {
+                event.setRecurrenceUntil(recurrenceExpander.lastOccurrenceEnd(event));
+            } catch (InvalidRequestException e) {
+                errors.putAll(e.getErrors());
+            }
+        }
+        return errors;
+    }
+
+    private void addError(ImportReport report, long line, String field, String message) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, field, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record TextField(String name, Function<CalendarEvent, String> getter, int maxLength) {
+    }
+}
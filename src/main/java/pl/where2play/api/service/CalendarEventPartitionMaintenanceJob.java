@@ -0,0 +1,73 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.config.Bulkhead;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.config.SchedulerLock;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Keeps the monthly partitions of {@code calendar_events} ahead of time and re-indexes old ones.
+ * <p>
+ * Partitions for the current month and the configured number of months ahead are created up front, so new
+ * events rarely land in the default partition. Partitions of months that ended long enough ago get a BRIN
+ * index on {@code start_time} in place of the b-tree. The work itself is done by the database functions
+ * created in {@code 08-partition-calendar-events.xml}; only enabled where that changelog ran (prod).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "calendar-events.partitioning.enabled", havingValue = "true")
+public class CalendarEventPartitionMaintenanceJob {
+
+    static final String LOCK_NAME = "calendar-event-partition-maintenance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLock schedulerLock;
+
+    @Value("${calendar-events.partitioning.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @Value("${calendar-events.partitioning.brin-after-months:2}")
+    private int brinAfterMonths = 2;
+
+    @Value("${calendar-events.partitioning.lock-at-most-for:PT30M}")
+    private Duration lockAtMostFor = Duration.ofMinutes(30);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${calendar-events.partitioning.maintenance-cron:0 15 2 * * *}")
+    @Bulkhead(Workload.JOB)
+    public void scheduledMaintenance() {
+        schedulerLock.runExclusively(LOCK_NAME, lockAtMostFor, () -> maintain(LocalDate.now()));
+    }
+
+    /**
+     * Creates missing partitions up to {@code monthsAhead} months after {@code today} and converts old ones to BRIN.
+     * Each statement commits on its own, so a failure leaves the partitions created so far in place.
+     */
+    void maintain(LocalDate today) {
+        LocalDate currentMonth = today.withDayOfMonth(1);
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            Boolean partitionCreated = jdbcTemplate.queryForObject("SELECT create_calendar_events_partition(?)",
+                    Boolean.class, Date.valueOf(currentMonth.plusMonths(i)));
+            if (Boolean.TRUE.equals(partitionCreated)) {
+                created++;
+            }
+        }
+        Integer converted = jdbcTemplate.queryForObject("SELECT brin_index_calendar_events_partitions(?)",
+                Integer.class, Date.valueOf(currentMonth.minusMonths(brinAfterMonths)));
+        log.info("Calendar event partition maintenance: {} partitions created, {} switched to BRIN", created, converted);
+    }
+}
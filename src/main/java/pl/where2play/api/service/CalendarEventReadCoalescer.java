@@ -0,0 +1,129 @@
+package pl.where2play.api.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of read queries: concurrent calls with the same method and arguments share one query,
+ * and every caller gets its own copy of the result list. Nothing is kept once the query has finished.
+ * <p>
+ * Queries run in their own read-only transaction, bounded by the read's timeout ({@link QueryTimeouts}), so
+ * callers waiting for a shared query hold no database connection. Callers already inside a transaction are not coalesced, as they must see their own writes. For the
+ * same reason, committed changes detach the queries in flight: later callers start a new query instead of joining
+ * one that may have started before the commit.
+ */
+@Component
+public class CalendarEventReadCoalescer {
+
+    private final Map<Key, CompletableFuture<List<?>>> flights = new ConcurrentHashMap<>();
+    private final QueryTimeouts queryTimeouts;
+    private final Bulkheads bulkheads;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CalendarEventReadCoalescer(QueryTimeouts queryTimeouts, Bulkheads bulkheads, MeterRegistry meterRegistry) {
+        this.queryTimeouts = queryTimeouts;
+        this.bulkheads = bulkheads;
+        FunctionCounter.builder("calendar.events.reads.executed", executed, LongAdder::sum)
+                .description("Read queries run on behalf of one or more concurrent identical calls")
+                .register(meterRegistry);
+        FunctionCounter.builder("calendar.events.reads.coalesced", coalesced, LongAdder::sum)
+                .description("Read calls served by joining an identical query already in flight")
+                .register(meterRegistry);
+        Gauge.builder("calendar.events.reads.in-flight", flights, Map::size)
+                .description("Distinct read queries currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the query, or waits for an identical one already in flight.
+     *
+     * @param workload bulkhead the query runs in; callers waiting for it take no slot
+     * @param method name of the read, part of the key and the name its timeout is configured under
+     * @param args   normalized arguments, compared with {@code equals}
+     * @param query  the query
+     * @return a new list with the query result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> coalesce(Workload workload, String method, List<?> args, Supplier<List<T>> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        Key key = new Key(method, args);
+        CompletableFuture<List<?>> flight = new CompletableFuture<>();
+        CompletableFuture<List<?>> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return new ArrayList<>((List<T>) await(existing));
+        }
+
+        executed.increment();
+        try {
+            List<T> result = bulkheads.call(workload, () -> queryTimeouts.readOnly(method, query));
+            flight.complete(result);
+            return new ArrayList<>(result);
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Detaches the queries in flight once changes are committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsChanged(CalendarEventsChangedEvent event) {
+        flights.clear();
+    }
+
+    /**
+     * Detaches the queries in flight once a bulk load has finished.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsBulkLoaded(CalendarEventsBulkLoadedEvent event) {
+        flights.clear();
+    }
+
+    long getExecutedCount() {
+        return executed.sum();
+    }
+
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static List<?> await(CompletableFuture<List<?>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // The caller sees the same exception as the one that ran the query
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String method, List<?> args) {
+    }
+}
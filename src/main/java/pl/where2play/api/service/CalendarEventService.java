@@ -2,8 +2,11 @@ package pl.where2play.api.service;
 
 import pl.where2play.api.config.E2ETestOnly;
 import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.model.NearbyCalendarEvent;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +18,26 @@ public interface CalendarEventService {
     Optional<CalendarEvent> getEventById(Long id);
     
     CalendarEvent createEvent(CalendarEvent event);
+
+    /**
+     * Creates an event unless it overlaps existing events at the same location.
+     *
+     * @param event the event to create
+     * @return the created event
+     * @throws pl.where2play.api.exception.EventConflictException if the event overlaps existing events
+     */
+    CalendarEvent createEventIfNoConflicts(CalendarEvent event);
     
     CalendarEvent updateEvent(Long id, CalendarEvent event);
 
+    /**
+     * Marks scheduled events that ended before the given time as completed, up to {@code limit} events
+     * in one transaction. Recurring series are not changed.
+     *
+     * @return the number of completed events; less than {@code limit} once no such events are left
+     */
+    int completeEndedEvents(LocalDateTime endedBefore, int limit);
+
     /**
      * Deletes a user for E2E testing purposes.
      * <p>
@@ -31,6 +51,20 @@ public interface CalendarEventService {
      */
     @E2ETestOnly
     void deleteEventForTesting(Long id);
+
+    /**
+     * Deletes the given events and every event tagged with the given test run ID, with one set-based statement,
+     * for E2E test cleanup. IDs of events that do not exist are ignored.
+     * <p>
+     * <strong>WARNING: THIS METHOD IS FOR E2E TEST FRAMEWORK USE ONLY!</strong>
+     *
+     * @param ids       IDs of the events to delete (may be empty)
+     * @param testRunId test run whose events to delete (may be null)
+     * @return the number of events deleted
+     * @throws UnsupportedOperationException if called from inappropriate context
+     */
+    @E2ETestOnly
+    int deleteEventsForTesting(Collection<Long> ids, String testRunId);
     
     // Additional business operations
     List<CalendarEvent> searchEventsByTitle(String title);
@@ -42,4 +76,24 @@ public interface CalendarEventService {
     List<CalendarEvent> getEventsByLocation(String location);
     
     List<CalendarEvent> getEventsByCreator(String createdBy);
+
+    /**
+     * Returns events within the given radius of a point, nearest first (ties by start time).
+     * Recurring series contribute their occurrences within the time window.
+     *
+     * @param from start of the time window, or null for now
+     * @param to end of the time window, or null for the configured default window after {@code from}
+     * @param limit maximum number of results
+     */
+    List<NearbyCalendarEvent> findNearbyEvents(double latitude, double longitude, double radiusKm,
+                                               LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Returns events changed and deleted since the given sync token, ordered by change sequence.
+     *
+     * @param sinceToken token returned by a previous call, or null for a full sync
+     * @param limit maximum number of changes (events plus deletions) to return
+     * @return one page of changes and the token to continue from
+     */
+    CalendarEventSyncPage getChangesSince(String sinceToken, int limit);
 }
\ No newline at end of file
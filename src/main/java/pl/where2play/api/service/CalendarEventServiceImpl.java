@@ -1,83 +1,484 @@
 package pl.where2play.api.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.where2play.api.config.Bulkhead;
+import pl.where2play.api.config.Bulkheads.Workload;
 import pl.where2play.api.config.E2ETestOnly;
+import pl.where2play.api.exception.EventConflictException;
+import pl.where2play.api.exception.InvalidRequestException;
 import pl.where2play.api.exception.ResourceNotFoundException;
 import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.model.CalendarEventTombstone;
+import pl.where2play.api.model.Geohash;
+import pl.where2play.api.model.LocationKeys;
+import pl.where2play.api.model.NearbyCalendarEvent;
+import pl.where2play.api.repository.CalendarEventBulkDeletes;
+import pl.where2play.api.repository.CalendarEventChangeSequence;
+import pl.where2play.api.repository.CalendarEventLocationLocks;
 import pl.where2play.api.repository.CalendarEventRepository;
+import pl.where2play.api.repository.CalendarEventStatusUpdates;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CalendarEventServiceImpl implements CalendarEventService {
 
+    // Fine search cells looked up at most per nearby search (radii up to about 2 km); wider searches use coarse cells
+    private static final int MAX_FINE_NEARBY_CELLS = 64;
+
+    // Cells per lookup query; only searches near the poles need more than one query
+    private static final int MAX_CELLS_PER_QUERY = 500;
+
     private final CalendarEventRepository calendarEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CalendarEventChangeSequence changeSequence;
+    private final CalendarEventTombstoneRepository tombstoneRepository;
+    private final RecurrenceExpander recurrenceExpander;
+    private final LocationAvailabilityService locationAvailabilityService;
+    private final CalendarEventArchiveService calendarEventArchiveService;
+    private final CalendarEventStatusUpdates statusUpdates;
+    private final CalendarEventBulkDeletes bulkDeletes;
+    private final CalendarEventReadCoalescer readCoalescer;
+    private final QueryTimeouts queryTimeouts;
+    private final CalendarEventLocationLocks locationLocks;
+
+    @Value("${calendar-events.sync.tombstone-retention:P30D}")
+    private Duration tombstoneRetention = Duration.ofDays(30);
+
+    @Value("${calendar-events.sync.max-page-size:1000}")
+    private int maxSyncPageSize = 1000;
+
+    @Value("${calendar-events.nearby.max-radius-km:50}")
+    private double maxNearbyRadiusKm = 50;
+
+    @Value("${calendar-events.nearby.default-window:P30D}")
+    private Duration defaultNearbyWindow = Duration.ofDays(30);
+
+    @Value("${calendar-events.nearby.max-results:500}")
+    private int maxNearbyResults = 500;
+
+    // Free/busy and conflict checks only look this far back for events overlapping their window
+    @Value("${calendar-events.availability.max-event-duration:P30D}")
+    private Duration maxEventDuration = Duration.ofDays(30);
 
     @Override
     public List<CalendarEvent> getAllEvents() {
-        return calendarEventRepository.findAll();
+        return readCoalescer.coalesce(Workload.LIST, "get-all-events", List.of(), calendarEventRepository::findAll);
     }
 
     @Override
+    @Bulkhead(Workload.DETAIL)
     public Optional<CalendarEvent> getEventById(Long id) {
-        return calendarEventRepository.findById(id);
+        // Fall back to the archive so that links to old events keep working
+        return queryTimeouts.readOnly("get-event-by-id", () -> calendarEventRepository.findById(id)
+                .or(() -> calendarEventArchiveService.getArchivedEventById(id)));
     }
 
     @Override
+    @Bulkhead(Workload.WRITE)
+    @Transactional
     public CalendarEvent createEvent(CalendarEvent event) {
-        return calendarEventRepository.save(event);
+        validateCoordinates(event);
+        validateDuration(event);
+        applyRecurrence(event);
+        event.setChangeSeq(changeSequence.next());
+        CalendarEvent savedEvent = calendarEventRepository.save(event);
+        eventPublisher.publishEvent(CalendarEventsChangedEvent.of(CalendarEventChange.created(savedEvent)));
+        return savedEvent;
     }
 
     @Override
+    @Bulkhead(Workload.WRITE)
+    @Transactional
+    public CalendarEvent createEventIfNoConflicts(CalendarEvent event) {
+        validateDuration(event);
+        applyRecurrence(event);
+        // Without the lock two overlapping requests could both pass the check before either inserts
+        String locationKey = LocationKeys.normalize(event.getLocation());
+        if (!locationKey.isEmpty()) {
+            locationLocks.lock(locationKey);
+        }
+        List<Long> conflicts = locationAvailabilityService.findConflicts(event);
+        if (!conflicts.isEmpty()) {
+            throw new EventConflictException(event.getLocation(), conflicts);
+        }
+        return createEvent(event);
+    }
+
+    @Override
+    @Bulkhead(Workload.WRITE)
+    @Transactional
     public CalendarEvent updateEvent(Long id, CalendarEvent eventDetails) {
         return calendarEventRepository.findById(id)
                 .map(existingEvent -> {
+                    CalendarEvent previousState = snapshot(existingEvent);
                     existingEvent.setTitle(eventDetails.getTitle());
                     existingEvent.setDescription(eventDetails.getDescription());
                     existingEvent.setStartTime(eventDetails.getStartTime());
                     existingEvent.setEndTime(eventDetails.getEndTime());
                     existingEvent.setLocation(eventDetails.getLocation());
+                    existingEvent.setLatitude(eventDetails.getLatitude());
+                    existingEvent.setLongitude(eventDetails.getLongitude());
                     existingEvent.setStatus(eventDetails.getStatus());
-                    return calendarEventRepository.save(existingEvent);
+                    existingEvent.setRecurrenceRule(eventDetails.getRecurrenceRule());
+                    existingEvent.setRecurrenceExceptions(eventDetails.getRecurrenceExceptions());
+                    existingEvent.setSeriesId(eventDetails.getSeriesId());
+                    existingEvent.setOriginalStartTime(eventDetails.getOriginalStartTime());
+                    validateCoordinates(existingEvent);
+                    validateDuration(existingEvent);
+                    applyRecurrence(existingEvent);
+                    existingEvent.setChangeSeq(changeSequence.next());
+                    CalendarEvent savedEvent = calendarEventRepository.save(existingEvent);
+                    eventPublisher.publishEvent(CalendarEventsChangedEvent.of(CalendarEventChange.updated(previousState, savedEvent)));
+                    return savedEvent;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Event", id));
     }
 
     @Override
+    @Bulkhead(Workload.JOB)
+    @Transactional
+    public int completeEndedEvents(LocalDateTime endedBefore, int limit) {
+        // Locking the rows keeps concurrent updates from changing them between the read and the update
+        List<CalendarEvent> ended = calendarEventRepository.findByStatusAndEndTimeBeforeAndRecurrenceRuleIsNullOrderByIdAsc(
+                CalendarEvent.EventStatus.SCHEDULED, endedBefore, PageRequest.of(0, limit));
+        if (ended.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = ended.stream().map(CalendarEvent::getId).toList();
+        int completed = statusUpdates.changeStatus(ids, CalendarEvent.EventStatus.SCHEDULED, CalendarEvent.EventStatus.COMPLETED, now);
+        if (completed != ids.size()) {
+            throw new IllegalStateException("Completed " + completed + " of " + ids.size() + " locked events");
+        }
+
+        // The rows were changed in the database only; publish the new state for listeners (stats, change feed)
+        List<CalendarEventChange> changes = new ArrayList<>(ended.size());
+        for (CalendarEvent event : ended) {
+            CalendarEvent after = snapshot(event);
+            after.setStatus(CalendarEvent.EventStatus.COMPLETED);
+            after.setUpdatedAt(now);
+            // Assigned per row by the update; delta sync reads it from the table
+            after.setChangeSeq(null);
+            changes.add(CalendarEventChange.updated(event, after));
+        }
+        eventPublisher.publishEvent(new CalendarEventsChangedEvent(changes));
+        return completed;
+    }
+
+    @Override
+    @Bulkhead(Workload.WRITE)
     @E2ETestOnly
+    @Transactional
     public void deleteEventForTesting(Long id) {
-        if (!calendarEventRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Event", id);
+        CalendarEvent existingEvent = calendarEventRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Event", id));
+        calendarEventRepository.delete(existingEvent);
+        tombstoneRepository.save(new CalendarEventTombstone(id, changeSequence.next(), LocalDateTime.now()));
+        eventPublisher.publishEvent(CalendarEventsChangedEvent.of(CalendarEventChange.deleted(existingEvent)));
+    }
+
+    @Override
+    @Bulkhead(Workload.WRITE)
+    @E2ETestOnly
+    @Transactional
+    public int deleteEventsForTesting(Collection<Long> ids, String testRunId) {
+        // Loaded first, so that listeners (stats, change feed) get the deleted state as with single deletes
+        List<CalendarEvent> events = calendarEventRepository.findByIdInOrTestRunId(ids, testRunId);
+        if (events.isEmpty()) {
+            return 0;
         }
-        calendarEventRepository.deleteById(id);
+        int deleted = bulkDeletes.delete(events.stream().map(CalendarEvent::getId).toList(), LocalDateTime.now());
+        eventPublisher.publishEvent(new CalendarEventsChangedEvent(events.stream().map(CalendarEventChange::deleted).toList()));
+        return deleted;
     }
 
     @Override
     public List<CalendarEvent> searchEventsByTitle(String title) {
-        return calendarEventRepository.findByTitleContainingIgnoreCase(title);
+        // Case-insensitive search, so titles differing only in case share a query
+        return readCoalescer.coalesce(Workload.SEARCH, "search-events-by-title", List.of(title.toLowerCase(Locale.ROOT)),
+                () -> calendarEventRepository.findByTitleContainingIgnoreCase(title));
     }
 
     @Override
     public List<CalendarEvent> getEventsBetweenDates(LocalDateTime start, LocalDateTime end) {
-        return calendarEventRepository.findByStartTimeBetween(start, end);
+        // The coalescer runs the query in a read-only transaction
+        return readCoalescer.coalesce(Workload.LIST, "get-events-between-dates", List.of(start, end),
+                () -> queryEventsBetweenDates(start, end));
+    }
+
+    private List<CalendarEvent> queryEventsBetweenDates(LocalDateTime start, LocalDateTime end) {
+        List<CalendarEvent> events = new ArrayList<>();
+        for (CalendarEvent event : calendarEventRepository.findByStartTimeBetween(start, end)) {
+            // Series masters are represented by their expanded occurrences below
+            if (event.getRecurrenceRule() == null) {
+                events.add(event);
+            }
+        }
+
+        List<CalendarEvent> series = calendarEventRepository.findRecurringSeriesOverlapping(start, end);
+        if (series.isEmpty()) {
+            return events;
+        }
+        events.addAll(expandSeries(series, start, end));
+        events.sort(Comparator.comparing(CalendarEvent::getStartTime));
+        return events;
+    }
+
+    @Override
+    @Bulkhead(Workload.LIST)
+    public List<NearbyCalendarEvent> findNearbyEvents(double latitude, double longitude, double radiusKm,
+                                                      LocalDateTime from, LocalDateTime to, int limit) {
+        return queryTimeouts.readOnly("find-nearby-events",
+                () -> queryNearbyEvents(latitude, longitude, radiusKm, from, to, limit));
+    }
+
+    private List<NearbyCalendarEvent> queryNearbyEvents(double latitude, double longitude, double radiusKm,
+                                                        LocalDateTime from, LocalDateTime to, int limit) {
+        if (from == null) {
+            from = LocalDateTime.now();
+        }
+        if (to == null) {
+            to = from.plus(defaultNearbyWindow);
+        }
+        validateNearbySearch(latitude, longitude, radiusKm, from, to);
+
+        // Exact-match lookups of the search cells covering the search circle, then an exact distance filter
+        boolean fine = Geohash.coveringCellCount(latitude, longitude, radiusKm, Geohash.FINE_CELL_PRECISION) <= MAX_FINE_NEARBY_CELLS;
+        List<String> cells = new ArrayList<>(Geohash.coveringCells(latitude, longitude, radiusKm,
+                fine ? Geohash.FINE_CELL_PRECISION : Geohash.COARSE_CELL_PRECISION));
+        List<CalendarEvent> candidates = new ArrayList<>();
+        List<CalendarEvent> series = new ArrayList<>();
+        for (int i = 0; i < cells.size(); i += MAX_CELLS_PER_QUERY) {
+            List<String> chunk = cells.subList(i, Math.min(i + MAX_CELLS_PER_QUERY, cells.size()));
+            if (fine) {
+                candidates.addAll(calendarEventRepository.findByGeohashFineInAndStartTimeBetweenAndRecurrenceRuleIsNull(chunk, from, to));
+                series.addAll(calendarEventRepository.findRecurringSeriesInFineCells(chunk, from, to));
+            } else {
+                candidates.addAll(calendarEventRepository.findByGeohashCoarseInAndStartTimeBetweenAndRecurrenceRuleIsNull(chunk, from, to));
+                series.addAll(calendarEventRepository.findRecurringSeriesInCoarseCells(chunk, from, to));
+            }
+        }
+        if (!series.isEmpty()) {
+            candidates.addAll(expandSeries(series, from, to));
+        }
+
+        List<NearbyCalendarEvent> nearby = new ArrayList<>();
+        for (CalendarEvent event : candidates) {
+            double distance = Geohash.distanceKm(latitude, longitude, event.getLatitude(), event.getLongitude());
+            if (distance <= radiusKm) {
+                nearby.add(new NearbyCalendarEvent(event, distance));
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(NearbyCalendarEvent::getDistanceKm)
+                .thenComparing(result -> result.getEvent().getStartTime()));
+        int pageSize = Math.max(1, Math.min(limit, maxNearbyResults));
+        return nearby.size() > pageSize ? new ArrayList<>(nearby.subList(0, pageSize)) : nearby;
     }
 
     @Override
     public List<CalendarEvent> getEventsByStatus(CalendarEvent.EventStatus status) {
-        return calendarEventRepository.findByStatus(status);
+        return readCoalescer.coalesce(Workload.LIST, "get-events-by-status", List.of(status),
+                () -> calendarEventRepository.findByStatus(status));
     }
 
     @Override
     public List<CalendarEvent> getEventsByLocation(String location) {
-        return calendarEventRepository.findByLocationContainingIgnoreCase(location);
+        return readCoalescer.coalesce(Workload.SEARCH, "get-events-by-location", List.of(location.toLowerCase(Locale.ROOT)),
+                () -> calendarEventRepository.findByLocationContainingIgnoreCase(location));
     }
 
     @Override
     public List<CalendarEvent> getEventsByCreator(String createdBy) {
-        return calendarEventRepository.findByCreatedBy(createdBy);
+        return readCoalescer.coalesce(Workload.LIST, "get-events-by-creator", List.of(createdBy),
+                () -> calendarEventRepository.findByCreatedBy(createdBy));
+    }
+
+    @Override
+    @Bulkhead(Workload.LIST)
+    public CalendarEventSyncPage getChangesSince(String sinceToken, int limit) {
+        return queryTimeouts.readOnly("get-changes-since", () -> queryChangesSince(sinceToken, limit));
+    }
+
+    private CalendarEventSyncPage queryChangesSince(String sinceToken, int limit) {
+        Instant now = Instant.now();
+        SyncToken since = sinceToken == null || sinceToken.isBlank() ? SyncToken.initial(now) : SyncToken.decode(sinceToken);
+
+        // Tombstones the client may still need could already be purged
+        if (since.getSyncedAt().isBefore(now.minus(tombstoneRetention))) {
+            return new CalendarEventSyncPage(List.of(), List.of(), null, false, true);
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, maxSyncPageSize));
+        // Changes at or above the horizon may still be joined by lower ones from transactions in flight;
+        // handing them out now would move the client's token past changes it has not seen yet
+        long horizon = changeSequence.horizon();
+        // Fetch one extra row from each source to find out whether there is more
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<CalendarEvent> changedEvents = calendarEventRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(since.getChangeSeq(), horizon, window);
+        List<CalendarEventTombstone> tombstones = tombstoneRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(since.getChangeSeq(), horizon, window);
+
+        // Merge both streams by change sequence, up to the page size
+        List<CalendarEvent> events = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        long lastChangeSeq = since.getChangeSeq();
+        int eventIndex = 0;
+        int tombstoneIndex = 0;
+        while (events.size() + deletedIds.size() < pageSize
+                && (eventIndex < changedEvents.size() || tombstoneIndex < tombstones.size())) {
+            boolean takeEvent = tombstoneIndex >= tombstones.size()
+                    || (eventIndex < changedEvents.size()
+                    && changedEvents.get(eventIndex).getChangeSeq() < tombstones.get(tombstoneIndex).getChangeSeq());
+            if (takeEvent) {
+                CalendarEvent event = changedEvents.get(eventIndex++);
+                events.add(event);
+                lastChangeSeq = event.getChangeSeq();
+            } else {
+                CalendarEventTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deletedIds.add(tombstone.getEventId());
+                lastChangeSeq = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = eventIndex < changedEvents.size() || tombstoneIndex < tombstones.size();
+
+        // While the client is still catching up it keeps the time it was last fully in sync
+        Instant syncedAt = hasMore ? since.getSyncedAt() : now;
+        String nextToken = new SyncToken(lastChangeSeq, syncedAt).encode();
+        return new CalendarEventSyncPage(events, deletedIds, nextToken, hasMore, false);
+    }
+
+    /**
+     * Validates recurrence fields and maintains {@code recurrenceUntil}, which bounds the series in queries.
+     */
+    private void applyRecurrence(CalendarEvent event) {
+        if (event.getRecurrenceRule() == null || event.getRecurrenceRule().isBlank()) {
+            event.setRecurrenceRule(null);
+            event.setRecurrenceExceptions(null);
+            event.setRecurrenceUntil(null);
+        } else {
+            if (event.getSeriesId() != null) {
+                throw new InvalidRequestException("Invalid recurrence", "recurrenceRule", "An occurrence override cannot itself recur");
+            }
+            event.setRecurrenceUntil(recurrenceExpander.lastOccurrenceEnd(event));
+        }
+        if (event.getSeriesId() != null && event.getOriginalStartTime() == null) {
+            throw new InvalidRequestException("Invalid recurrence", "originalStartTime", "Required for occurrence overrides");
+        }
+    }
+
+    private void validateCoordinates(CalendarEvent event) {
+        if ((event.getLatitude() == null) != (event.getLongitude() == null)) {
+            throw new InvalidRequestException("Invalid coordinates", "latitude", "Latitude and longitude must be given together");
+        }
+    }
+
+    private void validateDuration(CalendarEvent event) {
+        if (event.getStartTime() != null && event.getEndTime() != null
+                && Duration.between(event.getStartTime(), event.getEndTime()).compareTo(maxEventDuration) > 0) {
+            throw new InvalidRequestException("Invalid event duration", "endTime",
+                    "Event must not last longer than " + maxEventDuration.toDays() + " days");
+        }
+    }
+
+    private void validateNearbySearch(double latitude, double longitude, double radiusKm, LocalDateTime from, LocalDateTime to) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (latitude < -90 || latitude > 90) {
+            errors.put("lat", "Must be between -90 and 90");
+        }
+        if (longitude < -180 || longitude > 180) {
+            errors.put("lon", "Must be between -180 and 180");
+        }
+        if (radiusKm <= 0 || radiusKm > maxNearbyRadiusKm) {
+            errors.put("radiusKm", "Must be greater than 0 and at most " + maxNearbyRadiusKm);
+        }
+        if (to.isBefore(from)) {
+            errors.put("to", "Must not be before 'from'");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException("Invalid nearby search", errors);
+        }
+    }
+
+    /**
+     * Expands recurring series into their occurrences starting within [start, end].
+     * Occurrences replaced by an override are skipped; the override itself is a regular event.
+     */
+    private List<CalendarEvent> expandSeries(List<CalendarEvent> series, LocalDateTime start, LocalDateTime end) {
+        Map<Long, CalendarEvent> seriesById = new LinkedHashMap<>();
+        series.forEach(master -> seriesById.put(master.getId(), master));
+        Set<OccurrenceKey> overridden = new HashSet<>();
+        for (CalendarEvent override : calendarEventRepository.findBySeriesIdInAndOriginalStartTimeBetween(seriesById.keySet(), start, end)) {
+            overridden.add(new OccurrenceKey(override.getSeriesId(), RecurrenceExpander.toEpochSecond(override.getOriginalStartTime())));
+        }
+
+        List<CalendarEvent> occurrences = new ArrayList<>();
+        for (CalendarEvent master : seriesById.values()) {
+            Duration duration = RecurrenceExpander.duration(master);
+            for (long occurrenceStart : recurrenceExpander.occurrenceStarts(master, start, end)) {
+                if (overridden.isEmpty() || !overridden.contains(new OccurrenceKey(master.getId(), occurrenceStart))) {
+                    occurrences.add(occurrenceOf(master, occurrenceStart, duration));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Builds a transient occurrence of a series. Occurrences have no ID of their own; they are identified by
+     * {@code seriesId} and {@code originalStartTime}, which is also what an override of the occurrence stores.
+     */
+    private CalendarEvent occurrenceOf(CalendarEvent master, long occurrenceStart, Duration duration) {
+        CalendarEvent occurrence = new CalendarEvent();
+        occurrence.setTitle(master.getTitle());
+        occurrence.setDescription(master.getDescription());
+        occurrence.setLocation(master.getLocation());
+        occurrence.setLatitude(master.getLatitude());
+        occurrence.setLongitude(master.getLongitude());
+        occurrence.setStatus(master.getStatus());
+        occurrence.setCreatedBy(master.getCreatedBy());
+        occurrence.setCreatedAt(master.getCreatedAt());
+        occurrence.setUpdatedAt(master.getUpdatedAt());
+        occurrence.setChangeSeq(master.getChangeSeq());
+        occurrence.setStartTime(RecurrenceExpander.occurrenceStart(master, occurrenceStart));
+        occurrence.setEndTime(occurrence.getStartTime().plus(duration));
+        occurrence.setSeriesId(master.getId());
+        occurrence.setOriginalStartTime(occurrence.getStartTime());
+        return occurrence;
+    }
+
+    private record OccurrenceKey(Long seriesId, long originalStart) {
+    }
+
+    /**
+     * Copies the current state of an event so that it can be published as the "before" image of a change.
+     */
+    private CalendarEvent snapshot(CalendarEvent event) {
+        CalendarEvent copy = new CalendarEvent();
+        BeanUtils.copyProperties(event, copy);
+        return copy;
     }
-}
+}
\ No newline at end of file
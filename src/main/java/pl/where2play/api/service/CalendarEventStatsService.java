@@ -0,0 +1,19 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEventDailyStat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CalendarEventStatsService {
+
+    /**
+     * Returns per-day event counts by status and location, read from the daily aggregate.
+     *
+     * @param from first day (inclusive)
+     * @param to last day (inclusive)
+     * @param location optional location to restrict the counts to (matched case-insensitively)
+     * @return the non-empty aggregate rows, ordered by day
+     */
+    List<CalendarEventDailyStat> getDailyStats(LocalDate from, LocalDate to, String location);
+}
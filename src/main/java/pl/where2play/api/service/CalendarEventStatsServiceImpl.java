@@ -0,0 +1,40 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.model.LocationKeys;
+import pl.where2play.api.repository.CalendarEventDailyStatRepository;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CalendarEventStatsServiceImpl implements CalendarEventStatsService {
+
+    private final CalendarEventDailyStatRepository dailyStatRepository;
+
+    @Value("${calendar-events.stats.max-range-days:366}")
+    private int maxRangeDays = 366;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CalendarEventDailyStat> getDailyStats(LocalDate from, LocalDate to, String location) {
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("Invalid date range", "to", "Must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new InvalidRequestException("Invalid date range", "to", "Range must not exceed " + maxRangeDays + " days");
+        }
+        if (location == null) {
+            return dailyStatRepository.findByStatDateBetweenAndEventCountGreaterThanOrderByStatDateAsc(from, to, 0);
+        }
+        return dailyStatRepository.findByStatDateBetweenAndLocationKeyAndEventCountGreaterThanOrderByStatDateAsc(
+                from, to, LocationKeys.normalize(location), 0);
+    }
+}
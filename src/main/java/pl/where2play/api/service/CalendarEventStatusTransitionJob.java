@@ -0,0 +1,62 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.config.SchedulerLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Marks scheduled events as completed once their end time has passed.
+ * <p>
+ * Events are completed in chunks, each one set-based {@code UPDATE} in its own short transaction, until no
+ * ended scheduled events are left. Only one instance runs the job at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CalendarEventStatusTransitionJob {
+
+    static final String LOCK_NAME = "calendar-event-status-transition";
+
+    private final CalendarEventService calendarEventService;
+    private final SchedulerLock schedulerLock;
+
+    @Value("${calendar-events.status-transition.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${calendar-events.status-transition.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${calendar-events.status-transition.lock-at-most-for:PT10M}")
+    private Duration lockAtMostFor = Duration.ofMinutes(10);
+
+    @Scheduled(cron = "${calendar-events.status-transition.cron:0 */5 * * * *}")
+    public void scheduledTransition() {
+        if (enabled) {
+            schedulerLock.runExclusively(LOCK_NAME, lockAtMostFor, () -> completeEndedEvents(LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Completes all scheduled events that ended before {@code now}. Callers are responsible for cluster-wide exclusion.
+     *
+     * @return the number of completed events
+     */
+    long completeEndedEvents(LocalDateTime now) {
+        long completed = 0;
+        int chunk;
+        do {
+            chunk = calendarEventService.completeEndedEvents(now, chunkSize);
+            completed += chunk;
+        } while (chunk == chunkSize);
+        if (completed > 0) {
+            log.info("Marked {} calendar events that ended before {} as completed", completed, now);
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,41 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.where2play.api.config.Bulkhead;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Purges delta sync tombstones older than the retention period.
+ * Clients whose token predates the retention are told to do a full resync instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CalendarEventTombstoneCleanupJob {
+
+    // Extra time tombstones are kept beyond the retention, covering clock skew between nodes
+    private static final Duration GRACE_PERIOD = Duration.ofHours(1);
+
+    private final CalendarEventTombstoneRepository tombstoneRepository;
+
+    @Value("${calendar-events.sync.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    @Scheduled(cron = "${calendar-events.sync.tombstone-cleanup-cron:0 30 3 * * *}")
+    @Bulkhead(Workload.JOB)
+    @Transactional
+    public void purgeExpiredTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention).minus(GRACE_PERIOD);
+        int purged = tombstoneRepository.deleteByDeletedAtBefore(cutoff);
+        log.info("Purged {} calendar event tombstones deleted before {}", purged, cutoff);
+    }
+}
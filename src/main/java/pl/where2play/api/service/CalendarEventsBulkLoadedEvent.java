@@ -0,0 +1,15 @@
+package pl.where2play.api.service;
+
+import lombok.Value;
+
+/**
+ * Application event published once after a bulk load that inserted events without publishing their changes
+ * (see {@link SyntheticEventGenerator}). Listeners rebuild or drop whatever they derive from calendar events
+ * instead of applying individual changes. The daily stats are kept up to date by the bulk load itself.
+ */
+@Value
+public class CalendarEventsBulkLoadedEvent {
+
+    // Events inserted by the bulk load
+    long count;
+}
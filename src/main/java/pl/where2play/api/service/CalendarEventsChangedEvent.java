@@ -0,0 +1,20 @@
+package pl.where2play.api.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Application event published by the service layer whenever calendar events are created, updated or deleted.
+ * Single-entity operations publish one change; bulk operations publish all changes of a batch at once
+ * so that listeners can process them together.
+ */
+@Value
+public class CalendarEventsChangedEvent {
+
+    List<CalendarEventChange> changes;
+
+    public static CalendarEventsChangedEvent of(CalendarEventChange change) {
+        return new CalendarEventsChangedEvent(List.of(change));
+    }
+}
@@ -0,0 +1,16 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarFeed;
+
+public interface CalendarFeedService {
+
+    /**
+     * Returns the iCalendar feed of the events created by the given user, from the cache when it is still valid.
+     */
+    CalendarFeed getCreatorFeed(String createdBy);
+
+    /**
+     * Returns the iCalendar feed of the events at the given location (matched case-insensitively).
+     */
+    CalendarFeed getLocationFeed(String location);
+}
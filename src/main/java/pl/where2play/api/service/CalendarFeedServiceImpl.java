@@ -0,0 +1,192 @@
+package pl.where2play.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarFeed;
+import pl.where2play.api.model.LocationKeys;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Renders iCalendar subscription feeds and keeps them as byte arrays until a matching event changes.
+ * <p>
+ * Events are streamed from the database into the feed, so rendering needs memory for the output only.
+ * Changes published by the service layer evict the feeds of the creators and locations they touch, before
+ * and after the change. Entries are also rebuilt after {@code max-staleness}, which bounds how long changes
+ * made outside the service layer (e.g. archiving) stay invisible.
+ * <p>
+ * Only rendering takes a slot of the {@code feed} bulkhead, so polls answered from the cache are never
+ * turned away while feeds or free/busy are being computed.
+ */
+@Service
+public class CalendarFeedServiceImpl implements CalendarFeedService {
+
+    private static final String UID_DOMAIN = "where2play.pl";
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final EntityManager entityManager;
+    private final Bulkheads bulkheads;
+    private final TransactionTemplate readTransaction;
+    // Bumped on every invalidation; a feed rendered while it changed may be stale and is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Cache<String, CalendarFeed> cache;
+
+    @Value("${calendar-events.feeds.cache-size:1000}")
+    private int cacheSize = 1000;
+
+    @Value("${calendar-events.feeds.max-staleness:PT1H}")
+    private Duration maxStaleness = Duration.ofHours(1);
+
+    @Value("${calendar-events.feeds.past-window:P180D}")
+    private Duration pastWindow = Duration.ofDays(180);
+
+    public CalendarFeedServiceImpl(CalendarEventRepository calendarEventRepository,
+                                   EntityManager entityManager,
+                                   Bulkheads bulkheads,
+                                   PlatformTransactionManager transactionManager) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.entityManager = entityManager;
+        this.bulkheads = bulkheads;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public CalendarFeed getCreatorFeed(String createdBy) {
+        return feed(creatorKey(createdBy), "Events by " + createdBy,
+                since -> calendarEventRepository.streamFeedByCreatedBy(createdBy, since));
+    }
+
+    @Override
+    public CalendarFeed getLocationFeed(String location) {
+        String locationKey = LocationKeys.normalize(location);
+        return feed(locationKey(locationKey), "Events at " + location,
+                since -> calendarEventRepository.streamFeedByLocationKey(locationKey, since));
+    }
+
+    /**
+     * Evicts the feeds affected by committed changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsChanged(CalendarEventsChangedEvent event) {
+        generation.incrementAndGet();
+        for (CalendarEventChange change : event.getChanges()) {
+            evict(change.getBefore());
+            evict(change.getAfter());
+        }
+    }
+
+    /**
+     * Evicts all feeds after a bulk load, which published no individual changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsBulkLoaded(CalendarEventsBulkLoadedEvent event) {
+        generation.incrementAndGet();
+        cache().invalidateAll();
+    }
+
+    private CalendarFeed feed(String key, String calendarName, Function<LocalDateTime, Stream<CalendarEvent>> events) {
+        CalendarFeed cached = fresh(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        return bulkheads.call(Workload.FEED, () -> {
+            // Rendered by another request while this one waited for the slot
+            CalendarFeed rendered = fresh(key);
+            if (rendered != null) {
+                return rendered;
+            }
+            long renderedGeneration = generation.get();
+            CalendarFeed feed = render(calendarName, events);
+            cache().put(key, feed);
+            if (generation.get() != renderedGeneration) {
+                // A change was committed while rendering and may be missing from the feed
+                cache().invalidate(key);
+            }
+            return feed;
+        });
+    }
+
+    private CalendarFeed fresh(String key) {
+        CalendarFeed cached = cache().getIfPresent(key);
+        return cached != null && cached.getLastModified().isAfter(Instant.now().minus(maxStaleness)) ? cached : null;
+    }
+
+    private CalendarFeed render(String calendarName, Function<LocalDateTime, Stream<CalendarEvent>> events) {
+        Instant renderedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            IcsFeedWriter writer = new IcsFeedWriter(out, ZoneId.systemDefault(), UID_DOMAIN, calendarName);
+            readTransaction.executeWithoutResult(tx -> {
+                try (Stream<CalendarEvent> stream = events.apply(LocalDateTime.now().minus(pastWindow))) {
+                    stream.forEach(event -> {
+                        write(writer, event);
+                        // Keep the persistence context small while streaming
+                        entityManager.detach(event);
+                    });
+                }
+            });
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] content = out.toByteArray();
+        return new CalendarFeed(content, "\"" + DigestUtils.md5DigestAsHex(content) + "\"", renderedAt);
+    }
+
+    private static void write(IcsFeedWriter writer, CalendarEvent event) {
+        try {
+            writer.write(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void evict(CalendarEvent event) {
+        if (event != null) {
+            cache().invalidate(creatorKey(event.getCreatedBy()));
+            cache().invalidate(locationKey(LocationKeys.normalize(event.getLocation())));
+        }
+    }
+
+    private static String creatorKey(String createdBy) {
+        return "creator:" + createdBy;
+    }
+
+    private static String locationKey(String locationKey) {
+        return "location:" + locationKey;
+    }
+
+    private Cache<String, CalendarFeed> cache() {
+        if (cache == null) {
+            synchronized (this) {
+                if (cache == null) {
+                    cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+                }
+            }
+        }
+        return cache;
+    }
+}
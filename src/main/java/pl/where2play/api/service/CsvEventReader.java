@@ -0,0 +1,212 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming reader of events from CSV (RFC 4180: comma-separated, optionally double-quoted fields that may
+ * contain commas, quotes and line breaks).
+ * <p>
+ * The first record is a header naming the columns after the event fields ({@code title}, {@code startTime},
+ * {@code start_time} and {@code Start Time} are all accepted). Date-times are ISO local date-times.
+ */
+class CsvEventReader implements ImportRecordReader {
+
+    private static final Set<String> COLUMNS = Set.of("title", "description", "starttime", "endtime", "location",
+            "status", "createdby", "latitude", "longitude", "recurrencerule", "recurrenceexceptions");
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("title", "starttime", "endtime");
+    // Far above any column size; stops a missing closing quote from buffering the rest of the file
+    private static final int MAX_FIELD_LENGTH = 65_536;
+
+    private final Reader reader;
+    private final String[] columns;
+    private final StringBuilder field = new StringBuilder();
+    // Line the next record starts on
+    private long line = 1;
+    private int pushedBack = -1;
+
+    CsvEventReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidRequestException("Invalid CSV", "file", "The file is empty");
+        }
+        columns = header.stream().map(CsvEventReader::normalizeColumn).toArray(String[]::new);
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (String column : columns) {
+            if (!COLUMNS.contains(column)) {
+                errors.put(column, "Unknown column");
+            }
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!Arrays.asList(columns).contains(column)) {
+                errors.put(column, "Required column is missing");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException("Invalid CSV header", errors);
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        long recordLine;
+        List<String> values;
+        do {
+            recordLine = line;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        CalendarEvent event = new CalendarEvent();
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (values.size() != columns.length) {
+            errors.put("line", "Expected " + columns.length + " values but found " + values.size());
+            return new ImportRecord(recordLine, event, errors);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                apply(event, columns[i], value, errors);
+            }
+        }
+        return new ImportRecord(recordLine, event, errors);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static void apply(CalendarEvent event, String column, String value, Map<String, String> errors) {
+        switch (column) {
+            case "title" -> event.setTitle(value);
+            case "description" -> event.setDescription(value);
+            case "starttime" -> event.setStartTime(parseDateTime(value, "startTime", errors));
+            case "endtime" -> event.setEndTime(parseDateTime(value, "endTime", errors));
+            case "location" -> event.setLocation(value);
+            case "status" -> event.setStatus(parseStatus(value, errors));
+            case "createdby" -> event.setCreatedBy(value);
+            case "latitude" -> event.setLatitude(parseCoordinate(value, "latitude", errors));
+            case "longitude" -> event.setLongitude(parseCoordinate(value, "longitude", errors));
+            case "recurrencerule" -> event.setRecurrenceRule(value);
+            case "recurrenceexceptions" -> event.setRecurrenceExceptions(value);
+            default -> throw new IllegalStateException("Unmapped column " + column);
+        }
+    }
+
+    /**
+     * Reads one record, or returns null at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new InvalidRequestException("Invalid CSV", "line " + line, "Value longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new InvalidRequestException("Invalid CSV", "line " + line, "Unterminated quoted value");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pushedBack = following;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pushedBack = following;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                values.add(field.toString());
+                return values;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private static String normalizeColumn(String name) {
+        String column = name.strip().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+        // Byte order mark written by spreadsheet applications
+        return column.startsWith("\uFEFF") ? column.substring(1) : column;
+    }
+
+    static LocalDateTime parseDateTime(String value, String field, Map<String, String> errors) {
+        try {
+            return LocalDateTime.parse(value.length() > 10 && value.charAt(10) == ' '
+                    ? value.substring(0, 10) + 'T' + value.substring(11)
+                    : value);
+        } catch (DateTimeParseException e) {
+            errors.put(field, "Must be an ISO date-time, e.g. 2025-06-01T18:00");
+            return null;
+        }
+    }
+
+    private static CalendarEvent.EventStatus parseStatus(String value, Map<String, String> errors) {
+        try {
+            return CalendarEvent.EventStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.put("status", "Must be one of " + Arrays.toString(CalendarEvent.EventStatus.values()));
+            return CalendarEvent.EventStatus.SCHEDULED;
+        }
+    }
+
+    private static Double parseCoordinate(String value, String field, Map<String, String> errors) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            errors.put(field, "Must be a number");
+            return null;
+        }
+    }
+}
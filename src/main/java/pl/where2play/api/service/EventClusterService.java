@@ -0,0 +1,18 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.EventClusters;
+
+import java.time.LocalDateTime;
+
+public interface EventClusterService {
+
+    /**
+     * Clusters of the events inside a bounding box whose start lies within [from, to].
+     *
+     * @param bbox {@code minLon,minLat,maxLon,maxLat}; {@code minLon > maxLon} crosses the antimeridian
+     * @param zoom map zoom level; higher levels produce smaller cluster cells
+     * @param from start of the time window, or null for the start of today
+     * @param to end of the time window, or null for the configured default window after {@code from}
+     */
+    EventClusters getClusters(String bbox, int zoom, LocalDateTime from, LocalDateTime to);
+}
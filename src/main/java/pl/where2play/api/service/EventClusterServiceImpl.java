@@ -0,0 +1,408 @@
+package pl.where2play.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.EventCluster;
+import pl.where2play.api.model.EventClusters;
+import pl.where2play.api.repository.CalendarEventPoint;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Map clustering over an in-memory {@link EventQuadtree} of event coordinates.
+ * <p>
+ * The index is built once at startup and then kept current from the committed change events published by
+ * {@link CalendarEventServiceImpl}. Changes committed while the initial build runs are buffered and replayed
+ * onto the new index before it replaces the old one. Changes of other instances are read from the
+ * {@link CalendarEventChangeLog} every {@code poll-interval}; applying a change twice does no harm. Recurring
+ * series are kept aside and contribute the number of their occurrences in the time window; overridden
+ * occurrences are counted from the series.
+ * <p>
+ * Viewports are snapped to the cluster grid of the zoom level. The snapped cell range forms the tile key,
+ * under which results are cached until the index changes. The ETag of a result is derived from its content,
+ * so that it is the same on every instance and across restarts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventClusterServiceImpl implements EventClusterService {
+
+    static final int MAX_ZOOM = 20;
+    // Cluster cells per tile side = 2^CLUSTER_GRID_BITS (32 px cells on 256 px tiles)
+    static final int CLUSTER_GRID_BITS = 3;
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final RecurrenceExpander recurrenceExpander;
+    private final CalendarEventChangeLog changeLog;
+
+    @Value("${calendar-events.clusters.default-window:P30D}")
+    private Duration defaultWindow = Duration.ofDays(30);
+
+    @Value("${calendar-events.clusters.max-cells:10000}")
+    private int maxCells = 10000;
+
+    @Value("${calendar-events.clusters.cache-size:1000}")
+    private int cacheSize = 1000;
+
+    @Value("${calendar-events.clusters.load-batch-size:5000}")
+    private int loadBatchSize = 5000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private EventQuadtree index = new EventQuadtree();
+    private Map<Long, CalendarEvent> recurringSeries = new HashMap<>();
+    // Changes received while the initial build runs (null otherwise)
+    private List<CalendarEventChange> pendingChanges;
+    private long version;
+    // Change sequence up to which the change log has been applied (-1 until the first build)
+    private long polledSeq = -1;
+    // Serializes catch-up polls and builds
+    private final Object pollLock = new Object();
+
+    private volatile Cache<String, EventClusters> cache;
+
+    @Override
+    public EventClusters getClusters(String bbox, int zoom, LocalDateTime from, LocalDateTime to) {
+        if (from == null) {
+            // Start of day rather than now, so that default requests stay cacheable
+            from = LocalDate.now().atStartOfDay();
+        }
+        if (to == null) {
+            to = from.plus(defaultWindow);
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new InvalidRequestException("Invalid zoom", "zoom", "Must be between 0 and " + MAX_ZOOM);
+        }
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("Invalid time range", "to", "Must not be before 'from'");
+        }
+        CellRange range = CellRange.of(parseBoundingBox(bbox), zoom + CLUSTER_GRID_BITS);
+        if (range.cellCount() > maxCells) {
+            throw new InvalidRequestException("Bounding box too large", "bbox",
+                    "Covers more than " + maxCells + " cluster cells at zoom " + zoom);
+        }
+
+        String cacheKey = range.tileKey(zoom) + "|" + from + "|" + to;
+        EventClusters cached = cache().getIfPresent(cacheKey);
+        lock.readLock().lock();
+        try {
+            if (cached != null && cached.getVersion() == version) {
+                return cached;
+            }
+            List<EventCluster> content = cluster(range, from, to);
+            EventClusters clusters = new EventClusters(range.tileKey(zoom), zoom, from, to, version,
+                    etag(range.tileKey(zoom), from, to, content), content);
+            cache().put(cacheKey, clusters);
+            return clusters;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<EventCluster> cluster(CellRange range, LocalDateTime from, LocalDateTime to) {
+        long windowStart = RecurrenceExpander.toEpochSecond(from);
+        long windowEnd = RecurrenceExpander.toEpochSecond(to);
+        Map<Long, EventQuadtree.Cluster> cells = new HashMap<>();
+        for (double[] rect : range.rectangles()) {
+            index.cluster(rect[0], rect[1], rect[2], rect[3], windowStart, windowEnd, range.level, cells);
+        }
+
+        for (CalendarEvent series : recurringSeries.values()) {
+            if (!range.contains(series.getLatitude(), series.getLongitude()) || series.getStartTime().isAfter(to)
+                    || (series.getRecurrenceUntil() != null && series.getRecurrenceUntil().isBefore(from))) {
+                continue;
+            }
+            int occurrences = recurrenceExpander.occurrenceStarts(series, from, to).length;
+            if (occurrences > 0) {
+                cells.computeIfAbsent(EventQuadtree.cellKey(series.getLatitude(), series.getLongitude(), range.level),
+                                key -> new EventQuadtree.Cluster())
+                        .add(occurrences, series.getLatitude() * occurrences, series.getLongitude() * occurrences, null);
+            }
+        }
+
+        List<EventCluster> clusters = new ArrayList<>(cells.size());
+        for (EventQuadtree.Cluster cell : cells.values()) {
+            clusters.add(new EventCluster(cell.sumLat / cell.count, cell.sumLon / cell.count, cell.count, cell.eventId));
+        }
+        clusters.sort(Comparator.comparingLong(EventCluster::getCount).reversed()
+                .thenComparingDouble(EventCluster::getLatitude)
+                .thenComparingDouble(EventCluster::getLongitude));
+        return clusters;
+    }
+
+    /**
+     * Applies committed changes to the index. Runs after commit so that rolled back writes never show up.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsChanged(CalendarEventsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.addAll(event.getChanges());
+            }
+            for (CalendarEventChange change : event.getChanges()) {
+                apply(index, recurringSeries, change);
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the changes committed on any instance since the last poll. Changes made on this instance were
+     * applied already; a backlog larger than a load batch rebuilds the index instead.
+     */
+    @Scheduled(fixedDelayString = "${calendar-events.clusters.poll-interval:PT5S}")
+    public void catchUp() {
+        synchronized (pollLock) {
+            if (polledSeq < 0) {
+                return;
+            }
+            CalendarEventChangeLog.Batch batch;
+            do {
+                batch = changeLog.readAfter(polledSeq, loadBatchSize);
+                if (batch.truncated()) {
+                    rebuild();
+                    return;
+                }
+                if (!batch.changes().isEmpty()) {
+                    lock.writeLock().lock();
+                    try {
+                        for (CalendarEventChangeLog.Change change : batch.changes()) {
+                            // Only the ID and the state after the change are applied
+                            CalendarEventChange applied = new CalendarEventChange(change.type(), change.eventId(),
+                                    null, change.event());
+                            if (pendingChanges != null) {
+                                pendingChanges.add(applied);
+                            }
+                            apply(index, recurringSeries, applied);
+                        }
+                        version++;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                polledSeq = batch.lastSeq();
+            } while (!batch.changes().isEmpty());
+        }
+    }
+
+    /**
+     * Reloads the index after a bulk load, which published no individual changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventsBulkLoaded(CalendarEventsBulkLoadedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Builds the index from the database, replacing the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (pollLock) {
+            build();
+        }
+    }
+
+    private void build() {
+        // Read first, so that changes committed during the build are applied again by the next catch-up
+        long startSeq = changeLog.lastFinal();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        EventQuadtree newIndex = new EventQuadtree();
+        Map<Long, CalendarEvent> newSeries = new HashMap<>();
+        try {
+            long afterId = 0;
+            List<CalendarEventPoint> batch;
+            do {
+                batch = calendarEventRepository.findPointsAfterId(afterId, PageRequest.of(0, loadBatchSize));
+                for (CalendarEventPoint point : batch) {
+                    newIndex.put(new EventQuadtree.Point(point.getId(), point.getLatitude(), point.getLongitude(),
+                            RecurrenceExpander.toEpochSecond(point.getStartTime())));
+                    afterId = point.getId();
+                }
+            } while (batch.size() == loadBatchSize);
+            for (CalendarEvent series : calendarEventRepository.findByRecurrenceRuleIsNotNullAndLatitudeIsNotNull()) {
+                newSeries.put(series.getId(), series);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (CalendarEventChange change : pendingChanges) {
+                apply(newIndex, newSeries, change);
+            }
+            pendingChanges = null;
+            index = newIndex;
+            recurringSeries = newSeries;
+            version++;
+            polledSeq = startSeq;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built event cluster index with {} events and {} recurring series in {} ms",
+                newIndex.size(), newSeries.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private static void apply(EventQuadtree index, Map<Long, CalendarEvent> recurringSeries, CalendarEventChange change) {
+        index.remove(change.getEventId());
+        recurringSeries.remove(change.getEventId());
+        CalendarEvent event = change.getAfter();
+        if (event == null || event.getLatitude() == null || event.getLongitude() == null) {
+            return;
+        }
+        if (event.getRecurrenceRule() != null) {
+            recurringSeries.put(event.getId(), event);
+        } else {
+            index.put(new EventQuadtree.Point(event.getId(), event.getLatitude(), event.getLongitude(),
+                    RecurrenceExpander.toEpochSecond(event.getStartTime())));
+        }
+    }
+
+    /**
+     * Strong ETag (quoted) of a result, derived from everything in its body.
+     */
+    private static String etag(String tileKey, LocalDateTime from, LocalDateTime to, List<EventCluster> clusters) {
+        StringBuilder content = new StringBuilder(tileKey).append('|').append(from).append('|').append(to);
+        for (EventCluster cluster : clusters) {
+            content.append('|').append(cluster.getLatitude()).append(',').append(cluster.getLongitude())
+                    .append(',').append(cluster.getCount()).append(',').append(cluster.getEventId());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private Cache<String, EventClusters> cache() {
+        Cache<String, EventClusters> current = cache;
+        if (current == null) {
+            synchronized (this) {
+                if (cache == null) {
+                    cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+                }
+                current = cache;
+            }
+        }
+        return current;
+    }
+
+    static double[] parseBoundingBox(String bbox) {
+        String[] parts = bbox == null ? new String[0] : bbox.split(",");
+        if (parts.length != 4) {
+            throw new InvalidRequestException("Invalid bounding box", "bbox", "Expected minLon,minLat,maxLon,maxLat");
+        }
+        double[] values = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                values[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid bounding box", "bbox", "Coordinates must be numbers");
+        }
+        if (values[0] < -180 || values[0] > 180 || values[2] < -180 || values[2] > 180
+                || values[1] < -90 || values[3] > 90 || values[1] > values[3]) {
+            throw new InvalidRequestException("Invalid bounding box", "bbox",
+                    "Longitudes must be within [-180, 180], latitudes within [-90, 90] with minLat <= maxLat");
+        }
+        return values;
+    }
+
+    /**
+     * Range of cluster cells covered by a bounding box. Columns wrap around when the box crosses the antimeridian.
+     */
+    record CellRange(int level, int minColumn, int maxColumn, int minRow, int maxRow) {
+
+        static CellRange of(double[] bbox, int level) {
+            return new CellRange(level,
+                    EventQuadtree.cellIndex(bbox[0] + 180, 360, level), EventQuadtree.cellIndex(bbox[2] + 180, 360, level),
+                    EventQuadtree.cellIndex(bbox[1] + 90, 180, level), EventQuadtree.cellIndex(bbox[3] + 90, 180, level));
+        }
+
+        long cellCount() {
+            return (long) columns() * (maxRow - minRow + 1);
+        }
+
+        String tileKey(int zoom) {
+            return zoom + "/" + minColumn + "-" + maxColumn + "/" + minRow + "-" + maxRow;
+        }
+
+        boolean contains(double latitude, double longitude) {
+            int column = EventQuadtree.cellIndex(longitude + 180, 360, level);
+            int row = EventQuadtree.cellIndex(latitude + 90, 180, level);
+            boolean columnMatches = wraps()
+                    ? column >= minColumn || column <= maxColumn
+                    : column >= minColumn && column <= maxColumn;
+            return columnMatches && row >= minRow && row <= maxRow;
+        }
+
+        /**
+         * The covered area as {@code [minLon, minLat, maxLon, maxLat)} rectangles snapped to cell boundaries.
+         */
+        List<double[]> rectangles() {
+            if (wraps()) {
+                return List.of(rectangle(minColumn, cells() - 1), rectangle(0, maxColumn));
+            }
+            return List.of(rectangle(minColumn, maxColumn));
+        }
+
+        private double[] rectangle(int fromColumn, int toColumn) {
+            double cellWidth = 360.0 / cells();
+            double cellHeight = 180.0 / cells();
+            // The last column/row also takes points lying exactly on 180 / 90
+            return new double[] {
+                    -180 + fromColumn * cellWidth,
+                    -90 + minRow * cellHeight,
+                    toColumn == cells() - 1 ? Double.POSITIVE_INFINITY : -180 + (toColumn + 1) * cellWidth,
+                    maxRow == cells() - 1 ? Double.POSITIVE_INFINITY : -90 + (maxRow + 1) * cellHeight
+            };
+        }
+
+        private int columns() {
+            return wraps() ? cells() - minColumn + maxColumn + 1 : maxColumn - minColumn + 1;
+        }
+
+        private boolean wraps() {
+            return minColumn > maxColumn;
+        }
+
+        private int cells() {
+            return 1 << level;
+        }
+    }
+}
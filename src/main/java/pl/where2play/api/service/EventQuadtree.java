@@ -0,0 +1,243 @@
+package pl.where2play.api.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point quadtree over event coordinates (longitude on x, latitude on y) used for map clustering.
+ * <p>
+ * Every node keeps the count, coordinate sums and start time bounds of its subtree, so a subtree that lies
+ * entirely inside one cluster cell and inside the requested time window is aggregated without visiting its
+ * points. Node boundaries halve the world at every level, and cluster cells at level {@code L} use the same
+ * subdivision, so any node at depth {@code >= L} falls into exactly one cell.
+ * <p>
+ * Not thread-safe; callers guard access.
+ */
+final class EventQuadtree {
+
+    static final int MAX_DEPTH = 24;
+
+    private static final int LEAF_CAPACITY = 16;
+
+    private final Node root = new Node(-180, -90, 360, 180, 0);
+    private final Map<Long, Point> points = new HashMap<>();
+
+    /**
+     * Inserts the point, replacing the previous position of the same event.
+     */
+    void put(Point point) {
+        Point previous = points.put(point.id(), point);
+        if (previous != null) {
+            root.remove(previous);
+        }
+        root.insert(point);
+    }
+
+    boolean remove(long id) {
+        Point previous = points.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        root.remove(previous);
+        return true;
+    }
+
+    int size() {
+        return points.size();
+    }
+
+    /**
+     * Aggregates the points inside the rectangle [minLon, maxLon) x [minLat, maxLat) whose start lies within
+     * [from, to] (epoch seconds) into the cluster cells of the given level, keyed by {@link #cellKey}.
+     */
+    void cluster(double minLon, double minLat, double maxLon, double maxLat, long from, long to,
+                 int level, Map<Long, Cluster> clusters) {
+        collect(root, new Query(minLon, minLat, maxLon, maxLat, from, to, level), clusters);
+    }
+
+    private void collect(Node node, Query query, Map<Long, Cluster> clusters) {
+        if (node.count == 0 || node.maxStart < query.from || node.minStart > query.to || !query.intersects(node)) {
+            return;
+        }
+        if (node.depth >= query.level && node.count > 1 && query.contains(node)
+                && node.minStart >= query.from && node.maxStart <= query.to) {
+            double centreLat = node.minLat + node.height / 2;
+            double centreLon = node.minLon + node.width / 2;
+            clusters.computeIfAbsent(cellKey(centreLat, centreLon, query.level), key -> new Cluster())
+                    .add(node.count, node.sumLat, node.sumLon, null);
+            return;
+        }
+        if (node.children == null) {
+            for (Point point : node.points) {
+                if (query.matches(point)) {
+                    clusters.computeIfAbsent(cellKey(point.latitude(), point.longitude(), query.level), key -> new Cluster())
+                            .add(1, point.latitude(), point.longitude(), point.id());
+                }
+            }
+            return;
+        }
+        for (Node child : node.children) {
+            collect(child, query, clusters);
+        }
+    }
+
+    /**
+     * Key of the cluster cell containing the coordinates; cells at level {@code L} split both axes into 2^L parts.
+     */
+    static long cellKey(double latitude, double longitude, int level) {
+        return ((long) cellIndex(longitude + 180, 360, level) << 32) | cellIndex(latitude + 90, 180, level);
+    }
+
+    static int cellIndex(double offset, double extent, int level) {
+        long cells = 1L << level;
+        return (int) Math.min(cells - 1, Math.max(0, (long) Math.floor(offset / extent * cells)));
+    }
+
+    record Point(long id, double latitude, double longitude, long startEpochSecond) {
+    }
+
+    /**
+     * Running aggregate of one cluster cell. The event ID is only kept while the cell holds a single event.
+     */
+    static final class Cluster {
+        long count;
+        double sumLat;
+        double sumLon;
+        Long eventId;
+
+        void add(long count, double sumLat, double sumLon, Long eventId) {
+            this.eventId = this.count == 0 && count == 1 ? eventId : null;
+            this.count += count;
+            this.sumLat += sumLat;
+            this.sumLon += sumLon;
+        }
+    }
+
+    private record Query(double minLon, double minLat, double maxLon, double maxLat, long from, long to, int level) {
+
+        // Nodes, like cells, cover half-open ranges
+        boolean intersects(Node node) {
+            return node.minLon < maxLon && node.minLon + node.width > minLon
+                    && node.minLat < maxLat && node.minLat + node.height > minLat;
+        }
+
+        boolean contains(Node node) {
+            return node.minLon >= minLon && node.minLon + node.width <= maxLon
+                    && node.minLat >= minLat && node.minLat + node.height <= maxLat;
+        }
+
+        boolean matches(Point point) {
+            return point.longitude() >= minLon && point.longitude() < maxLon
+                    && point.latitude() >= minLat && point.latitude() < maxLat
+                    && point.startEpochSecond() >= from && point.startEpochSecond() <= to;
+        }
+    }
+
+    private static final class Node {
+        private final double minLon;
+        private final double minLat;
+        private final double width;
+        private final double height;
+        private final int depth;
+
+        private int count;
+        private double sumLat;
+        private double sumLon;
+        // Bounds of the subtree's start times; not narrowed on removal, so they may be wider than the actual range
+        private long minStart = Long.MAX_VALUE;
+        private long maxStart = Long.MIN_VALUE;
+
+        private List<Point> points = new ArrayList<>();
+        private Node[] children;
+
+        private Node(double minLon, double minLat, double width, double height, int depth) {
+            this.minLon = minLon;
+            this.minLat = minLat;
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        void insert(Point point) {
+            count++;
+            sumLat += point.latitude();
+            sumLon += point.longitude();
+            minStart = Math.min(minStart, point.startEpochSecond());
+            maxStart = Math.max(maxStart, point.startEpochSecond());
+            if (children != null) {
+                child(point).insert(point);
+                return;
+            }
+            points.add(point);
+            if (points.size() > LEAF_CAPACITY && depth < MAX_DEPTH) {
+                split();
+            }
+        }
+
+        void remove(Point point) {
+            count--;
+            if (count == 0) {
+                sumLat = 0;
+                sumLon = 0;
+                minStart = Long.MAX_VALUE;
+                maxStart = Long.MIN_VALUE;
+            } else {
+                sumLat -= point.latitude();
+                sumLon -= point.longitude();
+            }
+            if (children == null) {
+                points.remove(point);
+                return;
+            }
+            child(point).remove(point);
+            if (count <= LEAF_CAPACITY / 2) {
+                collapse();
+            }
+        }
+
+        private void split() {
+            double halfWidth = width / 2;
+            double halfHeight = height / 2;
+            children = new Node[] {
+                    new Node(minLon, minLat, halfWidth, halfHeight, depth + 1),
+                    new Node(minLon + halfWidth, minLat, halfWidth, halfHeight, depth + 1),
+                    new Node(minLon, minLat + halfHeight, halfWidth, halfHeight, depth + 1),
+                    new Node(minLon + halfWidth, minLat + halfHeight, halfWidth, halfHeight, depth + 1)
+            };
+            for (Point point : points) {
+                child(point).insert(point);
+            }
+            points = null;
+        }
+
+        private void collapse() {
+            List<Point> collected = new ArrayList<>(count);
+            gather(collected);
+            children = null;
+            points = collected;
+            minStart = Long.MAX_VALUE;
+            maxStart = Long.MIN_VALUE;
+            for (Point point : collected) {
+                minStart = Math.min(minStart, point.startEpochSecond());
+                maxStart = Math.max(maxStart, point.startEpochSecond());
+            }
+        }
+
+        private void gather(List<Point> target) {
+            if (children == null) {
+                target.addAll(points);
+                return;
+            }
+            for (Node child : children) {
+                child.gather(target);
+            }
+        }
+
+        private Node child(Point point) {
+            int index = (point.longitude() >= minLon + width / 2 ? 1 : 0) + (point.latitude() >= minLat + height / 2 ? 2 : 0);
+            return children[index];
+        }
+    }
+}
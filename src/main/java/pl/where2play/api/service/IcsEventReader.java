@@ -0,0 +1,272 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Streaming reader of the {@code VEVENT} components of an iCalendar (RFC 5545) file.
+ * <p>
+ * Supports SUMMARY, DESCRIPTION, LOCATION, DTSTART, DTEND or DURATION, STATUS, GEO, RRULE and EXDATE.
+ * UTC times and times with a TZID are converted to the given zone; floating times are taken as they are.
+ * Nested components (alarms) are skipped. Occurrence overrides ({@code RECURRENCE-ID}) are rejected.
+ */
+class IcsEventReader implements ImportRecordReader {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    // Longest unfolded content line accepted
+    private static final int MAX_LINE_LENGTH = 65_536;
+
+    private final BufferedReader reader;
+    private final ZoneId zone;
+    private String lookahead;
+    private long lineNumber;
+    private long lookaheadLineNumber;
+
+    IcsEventReader(BufferedReader reader, ZoneId zone) throws IOException {
+        this.reader = reader;
+        this.zone = zone;
+        lookahead = readPhysicalLine();
+        lookaheadLineNumber = lineNumber;
+        ContentLine first = nextContentLine();
+        if (first == null || !first.is("BEGIN", "VCALENDAR")) {
+            throw new InvalidRequestException("Invalid iCalendar file", "file", "Must start with BEGIN:VCALENDAR");
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        ContentLine contentLine;
+        while ((contentLine = nextContentLine()) != null) {
+            if (contentLine.is("BEGIN", "VEVENT")) {
+                return readEvent(contentLine.line());
+            }
+            if (contentLine.name().equals("BEGIN")) {
+                skipComponent(contentLine.value().trim());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ImportRecord readEvent(long line) throws IOException {
+        CalendarEvent event = new CalendarEvent();
+        Map<String, String> errors = new LinkedHashMap<>();
+        Duration duration = null;
+        boolean allDay = false;
+        StringJoiner exceptions = new StringJoiner(",");
+        ContentLine contentLine;
+        while ((contentLine = nextContentLine()) != null && !contentLine.is("END", "VEVENT")) {
+            String value = contentLine.value();
+            switch (contentLine.name()) {
+                case "BEGIN" -> skipComponent(value.trim());
+                case "SUMMARY" -> event.setTitle(unescape(value));
+                case "DESCRIPTION" -> event.setDescription(unescape(value));
+                case "LOCATION" -> event.setLocation(unescape(value));
+                case "DTSTART" -> {
+                    allDay = isDate(contentLine, value);
+                    event.setStartTime(parseDateTime(contentLine, value, "startTime", errors));
+                }
+                case "DTEND" -> event.setEndTime(parseDateTime(contentLine, value, "endTime", errors));
+                case "DURATION" -> duration = parseDuration(value, errors);
+                case "STATUS" -> event.setStatus("CANCELLED".equalsIgnoreCase(value.trim())
+                        ? CalendarEvent.EventStatus.CANCELLED
+                        : CalendarEvent.EventStatus.SCHEDULED);
+                case "GEO" -> parseGeo(event, value, errors);
+                case "RRULE" -> event.setRecurrenceRule(value);
+                case "EXDATE" -> {
+                    for (String exception : value.split(",")) {
+                        LocalDateTime start = parseDateTime(contentLine, exception, "recurrenceExceptions", errors);
+                        if (start != null) {
+                            exceptions.add(start.toString());
+                        }
+                    }
+                }
+                case "RECURRENCE-ID" -> errors.put("recurrenceId", "Occurrence overrides are not supported");
+                default -> {
+                    // Other properties (UID, DTSTAMP, ORGANIZER, ...) are not stored
+                }
+            }
+        }
+        if (contentLine == null) {
+            errors.put("line", "Missing END:VEVENT");
+        }
+        if (exceptions.length() > 0) {
+            event.setRecurrenceExceptions(exceptions.toString());
+        }
+        if (event.getEndTime() == null && event.getStartTime() != null) {
+            // RFC 5545: without DTEND or DURATION an all-day event lasts one day, others take no time
+            event.setEndTime(duration != null ? event.getStartTime().plus(duration)
+                    : allDay ? event.getStartTime().plusDays(1) : event.getStartTime());
+        }
+        return new ImportRecord(line, event, errors);
+    }
+
+    private void skipComponent(String component) throws IOException {
+        ContentLine contentLine;
+        while ((contentLine = nextContentLine()) != null && !contentLine.is("END", component)) {
+            // Skip nested content
+        }
+    }
+
+    /**
+     * Returns the next unfolded content line, or null at the end of the input.
+     */
+    private ContentLine nextContentLine() throws IOException {
+        while (lookahead != null) {
+            long line = lookaheadLineNumber;
+            StringBuilder unfolded = new StringBuilder(lookahead);
+            lookahead = readPhysicalLine();
+            lookaheadLineNumber = lineNumber;
+            while (lookahead != null && !lookahead.isEmpty() && (lookahead.charAt(0) == ' ' || lookahead.charAt(0) == '\t')) {
+                if (unfolded.length() > MAX_LINE_LENGTH) {
+                    throw new InvalidRequestException("Invalid iCalendar file", "line " + line, "Line longer than " + MAX_LINE_LENGTH + " characters");
+                }
+                unfolded.append(lookahead, 1, lookahead.length());
+                lookahead = readPhysicalLine();
+                lookaheadLineNumber = lineNumber;
+            }
+            if (!unfolded.toString().isBlank()) {
+                return ContentLine.parse(unfolded.toString(), line);
+            }
+        }
+        return null;
+    }
+
+    private String readPhysicalLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+        }
+        return line;
+    }
+
+    private static boolean isDate(ContentLine contentLine, String value) {
+        return "DATE".equalsIgnoreCase(contentLine.parameter("VALUE")) || value.trim().length() == 8;
+    }
+
+    private LocalDateTime parseDateTime(ContentLine contentLine, String value, String field, Map<String, String> errors) {
+        String trimmed = value.trim();
+        try {
+            if (isDate(contentLine, trimmed)) {
+                return LocalDate.parse(trimmed, DATE).atStartOfDay();
+            }
+            if (trimmed.endsWith("Z")) {
+                return LocalDateTime.parse(trimmed.substring(0, trimmed.length() - 1), DATE_TIME)
+                        .atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDateTime();
+            }
+            LocalDateTime dateTime = LocalDateTime.parse(trimmed, DATE_TIME);
+            String tzid = contentLine.parameter("TZID");
+            return tzid == null ? dateTime : dateTime.atZone(ZoneId.of(tzid)).withZoneSameInstant(zone).toLocalDateTime();
+        } catch (DateTimeException e) {
+            errors.put(field, "Must be an iCalendar date or date-time, e.g. 20250601T180000");
+            return null;
+        }
+    }
+
+    private static Duration parseDuration(String value, Map<String, String> errors) {
+        String trimmed = value.trim();
+        try {
+            // java.time.Duration has no weeks
+            if (trimmed.endsWith("W")) {
+                return Duration.ofDays(7L * Long.parseLong(trimmed.substring(trimmed.indexOf('P') + 1, trimmed.length() - 1)));
+            }
+            return Duration.parse(trimmed);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            errors.put("endTime", "DURATION must be an iCalendar duration, e.g. PT1H30M");
+            return null;
+        }
+    }
+
+    private static void parseGeo(CalendarEvent event, String value, Map<String, String> errors) {
+        String[] parts = value.split(";");
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException();
+            }
+            event.setLatitude(Double.valueOf(parts[0].trim()));
+            event.setLongitude(Double.valueOf(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            errors.put("latitude", "GEO must be <latitude>;<longitude>");
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * A content line split into name, parameters and value ({@code DTSTART;TZID=Europe/Warsaw:20250601T180000}).
+     */
+    private record ContentLine(String name, String parameters, String value, long line) {
+
+        static ContentLine parse(String text, long line) {
+            // The value starts after the first colon outside quoted parameter values
+            boolean quoted = false;
+            int colon = -1;
+            for (int i = 0; i < text.length() && colon < 0; i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ':' && !quoted) {
+                    colon = i;
+                }
+            }
+            String head = colon < 0 ? text : text.substring(0, colon);
+            String value = colon < 0 ? "" : text.substring(colon + 1);
+            int semicolon = head.indexOf(';');
+            String name = (semicolon < 0 ? head : head.substring(0, semicolon)).trim().toUpperCase(Locale.ROOT);
+            String parameters = semicolon < 0 ? "" : head.substring(semicolon + 1);
+            return new ContentLine(name, parameters, value, line);
+        }
+
+        boolean is(String name, String value) {
+            return this.name.equals(name) && this.value.trim().equalsIgnoreCase(value);
+        }
+
+        String parameter(String parameterName) {
+            for (String parameter : parameters.split(";")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase(parameterName)) {
+                    return parameter.substring(equals + 1).replace("\"", "").trim();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes calendar events as an iCalendar (RFC 5545) feed, one event at a time.
+ * <p>
+ * Times are written in UTC, converted from the given zone (the zone event times are stored in). Recurring series
+ * become VEVENTs with RRULE and EXDATE; occurrence overrides share the series' UID and carry a RECURRENCE-ID.
+ */
+class IcsFeedWriter {
+
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] FOLD = {'\r', '\n', ' '};
+
+    private final OutputStream out;
+    private final ZoneId zone;
+    private final String uidDomain;
+
+    IcsFeedWriter(OutputStream out, ZoneId zone, String uidDomain, String calendarName) throws IOException {
+        this.out = out;
+        this.zone = zone;
+        this.uidDomain = uidDomain;
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//where2play//w2p-api//EN");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(calendarName));
+    }
+
+    void write(CalendarEvent event) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + (event.getSeriesId() != null ? event.getSeriesId() : event.getId()) + "@" + uidDomain);
+        LocalDateTime stamp = event.getUpdatedAt() != null ? event.getUpdatedAt() : event.getCreatedAt();
+        if (stamp != null) {
+            line("DTSTAMP:" + utc(stamp));
+            line("LAST-MODIFIED:" + utc(stamp));
+        }
+        if (event.getSeriesId() != null && event.getOriginalStartTime() != null) {
+            line("RECURRENCE-ID:" + utc(event.getOriginalStartTime()));
+        }
+        line("DTSTART:" + utc(event.getStartTime()));
+        line("DTEND:" + utc(event.getEndTime()));
+        line("SUMMARY:" + escape(event.getTitle()));
+        if (event.getDescription() != null) {
+            line("DESCRIPTION:" + escape(event.getDescription()));
+        }
+        if (event.getLocation() != null) {
+            line("LOCATION:" + escape(event.getLocation()));
+        }
+        if (event.getLatitude() != null && event.getLongitude() != null) {
+            line("GEO:" + event.getLatitude() + ";" + event.getLongitude());
+        }
+        line("STATUS:" + (event.getStatus() == CalendarEvent.EventStatus.CANCELLED ? "CANCELLED" : "CONFIRMED"));
+        if (event.getRecurrenceRule() != null) {
+            line("RRULE:" + event.getRecurrenceRule());
+            if (event.getRecurrenceExceptions() != null) {
+                for (String exception : event.getRecurrenceExceptions().split(",")) {
+                    if (!exception.isBlank()) {
+                        line("EXDATE:" + utc(LocalDateTime.parse(exception.trim())));
+                    }
+                }
+            }
+        }
+        line("END:VEVENT");
+    }
+
+    void finish() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    private String utc(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC_DATE_TIME);
+    }
+
+    /**
+     * Writes a content line, folded so that no physical line exceeds 75 octets (without splitting UTF-8 sequences).
+     */
+    private void line(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int lineStart = 0;
+        int limit = MAX_LINE_OCTETS;
+        while (bytes.length - lineStart > limit) {
+            int end = lineStart + limit;
+            // Back off to the start of a UTF-8 sequence
+            while ((bytes[end] & 0xC0) == 0x80) {
+                end--;
+            }
+            out.write(bytes, lineStart, end - lineStart);
+            out.write(FOLD);
+            lineStart = end;
+            // Continuation lines start with a space
+            limit = MAX_LINE_OCTETS - 1;
+        }
+        out.write(bytes, lineStart, bytes.length - lineStart);
+        out.write(CRLF);
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                    // Dropped; line breaks are written as \n
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
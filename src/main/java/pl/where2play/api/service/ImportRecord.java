@@ -0,0 +1,11 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEvent;
+
+import java.util.Map;
+
+/**
+ * One row of an upload: the event parsed from it, and errors keyed by field for values that could not be parsed.
+ */
+record ImportRecord(long line, CalendarEvent event, Map<String, String> errors) {
+}
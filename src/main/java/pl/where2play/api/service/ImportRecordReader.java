@@ -0,0 +1,15 @@
+package pl.where2play.api.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads events from an upload one row at a time, so that the whole file is never held in memory.
+ */
+interface ImportRecordReader extends Closeable {
+
+    /**
+     * Returns the next row, or null at the end of the upload.
+     */
+    ImportRecord next() throws IOException;
+}
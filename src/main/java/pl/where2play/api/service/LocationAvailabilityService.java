@@ -0,0 +1,29 @@
+package pl.where2play.api.service;
+
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.FreeBusy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LocationAvailabilityService {
+
+    /**
+     * Computes the busy and free periods of a location.
+     *
+     * @param location the location (matched after normalization, see {@link pl.where2play.api.model.LocationKeys})
+     * @param from start of the period (inclusive)
+     * @param to end of the period (exclusive)
+     * @return merged busy slots and the free gaps between them
+     */
+    FreeBusy getFreeBusy(String location, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds existing events at the candidate's location that overlap it. For a recurring candidate every
+     * occurrence within the conflict check horizon is checked.
+     *
+     * @param candidate the event about to be saved
+     * @return IDs of overlapping events (series IDs for occurrences of recurring events), empty if none
+     */
+    List<Long> findConflicts(CalendarEvent candidate);
+}
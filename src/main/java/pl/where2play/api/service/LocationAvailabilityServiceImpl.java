@@ -0,0 +1,228 @@
+package pl.where2play.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.where2play.api.config.Bulkhead;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.FreeBusy;
+import pl.where2play.api.model.LocationKeys;
+import pl.where2play.api.model.TimeSlot;
+import pl.where2play.api.repository.CalendarEventInterval;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Free/busy computation per location.
+ * <p>
+ * Candidate events are loaded with an overlap query on {@code (location_key, start_time)}, bounded below by
+ * the configured maximum event duration so that the index range stays proportional to the requested window.
+ * Recurring series at the location contribute their expanded occurrences. Busy periods are then derived
+ * with a sweep over the sorted interval start and end points.
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationAvailabilityServiceImpl implements LocationAvailabilityService {
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final RecurrenceExpander recurrenceExpander;
+
+    // How far before the window the overlap query looks; longer events are rejected on create, update and import
+    @Value("${calendar-events.availability.max-event-duration:P30D}")
+    private Duration maxEventDuration = Duration.ofDays(30);
+
+    @Value("${calendar-events.availability.max-range:P366D}")
+    private Duration maxRange = Duration.ofDays(366);
+
+    // How far ahead the occurrences of a new recurring event are checked for conflicts
+    @Value("${calendar-events.availability.conflict-check-horizon:P366D}")
+    private Duration conflictCheckHorizon = Duration.ofDays(366);
+
+    @Override
+    @Bulkhead(Workload.FEED)
+    @Transactional(readOnly = true)
+    public FreeBusy getFreeBusy(String location, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new InvalidRequestException("Invalid time range", "to", "Must be after 'from'");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new InvalidRequestException("Invalid time range", "to", "Range must not exceed " + maxRange.toDays() + " days");
+        }
+
+        long windowStart = RecurrenceExpander.toEpochSecond(from);
+        long windowEnd = RecurrenceExpander.toEpochSecond(to);
+        Intervals intervals = loadIntervals(LocationKeys.normalize(location), from, to);
+        long[] starts = new long[intervals.size];
+        long[] ends = new long[intervals.size];
+        for (int i = 0; i < intervals.size; i++) {
+            starts[i] = Math.max(intervals.starts[i], windowStart);
+            ends[i] = Math.min(intervals.ends[i], windowEnd);
+        }
+        List<TimeSlot> busy = sweep(starts, ends);
+
+        List<TimeSlot> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (TimeSlot slot : busy) {
+            if (slot.getStart().isAfter(cursor)) {
+                free.add(new TimeSlot(cursor, slot.getStart()));
+            }
+            cursor = slot.getEnd();
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new TimeSlot(cursor, to));
+        }
+        return new FreeBusy(location, from, to, busy, free);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findConflicts(CalendarEvent candidate) {
+        String locationKey = LocationKeys.normalize(candidate.getLocation());
+        Duration duration = RecurrenceExpander.duration(candidate);
+        if (locationKey.isEmpty() || candidate.getStartTime() == null || duration.isNegative() || duration.isZero()
+                || candidate.getStatus() == CalendarEvent.EventStatus.CANCELLED) {
+            return List.of();
+        }
+
+        long[] candidateStarts;
+        if (candidate.getRecurrenceRule() == null) {
+            candidateStarts = new long[]{RecurrenceExpander.toEpochSecond(candidate.getStartTime())};
+        } else {
+            LocalDateTime horizon = candidate.getStartTime().plus(conflictCheckHorizon);
+            candidateStarts = recurrenceExpander.occurrenceStarts(candidate, candidate.getStartTime(), horizon);
+            if (candidateStarts.length == 0) {
+                return List.of();
+            }
+        }
+        long durationSeconds = duration.getSeconds();
+        LocalDateTime from = RecurrenceExpander.fromEpochSecond(candidateStarts[0]);
+        LocalDateTime to = RecurrenceExpander.fromEpochSecond(candidateStarts[candidateStarts.length - 1] + durationSeconds);
+        Intervals existing = loadIntervals(locationKey, from, to);
+
+        // Candidate occurrences share one duration, so their end times are sorted like their start times
+        TreeSet<Long> conflicts = new TreeSet<>();
+        for (int i = 0; i < existing.size; i++) {
+            Long id = existing.ids[i];
+            if (id.equals(candidate.getId()) || id.equals(candidate.getSeriesId())) {
+                continue;
+            }
+            // First candidate ending after the existing interval starts
+            int index = upperBound(candidateStarts, existing.starts[i] - durationSeconds);
+            if (index < candidateStarts.length && candidateStarts[index] < existing.ends[i]) {
+                conflicts.add(id);
+            }
+        }
+        return new ArrayList<>(conflicts);
+    }
+
+    /**
+     * Loads the intervals occupied at the location that overlap [from, to), including occurrences of recurring series.
+     */
+    private Intervals loadIntervals(String locationKey, LocalDateTime from, LocalDateTime to) {
+        Intervals intervals = new Intervals();
+        for (CalendarEventInterval event : calendarEventRepository.findOverlappingAtLocation(
+                locationKey, from, to, from.minus(maxEventDuration))) {
+            intervals.add(event.getId(), RecurrenceExpander.toEpochSecond(event.getStartTime()),
+                    RecurrenceExpander.toEpochSecond(event.getEndTime()));
+        }
+
+        List<CalendarEvent> series = calendarEventRepository.findRecurringSeriesAtLocation(locationKey, from, to);
+        if (series.isEmpty()) {
+            return intervals;
+        }
+        // Overridden occurrences are replaced by the override, which the overlap query already returned if relevant
+        Set<Long> seriesIds = new HashSet<>();
+        series.forEach(master -> seriesIds.add(master.getId()));
+        Set<String> overridden = new HashSet<>();
+        for (CalendarEvent override : calendarEventRepository.findBySeriesIdInAndOriginalStartTimeBetween(
+                seriesIds, from.minus(maxEventDuration), to)) {
+            overridden.add(override.getSeriesId() + "@" + RecurrenceExpander.toEpochSecond(override.getOriginalStartTime()));
+        }
+        long windowStart = RecurrenceExpander.toEpochSecond(from);
+        long windowEnd = RecurrenceExpander.toEpochSecond(to);
+        for (CalendarEvent master : series) {
+            Duration duration = RecurrenceExpander.duration(master);
+            long durationSeconds = duration.getSeconds();
+            for (long start : recurrenceExpander.occurrenceStarts(master, from.minus(duration), to)) {
+                if (start < windowEnd && start + durationSeconds > windowStart
+                        && (overridden.isEmpty() || !overridden.contains(master.getId() + "@" + start))) {
+                    intervals.add(master.getId(), start, start + durationSeconds);
+                }
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Merges intervals into busy slots: sorts start and end points separately and tracks how many intervals
+     * are open. Back-to-back intervals (one ending when the next starts) form a single slot.
+     */
+    static List<TimeSlot> sweep(long[] starts, long[] ends) {
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+        List<TimeSlot> busy = new ArrayList<>();
+        int open = 0;
+        int nextStart = 0;
+        long slotStart = 0;
+        for (long end : ends) {
+            while (nextStart < starts.length && starts[nextStart] <= end) {
+                if (open++ == 0) {
+                    slotStart = starts[nextStart];
+                }
+                nextStart++;
+            }
+            if (--open == 0 && end > slotStart) {
+                busy.add(new TimeSlot(RecurrenceExpander.fromEpochSecond(slotStart), RecurrenceExpander.fromEpochSecond(end)));
+            }
+        }
+        return busy;
+    }
+
+    // Index of the first value greater than key
+    private static int upperBound(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Growable parallel arrays of (event ID, start, end) in epoch seconds.
+     */
+    private static final class Intervals {
+        private Long[] ids = new Long[16];
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int size;
+
+        void add(Long id, long start, long end) {
+            if (size == starts.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            ids[size] = id;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package pl.where2play.api.service;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.where2play.api.config.RequestDeadlineFilter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Statement timeouts of calendar event reads.
+ * <p>
+ * A read runs in a read-only transaction whose timeout is the read's configured timeout
+ * ({@code calendar-events.query-timeouts.<read>}, else {@code default}). Spring passes the time left in the
+ * transaction to every query as {@code jakarta.persistence.query.timeout} and Hibernate sets it as the JDBC statement
+ * timeout, so the database cancels a statement still running at the deadline and the connection is freed. JDBC
+ * timeouts are whole seconds; timeouts are rounded up.
+ * <p>
+ * If the client stated how long it waits ({@link RequestDeadlineFilter}), the timeout is cut to the time it has left,
+ * so that a query does not outlive the request it serves.
+ */
+@Component
+public class QueryTimeouts {
+
+    private static final Duration FALLBACK_TIMEOUT = Duration.ofSeconds(10);
+
+    private final PlatformTransactionManager transactionManager;
+    private final Map<String, Duration> timeouts;
+    private final Duration defaultTimeout;
+
+    public QueryTimeouts(PlatformTransactionManager transactionManager, Environment environment) {
+        this.transactionManager = transactionManager;
+        this.timeouts = Binder.get(environment)
+                .bind("calendar-events.query-timeouts", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of());
+        this.defaultTimeout = timeouts.getOrDefault("default", FALLBACK_TIMEOUT);
+    }
+
+    /**
+     * Runs the read in a read-only transaction bounded by the read's timeout. Within an existing transaction the read
+     * runs as part of it, bounded by that transaction's timeout.
+     *
+     * @param read  name of the read, e.g. {@code search-events-by-title}
+     * @param query the read
+     * @throws QueryTimeoutException if the client's deadline has passed already
+     */
+    public <T> T readOnly(String read, Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        definition.setTimeout(timeoutSeconds(read));
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException | Error e) {
+            // The pool may close a connection whose statement timed out (H2); the failing rollback must not hide why
+            try {
+                transactionManager.rollback(status);
+            } catch (RuntimeException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+
+    Duration getTimeout(String read) {
+        return timeouts.getOrDefault(read, defaultTimeout);
+    }
+
+    int timeoutSeconds(String read) {
+        long timeoutNanos = getTimeout(read).toNanos();
+        Long remainingNanos = RequestDeadlineFilter.remainingNanos();
+        if (remainingNanos != null) {
+            if (remainingNanos <= 0) {
+                throw new QueryTimeoutException("Client deadline passed before the " + read + " query started");
+            }
+            timeoutNanos = Math.min(timeoutNanos, remainingNanos);
+        }
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.max(1, (timeoutNanos + nanosPerSecond - 1) / nanosPerSecond);
+    }
+}
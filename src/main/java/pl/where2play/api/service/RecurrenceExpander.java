@@ -0,0 +1,392 @@
+package pl.where2play.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Expands recurring series into the occurrence start times that fall into a window.
+ * <p>
+ * Occurrences are computed on epoch seconds with plain integer calendar arithmetic: expansion jumps straight
+ * to the first period overlapping the window (daily and weekly rules also for {@code COUNT}), writes into a
+ * per-thread scratch buffer and allocates only the resulting {@code long[]}. Expansions are cached per series
+ * version and fixed 32-day bucket, and a window is served from the buckets it overlaps, so arbitrary client
+ * windows map to a bounded set of keys and repeated views of the same month do not expand again. Editing a
+ * series changes its change sequence and therefore its cache keys.
+ */
+@Component
+public class RecurrenceExpander {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final long DAYS_0000_TO_1970 = 719_528;
+    private static final long[] NO_EXCEPTIONS = new long[0];
+    // How far ahead the last occurrence of a counted series is searched for
+    private static final long MAX_SERIES_SPAN_SECONDS = 1000L * 366 * SECONDS_PER_DAY;
+    // Cache granularity; a bucket holds at most one occurrence per day, so bucket expansions need no size limit
+    static final long BUCKET_SECONDS = 32 * SECONDS_PER_DAY;
+    // Wider windows are expanded directly instead of filling the cache with buckets that are rarely viewed again
+    static final int MAX_CACHED_BUCKETS = 16;
+
+    private final Cache<ExpansionKey, long[]> cache;
+    private final int maxOccurrencesPerSeries;
+    private final ThreadLocal<LongList> scratch = ThreadLocal.withInitial(LongList::new);
+
+    public RecurrenceExpander(@Value("${calendar-events.recurrence.expansion-cache-size:10000}") int cacheSize,
+                              @Value("${calendar-events.recurrence.max-occurrences-per-series:1000}") int maxOccurrencesPerSeries) {
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        this.maxOccurrencesPerSeries = maxOccurrencesPerSeries;
+    }
+
+    /**
+     * Returns the start times (see {@link #toEpochSecond}) of the series' occurrences starting within [from, to],
+     * excluding the series' exception dates.
+     */
+    public long[] occurrenceStarts(CalendarEvent series, LocalDateTime from, LocalDateTime to) {
+        long windowStart = toEpochSecond(from);
+        long windowEnd = toEpochSecond(to);
+        long firstBucket = Math.floorDiv(windowStart, BUCKET_SECONDS);
+        long lastBucket = Math.floorDiv(windowEnd, BUCKET_SECONDS);
+        if (series.getId() == null || series.getChangeSeq() == null
+                || lastBucket < firstBucket || lastBucket - firstBucket >= MAX_CACHED_BUCKETS) {
+            return expand(series, windowStart, windowEnd, maxOccurrencesPerSeries);
+        }
+        LongList starts = new LongList();
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            long[] bucketStarts = cache.get(new ExpansionKey(series.getId(), series.getChangeSeq(), bucket),
+                    key -> expand(series, key.bucket() * BUCKET_SECONDS, (key.bucket() + 1) * BUCKET_SECONDS - 1, Integer.MAX_VALUE));
+            for (long start : bucketStarts) {
+                if (start < windowStart || start > windowEnd) {
+                    continue;
+                }
+                if (starts.size() >= maxOccurrencesPerSeries) {
+                    return starts.toArray();
+                }
+                starts.add(start);
+            }
+        }
+        return starts.toArray();
+    }
+
+    long cachedExpansions() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Returns the end of the series' last occurrence, or null if the series repeats forever.
+     * For series bounded by {@code UNTIL} this is an upper bound.
+     *
+     * @throws InvalidRequestException if the rule or the exception dates are invalid
+     */
+    public LocalDateTime lastOccurrenceEnd(CalendarEvent series) {
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRecurrenceRule());
+        parseExceptions(series.getRecurrenceExceptions());
+        Duration duration = duration(series);
+        if (rule.getCount() > 0) {
+            long start = toEpochSecond(series.getStartTime());
+            long[] starts = expand(rule, start, NO_EXCEPTIONS, start, start + MAX_SERIES_SPAN_SECONDS, rule.getCount(), new LongList());
+            long last = starts.length == 0 ? start : starts[starts.length - 1];
+            return occurrenceStart(series, last).plus(duration);
+        }
+        if (rule.getUntil() != null) {
+            return rule.getUntil().plusSeconds(1).plus(duration);
+        }
+        return null;
+    }
+
+    long[] expand(CalendarEvent series, long windowStart, long windowEnd, int maxOccurrences) {
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRecurrenceRule());
+        long[] exceptions = parseExceptions(series.getRecurrenceExceptions());
+        return expand(rule, toEpochSecond(series.getStartTime()), exceptions, windowStart, windowEnd, maxOccurrences, scratch.get());
+    }
+
+    /**
+     * Core expansion: occurrences of {@code rule} anchored at {@code start} whose start lies in [windowStart, windowEnd].
+     *
+     * @param exceptions sorted start times to leave out (they still count towards {@code COUNT}, as in RFC 5545)
+     * @param buffer scratch space, cleared before use
+     */
+    static long[] expand(RecurrenceRule rule, long start, long[] exceptions, long windowStart, long windowEnd,
+                         int maxOccurrences, LongList buffer) {
+        buffer.clear();
+        long until = rule.getUntil() != null ? toEpochSecond(rule.getUntil()) : Long.MAX_VALUE;
+        Emitter emitter = new Emitter(buffer, exceptions, windowStart, Math.min(windowEnd, until),
+                rule.getCount() > 0 ? rule.getCount() : Long.MAX_VALUE, maxOccurrences);
+        if (emitter.last >= windowStart && emitter.last >= start) {
+            switch (rule.getFrequency()) {
+                case DAILY -> expandDaily(rule, start, emitter);
+                case WEEKLY -> expandWeekly(rule, start, emitter);
+                case MONTHLY -> expandMonthly(rule, start, emitter);
+                case YEARLY -> expandYearly(rule, start, emitter);
+            }
+        }
+        return buffer.toArray();
+    }
+
+    private static void expandDaily(RecurrenceRule rule, long start, Emitter emitter) {
+        long step = rule.getInterval() * SECONDS_PER_DAY;
+        long index = emitter.windowStart > start ? ceilDiv(emitter.windowStart - start, step) : 0;
+        while (emitter.emit(start + index * step, index)) {
+            index++;
+        }
+    }
+
+    private static void expandWeekly(RecurrenceRule rule, long start, Emitter emitter) {
+        long startDay = Math.floorDiv(start, SECONDS_PER_DAY);
+        long timeOfDay = start - startDay * SECONDS_PER_DAY;
+        int startWeekday = dayOfWeek(startDay);
+        int mask = rule.getByDayMask() != 0 ? rule.getByDayMask() : 1 << startWeekday;
+        int perWeek = Integer.bitCount(mask);
+        // Occurrences in the first week, where days before the series start do not count
+        int firstWeek = Integer.bitCount(mask >>> startWeekday);
+        long firstMonday = startDay - startWeekday;
+        long periodDays = 7L * rule.getInterval();
+
+        long windowStartDay = Math.floorDiv(emitter.windowStart, SECONDS_PER_DAY);
+        long period = Math.max(0, Math.floorDiv(windowStartDay - firstMonday, periodDays));
+        while (true) {
+            long monday = firstMonday + period * periodDays;
+            long index = period == 0 ? 0 : firstWeek + (period - 1) * perWeek;
+            for (int weekday = 0; weekday < 7; weekday++) {
+                if ((mask & (1 << weekday)) == 0 || (period == 0 && weekday < startWeekday)) {
+                    continue;
+                }
+                if (!emitter.emit((monday + weekday) * SECONDS_PER_DAY + timeOfDay, index++)) {
+                    return;
+                }
+            }
+            period++;
+        }
+    }
+
+    private static void expandMonthly(RecurrenceRule rule, long start, Emitter emitter) {
+        long startDay = Math.floorDiv(start, SECONDS_PER_DAY);
+        long timeOfDay = start - startDay * SECONDS_PER_DAY;
+        LocalDate startDate = LocalDate.ofEpochDay(startDay);
+        long firstMonth = startDate.getYear() * 12L + startDate.getMonthValue() - 1;
+        int defaultDay = startDate.getDayOfMonth();
+        int days = Math.max(1, rule.byMonthDayCount());
+
+        long period = 0;
+        if (!emitter.isCounted()) {
+            LocalDate windowStartDate = LocalDate.ofEpochDay(Math.floorDiv(emitter.windowStart, SECONDS_PER_DAY));
+            long windowMonth = windowStartDate.getYear() * 12L + windowStartDate.getMonthValue() - 1;
+            period = Math.max(0, Math.floorDiv(windowMonth - firstMonth, rule.getInterval()));
+        }
+        long index = 0;
+        while (true) {
+            long month = firstMonth + period * rule.getInterval();
+            int year = (int) Math.floorDiv(month, 12);
+            int monthOfYear = (int) Math.floorMod(month, 12) + 1;
+            if (epochDay(year, monthOfYear, 1) * SECONDS_PER_DAY > emitter.last) {
+                return;
+            }
+            int length = lengthOfMonth(year, monthOfYear);
+            for (int i = 0; i < days; i++) {
+                int dayOfMonth = rule.byMonthDayCount() > 0 ? rule.byMonthDayAt(i) : defaultDay;
+                if (dayOfMonth > length) {
+                    continue;
+                }
+                long day = epochDay(year, monthOfYear, dayOfMonth);
+                if (day < startDay) {
+                    continue;
+                }
+                if (!emitter.emit(day * SECONDS_PER_DAY + timeOfDay, index++)) {
+                    return;
+                }
+            }
+            period++;
+        }
+    }
+
+    private static void expandYearly(RecurrenceRule rule, long start, Emitter emitter) {
+        long startDay = Math.floorDiv(start, SECONDS_PER_DAY);
+        long timeOfDay = start - startDay * SECONDS_PER_DAY;
+        LocalDate startDate = LocalDate.ofEpochDay(startDay);
+
+        long period = 0;
+        if (!emitter.isCounted()) {
+            int windowYear = LocalDate.ofEpochDay(Math.floorDiv(emitter.windowStart, SECONDS_PER_DAY)).getYear();
+            period = Math.max(0, Math.floorDiv(windowYear - startDate.getYear(), rule.getInterval()));
+        }
+        long index = 0;
+        while (true) {
+            int year = (int) (startDate.getYear() + period * rule.getInterval());
+            if (epochDay(year, 1, 1) * SECONDS_PER_DAY > emitter.last) {
+                return;
+            }
+            // Skipped in years without the day (29 February)
+            if (startDate.getDayOfMonth() <= lengthOfMonth(year, startDate.getMonthValue())) {
+                long day = epochDay(year, startDate.getMonthValue(), startDate.getDayOfMonth());
+                if (!emitter.emit(day * SECONDS_PER_DAY + timeOfDay, index++)) {
+                    return;
+                }
+            }
+            period++;
+        }
+    }
+
+    /**
+     * Parses comma-separated ISO local date-times ({@code 2025-03-10T18:00:00}) into sorted epoch seconds.
+     *
+     * @throws InvalidRequestException if a value is not a valid date-time
+     */
+    static long[] parseExceptions(String exceptions) {
+        if (exceptions == null || exceptions.isBlank()) {
+            return NO_EXCEPTIONS;
+        }
+        try {
+            return Arrays.stream(exceptions.split(","))
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .mapToLong(value -> toEpochSecond(LocalDateTime.parse(value)))
+                    .sorted()
+                    .toArray();
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid recurrence exceptions", "recurrenceExceptions",
+                    "Must be a comma-separated list of ISO date-times");
+        }
+    }
+
+    static Duration duration(CalendarEvent event) {
+        return event.getEndTime() == null ? Duration.ZERO : Duration.between(event.getStartTime(), event.getEndTime());
+    }
+
+    /**
+     * Start time of the occurrence starting at the given epoch second, keeping the series' sub-second part.
+     */
+    public static LocalDateTime occurrenceStart(CalendarEvent series, long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, series.getStartTime().getNano(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Local date-time as seconds since 1970-01-01T00:00 (no time zone involved).
+     */
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, without creating a LocalDate
+    static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // 0 = Monday (1970-01-01 was a Thursday)
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * Applies window, {@code COUNT}, exception and size limits to candidate occurrences.
+     */
+    private static final class Emitter {
+        private final LongList buffer;
+        private final long[] exceptions;
+        private final long windowStart;
+        // Latest start time that can still be emitted (window end or UNTIL)
+        private final long last;
+        private final long count;
+        private final int maxOccurrences;
+
+        private Emitter(LongList buffer, long[] exceptions, long windowStart, long last, long count, int maxOccurrences) {
+            this.buffer = buffer;
+            this.exceptions = exceptions;
+            this.windowStart = windowStart;
+            this.last = last;
+            this.count = count;
+            this.maxOccurrences = maxOccurrences;
+        }
+
+        boolean isCounted() {
+            return count != Long.MAX_VALUE;
+        }
+
+        /**
+         * @return false once no further occurrence can be emitted
+         */
+        boolean emit(long occurrence, long index) {
+            if (occurrence > last || index >= count || buffer.size() >= maxOccurrences) {
+                return false;
+            }
+            if (occurrence >= windowStart && (exceptions.length == 0 || Arrays.binarySearch(exceptions, occurrence) < 0)) {
+                buffer.add(occurrence);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Growable list of primitive longs.
+     */
+    static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private record ExpansionKey(long seriesId, long changeSeq, long bucket) {
+    }
+}
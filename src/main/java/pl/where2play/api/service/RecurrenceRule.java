@@ -0,0 +1,189 @@
+package pl.where2play.api.service;
+
+import lombok.Getter;
+import pl.where2play.api.exception.InvalidRequestException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Parsed iCalendar (RFC 5545) recurrence rule.
+ * <p>
+ * Supported: {@code FREQ} (DAILY, WEEKLY, MONTHLY, YEARLY), {@code INTERVAL}, {@code COUNT}, {@code UNTIL},
+ * {@code BYDAY} (weekly rules, plain weekdays only), {@code BYMONTHDAY} (monthly rules, positive days only)
+ * and {@code WKST=MO}. Times are local, like all event times in this application; a trailing {@code Z} on
+ * {@code UNTIL} is accepted and ignored.
+ */
+@Getter
+public final class RecurrenceRule {
+
+    // Upper bound for COUNT, so that the end of every counted series can be computed cheaply
+    public static final int MAX_COUNT = 10_000;
+
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    // 0 = no COUNT
+    private final int count;
+    // null = no UNTIL
+    private final LocalDateTime until;
+    // Bit (DayOfWeek.getValue() - 1) set for every BYDAY weekday; 0 = none given
+    private final int byDayMask;
+    // Sorted, distinct BYMONTHDAY values; empty = none given
+    private final int[] byMonthDay;
+
+    private RecurrenceRule(Frequency frequency, int interval, int count, LocalDateTime until, int byDayMask, int[] byMonthDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDayMask = byDayMask;
+        this.byMonthDay = byMonthDay;
+    }
+
+    public boolean isBounded() {
+        return count > 0 || until != null;
+    }
+
+    public int[] getByMonthDay() {
+        return byMonthDay.clone();
+    }
+
+    int byMonthDayCount() {
+        return byMonthDay.length;
+    }
+
+    int byMonthDayAt(int index) {
+        return byMonthDay[index];
+    }
+
+    /**
+     * Parses a rule such as {@code FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20}, optionally prefixed with {@code RRULE:}.
+     *
+     * @throws InvalidRequestException if the rule is malformed or uses unsupported parts
+     */
+    public static RecurrenceRule parse(String rule) {
+        String text = rule.trim();
+        if (text.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            text = text.substring(6);
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        int count = 0;
+        LocalDateTime until = null;
+        int byDayMask = 0;
+        int[] byMonthDay = new int[0];
+        for (String part : text.split(";")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int separator = part.indexOf('=');
+            if (separator <= 0) {
+                throw invalid("Malformed rule part '" + part + "'");
+            }
+            String name = part.substring(0, separator).toUpperCase(Locale.ROOT);
+            String value = part.substring(separator + 1).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ" -> frequency = parseFrequency(value);
+                case "INTERVAL" -> interval = parsePositive(name, value, Integer.MAX_VALUE);
+                case "COUNT" -> count = parsePositive(name, value, MAX_COUNT);
+                case "UNTIL" -> until = parseUntil(value);
+                case "BYDAY" -> byDayMask = parseByDay(value);
+                case "BYMONTHDAY" -> byMonthDay = parseByMonthDay(value);
+                case "WKST" -> {
+                    if (!"MO".equals(value)) {
+                        throw invalid("Only WKST=MO is supported");
+                    }
+                }
+                default -> throw invalid("Unsupported rule part " + name);
+            }
+        }
+
+        if (frequency == null) {
+            throw invalid("FREQ is required");
+        }
+        if (count > 0 && until != null) {
+            throw invalid("COUNT and UNTIL must not be combined");
+        }
+        if (byDayMask != 0 && frequency != Frequency.WEEKLY) {
+            throw invalid("BYDAY is only supported for weekly rules");
+        }
+        if (byMonthDay.length > 0 && frequency != Frequency.MONTHLY) {
+            throw invalid("BYMONTHDAY is only supported for monthly rules");
+        }
+        return new RecurrenceRule(frequency, interval, count, until, byDayMask, byMonthDay);
+    }
+
+    private static Frequency parseFrequency(String value) {
+        try {
+            return Frequency.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw invalid("Unsupported FREQ " + value);
+        }
+    }
+
+    private static int parsePositive(String name, String value, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 1 || number > max) {
+                throw invalid(name + " must be between 1 and " + max);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw invalid(name + " must be a number");
+        }
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        try {
+            return local.length() == 8
+                    ? LocalDate.parse(local, UNTIL_DATE).atTime(23, 59, 59)
+                    : LocalDateTime.parse(local, UNTIL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw invalid("UNTIL must be yyyyMMdd or yyyyMMdd'T'HHmmss");
+        }
+    }
+
+    private static int parseByDay(String value) {
+        int mask = 0;
+        for (String day : value.split(",")) {
+            DayOfWeek dayOfWeek = switch (day) {
+                case "MO" -> DayOfWeek.MONDAY;
+                case "TU" -> DayOfWeek.TUESDAY;
+                case "WE" -> DayOfWeek.WEDNESDAY;
+                case "TH" -> DayOfWeek.THURSDAY;
+                case "FR" -> DayOfWeek.FRIDAY;
+                case "SA" -> DayOfWeek.SATURDAY;
+                case "SU" -> DayOfWeek.SUNDAY;
+                default -> throw invalid("Unsupported BYDAY value " + day);
+            };
+            mask |= 1 << (dayOfWeek.getValue() - 1);
+        }
+        return mask;
+    }
+
+    private static int[] parseByMonthDay(String value) {
+        return Arrays.stream(value.split(","))
+                .mapToInt(day -> parsePositive("BYMONTHDAY", day, 31))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private static InvalidRequestException invalid(String message) {
+        return new InvalidRequestException("Invalid recurrence rule", "recurrenceRule", message);
+    }
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+}
@@ -0,0 +1,50 @@
+package pl.where2play.api.service;
+
+import lombok.Value;
+import pl.where2play.api.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque delta sync position handed out to clients.
+ * <p>
+ * Holds the last change sequence the client has received and the time at which the client was last
+ * fully in sync. The latter decides whether tombstones the client still needs may already have been purged.
+ */
+@Value
+public class SyncToken {
+
+    private static final String VERSION = "v1";
+
+    long changeSeq;
+    Instant syncedAt;
+
+    public static SyncToken initial(Instant now) {
+        return new SyncToken(0, now);
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + changeSeq + ":" + syncedAt.getEpochSecond();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a token previously returned by {@link #encode()}.
+     *
+     * @throws InvalidRequestException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported token format");
+            }
+            return new SyncToken(Long.parseLong(parts[1]), Instant.ofEpochSecond(Long.parseLong(parts[2])));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid sync token", "since", "Token is malformed or unsupported");
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package pl.where2play.api.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.config.E2ETestOnly;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.exception.ResourceNotFoundException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.SyntheticDataJob;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.repository.CalendarEventBatchWriter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Generates large, realistic calendar event datasets for benchmarks and query-plan tests.
+ * <p>
+ * Locations and creators are Zipf-distributed, so a few popular ones get most of the events. Most locations are
+ * venues in one of a few cities, with coordinates near the city centre; some events are online. Start times spread
+ * evenly over the days of the window, with most events starting in the afternoon and evening; durations and
+ * statuses follow a typical mix (past events are mostly completed, some cancelled).
+ * <p>
+ * Events are generated in batches, each from its own random seed derived from the spec's seed and the batch number,
+ * so the dataset does not depend on how the batches are spread over the threads: the same spec always yields the
+ * same events, only their IDs differ. Batches are inserted in parallel through {@link CalendarEventBatchWriter},
+ * each in its own transaction together with its daily stats deltas. No change events are published per batch;
+ * once the load is done, a single {@link CalendarEventsBulkLoadedEvent} tells the change feed and the caches to
+ * start over. Generations requested through the E2E support endpoint run as background jobs, one at a time.
+ */
+@Slf4j
+@Service
+public class SyntheticEventGenerator {
+
+    // Each thread holds one pooled connection; the rest of the pool is left to request traffic
+    static final int MAX_THREADS = 4;
+    static final long MAX_COUNT = 50_000_000;
+    static final int MAX_BATCH_SIZE = 10_000;
+    // Finished jobs are kept for their status until this many newer ones were started
+    static final int MAX_JOBS = 100;
+
+    private static final City[] CITIES = {
+            new City("Warsaw", 52.2297, 21.0122), new City("Krakow", 50.0647, 19.9450),
+            new City("Wroclaw", 51.1079, 17.0385), new City("Gdansk", 54.3520, 18.6466),
+            new City("Poznan", 52.4064, 16.9252), new City("Lodz", 51.7592, 19.4560),
+            new City("Katowice", 50.2649, 19.0238), new City("Lublin", 51.2465, 22.5684)
+    };
+    private static final String[] VENUE_TYPES = {
+            "Sports Hall", "Park", "Community Centre", "Stadium", "Studio", "Club", "Pitch", "Conference Room"
+    };
+    private static final String[] TITLES = {
+            "Football Match", "Basketball Game", "Volleyball Training", "Tennis Doubles", "Running Club", "Yoga Class",
+            "Cycling Tour", "Board Game Night", "Chess Tournament", "Climbing Session", "Swimming Practice",
+            "Team Meeting", "Workshop", "Concert", "Book Club", "Language Exchange"
+    };
+    // Relative frequency of start hours 0-23
+    private static final double[] START_HOUR_WEIGHTS = {
+            0.1, 0.05, 0.02, 0.02, 0.02, 0.05, 0.3, 0.8, 1.2, 1.5, 1.8, 1.6,
+            1.4, 1.2, 1.3, 1.5, 1.9, 2.6, 3.0, 2.7, 1.8, 1.0, 0.5, 0.2
+    };
+    private static final int[] DURATION_MINUTES = {30, 45, 60, 60, 60, 90, 90, 90, 120, 120, 180, 240};
+    private static final double ONLINE_SHARE = 0.05;
+
+    private final CalendarEventBatchWriter batchWriter;
+    private final CalendarEventDailyStatsUpdater dailyStatsUpdater;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "synthetic-data");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, SyntheticDataJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SyntheticDataJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+
+    public SyntheticEventGenerator(CalendarEventBatchWriter batchWriter,
+                                   CalendarEventDailyStatsUpdater dailyStatsUpdater,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.batchWriter = batchWriter;
+        this.dailyStatsUpdater = dailyStatsUpdater;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts generating the events of the spec in the background for E2E test support endpoints. Jobs run one
+     * at a time, in the order they were started.
+     * <p>
+     * <strong>WARNING: THIS METHOD IS FOR E2E TEST FRAMEWORK USE ONLY!</strong>
+     *
+     * @return the queued job, whose status is updated as it runs
+     * @throws InvalidRequestException if the spec is out of range
+     * @throws UnsupportedOperationException if called from inappropriate context
+     */
+    @E2ETestOnly
+    public SyntheticDataJob startForTesting(SyntheticDataSpec spec) {
+        validate(spec);
+        SyntheticDataJob job = new SyntheticDataJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setTestRunId(testRunId(spec));
+        job.setRequested(spec.getCount());
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> run(job, spec));
+        return job;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if there is no such job, or it finished too long ago
+     */
+    public SyntheticDataJob getJob(String id) {
+        SyntheticDataJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Synthetic data job", id);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Generates and inserts the events of the spec. Batches inserted before a failure stay inserted.
+     *
+     * @return the number of events inserted
+     * @throws InvalidRequestException if the spec is out of range
+     */
+    public long generate(SyntheticDataSpec spec) {
+        return generate(spec, inserted -> { });
+    }
+
+    private void run(SyntheticDataJob job, SyntheticDataSpec spec) {
+        long started = System.nanoTime();
+        job.setStatus(SyntheticDataJob.Status.RUNNING);
+        try {
+            generate(spec, job::setGenerated);
+            job.setStatus(SyntheticDataJob.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("Synthetic data job {} failed", job.getId(), e);
+            job.setError(e.getMessage());
+            job.setStatus(SyntheticDataJob.Status.FAILED);
+        } finally {
+            job.setDurationMs(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+    }
+
+    private long generate(SyntheticDataSpec spec, LongConsumer progress) {
+        validate(spec);
+        Dataset dataset = new Dataset(spec);
+        long batches = (spec.getCount() + spec.getBatchSize() - 1) / spec.getBatchSize();
+        AtomicLong inserted = new AtomicLong();
+        long started = System.nanoTime();
+        log.info("Generating {} synthetic events tagged {} (seed {}, anchor {}) in {} batches on {} threads",
+                spec.getCount(), dataset.testRunId, spec.getSeed(), dataset.anchor.toLocalDate(), batches, spec.getThreads());
+
+        ExecutorService executor = Executors.newFixedThreadPool(spec.getThreads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long batch = 0; batch < batches; batch++) {
+                long number = batch;
+                futures.add(executor.submit(() -> insert(dataset.batch(number), inserted, spec.getCount(), progress)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Synthetic event generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating synthetic events", e);
+        } finally {
+            // Drops the queued batches if one failed
+            executor.shutdownNow();
+            if (inserted.get() > 0) {
+                eventPublisher.publishEvent(new CalendarEventsBulkLoadedEvent(inserted.get()));
+            }
+        }
+
+        long millis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Generated {} synthetic events in {} ms ({} per second)", inserted.get(), millis,
+                millis > 0 ? inserted.get() * 1000 / millis : inserted.get());
+        return inserted.get();
+    }
+
+    /**
+     * Tag of the events generated for the spec: its test run ID, or {@code synthetic-<seed>}.
+     */
+    public static String testRunId(SyntheticDataSpec spec) {
+        return spec.getTestRunId() != null ? spec.getTestRunId() : "synthetic-" + spec.getSeed();
+    }
+
+    private void insert(List<CalendarEvent> events, AtomicLong inserted, long count, LongConsumer progress) {
+        batchTransaction.executeWithoutResult(tx -> {
+            batchWriter.insert(events);
+            // In place of the stats listener, which only sees published changes
+            dailyStatsUpdater.applyDeltas(CalendarEventDailyStatsCalculator.deltas(
+                    events.stream().map(CalendarEventChange::created).toList()));
+        });
+        long done = inserted.addAndGet(events.size());
+        synchronized (inserted) {
+            // Reads the total again, so that the reported progress never goes back
+            progress.accept(inserted.get());
+        }
+        long step = Math.max(1, count / 10);
+        if (done / step != (done - events.size()) / step) {
+            log.info("Inserted {} of {} synthetic events", done, count);
+        }
+    }
+
+    private static void validate(SyntheticDataSpec spec) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (spec.getCount() < 1 || spec.getCount() > MAX_COUNT) {
+            errors.put("count", "Must be between 1 and " + MAX_COUNT);
+        }
+        if (spec.getBatchSize() < 1 || spec.getBatchSize() > MAX_BATCH_SIZE) {
+            errors.put("batchSize", "Must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        if (spec.getThreads() < 1 || spec.getThreads() > MAX_THREADS) {
+            errors.put("threads", "Must be between 1 and " + MAX_THREADS);
+        }
+        if (spec.getLocations() < 1) {
+            errors.put("locations", "Must be at least 1");
+        }
+        if (spec.getCreators() < 1) {
+            errors.put("creators", "Must be at least 1");
+        }
+        if (spec.getSkew() < 0) {
+            errors.put("skew", "Must not be negative");
+        }
+        if (spec.getPastDays() < 0 || spec.getFutureDays() < 0 || spec.getPastDays() + spec.getFutureDays() < 1) {
+            errors.put("pastDays", "pastDays and futureDays must not be negative and must span at least one day");
+        }
+        if (spec.getTestRunId() != null && spec.getTestRunId().length() > 64) {
+            errors.put("testRunId", "Must be at most 64 characters");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException("Invalid synthetic data spec", errors);
+        }
+    }
+
+    private record City(String name, double latitude, double longitude) {
+    }
+
+    /**
+     * The distributions of one spec; {@link #batch(long)} is a pure function of the spec and the batch number.
+     */
+    static final class Dataset {
+
+        private final SyntheticDataSpec spec;
+        private final LocalDateTime anchor;
+        private final String testRunId;
+        private final String[] locationNames;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final double[] locationCdf;
+        private final double[] creatorCdf;
+        private final double[] startHourCdf;
+
+        Dataset(SyntheticDataSpec spec) {
+            this.spec = spec;
+            this.anchor = (spec.getAnchor() != null ? spec.getAnchor() : LocalDate.now()).atStartOfDay();
+            this.testRunId = testRunId(spec);
+            this.locationNames = new String[spec.getLocations()];
+            this.latitudes = new double[spec.getLocations()];
+            this.longitudes = new double[spec.getLocations()];
+            // Ranked by popularity: the most popular venues are spread over the cities
+            SplittableRandom random = new SplittableRandom(spec.getSeed());
+            for (int i = 0; i < locationNames.length; i++) {
+                City city = CITIES[i % CITIES.length];
+                int venue = i / CITIES.length;
+                locationNames[i] = city.name() + " " + VENUE_TYPES[venue % VENUE_TYPES.length] + " " + (venue / VENUE_TYPES.length + 1);
+                latitudes[i] = round(city.latitude() + (random.nextDouble() - 0.5) * 0.16);
+                longitudes[i] = round(city.longitude() + (random.nextDouble() - 0.5) * 0.24);
+            }
+            this.locationCdf = zipfCdf(spec.getLocations(), spec.getSkew());
+            this.creatorCdf = zipfCdf(spec.getCreators(), spec.getSkew());
+            this.startHourCdf = cdf(START_HOUR_WEIGHTS);
+        }
+
+        List<CalendarEvent> batch(long number) {
+            long first = number * spec.getBatchSize();
+            int size = (int) Math.min(spec.getBatchSize(), spec.getCount() - first);
+            SplittableRandom random = new SplittableRandom(spec.getSeed() ^ (number + 1) * 0x9E3779B97F4A7C15L);
+            List<CalendarEvent> events = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                events.add(event(random));
+            }
+            return events;
+        }
+
+        private CalendarEvent event(SplittableRandom random) {
+            CalendarEvent event = new CalendarEvent();
+            event.setTitle(TITLES[random.nextInt(TITLES.length)]);
+
+            LocalDateTime start = anchor.plusDays(random.nextInt(-spec.getPastDays(), spec.getFutureDays()))
+                    .withHour(sample(startHourCdf, random))
+                    .withMinute(15 * random.nextInt(4));
+            event.setStartTime(start);
+            event.setEndTime(start.plusMinutes(DURATION_MINUTES[random.nextInt(DURATION_MINUTES.length)]));
+
+            if (random.nextDouble() < ONLINE_SHARE) {
+                event.setLocation("Online");
+            } else {
+                int location = sample(locationCdf, random);
+                event.setLocation(locationNames[location]);
+                event.setLatitude(latitudes[location]);
+                event.setLongitude(longitudes[location]);
+            }
+
+            String creator = "user_" + (sample(creatorCdf, random) + 1);
+            event.setCreatedBy(creator);
+            event.setDescription(random.nextInt(10) < 6 ? "Organised by " + creator : null);
+
+            double status = random.nextDouble();
+            if (event.getEndTime().isBefore(anchor)) {
+                // Past: mostly completed; a few were never transitioned
+                event.setStatus(status < 0.88 ? CalendarEvent.EventStatus.COMPLETED
+                        : status < 0.97 ? CalendarEvent.EventStatus.CANCELLED : CalendarEvent.EventStatus.SCHEDULED);
+            } else {
+                event.setStatus(status < 0.93 ? CalendarEvent.EventStatus.SCHEDULED : CalendarEvent.EventStatus.CANCELLED);
+            }
+            event.setTestRunId(testRunId);
+            return event;
+        }
+
+        private static double[] zipfCdf(int items, double skew) {
+            double[] weights = new double[items];
+            for (int rank = 0; rank < items; rank++) {
+                weights[rank] = 1 / Math.pow(rank + 1, skew);
+            }
+            return cdf(weights);
+        }
+
+        private static double[] cdf(double[] weights) {
+            double[] cdf = new double[weights.length];
+            double total = Arrays.stream(weights).sum();
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cdf[i] = sum / total;
+            }
+            return cdf;
+        }
+
+        private static int sample(double[] cdf, SplittableRandom random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+
+        private static double round(double coordinate) {
+            return Math.round(coordinate * 1e6) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package pl.where2play.api;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Time from starting the application to the first successful {@code GET /api/events}, and its resident memory at
+ * that point, for the packaged jar (default), the jar with an AppCDS archive (CDS), the AOT-processed jar with its
+ * own archive (AOT+CDS) and the native executable.
+ * Excluded from the default build; package the startup modes first, then run the benchmark:
+ * <pre>
+ * mvn package -Pcds -DskipTests
+ * mvn package -Paot,cds -DskipTests
+ * mvn -Pnative native:compile -DskipTests
+ * mvn test -Pbenchmark -Dtest=StartupTimeBenchmarkTest
+ * </pre>
+ * Modes that have not been packaged are skipped. The results are written as a Markdown table to
+ * {@code target/startup-benchmark.md}, in the format of the table in the README.
+ */
+@Tag("Benchmark")
+class StartupTimeBenchmarkTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path RESULTS = TARGET.resolve("startup-benchmark.md");
+    private static final int ROUNDS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void timeToFirstEventsResponse() throws Exception {
+        // Arrange
+        Path jar = applicationJar(TARGET);
+        assumeTrue(jar != null, "No packaged jar in target; run mvn package first");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<StartupMode> modes = new ArrayList<>();
+        modes.add(new StartupMode("default", List.of(java, "-jar", jar.toString())));
+        Path cdsJar = applicationJar(TARGET.resolve("cds"));
+        if (cdsJar != null) {
+            modes.add(new StartupMode("CDS", List.of(java, "-XX:SharedArchiveFile=" + TARGET.resolve("cds/application.jsa"),
+                    "-jar", cdsJar.toString())));
+        }
+        Path aotCdsJar = applicationJar(TARGET.resolve("aot-cds"));
+        if (aotCdsJar != null) {
+            modes.add(new StartupMode("AOT+CDS", List.of(java, "-XX:SharedArchiveFile=" + TARGET.resolve("aot-cds/application.jsa"),
+                    "-Dspring.aot.enabled=true", "-jar", aotCdsJar.toString())));
+        }
+        Path executable = TARGET.resolve("w2p-api");
+        if (Files.isExecutable(executable)) {
+            modes.add(new StartupMode("native", List.of(executable.toString())));
+        }
+
+        // Act & Assert
+        List<String> results = new ArrayList<>(List.of(
+                "| Mode | Median | Best | RSS |",
+                "|------|--------|------|-----|"));
+        for (StartupMode mode : modes) {
+            long[] millis = new long[ROUNDS];
+            long[] rssKb = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                Startup startup = start(mode, round);
+                millis[round] = startup.millis();
+                rssKb[round] = startup.rssKb();
+            }
+            Arrays.sort(millis);
+            Arrays.sort(rssKb);
+            results.add(String.format("| %s | %d ms | %d ms | %s |", mode.name(), millis[ROUNDS / 2], millis[0],
+                    rssKb[ROUNDS / 2] < 0 ? "n/a" : rssKb[ROUNDS / 2] / 1024 + " MB"));
+        }
+        Files.write(RESULTS, results);
+        System.out.println(String.join(System.lineSeparator(), results));
+    }
+
+    private Startup start(StartupMode mode, int round) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command());
+        command.addAll(List.of("--server.port=" + port,
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=jdbc:h2:mem:startup-benchmark"));
+        Path log = TARGET.resolve("startup-benchmark-" + mode.name().replace('+', '-').toLowerCase() + "-" + round + ".log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events")).build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() - started < STARTUP_TIMEOUT.toNanos()) {
+                assertTrue(process.isAlive(), mode.name() + " exited during startup, see " + log);
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new Startup(Duration.ofNanos(System.nanoTime() - started).toMillis(), rssKb(process));
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(20);
+            }
+            return fail(mode.name() + " did not answer within " + STARTUP_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static Path applicationJar(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * Resident set size from /proc (Linux), or -1 where that is not available.
+     */
+    private static long rssKb(Process process) {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst().orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record StartupMode(String name, List<String> command) {
+    }
+
+    private record Startup(long millis, long rssKb) {
+    }
+}
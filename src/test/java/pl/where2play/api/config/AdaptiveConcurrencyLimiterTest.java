@@ -0,0 +1,102 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.config.AdaptiveConcurrencyLimiter.Priority;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void release_ShouldRaiseLimitWhileLatencyIsStable() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0.75, 2.0, 0.2, 600);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, "list", 10 * MILLIS);
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() > 10, "Limit " + limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    void release_ShouldLowerLimitWhenLatencyRises() {
+        // Arrange - slow database stand-in: the same calls take five times longer
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 40, 0.75, 2.0, 0.2, 600);
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, "list", 10 * MILLIS);
+        }
+        int before = limiter.getLimit();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, "list", 50 * MILLIS);
+        }
+
+        // Assert
+        assertEquals(40, before);
+        assertTrue(limiter.getLimit() < before / 2, "Limit " + limiter.getLimit());
+    }
+
+    @Test
+    void release_ShouldCompareEachGroupWithItsOwnBaseline() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0.75, 2.0, 0.2, 600);
+
+        // Act - list calls are always 100 times slower than lookups by ID
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, i % 2 == 0 ? "list" : "detail", i % 2 == 0 ? 100 * MILLIS : MILLIS);
+        }
+
+        // Assert
+        assertTrue(limiter.getLimit() > 10, "Limit " + limiter.getLimit());
+        assertEquals(100, limiter.getBaselineRttMillis("list"), 1);
+        assertEquals(1, limiter.getBaselineRttMillis("detail"), 0.1);
+    }
+
+    @Test
+    void tryAcquire_ShouldShedBulkRequestsFirst() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 100, 0.5, 2.0, 0.2, 600);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire(Priority.BULK));
+        assertTrue(limiter.tryAcquire(Priority.BULK));
+        assertFalse(limiter.tryAcquire(Priority.BULK));
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        assertFalse(limiter.tryAcquire(Priority.CRITICAL));
+        assertEquals(4, limiter.getInflight());
+    }
+
+    @Test
+    void release_ShouldBackOffAfterTimeout() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 0.75, 2.0, 0.2, 600);
+        limiter.tryAcquire(Priority.CRITICAL);
+
+        // Act
+        limiter.release("write", 5000 * MILLIS, true);
+
+        // Assert
+        assertEquals(18, limiter.getLimit());
+    }
+
+    /**
+     * Admits as many requests as the limit allows, then completes them all with the given latency.
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, String group, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire(Priority.CRITICAL)) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(group, rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package pl.where2play.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.where2play.api.config.Bulkheads.Workload;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "calendar-events.bulkheads.write.max-concurrent=1",
+        "calendar-events.bulkheads.write.queue-timeout=PT0.05S",
+        "calendar-events.bulkheads.feed.queue-timeout=PT0.05S"
+})
+@AutoConfigureMockMvc
+class BulkheadAspectTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void writes_ShouldBeRejectedWhileTheirBulkheadIsFull() throws Exception {
+        // Arrange - another write holds the only slot
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bulkheads.call(Workload.WRITE, () -> {
+                held.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert
+            mockMvc.perform(post("/api/events")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Bulkhead\",\"startTime\":\"2030-01-01T10:00:00\","
+                                    + "\"endTime\":\"2030-01-01T11:00:00\",\"createdBy\":\"bulkhead_test\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.errorCode").value("BULKHEAD_FULL"));
+            mockMvc.perform(get("/api/events/999999999"))
+                    .andExpect(status().isNotFound());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void freeBusy_ShouldBeRejectedWhileTheFeedBulkheadIsFull() throws Exception {
+        // Arrange - an ICS feed holds the only slot
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bulkheads.call(Workload.FEED, () -> {
+                held.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/locations/Bulkhead Hall/freebusy")
+                            .param("from", "2030-01-01T00:00:00")
+                            .param("to", "2030-01-02T00:00:00"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.errorCode").value("BULKHEAD_FULL"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void defaultLimits_ShouldLeaveConnectionsForUnguardedWork() {
+        // Arrange - the configured limits, with the write limit of this test set back to its default
+        int slots = Arrays.stream(Workload.values())
+                .mapToInt(workload -> workload == Workload.WRITE ? 2 : bulkheads.getAvailableSlots(workload))
+                .sum();
+
+        // Act
+        int poolSize = ((HikariDataSource) dataSource).getMaximumPoolSize();
+
+        // Assert
+        assertTrue(slots <= poolSize - 3, slots + " bulkhead slots for a pool of " + poolSize);
+    }
+}
@@ -0,0 +1,140 @@
+package pl.where2play.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.exception.BulkheadFullException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Bulkheads bulkheads = new Bulkheads(new MockEnvironment()
+            .withProperty("calendar-events.bulkheads.search.max-concurrent", "2")
+            .withProperty("calendar-events.bulkheads.search.queue-timeout", "PT0.05S")
+            .withProperty("calendar-events.bulkheads.detail.max-concurrent", "3")
+            .withProperty("calendar-events.bulkheads.detail.queue-timeout", "PT1S"), meterRegistry);
+
+    @Test
+    void noisySearch_ShouldNotRaiseDetailLatency() throws Exception {
+        // Arrange - detail lookups taking 1 ms, alone and next to a storm of 100 ms searches
+        long quietP99 = detailP99();
+        AtomicBoolean storm = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> searches = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            searches.add(executor.submit(() -> {
+                while (storm.get()) {
+                    try {
+                        bulkheads.call(Workload.SEARCH, () -> sleep(100));
+                    } catch (BulkheadFullException e) {
+                        // Expected for most of the storm
+                    }
+                }
+            }));
+        }
+
+        // Act
+        long noisyP99;
+        try {
+            noisyP99 = detailP99();
+        } finally {
+            storm.set(false);
+            for (Future<?> search : searches) {
+                search.get(5, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        // Assert
+        assertTrue(noisyP99 <= quietP99 * 2 + 5_000_000, "Detail p99 " + noisyP99 + " ns, alone " + quietP99 + " ns");
+        assertTrue(meterRegistry.get("calendar.events.bulkhead.rejected").tag("workload", "search").counter().count() > 0);
+        assertEquals(0, meterRegistry.get("calendar.events.bulkhead.rejected").tag("workload", "detail").counter().count());
+    }
+
+    @Test
+    void call_ShouldRejectWhenNoSlotFreesUpWithinQueueTimeout() throws Exception {
+        // Arrange - both search slots held
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch held = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> bulkheads.call(Workload.SEARCH, () -> {
+                    held.countDown();
+                    return await(release);
+                }));
+            }
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            // Act
+            BulkheadFullException exception = assertThrows(BulkheadFullException.class,
+                    () -> bulkheads.call(Workload.SEARCH, () -> "search"));
+
+            // Assert
+            assertEquals("BULKHEAD_FULL", exception.getErrorCode());
+            assertEquals(1.0, meterRegistry.get("calendar.events.bulkhead.saturation").tag("workload", "search").gauge().value());
+            assertEquals("detail", bulkheads.call(Workload.DETAIL, () -> "detail"), "Other workloads are not affected");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, bulkheads.getAvailableSlots(Workload.SEARCH));
+    }
+
+    @Test
+    void call_ShouldPassNestedCallsThrough() {
+        // Act
+        String result = bulkheads.call(Workload.DETAIL, () -> bulkheads.call(Workload.SEARCH, () -> {
+            assertEquals(2, bulkheads.getAvailableSlots(Workload.SEARCH));
+            return "nested";
+        }));
+
+        // Assert
+        assertEquals("nested", result);
+        assertEquals(3, bulkheads.getAvailableSlots(Workload.DETAIL));
+    }
+
+    private long detailP99() {
+        long[] latencies = new long[200];
+        for (int i = 0; i < latencies.length; i++) {
+            long started = System.nanoTime();
+            bulkheads.call(Workload.DETAIL, () -> sleep(1));
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
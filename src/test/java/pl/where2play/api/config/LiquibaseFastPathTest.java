@@ -0,0 +1,63 @@
+package pl.where2play.api.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "migrations.fast-path.enabled=true")
+class LiquibaseFastPathTest {
+
+    @Autowired
+    private LiquibaseFastPath liquibaseFastPath;
+
+    @Autowired
+    private SpringLiquibase liquibase;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void startup_ShouldStoreChecksumOfAppliedChangelogSet() {
+        // Act
+        String stored = jdbcTemplate.queryForObject(
+                "SELECT checksum FROM changelog_checksums WHERE name = ?", String.class, liquibase.getChangeLog());
+
+        // Assert
+        assertEquals(liquibaseFastPath.checksum(liquibase), stored);
+    }
+
+    @Test
+    void postProcessBeforeInitialization_ShouldSkipOnlyUnchangedChangelogSet() {
+        // Arrange
+        SpringLiquibase unchanged = copy(liquibase.getContexts());
+        SpringLiquibase otherContexts = copy("default,prod");
+
+        // Act
+        liquibaseFastPath.postProcessBeforeInitialization(unchanged, "unchanged");
+        liquibaseFastPath.postProcessBeforeInitialization(otherContexts, "otherContexts");
+
+        // Assert
+        assertEquals(false, ReflectionTestUtils.getField(unchanged, "shouldRun"));
+        assertEquals(true, ReflectionTestUtils.getField(otherContexts, "shouldRun"));
+        assertNotEquals(liquibaseFastPath.checksum(liquibase), liquibaseFastPath.checksum(otherContexts));
+    }
+
+    private SpringLiquibase copy(String contexts) {
+        SpringLiquibase copy = new SpringLiquibase();
+        copy.setDataSource(dataSource);
+        copy.setChangeLog(liquibase.getChangeLog());
+        copy.setContexts(contexts);
+        copy.setLabelFilter(liquibase.getLabelFilter());
+        return copy;
+    }
+}
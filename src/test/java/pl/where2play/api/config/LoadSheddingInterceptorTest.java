@@ -0,0 +1,128 @@
+package pl.where2play.api.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import pl.where2play.api.service.CalendarEventService;
+import pl.where2play.api.service.CalendarEventServiceImpl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "calendar-events.load-shedding.initial-limit=2",
+        "calendar-events.load-shedding.min-limit=2",
+        "calendar-events.load-shedding.max-limit=2",
+        "calendar-events.load-shedding.bulk-share=0.5"
+})
+class LoadSheddingInterceptorTest {
+
+    /**
+     * Slow database stand-in: every service call takes at least 500 ms.
+     */
+    @TestConfiguration
+    static class SlowDatabase {
+
+        @Bean
+        @Primary
+        CalendarEventService slowCalendarEventService(CalendarEventServiceImpl delegate) {
+            return (CalendarEventService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{CalendarEventService.class}, (proxy, method, args) -> {
+                        Thread.sleep(500);
+                        try {
+                            return method.invoke(delegate, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Autowired
+    private LoadSheddingInterceptor loadSheddingInterceptor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void requests_ShouldBeShedByPriorityOnceLimitIsReached() throws Exception {
+        // Arrange - a slow list call takes the whole bulk share (1 of 2)
+        double shedBefore = meterRegistry.get("api.concurrency.shed").tag("group", "list").counter().count();
+        CompletableFuture<HttpResponse<String>> slowList = send("/api/events");
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (loadSheddingInterceptor.getLimiter().getInflight() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Act
+        long started = System.nanoTime();
+        HttpResponse<String> shedList = send("/api/events/search?title=shed").get();
+        long shedMillis = (System.nanoTime() - started) / 1_000_000;
+        HttpResponse<String> detail = send("/api/events/999999999").get();
+
+        // Assert
+        assertEquals(503, shedList.statusCode());
+        assertEquals("1", shedList.headers().firstValue("Retry-After").orElse(null));
+        JsonNode body = objectMapper.readTree(shedList.body());
+        assertEquals("OVERLOADED", body.get("errorCode").asText());
+        assertTrue(shedMillis < 400, "Shed after " + shedMillis + " ms");
+        assertEquals(404, detail.statusCode(), "Lookups by ID are admitted beyond the bulk share");
+        assertEquals(200, slowList.get().statusCode());
+        assertEquals(shedBefore + 1, meterRegistry.get("api.concurrency.shed").tag("group", "list").counter().count());
+        assertEquals(2, meterRegistry.get("api.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void asyncRequest_ShouldHoldOnePermitUntilItsLastDispatchCompletes() throws Exception {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = loadSheddingInterceptor.getLimiter();
+        int inflightBefore = limiter.getInflight();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/events");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+
+        // Act - the initial dispatch starts async processing, so afterCompletion only follows the async dispatch
+        assertTrue(loadSheddingInterceptor.preHandle(request, response, handler));
+        request.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(loadSheddingInterceptor.preHandle(request, response, handler));
+        int inflightDuringAsync = limiter.getInflight();
+        loadSheddingInterceptor.afterCompletion(request, response, handler, null);
+
+        // Assert
+        assertEquals(inflightBefore + 1, inflightDuringAsync);
+        assertEquals(inflightBefore, limiter.getInflight());
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String path) {
+        return httpClient.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
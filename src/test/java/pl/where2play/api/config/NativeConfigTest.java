@@ -0,0 +1,29 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.ImportReport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeConfigTest {
+
+    @Test
+    void registerHints_ShouldCoverJsonAccessorsChangelogsAndAspect() throws NoSuchMethodException {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new NativeConfig.Hints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CalendarEvent.class.getMethod("getTitle")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CalendarEvent.class.getMethod("setStartTime", java.time.LocalDateTime.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ImportReport.RowError.class.getMethod("getLine")).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/changelog/db.changelog-master.xml").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/changelog/changes/01-create-calendar-events-schema.xml").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(E2ETestSupportAspect.class).test(hints));
+    }
+}
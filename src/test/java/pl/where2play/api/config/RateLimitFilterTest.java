@@ -0,0 +1,165 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limiting.enabled=true",
+        "rate-limiting.routes[/api/events/search].requests-per-second=0.01",
+        "rate-limiting.routes[/api/events/search].burst=2",
+        "rate-limiting.api-keys=client-a,client-b"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateLimitConfig rateLimitConfig;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void cleanUpAfterTest() {
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC);
+        rateLimitConfig.resetRateLimitSettings();
+        rateLimitFilter.resetBuckets();
+    }
+
+    @Test
+    void request_ShouldBeRejectedWithRetryAfterOnceBurstIsUsed() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+
+        // Act & Assert - one token per 100 s
+        String retryAfter = mockMvc.perform(get("/api/events/search").param("title", "limit"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.errorCode").value("RATE_LIMITED"))
+                .andExpect(jsonPath("$.path").value("/api/events/search"))
+                .andReturn().getResponse().getHeader("Retry-After");
+        assertTrue(Long.parseLong(retryAfter) > 90 && Long.parseLong(retryAfter) <= 100, retryAfter);
+    }
+
+    @Test
+    void request_ShouldBeLimitedPerApiKey() throws Exception {
+        // Arrange
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/events/search").param("title", "limit").header("X-API-Key", "client-a"))
+                    .andExpect(status().isOk());
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/events/search").param("title", "limit").header("X-API-Key", "client-a"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/events/search").param("title", "limit").header("X-API-Key", "client-b"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/search").param("title", "limit"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void request_WithUnknownApiKeys_ShouldBeLimitedByAddress() throws Exception {
+        // Arrange - a new made-up key on every request
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/events/search").param("title", "limit").header("X-API-Key", "rotated-" + i))
+                    .andExpect(status().isOk());
+        }
+        int buckets = rateLimitFilter.getBucketCount();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/events/search").param("title", "limit").header("X-API-Key", "rotated-2"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/events/search").param("title", "limit"))
+                .andExpect(status().isTooManyRequests());
+        assertEquals(buckets, rateLimitFilter.getBucketCount());
+    }
+
+    @Test
+    void routeLimit_ShouldBeAdjustableAtRuntime() throws Exception {
+        // Arrange
+        rateLimitConfig.setRouteLimit("/api/events/*", 0.01, 1);
+
+        // Act & Assert - the exact route keeps its own limit
+        mockMvc.perform(get("/api/events/location").param("location", "limit")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/creator").param("createdBy", "limit")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/rate-limits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.routeLimits['/api/events/*'].burst").value(1));
+    }
+
+    @Test
+    void routeLimit_ShouldBeKeptPerMethod() throws Exception {
+        // Arrange
+        rateLimitConfig.setRouteLimit("GET /api/events/search", 0.01, 1);
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+
+        // Act & Assert - other methods of the route neither use up nor get the GET limit
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(post("/api/events/search").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(result -> assertNotEquals(429, result.getResponse().getStatus()));
+        assertEquals("POST /api/events", rateLimitConfig.limitFor("POST", "/api/events").route());
+        assertEquals("GET /api/events", rateLimitConfig.limitFor("GET", "/api/events").route());
+    }
+
+    @Test
+    void request_WhileRefusingTraffic_ShouldStillBeLimitedExceptWarmUpRequests() throws Exception {
+        // Arrange - e.g. while the instance drains during shutdown
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        String warmUpToken = (String) ReflectionTestUtils.getField(warmUpRunner, "token");
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/events/search").param("title", "limit").header(WarmUpRunner.TOKEN_HEADER, "guessed"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/events/search").param("title", "limit").header(WarmUpRunner.TOKEN_HEADER, warmUpToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void settings_ShouldNotBeChangeableThroughTheApi() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/rate-limits/global").param("enabled", "false"))
+                .andExpect(status().is4xxClientError());
+        assertTrue(rateLimitConfig.isEnabled());
+    }
+
+    @Test
+    void request_ShouldPassWhenRateLimitingIsDisabled() throws Exception {
+        // Arrange
+        rateLimitConfig.setEnabled(false);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/events/search").param("title", "limit")).andExpect(status().isOk());
+        }
+        assertFalse(rateLimitConfig.isEnabled());
+    }
+}
@@ -0,0 +1,94 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cost of one rate limit decision as made by {@link RateLimitFilter} (route lookup, bucket key, bucket update) for
+ * 10k clients, on one thread and on up to four. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("Benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int CLIENTS = 10_000;
+    private static final int DECISIONS = 5_000_000;
+    // Fewer on smaller machines; time-slicing would be measured otherwise
+    private static final int THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final String[] URIS = {
+            "/api/events", "/api/events/search", "/api/events/between", "/api/events/42", "/api/locations/hall/freebusy"
+    };
+
+    @Test
+    void decisionShouldTakeLessThanOneMicrosecond() throws Exception {
+        // Arrange
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("rate-limiting.routes[/api/events].requests-per-second", "5")
+                .withProperty("rate-limiting.routes[/api/events].burst", "20")
+                .withProperty("rate-limiting.routes[/api/events/*].requests-per-second", "20")
+                .withProperty("rate-limiting.routes[/api/events/*].burst", "40");
+        RateLimitConfig config = new RateLimitConfig(environment);
+        config.init();
+        RateLimiter rateLimiter = new RateLimiter(CLIENTS * URIS.length);
+        String[] clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+        decide(config, rateLimiter, clients, 0, DECISIONS);
+
+        // Act
+        long started = System.nanoTime();
+        long allowed = decide(config, rateLimiter, clients, 0, DECISIONS);
+        double singleThreadNanos = (System.nanoTime() - started) / (double) DECISIONS;
+
+        AtomicLong concurrentAllowed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                concurrentAllowed.addAndGet(decide(config, rateLimiter, clients, offset, DECISIONS));
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        started = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double concurrentNanos = (System.nanoTime() - started) / (double) DECISIONS;
+
+        // Assert
+        System.out.printf("Rate limit decision: %.0f ns on 1 thread, %.0f ns on %d threads (%d + %d allowed)%n",
+                singleThreadNanos, concurrentNanos, THREADS, allowed, concurrentAllowed.get());
+        assertTrue(allowed > 0);
+        assertTrue(singleThreadNanos < 1000, "Single-threaded decision took " + singleThreadNanos + " ns");
+        assertTrue(concurrentNanos < 1000, "Concurrent decision took " + concurrentNanos + " ns");
+    }
+
+    private static long decide(RateLimitConfig config, RateLimiter rateLimiter, String[] clients, int offset, int count) {
+        long allowed = 0;
+        for (int i = 0; i < count; i++) {
+            String uri = URIS[(i + offset) % URIS.length];
+            RateLimitConfig.Limit limit = config.limitFor("GET", uri);
+            String key = limit.route() + ' ' + clients[(i * 31 + offset) % clients.length];
+            if (rateLimiter.tryAcquire(key, limit.intervalNanos(), limit.burst(), System.nanoTime()) == 0) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,121 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    // 10 requests per second
+    private static final long INTERVAL = 100_000_000L;
+    private static final long NOW = 5_000_000_000L;
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenDeny() {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(100);
+
+        // Act
+        int allowed = 0;
+        while (rateLimiter.tryAcquire("client", INTERVAL, 5, NOW) == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(5, allowed);
+        assertEquals(INTERVAL, rateLimiter.tryAcquire("client", INTERVAL, 5, NOW));
+        assertEquals(0, rateLimiter.tryAcquire("other", INTERVAL, 5, NOW), "Buckets are per key");
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOneTokenPerInterval() {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(100);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client", INTERVAL, 3, NOW);
+        }
+
+        // Act
+        long halfway = rateLimiter.tryAcquire("client", INTERVAL, 3, NOW + INTERVAL / 2);
+        long refilled = rateLimiter.tryAcquire("client", INTERVAL, 3, NOW + INTERVAL);
+        long empty = rateLimiter.tryAcquire("client", INTERVAL, 3, NOW + INTERVAL);
+
+        // Assert
+        assertEquals(INTERVAL / 2, halfway);
+        assertEquals(0, refilled);
+        assertEquals(INTERVAL, empty);
+    }
+
+    @Test
+    void tryAcquire_ShouldNotGrantMoreThanBurstUnderContention() throws Exception {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    if (rateLimiter.tryAcquire("client", INTERVAL, 1000, NOW) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Act
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(1000, allowed.get());
+    }
+
+    @Test
+    void tryAcquire_ShouldEvictIdleBucketsWhenFull() {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(10);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("idle-" + i, INTERVAL, 5, NOW);
+        }
+
+        // Act - one interval later the idle buckets are full again, so they make room for the new one
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("busy", INTERVAL, 5, NOW + INTERVAL);
+        }
+
+        // Assert
+        assertEquals(1, rateLimiter.size());
+        assertTrue(rateLimiter.tryAcquire("busy", INTERVAL, 5, NOW + INTERVAL) > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldStayBoundedWhenAllBucketsAreBusy() {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(10);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire("busy-" + i, INTERVAL, 5, NOW);
+        }
+
+        // Act
+        long wait = rateLimiter.tryAcquire("new", INTERVAL, 5, NOW);
+
+        // Assert
+        assertEquals(0, wait);
+        assertTrue(rateLimiter.size() <= 10);
+    }
+}
@@ -0,0 +1,61 @@
+package pl.where2play.api.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RequestResponseLoggingFilterTest {
+
+    private final LoggingConfig loggingConfig = mock(LoggingConfig.class);
+    private final RequestResponseLoggingFilter filter = new RequestResponseLoggingFilter(loggingConfig);
+
+    @Test
+    void doFilter_WhenResponseIsEventStream_ShouldWriteThroughWithoutBuffering() throws Exception {
+        // Arrange - no Accept header, so the stream is only recognizable from the response content type
+        when(loggingConfig.isLoggingEnabledForUri(anyString())).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/feeds/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> sentBeforeCompletion = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+            res.getOutputStream().write("data: first\n\n".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            sentBeforeCompletion.set(response.getContentAsString());
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals("data: first\n\n", sentBeforeCompletion.get());
+        assertEquals("data: first\n\n", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenResponseIsJson_ShouldCopyCachedBodyAfterCompletion() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events/changes");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> sentBeforeCompletion = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            sentBeforeCompletion.set(response.getContentAsString());
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert - a URI ending in /changes no longer bypasses the body cache
+        assertEquals("", sentBeforeCompletion.get());
+        assertEquals("{}", response.getContentAsString());
+    }
+}
@@ -0,0 +1,55 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.service.SyntheticEventGenerator;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SyntheticDataRunnerTest {
+
+    private final SyntheticEventGenerator generator = mock(SyntheticEventGenerator.class);
+
+    @Test
+    void run_ShouldGenerateConfiguredSpec() {
+        // Arrange
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("calendar-events.synthetic-data.count", "2000000")
+                .withProperty("calendar-events.synthetic-data.seed", "7")
+                .withProperty("calendar-events.synthetic-data.anchor", "2025-01-01")
+                .withProperty("calendar-events.synthetic-data.exit", "false");
+        SyntheticDataRunner runner = new SyntheticDataRunner(new GenericApplicationContext(), environment, generator);
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        SyntheticDataSpec spec = runner.spec();
+        assertEquals(2_000_000, spec.getCount());
+        assertEquals(7, spec.getSeed());
+        assertEquals(LocalDate.of(2025, 1, 1), spec.getAnchor());
+        // Unset fields keep their defaults
+        assertEquals(1000, spec.getBatchSize());
+        verify(generator).generate(spec);
+    }
+
+    @Test
+    void run_WithProdProfile_ShouldNotGenerate() {
+        // Arrange
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("prod");
+        SyntheticDataRunner runner = new SyntheticDataRunner(new GenericApplicationContext(), environment, generator);
+
+        // Act
+        runner.run(null);
+
+        // Assert
+        verify(generator, never()).generate(any());
+    }
+}
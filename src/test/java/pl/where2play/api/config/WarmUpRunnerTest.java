@@ -0,0 +1,72 @@
+package pl.where2play.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "calendar-events.warm-up.enabled=true",
+        "calendar-events.warm-up.rounds=3",
+        "calendar-events.warm-up.concurrency=2"
+})
+class WarmUpRunnerTest {
+
+    @TestConfiguration
+    static class ReadinessRecorder {
+
+        final List<ReadinessState> states = new CopyOnWriteArrayList<>();
+
+        @Bean
+        ReadinessRecorder readinessRecorder() {
+            return this;
+        }
+
+        @EventListener
+        void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+            states.add(event.getState());
+        }
+    }
+
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void startup_ShouldRefuseTrafficUntilWarmedUp() {
+        // Assert
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, readinessRecorder.states.get(0));
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+    }
+
+    @Test
+    void warmUp_ShouldReplayMixAndFillConnectionPool() throws Exception {
+        // Act
+        WarmUpRunner.WarmUpResult result = warmUpRunner.warmUp(port);
+
+        // Assert - ten requests in the mix, sent in one cold, three concurrent and one warm round
+        assertEquals(50, result.requests());
+        assertEquals(0, result.failed());
+        assertEquals(14, result.connections(), "maximum-pool-size");
+        assertTrue(result.durationMs() > 0);
+    }
+}
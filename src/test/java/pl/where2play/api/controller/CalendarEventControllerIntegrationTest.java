@@ -79,6 +79,14 @@ class CalendarEventControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].description", is("Test Description")));
     }
 
+    @Test
+    void getAllEvents_WithArchived_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/events").param("includeArchived", "true"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.includeArchived", notNullValue()));
+    }
+
     @Test
     void getEventById_WhenEventExists_ShouldReturnEvent() throws Exception {
         // Arrange
@@ -182,4 +190,43 @@ class CalendarEventControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].title", is("Test Event")));
     }
+
+    @Test
+    void getEventClusters_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/events/clusters")
+                        .param("bbox", "14,49,24,55")
+                        .param("zoom", "5")
+                        .param("from", "2025-06-01T00:00:00")
+                        .param("to", "2025-06-30T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tileKey", notNullValue()))
+                .andExpect(header().string("Cache-Control", containsString("max-age")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/events/clusters")
+                        .param("bbox", "14,49,24,55")
+                        .param("zoom", "5")
+                        .param("from", "2025-06-01T00:00:00")
+                        .param("to", "2025-06-30T00:00:00")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getCreatorFeed_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/calendars/creator/{createdBy}.ics", "feed_controller_test"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(startsWith("BEGIN:VCALENDAR\r\n")))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/calendars/creator/{createdBy}.ics", "feed_controller_test")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
 }
@@ -0,0 +1,118 @@
+package pl.where2play.api.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the REST Assured controller tests against the native executable. Excluded from the default build:
+ * <pre>
+ * mvn -Pnative native:compile
+ * mvn test -Pnative-smoke
+ * </pre>
+ * The executable is {@code target/w2p-api} unless {@code -Dnative.executable} points elsewhere.
+ * <p>
+ * Also checks the targets for scale-to-zero deployments: the first {@code GET /api/events} answered within
+ * {@code native.max-startup} (100 ms by default) and a resident set of at most {@code native.max-rss-mb} (128 MB by
+ * default) at that point. Both can be overridden with system properties, e.g. for slower build machines.
+ */
+@Slf4j
+@Tag("NativeSmoke")
+class CalendarEventNativeSmokeTest extends AbstractCalendarEventRestAssuredTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration MAX_STARTUP = Duration.parse(System.getProperty("native.max-startup", "PT0.1S"));
+    private static final long MAX_RSS_MB = Long.getLong("native.max-rss-mb", 128);
+
+    private static Process application;
+    private static int port;
+    private static Duration startupTime;
+    private static long startupRssKb;
+
+    @BeforeAll
+    static void startNativeApplication() throws Exception {
+        Path executable = Path.of(System.getProperty("native.executable", "target/w2p-api"));
+        assumeTrue(Files.isExecutable(executable), "No native executable at " + executable + "; run mvn -Pnative native:compile first");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path logFile = executable.resolveSibling("native-smoke.log");
+
+        long started = System.nanoTime();
+        application = new ProcessBuilder(executable.toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:native-smoke")
+                .redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events")).build();
+        while (System.nanoTime() - started < STARTUP_TIMEOUT.toNanos()) {
+            assertTrue(application.isAlive(), "Native executable exited during startup, see " + logFile);
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    startupTime = Duration.ofNanos(System.nanoTime() - started);
+                    startupRssKb = rssKb(application);
+                    log.info("Native executable answered after {} ms with {} KB resident", startupTime.toMillis(), startupRssKb);
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        fail("Native executable did not answer within " + STARTUP_TIMEOUT + ", see " + logFile);
+    }
+
+    @Test
+    void startup_ShouldMeetNativeTargets() {
+        // Assert
+        assertTrue(startupTime.compareTo(MAX_STARTUP) <= 0,
+                "First response after " + startupTime.toMillis() + " ms, target " + MAX_STARTUP.toMillis() + " ms");
+        assumeTrue(startupRssKb >= 0, "Resident set size is only measured on Linux");
+        assertTrue(startupRssKb <= MAX_RSS_MB * 1024,
+                "Resident set " + startupRssKb / 1024 + " MB, target " + MAX_RSS_MB + " MB");
+    }
+
+    @AfterAll
+    static void stopNativeApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor();
+        }
+    }
+
+    @Override
+    protected int serverPort() {
+        return port;
+    }
+
+    /**
+     * Resident set size from /proc (Linux), or -1 where that is not available.
+     */
+    private static long rssKb(Process process) {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst().orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package pl.where2play.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import pl.where2play.api.config.E2ETestRunTagging;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.repository.CalendarEventRepository;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class E2ETestSupportControllerTest {
+
+    private static final String TEST_RUN_ID = "e2e-support-controller-test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private CalendarEventTombstoneRepository tombstoneRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        calendarEventRepository.deleteAllById(createdIds.stream().filter(calendarEventRepository::existsById).toList());
+        tombstoneRepository.deleteAllById(createdIds.stream().filter(tombstoneRepository::existsById).toList());
+    }
+
+    @Test
+    void deleteEvents_ShouldDeleteListedAndTaggedEventsAndRecordTombstones() throws Exception {
+        // Arrange
+        CalendarEvent tagged = create("Tagged", TEST_RUN_ID);
+        CalendarEvent alsoTagged = create("Also tagged", TEST_RUN_ID);
+        CalendarEvent listed = create("Listed", null);
+        CalendarEvent kept = create("Kept", "another-run");
+
+        // Act
+        mockMvc.perform(post("/api/e2e-support/calendar/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + listed.getId() + ", 999999999], \"testRunId\": \"" + TEST_RUN_ID + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(3)));
+
+        // Assert
+        for (CalendarEvent deleted : List.of(tagged, alsoTagged, listed)) {
+            assertFalse(calendarEventRepository.existsById(deleted.getId()));
+            assertNotNull(tombstoneRepository.findById(deleted.getId()).orElseThrow().getChangeSeq());
+        }
+        assertTrue(calendarEventRepository.existsById(kept.getId()));
+        assertFalse(tombstoneRepository.existsById(kept.getId()));
+    }
+
+    @Test
+    void deleteEvents_WithOnlyTestRunId_ShouldDeleteTaggedEvents() throws Exception {
+        // Arrange
+        CalendarEvent tagged = create("Tagged", TEST_RUN_ID);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/e2e-support/calendar/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"testRunId\": \"" + TEST_RUN_ID + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(1)));
+        assertFalse(calendarEventRepository.existsById(tagged.getId()));
+    }
+
+    @Test
+    void deleteEvents_WithoutIdsOrTestRunId_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/e2e-support/calendar/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateEvents_ShouldInsertTaggedSyntheticEventsInBackground() throws Exception {
+        // Act
+        String location = mockMvc.perform(post("/api/e2e-support/calendar/synthetic")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\": 50, \"batchSize\": 20, \"threads\": 2, \"testRunId\": \"" + TEST_RUN_ID + "\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.requested", is(50)))
+                .andExpect(jsonPath("$.testRunId", is(TEST_RUN_ID)))
+                .andReturn().getResponse().getHeader("Location");
+        JsonNode job = objectMapper.readTree(mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString());
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (!"COMPLETED".equals(job.get("status").asText()) && System.nanoTime() < deadline) {
+            assertNotEquals("FAILED", job.get("status").asText(), job.toString());
+            Thread.sleep(50);
+            job = objectMapper.readTree(mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString());
+        }
+
+        // Assert - all of them are tagged, so one cleanup request removes them
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(50, job.get("generated").asLong());
+        mockMvc.perform(post("/api/e2e-support/calendar/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"testRunId\": \"" + TEST_RUN_ID + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(50)));
+    }
+
+    @Test
+    void getGenerationJob_WhenUnknown_ShouldReturnNotFound() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/e2e-support/calendar/synthetic/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createEvent_ShouldTakeTestRunIdFromHeaderOnly() throws Exception {
+        // Act
+        String fromBody = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Body tag\", \"startTime\": \"2030-01-01T10:00:00\", "
+                                + "\"endTime\": \"2030-01-01T11:00:00\", \"testRunId\": \"" + TEST_RUN_ID + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        CalendarEvent fromHeader = create("Header tag", TEST_RUN_ID);
+
+        // Assert
+        Long untaggedId = objectMapper.readTree(fromBody).get("id").asLong();
+        createdIds.add(untaggedId);
+        assertNull(calendarEventRepository.findById(untaggedId).orElseThrow().getTestRunId());
+        assertEquals(TEST_RUN_ID, calendarEventRepository.findById(fromHeader.getId()).orElseThrow().getTestRunId());
+    }
+
+    @Test
+    void generateEvents_WithInvalidSpec_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/e2e-support/calendar/synthetic")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"count\": 0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private CalendarEvent create(String title, String testRunId) throws Exception {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title);
+        event.setStartTime(LocalDateTime.now().plusDays(1));
+        event.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        MockHttpServletRequestBuilder request = post("/api/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(event));
+        if (testRunId != null) {
+            request.header(E2ETestRunTagging.TEST_RUN_HEADER, testRunId);
+        }
+        String response = mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        CalendarEvent saved = objectMapper.readValue(response, CalendarEvent.class);
+        createdIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,63 @@
+package pl.where2play.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Keeps the OpenAPI document served from {@code /api-docs} in line with the controllers. The document springdoc
+ * generates (dev profile) must match {@code src/main/resources/openapi/api-docs.json}; regenerate it with
+ * {@code mvn test -Dtest=OpenApiDocumentTest -Dopenapi.update=true}. The E2E support endpoints exist in test
+ * environments only and are left out.
+ */
+@SpringBootTest(properties = "springdoc.paths-to-exclude=/api/e2e-support/**")
+@AutoConfigureMockMvc
+class OpenApiDocumentTest {
+
+    private static final Path DOCUMENT = Path.of("src/main/resources", ApiDocsController.DOCUMENT_LOCATION);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void apiDocs_ShouldMatchDocumentGeneratedFromControllers() throws Exception {
+        // Arrange
+        String live = mockMvc.perform(get("/api-docs/live"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        ObjectNode generated = (ObjectNode) objectMapper.readTree(live);
+        // Served from any host, so clients resolve paths against the origin they loaded the document from
+        generated.remove("servers");
+        if (Boolean.getBoolean("openapi.update")) {
+            Files.createDirectories(DOCUMENT.getParent());
+            Files.writeString(DOCUMENT, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(generated) + "\n");
+            return;
+        }
+
+        // Act
+        String served = mockMvc.perform(get("/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Assert
+        assertEquals(generated, objectMapper.readTree(served),
+                "OpenAPI document is out of date; run mvn test -Dtest=OpenApiDocumentTest -Dopenapi.update=true");
+    }
+}
@@ -0,0 +1,76 @@
+package pl.where2play.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeohashTest {
+
+    @Test
+    void encode_ShouldMatchReferenceHashes() {
+        // Act & Assert
+        assertEquals("u4pruydqq", Geohash.encode(57.64911, 10.40744, 9));
+        assertEquals("u3qcnh", Geohash.encode(52.2297, 21.0122, 6));
+        assertEquals("s0000", Geohash.encode(0, 0, 5));
+    }
+
+    @Test
+    void coveringCells_ShouldContainCellOfCentreAndMatchCount() {
+        // Act
+        Set<String> cells = Geohash.coveringCells(52.2297, 21.0122, 5, Geohash.COARSE_CELL_PRECISION);
+
+        // Assert
+        assertEquals(Geohash.coveringCellCount(52.2297, 21.0122, 5, Geohash.COARSE_CELL_PRECISION), cells.size());
+        assertTrue(cells.contains(Geohash.encode(52.2297, 21.0122, Geohash.COARSE_CELL_PRECISION)));
+    }
+
+    @Test
+    void cell_ShouldBePrefixOfGeohash() {
+        // Act & Assert
+        assertEquals("u3qc", Geohash.cell("u3qcnhzxy", Geohash.COARSE_CELL_PRECISION));
+        assertEquals("u3qcnh", Geohash.cell("u3qcnhzxy", Geohash.FINE_CELL_PRECISION));
+        assertNull(Geohash.cell(null, Geohash.FINE_CELL_PRECISION));
+    }
+
+    @Test
+    void coveringCells_ShouldCoverEveryPointOfTheCircle() {
+        // Arrange
+        double latitude = 52.2297;
+        double longitude = 21.0122;
+        double radiusKm = 3;
+
+        // Act
+        Set<String> cells = Geohash.coveringCells(latitude, longitude, radiusKm, Geohash.FINE_CELL_PRECISION);
+
+        // Assert - points on the circle's boundary
+        for (int bearing = 0; bearing < 360; bearing += 15) {
+            double lat = latitude + radiusKm / 111.32 * Math.cos(Math.toRadians(bearing));
+            double lon = longitude + radiusKm / (111.32 * Math.cos(Math.toRadians(latitude))) * Math.sin(Math.toRadians(bearing));
+            String hash = Geohash.encode(lat, lon, Geohash.STORED_PRECISION);
+            assertTrue(cells.stream().anyMatch(hash::startsWith), "Not covered: " + lat + "," + lon);
+        }
+    }
+
+    @Test
+    void coveringCells_AcrossAntimeridian_ShouldIncludeBothSides() {
+        // Act
+        Set<String> cells = Geohash.coveringCells(-17.7, 179.99, 10, Geohash.COARSE_CELL_PRECISION);
+
+        // Assert
+        String east = Geohash.encode(-17.7, 179.99, Geohash.STORED_PRECISION);
+        String west = Geohash.encode(-17.7, -179.95, Geohash.STORED_PRECISION);
+        assertTrue(cells.stream().anyMatch(east::startsWith));
+        assertTrue(cells.stream().anyMatch(west::startsWith));
+    }
+
+    @Test
+    void distanceKm_ShouldUseGreatCircleDistance() {
+        // Act - Warsaw to Krakow
+        double distance = Geohash.distanceKm(52.2297, 21.0122, 50.0647, 19.9450);
+
+        // Assert
+        assertEquals(252, distance, 2);
+    }
+}
@@ -0,0 +1,117 @@
+package pl.where2play.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.service.CalendarEventService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CalendarEventChangeSequenceTest {
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        calendarEventRepository.deleteAllById(createdIds.stream().filter(calendarEventRepository::existsById).toList());
+    }
+
+    @Test
+    void getChangesSince_WhenTransactionsCommitOutOfOrder_ShouldNotSkipTheEarlierChange() throws Exception {
+        // Arrange - a token at the head of the change stream
+        String token = sync(null, new HashSet<>());
+        CountDownLatch created = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        try {
+            // The slow transaction takes its change sequence value first but commits last
+            Future<CalendarEvent> slowCreation = executor.submit(() -> transaction.execute(status -> {
+                CalendarEvent event = calendarEventService.createEvent(event("Slow", 3));
+                created.countDown();
+                awaitQuietly(commit);
+                return event;
+            }));
+            assertTrue(created.await(10, TimeUnit.SECONDS));
+            CalendarEvent fast = calendarEventService.createEvent(event("Fast", 4));
+            createdIds.add(fast.getId());
+
+            // Act
+            Set<Long> seenWhileInFlight = new HashSet<>();
+            String tokenWhileInFlight = sync(token, seenWhileInFlight);
+            commit.countDown();
+            CalendarEvent slow = slowCreation.get(10, TimeUnit.SECONDS);
+            createdIds.add(slow.getId());
+            Set<Long> seenAfterCommit = new HashSet<>();
+            sync(tokenWhileInFlight, seenAfterCommit);
+
+            // Assert
+            assertTrue(slow.getChangeSeq() < fast.getChangeSeq());
+            assertFalse(seenWhileInFlight.contains(fast.getId()), "Fast change handed out while a lower one was in flight");
+            assertTrue(seenAfterCommit.containsAll(Set.of(slow.getId(), fast.getId())));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Pages through all changes after the token, collecting the IDs of changed events.
+     *
+     * @return the token after the last page
+     */
+    private String sync(String token, Set<Long> changedIds) {
+        CalendarEventSyncPage page;
+        do {
+            page = calendarEventService.getChangesSince(token, 1000);
+            page.getEvents().forEach(event -> changedIds.add(event.getId()));
+            token = page.getNextToken();
+        } while (page.isHasMore());
+        return token;
+    }
+
+    // Events on different days and at different locations, so that their daily stats rows do not contend
+    private static CalendarEvent event(String title, int daysAhead) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title + " change sequence test");
+        event.setLocation(title + " Hall");
+        event.setStartTime(LocalDateTime.now().plusDays(daysAhead).withHour(10));
+        event.setEndTime(LocalDateTime.now().plusDays(daysAhead).withHour(11));
+        return event;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
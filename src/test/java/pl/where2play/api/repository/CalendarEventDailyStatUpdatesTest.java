@@ -0,0 +1,95 @@
+package pl.where2play.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CalendarEventDailyStatUpdatesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2091, 3, 14);
+    private static final String LOCATION = "daily stat updates test";
+
+    @Autowired
+    private CalendarEventDailyStatUpdates dailyStatUpdates;
+
+    @Autowired
+    private CalendarEventDailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        dailyStatRepository.deleteAll(dailyStatRepository.findByStatDateBetween(DAY, DAY));
+    }
+
+    @Test
+    void add_ShouldCreateMissingRowAndIncrementExistingOne() {
+        // Arrange
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Act
+        transaction.executeWithoutResult(status -> dailyStatUpdates.add(DAY, "SCHEDULED", LOCATION, 2));
+        transaction.executeWithoutResult(status -> dailyStatUpdates.add(DAY, "SCHEDULED", LOCATION, -1));
+
+        // Assert
+        assertEquals(List.of(1L), counts());
+    }
+
+    @Test
+    void lockDaysExclusive_ShouldHoldBackWritersUntilCommit() throws Exception {
+        // Arrange
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> repair = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            dailyStatUpdates.lockDaysExclusive(DAY, DAY.plusDays(1));
+            locked.countDown();
+            await(release);
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        // Act - a writer creating a new row of the locked day
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            dailyStatUpdates.lockDaysShared(List.of(DAY));
+            dailyStatUpdates.add(DAY, "SCHEDULED", LOCATION, 1);
+        }));
+
+        // Assert
+        assertThrows(TimeoutException.class, () -> writer.get(300, TimeUnit.MILLISECONDS));
+        release.countDown();
+        repair.get(10, TimeUnit.SECONDS);
+        writer.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(1L), counts());
+    }
+
+    private List<Long> counts() {
+        return dailyStatRepository.findByStatDateBetween(DAY, DAY).stream()
+                .filter(stat -> stat.getStatus() == CalendarEvent.EventStatus.SCHEDULED)
+                .map(CalendarEventDailyStat::getEventCount)
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package pl.where2play.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.where2play.api.exception.EventConflictException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.service.CalendarEventService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CalendarEventLocationLocksTest {
+
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        calendarEventRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void createEventIfNoConflicts_WhenOverlappingRequestsRace_ShouldCreateOnlyOne() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusYears(40).plusDays(round).withHour(18).withMinute(0).withSecond(0).withNano(0);
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<CalendarEvent>> attempts = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    CalendarEvent event = event("Booking " + i, start.plusMinutes(15L * i));
+                    attempts.add(executor.submit(() -> {
+                        go.await(10, TimeUnit.SECONDS);
+                        return calendarEventService.createEventIfNoConflicts(event);
+                    }));
+                }
+
+                // Act
+                go.countDown();
+                int created = 0;
+                int rejected = 0;
+                for (Future<CalendarEvent> attempt : attempts) {
+                    try {
+                        createdIds.add(attempt.get(10, TimeUnit.SECONDS).getId());
+                        created++;
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(EventConflictException.class, e.getCause());
+                        rejected++;
+                    }
+                }
+
+                // Assert
+                assertEquals(1, created, "Overlapping events created in round " + round);
+                assertEquals(1, rejected);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CalendarEvent event(String title, LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title + " location lock test");
+        // Differently written, same normalized location
+        event.setLocation(title.endsWith("0") ? "Lock Test Court" : " lock test court ");
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(1));
+        return event;
+    }
+}
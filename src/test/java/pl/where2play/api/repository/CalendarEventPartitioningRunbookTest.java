@@ -0,0 +1,242 @@
+package pl.where2play.api.repository;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Rehearses the partitioning runbook (README, "Partitioning calendar_events") against a seeded dataset:
+ * migrates an unpartitioned schema with the prod context and checks that no row was lost, that range
+ * queries are pruned to the matching partitions and that the maintenance functions work.
+ * <p>
+ * Runs against a PostgreSQL Testcontainer and is skipped when Docker is not available. To rehearse on another
+ * server (e.g. next to a copy of production data), point it there:
+ * {@code PARTITIONING_TEST_DB_URL=jdbc:postgresql://localhost:5432/scratch PARTITIONING_TEST_DB_USER=postgres
+ * PARTITIONING_TEST_DB_PASSWORD=postgres mvn test -Dtest=CalendarEventPartitioningRunbookTest}.
+ * Everything happens in a throw-away schema.
+ */
+class CalendarEventPartitioningRunbookTest {
+
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+    private static final Pattern PARTITION_NAME = Pattern.compile("calendar_events_(p\\d{6}|default)");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private final String schema = "partition_runbook_" + System.nanoTime();
+    private final LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+    private Connection connection;
+
+    @BeforeAll
+    static void startDatabase() {
+        if (System.getenv("PARTITIONING_TEST_DB_URL") == null) {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = postgres != null
+                ? DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                : DriverManager.getConnection(System.getenv("PARTITIONING_TEST_DB_URL"),
+                        System.getenv("PARTITIONING_TEST_DB_USER"), System.getenv("PARTITIONING_TEST_DB_PASSWORD"));
+        execute("CREATE SCHEMA " + schema);
+        execute("SET search_path TO " + schema);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (connection != null) {
+            connection.setAutoCommit(true);
+            execute("DROP SCHEMA " + schema + " CASCADE");
+            connection.close();
+        }
+    }
+
+    @Test
+    void migration_ShouldPreserveRowsAndEnablePartitionPruning() throws Exception {
+        // Arrange - the pre-partitioning schema with two years of history, upcoming and far-future events
+        migrate("default");
+        execute("INSERT INTO calendar_events (title, start_time, end_time, status, location_key) "
+                + "SELECT 'Seeded ' || n, ts, ts + interval '90 minutes', 'SCHEDULED', 'hall ' || (n % 20) "
+                + "FROM generate_series(1, 20000) AS n, "
+                + "LATERAL (SELECT date_trunc('month', now())::timestamp - interval '24 months' + (n * interval '47 minutes') AS ts) AS t");
+        execute("INSERT INTO calendar_events (title, start_time, end_time, status, location_key) "
+                + "SELECT 'Far future ' || n, date_trunc('month', now())::timestamp + interval '2 years' + n * interval '1 day', "
+                + "date_trunc('month', now())::timestamp + interval '2 years' + n * interval '1 day' + interval '1 hour', 'SCHEDULED', '' "
+                + "FROM generate_series(1, 10) AS n");
+        Map<String, Long> countsBefore = monthlyCounts();
+        long idChecksumBefore = queryLong("SELECT SUM(id) FROM calendar_events");
+        long maxIdBefore = queryLong("SELECT MAX(id) FROM calendar_events");
+
+        // Act
+        migrate("prod");
+
+        // Assert - same rows, partitioned layout
+        assertEquals("p", queryString("SELECT relkind::text FROM pg_class WHERE oid = 'calendar_events'::regclass"));
+        assertEquals(countsBefore, monthlyCounts());
+        assertEquals(idChecksumBefore, queryLong("SELECT SUM(id) FROM calendar_events"));
+        assertEquals(10, queryLong("SELECT COUNT(*) FROM calendar_events_default"));
+        assertTrue(queryLong("SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'calendar_events'::regclass") >= 28);
+
+        // The indexes of the old table are partitioned indexes now, including those of later changesets
+        assertEquals("I", queryString("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('idx_calendar_events_test_run_id')"));
+        assertEquals("I", queryString("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('idx_calendar_events_geohash_fine_start_time')"));
+        assertFalse(relationExists("idx_calendar_events_geohash_start_time"));
+
+        // New rows keep getting unique IDs after the old maximum
+        execute("INSERT INTO calendar_events (title, start_time, end_time, status, location_key) "
+                + "VALUES ('After migration', now(), now() + interval '1 hour', 'SCHEDULED', '')");
+        assertTrue(queryLong("SELECT MAX(id) FROM calendar_events") > maxIdBefore);
+
+        // findByStartTimeBetween touches only the partitions of the requested months
+        LocalDate month = thisMonth.minusMonths(6);
+        assertEquals(Set.of(partitionName(month)),
+                scannedPartitions(month.atStartOfDay().plusDays(3), month.atStartOfDay().plusDays(10)));
+        assertEquals(Set.of(partitionName(month), partitionName(month.plusMonths(1))),
+                scannedPartitions(month.atStartOfDay().plusDays(20), month.plusMonths(1).atStartOfDay().plusDays(5)));
+    }
+
+    @Test
+    void maintenanceFunctions_ShouldCreateFuturePartitionsAndSwitchOldOnesToBrin() throws Exception {
+        // Arrange
+        migrate("default");
+        LocalDate farMonth = thisMonth.plusYears(2);
+        execute("INSERT INTO calendar_events (title, start_time, end_time, status, location_key) VALUES "
+                + "('Far future', '" + farMonth.plusDays(4) + " 10:00', '" + farMonth.plusDays(4) + " 11:00', 'SCHEDULED', ''), "
+                + "('History', '" + thisMonth.minusMonths(8).plusDays(1) + " 10:00', '" + thisMonth.minusMonths(8).plusDays(1) + " 11:00', 'SCHEDULED', '')");
+        migrate("prod");
+
+        // Act
+        boolean created = queryBoolean("SELECT create_calendar_events_partition('" + farMonth + "')");
+        boolean createdAgain = queryBoolean("SELECT create_calendar_events_partition('" + farMonth + "')");
+        long converted = queryLong("SELECT brin_index_calendar_events_partitions('" + thisMonth.minusMonths(2) + "')");
+
+        // Assert
+        assertTrue(created);
+        assertFalse(createdAgain);
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM calendar_events_default"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM " + partitionName(farMonth)));
+        assertTrue(converted > 0);
+        String oldPartition = partitionName(thisMonth.minusMonths(8));
+        assertEquals("brin", queryString("SELECT am.amname FROM pg_class c JOIN pg_am am ON am.oid = c.relam "
+                + "WHERE c.oid = to_regclass('" + oldPartition + "_start_time_brin')"));
+        assertFalse(relationExists(oldPartition + "_start_time"));
+        assertTrue(relationExists(partitionName(thisMonth) + "_start_time"));
+    }
+
+    private void migrate(String contexts) throws Exception {
+        Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        database.setDefaultSchemaName(schema);
+        Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+        liquibase.update(new Contexts(contexts), new LabelExpression());
+        // Liquibase turns auto-commit off; without it the statements of the test would never be committed
+        connection.setAutoCommit(true);
+        execute("SET search_path TO " + schema);
+    }
+
+    private Map<String, Long> monthlyCounts() throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT to_char(start_time, 'YYYY-MM') AS month, COUNT(*) "
+                     + "FROM calendar_events GROUP BY 1 ORDER BY 1")) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return counts;
+    }
+
+    private Set<String> scannedPartitions(LocalDateTime start, LocalDateTime end) throws SQLException {
+        Set<String> partitions = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "EXPLAIN SELECT * FROM calendar_events WHERE start_time >= ? AND start_time <= ?")) {
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Matcher matcher = PARTITION_NAME.matcher(rs.getString(1));
+                    while (matcher.find()) {
+                        partitions.add(matcher.group());
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private String partitionName(LocalDate month) {
+        return "calendar_events_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+    // Looks the relation up in the test's schema (search path) only
+    private boolean relationExists(String name) throws SQLException {
+        return queryBoolean("SELECT to_regclass('" + name + "') IS NOT NULL");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private boolean queryBoolean(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs archive batches against the database, since the job is mostly native SQL.
+ * Uses events from the year 2000 so that other data in the development database stays out of the batches.
+ */
+@SpringBootTest
+@RecordApplicationEvents
+class CalendarEventArchiveJobTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2000, 6, 1, 0, 0);
+
+    @Autowired
+    private CalendarEventArchiveJob archiveJob;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private CalendarEventArchiveService calendarEventArchiveService;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (Long id : createdIds) {
+            jdbcTemplate.update("DELETE FROM calendar_events_archive WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM calendar_events WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM calendar_event_tombstones WHERE event_id = ?", id);
+        }
+    }
+
+    @Test
+    void archiveBatch_ShouldMoveOnlyFinishedEventsBeforeCutoff() {
+        // Arrange
+        CalendarEvent completed = save("Archived final", CalendarEvent.EventStatus.COMPLETED, CUTOFF.minusMonths(2));
+        CalendarEvent cancelled = save("Archived cancellation", CalendarEvent.EventStatus.CANCELLED, CUTOFF.minusMonths(1));
+        CalendarEvent scheduled = save("Never closed", CalendarEvent.EventStatus.SCHEDULED, CUTOFF.minusMonths(1));
+        CalendarEvent recent = save("Recent final", CalendarEvent.EventStatus.COMPLETED, CUTOFF.plusDays(1));
+
+        // Act
+        List<Long> archived = new TransactionTemplate(transactionManager).execute(tx -> archiveJob.archiveBatch(CUTOFF, 0));
+
+        // Assert
+        assertEquals(List.of(completed.getId(), cancelled.getId()), archived);
+        assertFalse(calendarEventRepository.existsById(completed.getId()));
+        assertTrue(calendarEventRepository.existsById(scheduled.getId()));
+        assertTrue(calendarEventRepository.existsById(recent.getId()));
+
+        Optional<CalendarEvent> fromArchive = calendarEventService.getEventById(completed.getId());
+        assertTrue(fromArchive.isPresent());
+        assertTrue(fromArchive.get().isArchived());
+        assertEquals("Archived final", fromArchive.get().getTitle());
+        assertEquals(completed.getStartTime(), fromArchive.get().getStartTime());
+        assertTrue(calendarEventArchiveService.getArchivedEventsBetweenDates(CUTOFF.minusYears(1), CUTOFF).stream()
+                .anyMatch(event -> event.getId().equals(cancelled.getId())));
+    }
+
+    @Test
+    void archiveBatch_ShouldLeaveTombstonesAndPublishArchivedChanges() {
+        // Arrange
+        CalendarEvent first = save("Archived league day 1", CalendarEvent.EventStatus.COMPLETED, CUTOFF.minusMonths(3));
+        CalendarEvent second = save("Archived league day 2", CalendarEvent.EventStatus.COMPLETED, CUTOFF.minusMonths(2));
+        Long statsBefore = dailyCount(first.getStartTime());
+        assertNotNull(statsBefore);
+        applicationEvents.clear();
+
+        // Act
+        List<Long> archived = new TransactionTemplate(transactionManager).execute(tx -> archiveJob.archiveBatch(CUTOFF, 0));
+
+        // Assert
+        assertEquals(List.of(first.getId(), second.getId()), archived);
+        List<Long> changeSeqs = jdbcTemplate.queryForList(
+                "SELECT change_seq FROM calendar_event_tombstones WHERE event_id IN (?, ?)", Long.class, first.getId(), second.getId());
+        assertEquals(2, changeSeqs.size());
+        assertEquals(2, changeSeqs.stream().distinct().count(), "Each tombstone has its own change sequence value");
+
+        List<CalendarEventsChangedEvent> published = applicationEvents.stream(CalendarEventsChangedEvent.class).toList();
+        assertEquals(1, published.size(), "One event per batch");
+        List<CalendarEventChange> changes = published.get(0).getChanges();
+        assertTrue(changes.stream().allMatch(change -> change.getType() == CalendarEventChange.Type.ARCHIVED));
+        assertEquals(Set.copyOf(archived), changes.stream().map(CalendarEventChange::getEventId).collect(Collectors.toSet()));
+        assertTrue(changes.stream().anyMatch(change -> change.getBefore().getTitle().equals("Archived league day 1")));
+        assertEquals(statsBefore, dailyCount(first.getStartTime()), "Archived events stay in the daily stats");
+    }
+
+    private Long dailyCount(LocalDateTime day) {
+        return jdbcTemplate.queryForObject("SELECT SUM(event_count) FROM calendar_event_daily_stats "
+                + "WHERE stat_date = ? AND location_key = ?", Long.class, day.toLocalDate(), "archive hall");
+    }
+
+    private CalendarEvent save(String title, CalendarEvent.EventStatus status, LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(2));
+        event.setLocation("Archive hall");
+        event.setStatus(status);
+        event.setCreatedBy("archive_test");
+        CalendarEvent saved = calendarEventService.createEvent(event);
+        createdIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,327 @@
+package pl.where2play.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarEventChangeFeedTest {
+
+    private static final int HISTORY_SIZE = 4;
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final FakeChangeLog changeLog = new FakeChangeLog();
+    private CalendarEventChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        feed = new CalendarEventChangeFeed(objectMapper, changeLog, HISTORY_SIZE, 10, Duration.ofMinutes(1),
+                Duration.ofSeconds(10), executor);
+        // The first poll starts the feed at the current end of the change log
+        feed.poll();
+    }
+
+    @Test
+    void subscriber_ShouldReceiveCommittedChangesInOrderWithChangeSequenceIds() {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, null);
+
+        // Act
+        changeLog.commit(10, CalendarEventChange.Type.CREATED);
+        changeLog.commit(20, CalendarEventChange.Type.DELETED);
+        feed.poll();
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of("10:created", "20:deleted"), emitter.events());
+        assertEquals(1, feed.getSubscriberCount());
+    }
+
+    @Test
+    void subscriber_WithLastEventIdInHistory_ShouldReceiveMissedChanges() {
+        // Arrange
+        commitAndPoll(1, 2, 3);
+
+        // Act
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, 1L);
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of("2:created", "3:created"), emitter.events());
+    }
+
+    @Test
+    void subscriber_WithLastEventIdAheadOfThisInstance_ShouldNotReceiveChangesTwice() {
+        // Arrange - another instance has already delivered up to 2
+        commitAndPoll(1);
+        changeLog.commit(2, CalendarEventChange.Type.CREATED);
+        changeLog.commit(3, CalendarEventChange.Type.CREATED);
+
+        // Act
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, 2L);
+        feed.poll();
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of("3:created"), emitter.events());
+    }
+
+    @Test
+    void subscriber_WithLastEventIdOutsideHistory_ShouldBeToldToResync() {
+        // Arrange
+        for (long i = 1; i <= HISTORY_SIZE + 2; i++) {
+            commitAndPoll(i);
+        }
+
+        // Act
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, 1L);
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of((HISTORY_SIZE + 2) + ":" + CalendarEventChangeFeed.RESYNC_EVENT), emitter.events());
+    }
+
+    @Test
+    void subscriber_WithLastEventIdFromBeforeRestart_ShouldBeToldToResync() {
+        // Arrange - changes up to 3 were committed before this instance started
+        changeLog.commit(1, CalendarEventChange.Type.CREATED);
+        changeLog.commit(3, CalendarEventChange.Type.CREATED);
+        feed = new CalendarEventChangeFeed(new ObjectMapper().findAndRegisterModules(), changeLog, HISTORY_SIZE, 10,
+                Duration.ofMinutes(1), Duration.ofSeconds(10), executor);
+        feed.poll();
+
+        // Act
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, 1L);
+        commitAndPoll(4);
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of("3:" + CalendarEventChangeFeed.RESYNC_EVENT, "4:created"), emitter.events());
+    }
+
+    @Test
+    void slowSubscriber_WhenHistoryIsOverwritten_ShouldBeDisconnected() {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, null);
+
+        // Act - the subscriber's drain task does not run until the buffer has wrapped around
+        for (long i = 1; i <= HISTORY_SIZE + 1; i++) {
+            commitAndPoll(i);
+        }
+        executor.runAll();
+
+        // Assert
+        assertTrue(emitter.completed);
+        assertTrue(emitter.events().isEmpty());
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    void stalledSubscriber_ShouldNotBlockOthersAndShouldBeDroppedAfterSendTimeout() throws Exception {
+        // Arrange
+        ExecutorService dispatch = Executors.newFixedThreadPool(2);
+        feed = new CalendarEventChangeFeed(new ObjectMapper().findAndRegisterModules(), changeLog, 100, 10,
+                Duration.ofMinutes(1), Duration.ofMillis(50), dispatch);
+        feed.poll();
+        StalledEmitter stalled = new StalledEmitter();
+        CountingEmitter healthy = new CountingEmitter(3);
+        feed.register(stalled, null);
+        feed.register(healthy, null);
+
+        try {
+            // Act - the stalled client does not return from its first send until its write times out
+            commitAndPoll(1, 2, 3);
+            assertTrue(healthy.received.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            feed.sendHeartbeats();
+            stalled.writeTimeout.countDown();
+
+            // Assert - dropped without interrupting the sending thread, and completed once its send returned
+            assertTrue(stalled.failed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, stalled.sends.get());
+            assertEquals(1, feed.getSubscriberCount());
+        } finally {
+            dispatch.shutdownNow();
+        }
+    }
+
+    @Test
+    void largeBatch_ShouldBePublishedAsSingleResyncEvent() {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.register(emitter, null);
+
+        // Act
+        for (long i = 1; i <= 11; i++) {
+            changeLog.commit(i, CalendarEventChange.Type.CREATED);
+        }
+        feed.poll();
+        executor.runAll();
+
+        // Assert
+        assertEquals(List.of("11:" + CalendarEventChangeFeed.RESYNC_EVENT), emitter.events());
+    }
+
+    private void commitAndPoll(long... changeSeqs) {
+        for (long changeSeq : changeSeqs) {
+            changeLog.commit(changeSeq, CalendarEventChange.Type.CREATED);
+        }
+        feed.poll();
+    }
+
+    /**
+     * Change log of committed changes kept in memory, as all instances would read them from the database.
+     */
+    private static class FakeChangeLog extends CalendarEventChangeLog {
+        private final List<Change> changes = new ArrayList<>();
+
+        FakeChangeLog() {
+            super(null, null, null, new NoOpTransactionManager());
+        }
+
+        void commit(long changeSeq, CalendarEventChange.Type type) {
+            CalendarEvent event = new CalendarEvent();
+            event.setId(changeSeq);
+            event.setTitle("Event " + changeSeq);
+            event.setStartTime(LocalDateTime.now());
+            event.setEndTime(LocalDateTime.now().plusHours(1));
+            changes.add(new Change(changeSeq, type, changeSeq, type == CalendarEventChange.Type.DELETED ? null : event));
+        }
+
+        @Override
+        public long lastFinal() {
+            return changes.isEmpty() ? 0 : changes.get(changes.size() - 1).changeSeq();
+        }
+
+        @Override
+        public Batch readAfter(long afterSeq, int limit) {
+            List<Change> after = changes.stream().filter(change -> change.changeSeq() > afterSeq).toList();
+            if (after.size() > limit) {
+                return new Batch(List.of(), lastFinal(), true);
+            }
+            return new Batch(after, after.isEmpty() ? afterSeq : after.get(after.size() - 1).changeSeq(), false);
+        }
+    }
+
+    /**
+     * Executor that queues tasks until the test runs them, to simulate a lagging dispatcher.
+     */
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    /**
+     * Emitter of a client that stopped reading: sends block until the container's write timeout, which the test
+     * triggers, and then fail. Interrupts do not abort them, like blocking servlet writes.
+     */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch writeTimeout = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sends.incrementAndGet();
+            boolean timedOut = false;
+            while (!timedOut) {
+                try {
+                    timedOut = writeTimeout.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    fail("The sending thread must not be interrupted");
+                }
+            }
+            throw new IOException("Write timed out");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+
+    /**
+     * Emitter that counts down once per event sent to it.
+     */
+    private static class CountingEmitter extends SseEmitter {
+        private final CountDownLatch received;
+
+        CountingEmitter(int events) {
+            received = new CountDownLatch(events);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            received.countDown();
+        }
+    }
+
+    /**
+     * Emitter that records the "id:name" of every event sent to it.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            frames.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> events() {
+            return frames.stream()
+                    .map(frame -> extract(frame, "id:") + ":" + extract(frame, "event:"))
+                    .toList();
+        }
+
+        private static String extract(String frame, String field) {
+            return frame.lines()
+                    .filter(line -> line.startsWith(field))
+                    .map(line -> line.substring(field.length()))
+                    .findFirst()
+                    .orElse("");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventTombstone;
+import pl.where2play.api.repository.CalendarEventChangeSequence;
+import pl.where2play.api.repository.CalendarEventRepository;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CalendarEventChangeLogTest {
+
+    @Autowired
+    private CalendarEventChangeLog changeLog;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private CalendarEventTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private CalendarEventChangeSequence changeSequence;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readAfter_ShouldReturnEachCommittedChangeOnceInChangeSequenceOrder() {
+        // Arrange
+        long start = changeLog.lastFinal();
+
+        // Act - each read continues from where the previous one stopped, as the change feed polls
+        CalendarEvent created = calendarEventService.createEvent(event());
+        CalendarEventChangeLog.Batch afterCreate = changeLog.readAfter(start, 100);
+        CalendarEvent changes = event();
+        changes.setTitle("Change log test, renamed");
+        calendarEventService.updateEvent(created.getId(), changes);
+        CalendarEventChangeLog.Batch afterUpdate = changeLog.readAfter(afterCreate.lastSeq(), 100);
+        // Deleted as the service does, whose delete is reserved for the E2E endpoints
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            calendarEventRepository.deleteById(created.getId());
+            tombstoneRepository.save(new CalendarEventTombstone(created.getId(), changeSequence.next(), LocalDateTime.now()));
+        });
+        CalendarEventChangeLog.Batch afterDelete = changeLog.readAfter(afterUpdate.lastSeq(), 100);
+
+        // Assert
+        assertEquals(List.of(CalendarEventChange.Type.CREATED), typesOf(afterCreate, created.getId()));
+        assertEquals(List.of(CalendarEventChange.Type.UPDATED), typesOf(afterUpdate, created.getId()));
+        assertEquals("Change log test, renamed", afterUpdate.changes().get(afterUpdate.changes().size() - 1).event().getTitle());
+        assertEquals(List.of(CalendarEventChange.Type.DELETED), typesOf(afterDelete, created.getId()));
+        assertTrue(afterCreate.lastSeq() < afterUpdate.lastSeq() && afterUpdate.lastSeq() < afterDelete.lastSeq());
+        assertEquals(afterDelete.lastSeq(), changeLog.lastFinal());
+    }
+
+    private static List<CalendarEventChange.Type> typesOf(CalendarEventChangeLog.Batch batch, Long eventId) {
+        assertFalse(batch.truncated());
+        return batch.changes().stream()
+                .filter(change -> change.eventId().equals(eventId))
+                .map(CalendarEventChangeLog.Change::type)
+                .toList();
+    }
+
+    private static CalendarEvent event() {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle("Change log test");
+        event.setStartTime(LocalDateTime.now().plusYears(45));
+        event.setEndTime(LocalDateTime.now().plusYears(45).plusHours(1));
+        return event;
+    }
+}
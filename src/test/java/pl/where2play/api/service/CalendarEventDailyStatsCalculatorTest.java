@@ -0,0 +1,259 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarEventDailyStatsCalculatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void created_MultiDayEvent_ShouldCountOnEveryCoveredDay() {
+        // Arrange
+        CalendarEvent event = event(DAY.atTime(22, 0), DAY.plusDays(2).atTime(2, 0), "Main Hall");
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas =
+                CalendarEventDailyStatsCalculator.deltas(List.of(CalendarEventChange.created(event)));
+
+        // Assert
+        assertEquals(Map.of(
+                key(DAY, CalendarEvent.EventStatus.SCHEDULED, "main hall"), 1L,
+                key(DAY.plusDays(1), CalendarEvent.EventStatus.SCHEDULED, "main hall"), 1L,
+                key(DAY.plusDays(2), CalendarEvent.EventStatus.SCHEDULED, "main hall"), 1L), deltas);
+    }
+
+    @Test
+    void eventEndingAtMidnight_ShouldNotCountOnFollowingDay() {
+        // Arrange
+        CalendarEvent event = event(DAY.atTime(20, 0), DAY.plusDays(1).atStartOfDay(), null);
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas =
+                CalendarEventDailyStatsCalculator.deltas(List.of(CalendarEventChange.created(event)));
+
+        // Assert
+        assertEquals(Map.of(key(DAY, CalendarEvent.EventStatus.SCHEDULED, ""), 1L), deltas);
+    }
+
+    @Test
+    void statusChange_ShouldMoveCountBetweenStatuses() {
+        // Arrange
+        CalendarEvent before = event(DAY.atTime(10, 0), DAY.atTime(11, 0), "Room A");
+        CalendarEvent after = event(DAY.atTime(10, 0), DAY.atTime(11, 0), "Room A");
+        after.setStatus(CalendarEvent.EventStatus.CANCELLED);
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas =
+                CalendarEventDailyStatsCalculator.deltas(List.of(CalendarEventChange.updated(before, after)));
+
+        // Assert
+        assertEquals(Map.of(
+                key(DAY, CalendarEvent.EventStatus.SCHEDULED, "room a"), -1L,
+                key(DAY, CalendarEvent.EventStatus.CANCELLED, "room a"), 1L), deltas);
+    }
+
+    @Test
+    void updateWithoutAggregateChange_ShouldProduceNoDeltas() {
+        // Arrange
+        CalendarEvent before = event(DAY.atTime(10, 0), DAY.atTime(11, 0), "Room A");
+        CalendarEvent after = event(DAY.atTime(15, 0), DAY.atTime(16, 0), " ROOM A ");
+        after.setTitle("Renamed");
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas =
+                CalendarEventDailyStatsCalculator.deltas(List.of(CalendarEventChange.updated(before, after)));
+
+        // Assert
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    void deleted_ShouldDecrementAndBatchShouldNetOut() {
+        // Arrange
+        CalendarEvent first = event(DAY.atTime(9, 0), DAY.atTime(10, 0), "Room A");
+        CalendarEvent second = event(DAY.atTime(12, 0), DAY.atTime(13, 0), "Room A");
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas = CalendarEventDailyStatsCalculator.deltas(List.of(
+                CalendarEventChange.deleted(first),
+                CalendarEventChange.deleted(second),
+                CalendarEventChange.created(event(DAY.atTime(14, 0), DAY.atTime(15, 0), "Room A"))));
+
+        // Assert
+        assertEquals(Map.of(key(DAY, CalendarEvent.EventStatus.SCHEDULED, "room a"), -1L), deltas);
+    }
+
+    @Test
+    void addContribution_ShouldClipToWindowAndCapRunawayEvents() {
+        // Arrange
+        CalendarEvent event = event(DAY.atTime(8, 0), DAY.plusYears(5).atTime(8, 0), "Room A");
+        Map<CalendarEventDailyStat.Key, Long> inWindow = new TreeMap<>();
+        Map<CalendarEventDailyStat.Key, Long> all = new TreeMap<>();
+
+        // Act
+        CalendarEventDailyStatsCalculator.addContribution(inWindow, event, 1, DAY.plusDays(1), DAY.plusDays(3));
+        CalendarEventDailyStatsCalculator.addContribution(all, event, 1);
+
+        // Assert
+        assertEquals(2, inWindow.size());
+        assertEquals(CalendarEventDailyStatsCalculator.MAX_DAYS_PER_EVENT, all.size());
+    }
+
+    @Test
+    void createdSeries_ShouldCountEveryOccurrenceExceptExceptionDates() {
+        // Arrange - 2025-03-10 is a Monday
+        CalendarEvent series = weeklySeries(10L, "COUNT=3", "Room A");
+        series.setRecurrenceExceptions(DAY.plusWeeks(1).atTime(18, 0).toString());
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas =
+                CalendarEventDailyStatsCalculator.deltas(List.of(CalendarEventChange.created(series)));
+
+        // Assert
+        assertEquals(Map.of(
+                key(DAY, CalendarEvent.EventStatus.SCHEDULED, "room a"), 1L,
+                key(DAY.plusWeeks(2), CalendarEvent.EventStatus.SCHEDULED, "room a"), 1L), deltas);
+    }
+
+    @Test
+    void endlessSeries_ShouldBeCountedWithinHorizon() {
+        // Arrange
+        CalendarEvent series = weeklySeries(10L, null, "Room A");
+        Map<CalendarEventDailyStat.Key, Long> counts = new TreeMap<>();
+
+        // Act
+        CalendarEventDailyStatsCalculator.addContribution(counts, series, 1);
+
+        // Assert
+        assertEquals((CalendarEventDailyStatsCalculator.SERIES_HORIZON_DAYS + 6) / 7, counts.size());
+        assertTrue(counts.keySet().stream().allMatch(key ->
+                key.getStatDate().isBefore(DAY.plusDays(CalendarEventDailyStatsCalculator.SERIES_HORIZON_DAYS))));
+    }
+
+    @Test
+    void createdOverride_ShouldReplaceTheOccurrenceOfItsSeries() {
+        // Arrange - the second occurrence is moved to Wednesday
+        CalendarEvent series = weeklySeries(10L, "COUNT=3", "Room A");
+        CalendarEvent override = event(DAY.plusWeeks(1).plusDays(2).atTime(18, 0), DAY.plusWeeks(1).plusDays(2).atTime(20, 0), "Room A");
+        override.setId(11L);
+        override.setSeriesId(10L);
+        override.setOriginalStartTime(DAY.plusWeeks(1).atTime(18, 0));
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas = CalendarEventDailyStatsCalculator.deltas(
+                List.of(CalendarEventChange.created(override)), seriesState(series, override));
+
+        // Assert
+        assertEquals(Map.of(
+                key(DAY.plusWeeks(1), CalendarEvent.EventStatus.SCHEDULED, "room a"), -1L,
+                key(DAY.plusWeeks(1).plusDays(2), CalendarEvent.EventStatus.SCHEDULED, "room a"), 1L), deltas);
+    }
+
+    @Test
+    void updatedSeries_ShouldMoveOccurrencesButNotOverriddenOnes() {
+        // Arrange
+        CalendarEvent before = weeklySeries(10L, "COUNT=3", "Room A");
+        CalendarEvent after = weeklySeries(10L, "COUNT=3", "Room B");
+        CalendarEvent override = event(DAY.plusWeeks(1).atTime(19, 0), DAY.plusWeeks(1).atTime(21, 0), "Room A");
+        override.setId(11L);
+        override.setSeriesId(10L);
+        override.setOriginalStartTime(DAY.plusWeeks(1).atTime(18, 0));
+
+        // Act
+        Map<CalendarEventDailyStat.Key, Long> deltas = CalendarEventDailyStatsCalculator.deltas(
+                List.of(CalendarEventChange.updated(before, after)), seriesState(after, override));
+
+        // Assert
+        assertEquals(Map.of(
+                key(DAY, CalendarEvent.EventStatus.SCHEDULED, "room a"), -1L,
+                key(DAY, CalendarEvent.EventStatus.SCHEDULED, "room b"), 1L,
+                key(DAY.plusWeeks(2), CalendarEvent.EventStatus.SCHEDULED, "room a"), -1L,
+                key(DAY.plusWeeks(2), CalendarEvent.EventStatus.SCHEDULED, "room b"), 1L), deltas);
+    }
+
+    @Test
+    void deletedSeriesWithItsOverrides_ShouldRemoveEverythingThatWasCounted() {
+        // Arrange - counted as the master's first and third occurrence plus the override
+        CalendarEvent series = weeklySeries(10L, "COUNT=3", "Room A");
+        CalendarEvent override = event(DAY.plusWeeks(1).atTime(19, 0), DAY.plusWeeks(1).atTime(21, 0), "Room A");
+        override.setId(11L);
+        override.setSeriesId(10L);
+        override.setOriginalStartTime(DAY.plusWeeks(1).atTime(18, 0));
+        Map<CalendarEventDailyStat.Key, Long> counted = new TreeMap<>();
+        CalendarEventDailyStatsCalculator.addContribution(counted, series, 1, LocalDate.MIN, LocalDate.MAX,
+                Set.of(RecurrenceExpander.toEpochSecond(override.getOriginalStartTime())));
+        CalendarEventDailyStatsCalculator.addContribution(counted, override, 1);
+
+        // Act - both are gone once the stats are updated
+        Map<CalendarEventDailyStat.Key, Long> deltas = CalendarEventDailyStatsCalculator.deltas(List.of(
+                CalendarEventChange.deleted(series), CalendarEventChange.deleted(override)), seriesState(null));
+
+        // Assert
+        counted.replaceAll((key, count) -> -count);
+        assertEquals(counted, deltas);
+    }
+
+    @Test
+    void addContribution_OfSeries_ShouldClipToWindow() {
+        // Arrange
+        CalendarEvent series = weeklySeries(10L, null, "Room A");
+        Map<CalendarEventDailyStat.Key, Long> inWindow = new TreeMap<>();
+
+        // Act
+        CalendarEventDailyStatsCalculator.addContribution(inWindow, series, 1, DAY.plusWeeks(10), DAY.plusWeeks(12));
+
+        // Assert
+        assertEquals(Set.of(DAY.plusWeeks(10), DAY.plusWeeks(11)),
+                inWindow.keySet().stream().map(CalendarEventDailyStat.Key::getStatDate).collect(Collectors.toSet()));
+    }
+
+    private CalendarEvent weeklySeries(Long id, String limit, String location) {
+        CalendarEvent series = event(DAY.atTime(18, 0), DAY.atTime(20, 0), location);
+        series.setId(id);
+        series.setRecurrenceRule("FREQ=WEEKLY" + (limit == null ? "" : ";" + limit));
+        return series;
+    }
+
+    private CalendarEventDailyStatsCalculator.SeriesState seriesState(CalendarEvent master, CalendarEvent... overrides) {
+        return new CalendarEventDailyStatsCalculator.SeriesState() {
+            @Override
+            public CalendarEvent master(Long seriesId) {
+                return master;
+            }
+
+            @Override
+            public Set<Long> overriddenStarts(Long seriesId) {
+                return Arrays.stream(overrides)
+                        .map(override -> RecurrenceExpander.toEpochSecond(override.getOriginalStartTime()))
+                        .collect(Collectors.toSet());
+            }
+        };
+    }
+
+    private CalendarEvent event(LocalDateTime start, LocalDateTime end, String location) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(1L);
+        event.setTitle("Event");
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setLocation(location);
+        return event;
+    }
+
+    private CalendarEventDailyStat.Key key(LocalDate day, CalendarEvent.EventStatus status, String locationKey) {
+        return new CalendarEventDailyStat.Key(day, status, locationKey);
+    }
+}
@@ -0,0 +1,97 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventDailyStat;
+import pl.where2play.api.repository.CalendarEventDailyStatRepository;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that incremental maintenance and the repair job count recurring series the same way.
+ */
+@SpringBootTest
+class CalendarEventDailyStatsRepairJobTest {
+
+    // A Monday far enough ahead not to meet events of other tests
+    private static final LocalDate DAY = LocalDate.of(2093, 3, 2);
+    private static final String LOCATION = "Stats Repair Test Court";
+
+    @Autowired
+    private CalendarEventDailyStatsRepairJob repairJob;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private CalendarEventDailyStatRepository dailyStatRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        createdIds.forEach(calendarEventRepository::deleteById);
+        dailyStatRepository.deleteAll(dailyStatRepository.findByStatDateBetween(DAY, DAY.plusWeeks(4)));
+    }
+
+    @Test
+    void repairWindow_AfterSeriesAndOverrideChanges_ShouldFindNoDrift() {
+        // Arrange - four weekly occurrences, the third one cancelled and the second one moved to Wednesday
+        CalendarEvent series = event(DAY.atTime(18, 0));
+        series.setRecurrenceRule("FREQ=WEEKLY;COUNT=4");
+        series.setRecurrenceExceptions(DAY.plusWeeks(2).atTime(18, 0).toString());
+        series = save(series);
+        CalendarEvent override = event(DAY.plusWeeks(1).plusDays(2).atTime(18, 0));
+        override.setSeriesId(series.getId());
+        override.setOriginalStartTime(DAY.plusWeeks(1).atTime(18, 0));
+        save(override);
+
+        // Act
+        CalendarEventDailyStatsRepairJob.RepairResult result = new TransactionTemplate(transactionManager)
+                .execute(tx -> repairJob.repairWindow(DAY, DAY.plusWeeks(4)));
+
+        // Assert
+        assertEquals(0, result.rowsRepaired());
+        assertEquals(Map.of(DAY, 1L, DAY.plusWeeks(1).plusDays(2), 1L, DAY.plusWeeks(3), 1L), counts());
+    }
+
+    private Map<LocalDate, Long> counts() {
+        return dailyStatRepository.findByStatDateBetween(DAY, DAY.plusWeeks(4)).stream()
+                .filter(stat -> stat.getLocationKey().equals("stats repair test court"))
+                .collect(Collectors.toMap(CalendarEventDailyStat::getStatDate, CalendarEventDailyStat::getEventCount, Long::sum));
+    }
+
+    private CalendarEvent event(LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle("Weekly training");
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(2));
+        event.setLocation(LOCATION);
+        return event;
+    }
+
+    private CalendarEvent save(CalendarEvent event) {
+        CalendarEvent saved = calendarEventService.createEvent(event);
+        createdIds.add(saved.getId());
+        return saved;
+    }
+}
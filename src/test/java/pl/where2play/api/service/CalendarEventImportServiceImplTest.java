@@ -0,0 +1,79 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.ImportReport;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports uploads into the database, since the batches are written with plain JDBC.
+ */
+@SpringBootTest(properties = "calendar-events.import.batch-size=50")
+class CalendarEventImportServiceImplTest {
+
+    private static final String CREATOR = "import_test";
+
+    @Autowired
+    private CalendarEventImportService importService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM calendar_events WHERE created_by = ?", CREATOR);
+    }
+
+    @Test
+    void importEvents_ShouldWriteValidRowsInBatchesAndReportInvalidOnes() throws IOException {
+        // Arrange - 120 valid rows spread over three batches, plus three invalid ones
+        StringBuilder csv = new StringBuilder("title,startTime,endTime,location,latitude,longitude,recurrenceRule\n");
+        LocalDateTime start = LocalDateTime.of(2030, 3, 1, 18, 0);
+        for (int i = 0; i < 120; i++) {
+            csv.append("Imported ").append(i).append(',').append(start.plusDays(i)).append(',')
+                    .append(start.plusDays(i).plusHours(2)).append(",Import Hall,52.23,21.01,\n");
+        }
+        csv.append(",2030-03-01T18:00,2030-03-01T19:00,Import Hall,,,\n");
+        csv.append("Backwards,2030-03-01T18:00,2030-03-01T17:00,Import Hall,,,\n");
+        csv.append("Weekly,2030-03-02T18:00,2030-03-02T19:00,Import Hall,,,FREQ=WEEKLY;COUNT=3\n");
+        csv.append("Too long,2030-03-01T18:00,2030-05-01T18:00,Import Hall,,,\n");
+
+        // Act
+        ImportReport report = importService.importEvents(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), CalendarEventImportService.Format.CSV, CREATOR);
+
+        // Assert
+        assertEquals(124, report.getRowsRead());
+        assertEquals(121, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(122L, 123L, 125L), report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+        assertEquals("title", report.getErrors().get(0).getField());
+        assertEquals("endTime", report.getErrors().get(1).getField());
+        assertEquals("endTime", report.getErrors().get(2).getField());
+
+        List<CalendarEvent> imported = calendarEventRepository.findByCreatedBy(CREATOR);
+        assertEquals(121, imported.size());
+        assertEquals(121, imported.stream().map(CalendarEvent::getChangeSeq).distinct().count());
+        CalendarEvent first = imported.stream().filter(event -> event.getTitle().equals("Imported 0")).findFirst().orElseThrow();
+        assertEquals("import hall", first.getLocationKey());
+        assertNotNull(first.getGeohash());
+        assertNotNull(first.getCreatedAt());
+        CalendarEvent weekly = imported.stream().filter(event -> event.getTitle().equals("Weekly")).findFirst().orElseThrow();
+        assertEquals(LocalDateTime.of(2030, 3, 16, 19, 0), weekly.getRecurrenceUntil());
+    }
+}
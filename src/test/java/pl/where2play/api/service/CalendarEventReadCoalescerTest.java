@@ -0,0 +1,140 @@
+package pl.where2play.api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarEventReadCoalescerTest {
+
+    private static final int CALLERS = 50;
+
+    private final PlatformTransactionManager transactionManager = new NoOpTransactionManager();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CalendarEventReadCoalescer coalescer = new CalendarEventReadCoalescer(
+            new QueryTimeouts(transactionManager, new MockEnvironment()),
+            new Bulkheads(new MockEnvironment(), meterRegistry), meterRegistry);
+
+    @Test
+    void coalesce_ShouldRunOneQueryForConcurrentIdenticalCalls() throws Exception {
+        // Arrange - the query blocks until every other caller has joined it
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<List<String>>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalescer.coalesce(Workload.LIST, "getEventsByStatus", List.of("SCHEDULED"), () -> {
+                    queries.incrementAndGet();
+                    await(release);
+                    return List.of("event-1", "event-2");
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalescer.getCoalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Assert
+            List<List<String>> lists = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                lists.add(result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, queries.get());
+            for (List<String> list : lists) {
+                assertEquals(List.of("event-1", "event-2"), list);
+            }
+            assertNotSame(lists.get(0), lists.get(1), "Every caller gets its own list");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, meterRegistry.get("calendar.events.reads.executed").functionCounter().count());
+        assertEquals(CALLERS - 1, meterRegistry.get("calendar.events.reads.coalesced").functionCounter().count());
+        assertEquals(0, meterRegistry.get("calendar.events.reads.in-flight").gauge().value());
+    }
+
+    @Test
+    void coalesce_ShouldNotKeepResultsAfterTheQuery() {
+        // Arrange
+        AtomicInteger queries = new AtomicInteger();
+
+        // Act
+        coalescer.coalesce(Workload.LIST, "getEventsByStatus", List.of("SCHEDULED"), () -> List.of(queries.incrementAndGet()));
+        List<Integer> second = coalescer.coalesce(Workload.LIST, "getEventsByStatus", List.of("SCHEDULED"), () -> List.of(queries.incrementAndGet()));
+        coalescer.coalesce(Workload.LIST, "getEventsByStatus", List.of("COMPLETED"), () -> List.of(queries.incrementAndGet()));
+
+        // Assert
+        assertEquals(List.of(2), second);
+        assertEquals(3, queries.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    void coalesce_ShouldPassQueryFailureToEveryWaiter() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Object>> leader = executor.submit(() -> coalescer.coalesce(Workload.LIST, "getAllEvents", List.of(), () -> {
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            while (meterRegistry.get("calendar.events.reads.in-flight").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+            Future<List<Object>> waiter = executor.submit(() -> coalescer.coalesce(Workload.LIST, "getAllEvents", List.of(), List::of));
+            while (coalescer.getCoalescedCount() < 1) {
+                Thread.sleep(5);
+            }
+
+            // Act
+            release.countDown();
+
+            // Assert
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS));
+            Exception waiterFailure = assertThrows(Exception.class, () -> waiter.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            assertSame(leaderFailure.getCause(), waiterFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalesce_ShouldRunQueryDirectlyInsideCallersTransaction() {
+        // Act
+        List<String> result = new TransactionTemplate(transactionManager).execute(status ->
+                coalescer.coalesce(Workload.LIST, "getEventsByCreator", List.of("owner"), () -> List.of("own-write")));
+
+        // Assert
+        assertEquals(List.of("own-write"), result);
+        assertEquals(0, coalescer.getExecutedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
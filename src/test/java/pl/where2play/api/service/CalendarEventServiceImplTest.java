@@ -1,21 +1,45 @@
 package pl.where2play.api.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.exception.EventConflictException;
+import pl.where2play.api.exception.InvalidRequestException;
 import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarEventSyncPage;
+import pl.where2play.api.model.CalendarEventTombstone;
+import pl.where2play.api.model.Geohash;
+import pl.where2play.api.model.LocationKeys;
+import pl.where2play.api.model.NearbyCalendarEvent;
+import pl.where2play.api.repository.CalendarEventBulkDeletes;
+import pl.where2play.api.repository.CalendarEventChangeSequence;
+import pl.where2play.api.repository.CalendarEventLocationLocks;
 import pl.where2play.api.repository.CalendarEventRepository;
+import pl.where2play.api.repository.CalendarEventStatusUpdates;
+import pl.where2play.api.repository.CalendarEventTombstoneRepository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +48,40 @@ class CalendarEventServiceImplTest {
     @Mock
     private CalendarEventRepository calendarEventRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CalendarEventChangeSequence changeSequence;
+
+    @Mock
+    private CalendarEventTombstoneRepository tombstoneRepository;
+
+    @Spy
+    private RecurrenceExpander recurrenceExpander = new RecurrenceExpander(100, 1000);
+
+    @Mock
+    private LocationAvailabilityService locationAvailabilityService;
+
+    @Mock
+    private CalendarEventArchiveService calendarEventArchiveService;
+
+    @Mock
+    private CalendarEventStatusUpdates statusUpdates;
+
+    @Mock
+    private CalendarEventBulkDeletes bulkDeletes;
+
+    @Mock
+    private CalendarEventLocationLocks locationLocks;
+
+    @Spy
+    private QueryTimeouts queryTimeouts = new QueryTimeouts(new NoOpTransactionManager(), new MockEnvironment());
+
+    @Spy
+    private CalendarEventReadCoalescer readCoalescer = new CalendarEventReadCoalescer(queryTimeouts,
+            new Bulkheads(new MockEnvironment(), new SimpleMeterRegistry()), new SimpleMeterRegistry());
+
     @InjectMocks
     private CalendarEventServiceImpl calendarEventService;
 
@@ -85,6 +143,21 @@ class CalendarEventServiceImplTest {
         verify(calendarEventRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void getEventById_WhenEventIsArchived_ShouldReturnArchivedEvent() {
+        // Arrange
+        testEvent.setArchived(true);
+        when(calendarEventRepository.findById(1L)).thenReturn(Optional.empty());
+        when(calendarEventArchiveService.getArchivedEventById(1L)).thenReturn(Optional.of(testEvent));
+
+        // Act
+        Optional<CalendarEvent> result = calendarEventService.getEventById(1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(result.get().isArchived());
+    }
+
     @Test
     void createEvent_ShouldSaveAndReturnEvent() {
         // Arrange
@@ -99,6 +172,22 @@ class CalendarEventServiceImplTest {
         verify(calendarEventRepository, times(1)).save(testEvent);
     }
 
+    @Test
+    void createEvent_ShouldPublishCreatedChange() {
+        // Arrange
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenReturn(testEvent);
+
+        // Act
+        calendarEventService.createEvent(testEvent);
+
+        // Assert
+        ArgumentCaptor<CalendarEventsChangedEvent> captor = ArgumentCaptor.forClass(CalendarEventsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        CalendarEventChange change = captor.getValue().getChanges().get(0);
+        assertEquals(CalendarEventChange.Type.CREATED, change.getType());
+        assertEquals(1L, change.getEventId());
+    }
+
     @Test
     void updateEvent_WhenEventExists_ShouldUpdateAndReturnEvent() {
         // Arrange
@@ -128,6 +217,66 @@ class CalendarEventServiceImplTest {
         verify(calendarEventRepository, times(1)).save(any(CalendarEvent.class));
     }
 
+    @Test
+    void updateEvent_ShouldPublishChangeWithPreviousState() {
+        // Arrange
+        CalendarEvent updatedEvent = new CalendarEvent();
+        updatedEvent.setTitle("Updated Title");
+        updatedEvent.setStartTime(now.plusHours(3));
+        updatedEvent.setEndTime(now.plusHours(4));
+        updatedEvent.setStatus(CalendarEvent.EventStatus.CANCELLED);
+
+        when(calendarEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        calendarEventService.updateEvent(1L, updatedEvent);
+
+        // Assert
+        ArgumentCaptor<CalendarEventsChangedEvent> captor = ArgumentCaptor.forClass(CalendarEventsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        CalendarEventChange change = captor.getValue().getChanges().get(0);
+        assertEquals(CalendarEventChange.Type.UPDATED, change.getType());
+        assertEquals("Test Event", change.getBefore().getTitle());
+        assertEquals(CalendarEvent.EventStatus.SCHEDULED, change.getBefore().getStatus());
+        assertEquals("Updated Title", change.getAfter().getTitle());
+        assertEquals(CalendarEvent.EventStatus.CANCELLED, change.getAfter().getStatus());
+    }
+
+    @Test
+    void completeEndedEvents_ShouldUpdateLockedEventsInOneStatementAndPublishChanges() {
+        // Arrange
+        testEvent.setStartTime(now.minusHours(3));
+        testEvent.setEndTime(now.minusHours(2));
+        when(calendarEventRepository.findByStatusAndEndTimeBeforeAndRecurrenceRuleIsNullOrderByIdAsc(
+                eq(CalendarEvent.EventStatus.SCHEDULED), eq(now), any(Pageable.class))).thenReturn(List.of(testEvent));
+        when(statusUpdates.changeStatus(eq(List.of(1L)), eq(CalendarEvent.EventStatus.SCHEDULED),
+                eq(CalendarEvent.EventStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        int result = calendarEventService.completeEndedEvents(now, 100);
+
+        // Assert
+        assertEquals(1, result);
+        verify(calendarEventRepository, never()).save(any(CalendarEvent.class));
+        ArgumentCaptor<CalendarEventsChangedEvent> captor = ArgumentCaptor.forClass(CalendarEventsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        CalendarEventChange change = captor.getValue().getChanges().get(0);
+        assertEquals(CalendarEventChange.Type.UPDATED, change.getType());
+        assertEquals(CalendarEvent.EventStatus.SCHEDULED, change.getBefore().getStatus());
+        assertEquals(CalendarEvent.EventStatus.COMPLETED, change.getAfter().getStatus());
+    }
+
+    @Test
+    void completeEndedEvents_WhenNothingEnded_ShouldNotUpdate() {
+        // Act
+        int result = calendarEventService.completeEndedEvents(now, 100);
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(statusUpdates, eventPublisher);
+    }
+
     @Test
     void searchEventsByTitle_ShouldReturnMatchingEvents() {
         // Arrange
@@ -159,4 +308,262 @@ class CalendarEventServiceImplTest {
         assertEquals("Test Event", result.get(0).getTitle());
         verify(calendarEventRepository, times(1)).findByStartTimeBetween(start, end);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getChangesSince_ShouldMergeEventsAndDeletionsByChangeSequence() {
+        // Arrange
+        CalendarEvent first = eventWithChangeSeq(10L, 5L);
+        CalendarEvent second = eventWithChangeSeq(11L, 7L);
+        CalendarEvent third = eventWithChangeSeq(12L, 9L);
+        when(changeSequence.horizon()).thenReturn(100L);
+        when(calendarEventRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(eq(4L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(first, second, third));
+        when(tombstoneRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanOrderByChangeSeqAsc(eq(4L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(new CalendarEventTombstone(20L, 6L, now)));
+        String since = new SyncToken(4L, Instant.now()).encode();
+
+        // Act
+        CalendarEventSyncPage page = calendarEventService.getChangesSince(since, 3);
+
+        // Assert
+        assertEquals(List.of(first, second), page.getEvents());
+        assertEquals(List.of(20L), page.getDeletedIds());
+        assertTrue(page.isHasMore());
+        assertFalse(page.isFullResyncRequired());
+        assertEquals(7L, SyncToken.decode(page.getNextToken()).getChangeSeq());
+    }
+
+    @Test
+    void getChangesSince_WhenTokenOlderThanRetention_ShouldRequireFullResync() {
+        // Arrange
+        String since = new SyncToken(4L, Instant.now().minus(Duration.ofDays(31))).encode();
+
+        // Act
+        CalendarEventSyncPage page = calendarEventService.getChangesSince(since, 100);
+
+        // Assert
+        assertTrue(page.isFullResyncRequired());
+        assertNull(page.getNextToken());
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void getChangesSince_WithMalformedToken_ShouldThrowInvalidRequest() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> calendarEventService.getChangesSince("not-a-token", 100));
+    }
+
+    @Test
+    void deleteEventForTesting_ShouldRecordTombstone() {
+        // Arrange
+        when(calendarEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(changeSequence.next()).thenReturn(42L);
+
+        // Act
+        calendarEventService.deleteEventForTesting(1L);
+
+        // Assert
+        ArgumentCaptor<CalendarEventTombstone> captor = ArgumentCaptor.forClass(CalendarEventTombstone.class);
+        verify(tombstoneRepository).save(captor.capture());
+        assertEquals(1L, captor.getValue().getEventId());
+        assertEquals(42L, captor.getValue().getChangeSeq());
+    }
+
+    @Test
+    void deleteEventsForTesting_ShouldDeleteInOneStatementAndPublishOneBatch() {
+        // Arrange
+        CalendarEvent tagged = eventWithChangeSeq(2L, 20L);
+        when(calendarEventRepository.findByIdInOrTestRunId(List.of(1L), "run-1")).thenReturn(List.of(testEvent, tagged));
+        when(bulkDeletes.delete(eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(2);
+
+        // Act
+        int deleted = calendarEventService.deleteEventsForTesting(List.of(1L), "run-1");
+
+        // Assert
+        assertEquals(2, deleted);
+        ArgumentCaptor<CalendarEventsChangedEvent> captor = ArgumentCaptor.forClass(CalendarEventsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        assertEquals(List.of(1L, 2L), captor.getValue().getChanges().stream().map(CalendarEventChange::getEventId).toList());
+        assertTrue(captor.getValue().getChanges().stream().allMatch(change -> change.getType() == CalendarEventChange.Type.DELETED));
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void deleteEventsForTesting_WhenNothingMatches_ShouldNotDelete() {
+        // Arrange
+        when(calendarEventRepository.findByIdInOrTestRunId(List.of(), "run-1")).thenReturn(List.of());
+
+        // Act
+        int deleted = calendarEventService.deleteEventsForTesting(List.of(), "run-1");
+
+        // Assert
+        assertEquals(0, deleted);
+        verifyNoInteractions(bulkDeletes, eventPublisher);
+    }
+
+    @Test
+    void getEventsBetweenDates_ShouldExpandSeriesAndApplyOverrides() {
+        // Arrange - weekly series on Mondays with its second occurrence moved to Tuesday
+        LocalDateTime windowStart = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2025, 3, 31, 23, 59);
+        CalendarEvent series = eventWithChangeSeq(5L, 10L);
+        series.setTitle("Training");
+        series.setStartTime(LocalDateTime.of(2025, 1, 6, 18, 0));
+        series.setEndTime(LocalDateTime.of(2025, 1, 6, 19, 30));
+        series.setRecurrenceRule("FREQ=WEEKLY");
+        CalendarEvent override = eventWithChangeSeq(6L, 11L);
+        override.setStartTime(LocalDateTime.of(2025, 3, 11, 18, 0));
+        override.setEndTime(LocalDateTime.of(2025, 3, 11, 19, 30));
+        override.setSeriesId(5L);
+        override.setOriginalStartTime(LocalDateTime.of(2025, 3, 10, 18, 0));
+        when(calendarEventRepository.findByStartTimeBetween(windowStart, windowEnd)).thenReturn(List.of(override));
+        when(calendarEventRepository.findRecurringSeriesOverlapping(windowStart, windowEnd)).thenReturn(List.of(series));
+        when(calendarEventRepository.findBySeriesIdInAndOriginalStartTimeBetween(any(), eq(windowStart), eq(windowEnd)))
+                .thenReturn(List.of(override));
+
+        // Act
+        List<CalendarEvent> result = calendarEventService.getEventsBetweenDates(windowStart, windowEnd);
+
+        // Assert
+        assertEquals(List.of(3, 11, 17, 24, 31), result.stream().map(e -> e.getStartTime().getDayOfMonth()).toList());
+        assertSame(override, result.get(1));
+        CalendarEvent occurrence = result.get(0);
+        assertNull(occurrence.getId());
+        assertEquals(5L, occurrence.getSeriesId());
+        assertEquals("Training", occurrence.getTitle());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 19, 30), occurrence.getEndTime());
+    }
+
+    @Test
+    void findNearbyEvents_ShouldFilterByDistanceAndSortNearestFirst() {
+        // Arrange - search around Warsaw's Palace of Culture
+        LocalDateTime from = LocalDateTime.of(2025, 5, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        CalendarEvent near = eventAt(1L, 52.2319, 21.0067, from.plusDays(2));
+        CalendarEvent nearer = eventAt(2L, 52.2318, 21.0060, from.plusDays(3));
+        CalendarEvent tooFar = eventAt(3L, 52.3000, 21.0000, from.plusDays(1));
+        List<CalendarEvent> stored = List.of(near, nearer, tooFar);
+        when(calendarEventRepository.findByGeohashFineInAndStartTimeBetweenAndRecurrenceRuleIsNull(anyCollection(), eq(from), eq(to)))
+                .thenAnswer(invocation -> inCells(stored, invocation.getArgument(0), Geohash.FINE_CELL_PRECISION));
+
+        // Act
+        List<NearbyCalendarEvent> result = calendarEventService.findNearbyEvents(52.2318, 21.0060, 1, from, to, 10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.stream().map(r -> r.getEvent().getId()).toList());
+        assertTrue(result.get(0).getDistanceKm() < 0.01);
+        assertTrue(result.get(1).getDistanceKm() < 1);
+        verify(calendarEventRepository, never()).findByGeohashCoarseInAndStartTimeBetweenAndRecurrenceRuleIsNull(any(), any(), any());
+    }
+
+    @Test
+    void findNearbyEvents_WithWideRadius_ShouldLookUpCoarseCells() {
+        // Arrange - Warsaw and Piaseczno (about 17 km apart)
+        LocalDateTime from = LocalDateTime.of(2025, 5, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        CalendarEvent centre = eventAt(1L, 52.2318, 21.0060, from.plusDays(2));
+        CalendarEvent suburb = eventAt(2L, 52.0812, 21.0245, from.plusDays(3));
+        List<CalendarEvent> stored = List.of(centre, suburb);
+        when(calendarEventRepository.findByGeohashCoarseInAndStartTimeBetweenAndRecurrenceRuleIsNull(anyCollection(), eq(from), eq(to)))
+                .thenAnswer(invocation -> inCells(stored, invocation.getArgument(0), Geohash.COARSE_CELL_PRECISION));
+
+        // Act
+        List<NearbyCalendarEvent> result = calendarEventService.findNearbyEvents(52.2318, 21.0060, 25, from, to, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result.stream().map(r -> r.getEvent().getId()).toList());
+        verify(calendarEventRepository, never()).findByGeohashFineInAndStartTimeBetweenAndRecurrenceRuleIsNull(any(), any(), any());
+    }
+
+    @Test
+    void findNearbyEvents_WithRadiusAboveMaximum_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> calendarEventService.findNearbyEvents(52.23, 21.01, 500, null, null, 10));
+        verifyNoInteractions(calendarEventRepository);
+    }
+
+    @Test
+    void createEvent_WithOnlyLatitude_ShouldThrowException() {
+        // Arrange
+        testEvent.setLatitude(52.23);
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> calendarEventService.createEvent(testEvent));
+        verify(calendarEventRepository, never()).save(any());
+    }
+
+    @Test
+    void createEvent_LongerThanMaxEventDuration_ShouldThrowException() {
+        // Arrange - free/busy would not see it once it started more than 30 days before a window
+        testEvent.setEndTime(testEvent.getStartTime().plusDays(31));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> calendarEventService.createEvent(testEvent));
+        verify(calendarEventRepository, never()).save(any());
+    }
+
+    @Test
+    void updateEvent_LongerThanMaxEventDuration_ShouldThrowException() {
+        // Arrange
+        CalendarEvent changes = new CalendarEvent();
+        changes.setTitle("Season");
+        changes.setStartTime(now);
+        changes.setEndTime(now.plusDays(90));
+        when(calendarEventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> calendarEventService.updateEvent(1L, changes));
+        verify(calendarEventRepository, never()).save(any());
+    }
+
+    @Test
+    void createEvent_WithCountedRecurrence_ShouldStoreSeriesEnd() {
+        // Arrange
+        testEvent.setRecurrenceRule("FREQ=DAILY;COUNT=3");
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenReturn(testEvent);
+
+        // Act
+        calendarEventService.createEvent(testEvent);
+
+        // Assert
+        assertEquals(testEvent.getEndTime().plusDays(2), testEvent.getRecurrenceUntil());
+    }
+
+    @Test
+    void createEventIfNoConflicts_WhenEventOverlaps_ShouldThrowConflictAndNotSave() {
+        // Arrange
+        when(locationAvailabilityService.findConflicts(testEvent)).thenReturn(List.of(7L));
+
+        // Act & Assert
+        EventConflictException exception = assertThrows(EventConflictException.class,
+                () -> calendarEventService.createEventIfNoConflicts(testEvent));
+        assertEquals(List.of(7L), exception.getConflictingEventIds());
+        verify(locationLocks).lock(LocationKeys.normalize(testEvent.getLocation()));
+        verify(calendarEventRepository, never()).save(any(CalendarEvent.class));
+    }
+
+    private static List<CalendarEvent> inCells(List<CalendarEvent> events, Collection<String> cells, int precision) {
+        return events.stream()
+                .filter(e -> cells.contains(Geohash.encode(e.getLatitude(), e.getLongitude(), precision)))
+                .toList();
+    }
+
+    private CalendarEvent eventAt(Long id, double latitude, double longitude, LocalDateTime startTime) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(id);
+        event.setTitle("Event " + id);
+        event.setStartTime(startTime);
+        event.setEndTime(startTime.plusHours(1));
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        return event;
+    }
+
+    private CalendarEvent eventWithChangeSeq(Long id, Long changeSeq) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(id);
+        event.setChangeSeq(changeSeq);
+        return event;
+    }
+}
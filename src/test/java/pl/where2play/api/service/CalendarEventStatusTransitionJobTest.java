@@ -0,0 +1,75 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the chunked, set-based status update against the database.
+ * Uses events from the year 2001 so that other data in the development database is not completed.
+ */
+@SpringBootTest(properties = "calendar-events.status-transition.chunk-size=2")
+class CalendarEventStatusTransitionJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2001, 6, 1, 12, 0);
+
+    @Autowired
+    private CalendarEventStatusTransitionJob statusTransitionJob;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        createdIds.forEach(calendarEventRepository::deleteById);
+    }
+
+    @Test
+    void completeEndedEvents_ShouldCompleteEndedEventsInChunksWithOwnChangeSequence() {
+        // Arrange
+        CalendarEvent first = save("Ended first", NOW.minusDays(2), null);
+        CalendarEvent second = save("Ended second", NOW.minusDays(1), null);
+        CalendarEvent third = save("Ended third", NOW.minusHours(3), null);
+        CalendarEvent running = save("Still running", NOW.minusMinutes(30), null);
+        CalendarEvent series = save("Weekly series", NOW.minusDays(7), "FREQ=WEEKLY;COUNT=10");
+
+        // Act
+        long result = statusTransitionJob.completeEndedEvents(NOW);
+
+        // Assert
+        assertEquals(3, result);
+        List<CalendarEvent> completed = calendarEventRepository.findAllById(List.of(first.getId(), second.getId(), third.getId()));
+        assertTrue(completed.stream().allMatch(event -> event.getStatus() == CalendarEvent.EventStatus.COMPLETED));
+        assertEquals(3, completed.stream().map(CalendarEvent::getChangeSeq).distinct().count());
+        assertTrue(completed.stream().allMatch(event -> event.getChangeSeq() > first.getChangeSeq()));
+        assertEquals(CalendarEvent.EventStatus.SCHEDULED, calendarEventRepository.findById(running.getId()).orElseThrow().getStatus());
+        assertEquals(CalendarEvent.EventStatus.SCHEDULED, calendarEventRepository.findById(series.getId()).orElseThrow().getStatus());
+    }
+
+    private CalendarEvent save(String title, LocalDateTime start, String recurrenceRule) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(1));
+        event.setLocation("Transition hall");
+        event.setCreatedBy("status_transition_test");
+        event.setRecurrenceRule(recurrenceRule);
+        CalendarEvent saved = calendarEventService.createEvent(event);
+        createdIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,133 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.CalendarFeed;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Renders feeds from the database and checks that changes made through the service evict them.
+ */
+@SpringBootTest
+class CalendarFeedServiceImplTest {
+
+    private static final String CREATOR = "feed_test";
+    private static final String LOCATION = "Feed Test Arena";
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private CalendarEventService calendarEventService;
+
+    @Autowired
+    private CalendarEventRepository calendarEventRepository;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        createdIds.forEach(calendarEventRepository::deleteById);
+    }
+
+    @Test
+    void getCreatorFeed_ShouldServeCachedFeedUntilAnEventChanges() {
+        // Arrange
+        CalendarEvent event = save("Feed match", LocalDateTime.of(2030, 5, 4, 18, 0));
+        save("Long ago", LocalDateTime.now().minusYears(2));
+
+        // Act
+        CalendarFeed first = calendarFeedService.getCreatorFeed(CREATOR);
+        CalendarFeed cached = calendarFeedService.getCreatorFeed(CREATOR);
+        event.setTitle("Feed match moved");
+        calendarEventService.updateEvent(event.getId(), event);
+        CalendarFeed updated = calendarFeedService.getCreatorFeed(CREATOR);
+
+        // Assert
+        String ics = new String(first.getContent(), StandardCharsets.UTF_8);
+        assertTrue(ics.contains("SUMMARY:Feed match\r\n"));
+        assertFalse(ics.contains("Long ago"));
+        assertSame(first, cached);
+        assertNotEquals(first.getEtag(), updated.getEtag());
+        assertTrue(new String(updated.getContent(), StandardCharsets.UTF_8).contains("SUMMARY:Feed match moved\r\n"));
+    }
+
+    @Test
+    void getLocationFeed_ShouldMatchNormalizedLocationAndEvictOnCreate() {
+        // Arrange
+        save("Arena opening", LocalDateTime.of(2030, 6, 1, 10, 0));
+        CalendarFeed before = calendarFeedService.getLocationFeed("  feed test ARENA ");
+
+        // Act
+        save("Arena second day", LocalDateTime.of(2030, 6, 2, 10, 0));
+        CalendarFeed after = calendarFeedService.getLocationFeed(LOCATION);
+
+        // Assert
+        assertTrue(new String(before.getContent(), StandardCharsets.UTF_8).contains("SUMMARY:Arena opening\r\n"));
+        String ics = new String(after.getContent(), StandardCharsets.UTF_8);
+        assertTrue(ics.contains("SUMMARY:Arena opening\r\n"));
+        assertTrue(ics.contains("SUMMARY:Arena second day\r\n"));
+    }
+
+    @Test
+    void getCreatorFeed_WhenCached_ShouldNotWaitForTheFeedBulkhead() throws Exception {
+        // Arrange - the only feed slot is held, e.g. by a slow free/busy query
+        save("Cached while busy", LocalDateTime.of(2030, 7, 1, 18, 0));
+        CalendarFeed rendered = calendarFeedService.getCreatorFeed(CREATOR);
+        CountDownLatch slotTaken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> bulkheads.call(Workload.FEED, () -> {
+            slotTaken.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(slotTaken.await(5, TimeUnit.SECONDS));
+
+        try {
+            // Act
+            long started = System.nanoTime();
+            CalendarFeed cached = calendarFeedService.getCreatorFeed(CREATOR);
+
+            // Assert - served right away instead of queueing for the slot
+            assertSame(rendered, cached);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private CalendarEvent save(String title, LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(2));
+        event.setLocation(LOCATION);
+        event.setCreatedBy(CREATOR);
+        CalendarEvent saved = calendarEventService.createEvent(event);
+        createdIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,73 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvEventReaderTest {
+
+    @Test
+    void next_ShouldParseQuotedValuesSpanningLines() throws IOException {
+        // Arrange
+        String csv = "Title,Start Time,end_time,location,latitude,longitude,status\r\n"
+                + "\"Finals, day 1\",2025-06-01T18:00,2025-06-01 20:00,\"Hall \"\"A\"\"\",52.23,21.01,completed\r\n"
+                + "\"Open\ntraining\",2025-06-02T10:00,2025-06-02T11:00,,,,\r\n";
+
+        try (CsvEventReader reader = new CsvEventReader(new StringReader(csv))) {
+            // Act
+            ImportRecord first = reader.next();
+            ImportRecord second = reader.next();
+            ImportRecord end = reader.next();
+
+            // Assert
+            assertTrue(first.errors().isEmpty());
+            CalendarEvent event = first.event();
+            assertEquals(2, first.line());
+            assertEquals("Finals, day 1", event.getTitle());
+            assertEquals(LocalDateTime.of(2025, 6, 1, 18, 0), event.getStartTime());
+            assertEquals(LocalDateTime.of(2025, 6, 1, 20, 0), event.getEndTime());
+            assertEquals("Hall \"A\"", event.getLocation());
+            assertEquals(52.23, event.getLatitude());
+            assertEquals(CalendarEvent.EventStatus.COMPLETED, event.getStatus());
+
+            assertEquals(3, second.line());
+            assertEquals("Open\ntraining", second.event().getTitle());
+            assertNull(second.event().getLocation());
+            assertNull(end);
+        }
+    }
+
+    @Test
+    void next_WithInvalidValues_ShouldReportErrorsPerField() throws IOException {
+        // Arrange
+        String csv = "title,startTime,endTime,latitude\nBad,tomorrow,2025-06-01T20:00,north\nShort,2025-06-01T18:00\n";
+
+        try (CsvEventReader reader = new CsvEventReader(new StringReader(csv))) {
+            // Act
+            ImportRecord invalid = reader.next();
+            ImportRecord incomplete = reader.next();
+
+            // Assert
+            assertEquals(2, invalid.line());
+            assertTrue(invalid.errors().containsKey("startTime"));
+            assertTrue(invalid.errors().containsKey("latitude"));
+            assertEquals(3, incomplete.line());
+            assertTrue(incomplete.errors().containsKey("line"));
+        }
+    }
+
+    @Test
+    void constructor_WithUnknownOrMissingColumns_ShouldRejectFile() {
+        // Act & Assert
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> new CsvEventReader(new StringReader("title,start,endTime\n")));
+        assertTrue(exception.getErrors().containsKey("start"));
+        assertTrue(exception.getErrors().containsKey("starttime"));
+    }
+}
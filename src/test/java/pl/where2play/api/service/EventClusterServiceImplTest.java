@@ -0,0 +1,207 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.EventCluster;
+import pl.where2play.api.model.EventClusters;
+import pl.where2play.api.repository.CalendarEventPoint;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventClusterServiceImplTest {
+
+    private static final String EUROPE = "-10,35,30,60";
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 6, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 6, 30, 0, 0);
+
+    @Mock
+    private CalendarEventRepository calendarEventRepository;
+
+    @Mock
+    private CalendarEventChangeLog changeLog;
+
+    @Spy
+    private RecurrenceExpander recurrenceExpander = new RecurrenceExpander(100, 1000);
+
+    @InjectMocks
+    private EventClusterServiceImpl eventClusterService;
+
+    @BeforeEach
+    void setUp() {
+        CalendarEventPoint warsaw = point(1L, 52.23, 21.01, FROM.plusDays(1));
+        lenient().when(calendarEventRepository.findPointsAfterId(anyLong(), any(Pageable.class))).thenReturn(List.of(warsaw));
+        lenient().when(calendarEventRepository.findByRecurrenceRuleIsNotNullAndLatitudeIsNotNull()).thenReturn(List.of());
+    }
+
+    @Test
+    void getClusters_ShouldGroupEventsOfTheSameCell() {
+        // Arrange
+        eventClusterService.rebuild();
+        eventClusterService.onEventsChanged(CalendarEventsChangedEvent.of(
+                CalendarEventChange.created(event(2L, 52.24, 21.02, FROM.plusDays(2)))));
+        eventClusterService.onEventsChanged(CalendarEventsChangedEvent.of(
+                CalendarEventChange.created(event(3L, 50.06, 19.94, FROM.plusDays(3)))));
+
+        // Act
+        EventClusters result = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+
+        // Assert
+        assertEquals(2, result.getClusters().size());
+        EventCluster warsaw = result.getClusters().get(0);
+        assertEquals(2, warsaw.getCount());
+        assertEquals(52.235, warsaw.getLatitude(), 1e-9);
+        assertNull(warsaw.getEventId());
+        EventCluster krakow = result.getClusters().get(1);
+        assertEquals(1, krakow.getCount());
+        assertEquals(3L, krakow.getEventId());
+    }
+
+    @Test
+    void getClusters_ShouldCountOccurrencesOfRecurringSeries() {
+        // Arrange
+        CalendarEvent weekly = event(5L, 50.06, 19.94, FROM.plusHours(18));
+        weekly.setRecurrenceRule("FREQ=WEEKLY");
+        weekly.setChangeSeq(1L);
+        eventClusterService.onEventsChanged(CalendarEventsChangedEvent.of(CalendarEventChange.created(weekly)));
+
+        // Act
+        EventClusters result = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+
+        // Assert
+        assertEquals(1, result.getClusters().size());
+        assertEquals(5, result.getClusters().get(0).getCount());
+        assertNull(result.getClusters().get(0).getEventId());
+    }
+
+    @Test
+    void getClusters_ShouldServeCachedTileUntilIndexChanges() {
+        // Arrange
+        eventClusterService.rebuild();
+        EventClusters first = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+
+        // Act
+        EventClusters sameTile = eventClusterService.getClusters("-9.99,35.01,29.99,59.99", 4, FROM, TO);
+        eventClusterService.onEventsChanged(CalendarEventsChangedEvent.of(
+                CalendarEventChange.deleted(event(1L, 52.23, 21.01, FROM.plusDays(1)))));
+        EventClusters afterDelete = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+
+        // Assert
+        assertSame(first, sameTile);
+        assertEquals(first.getTileKey(), afterDelete.getTileKey());
+        assertNotEquals(first.getVersion(), afterDelete.getVersion());
+        assertNotEquals(first.getEtag(), afterDelete.getEtag());
+        assertTrue(afterDelete.getClusters().isEmpty());
+    }
+
+    @Test
+    void getClusters_ShouldHaveTheSameEtagOnEveryInstance() {
+        // Arrange - an instance that has seen more index versions than this one, e.g. after a restart
+        EventClusterServiceImpl otherInstance = new EventClusterServiceImpl(calendarEventRepository, recurrenceExpander, changeLog);
+        otherInstance.rebuild();
+        otherInstance.rebuild();
+        eventClusterService.rebuild();
+
+        // Act
+        EventClusters here = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+        EventClusters there = otherInstance.getClusters(EUROPE, 4, FROM, TO);
+
+        // Assert
+        assertNotEquals(here.getVersion(), there.getVersion());
+        assertEquals(here.getEtag(), there.getEtag());
+        assertNotEquals(here.getEtag(), eventClusterService.getClusters(EUROPE, 4, FROM, TO.plusDays(1)).getEtag());
+    }
+
+    @Test
+    void catchUp_ShouldApplyChangesCommittedOnOtherInstances() {
+        // Arrange
+        when(changeLog.lastFinal()).thenReturn(10L);
+        eventClusterService.rebuild();
+        EventClusters before = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+        when(changeLog.readAfter(10L, 5000)).thenReturn(new CalendarEventChangeLog.Batch(List.of(
+                new CalendarEventChangeLog.Change(11L, CalendarEventChange.Type.DELETED, 1L, null),
+                new CalendarEventChangeLog.Change(12L, CalendarEventChange.Type.CREATED, 3L, event(3L, 50.06, 19.94, FROM.plusDays(3)))),
+                12L, false));
+        when(changeLog.readAfter(12L, 5000)).thenReturn(new CalendarEventChangeLog.Batch(List.of(), 12L, false));
+
+        // Act
+        eventClusterService.catchUp();
+        EventClusters after = eventClusterService.getClusters(EUROPE, 4, FROM, TO);
+
+        // Assert
+        assertEquals(1L, before.getClusters().get(0).getEventId());
+        assertEquals(1, after.getClusters().size());
+        assertEquals(3L, after.getClusters().get(0).getEventId());
+    }
+
+    @Test
+    void catchUp_WithBacklogLargerThanLoadBatch_ShouldRebuild() {
+        // Arrange
+        eventClusterService.rebuild();
+        when(changeLog.readAfter(0L, 5000)).thenReturn(new CalendarEventChangeLog.Batch(List.of(), 9000L, true));
+
+        // Act
+        eventClusterService.catchUp();
+
+        // Assert
+        verify(calendarEventRepository, times(2)).findPointsAfterId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getClusters_AcrossAntimeridian_ShouldIncludeBothSides() {
+        // Arrange
+        eventClusterService.onEventsChanged(new CalendarEventsChangedEvent(List.of(
+                CalendarEventChange.created(event(7L, -17.7, 179.5, FROM.plusDays(1))),
+                CalendarEventChange.created(event(8L, -17.7, -179.5, FROM.plusDays(1))))));
+
+        // Act
+        EventClusters result = eventClusterService.getClusters("178,-20,-178,-15", 6, FROM, TO);
+
+        // Assert
+        assertEquals(2, result.getClusters().size());
+    }
+
+    @Test
+    void getClusters_WithInvalidParameters_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> eventClusterService.getClusters("1,2,3", 4, FROM, TO));
+        assertThrows(InvalidRequestException.class, () -> eventClusterService.getClusters("0,60,10,50", 4, FROM, TO));
+        assertThrows(InvalidRequestException.class, () -> eventClusterService.getClusters(EUROPE, 21, FROM, TO));
+        assertThrows(InvalidRequestException.class, () -> eventClusterService.getClusters("-180,-90,180,90", 12, FROM, TO));
+    }
+
+    private CalendarEvent event(Long id, double latitude, double longitude, LocalDateTime startTime) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(id);
+        event.setTitle("Event " + id);
+        event.setStartTime(startTime);
+        event.setEndTime(startTime.plusHours(1));
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        return event;
+    }
+
+    private CalendarEventPoint point(Long id, double latitude, double longitude, LocalDateTime startTime) {
+        CalendarEventPoint point = mock(CalendarEventPoint.class);
+        lenient().when(point.getId()).thenReturn(id);
+        lenient().when(point.getLatitude()).thenReturn(latitude);
+        lenient().when(point.getLongitude()).thenReturn(longitude);
+        lenient().when(point.getStartTime()).thenReturn(startTime);
+        return point;
+    }
+}
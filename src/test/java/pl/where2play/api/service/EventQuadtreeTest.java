@@ -0,0 +1,105 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQuadtreeTest {
+
+    @Test
+    void cluster_ShouldMatchBruteForceAggregation() {
+        // Arrange - points concentrated around a few cities so that subtrees get aggregated
+        Random random = new Random(42);
+        EventQuadtree tree = new EventQuadtree();
+        List<EventQuadtree.Point> points = new ArrayList<>();
+        double[][] centres = {{52.23, 21.01}, {50.06, 19.94}, {40.71, -74.0}, {-33.87, 151.21}};
+        for (long id = 1; id <= 5000; id++) {
+            double[] centre = centres[random.nextInt(centres.length)];
+            EventQuadtree.Point point = new EventQuadtree.Point(id,
+                    centre[0] + random.nextGaussian() * 0.5, centre[1] + random.nextGaussian() * 0.5, random.nextInt(1000));
+            points.add(point);
+            tree.put(point);
+        }
+
+        // Act
+        Map<Long, EventQuadtree.Cluster> clusters = new HashMap<>();
+        tree.cluster(-10, 35, 30, 60, 100, 600, 8, clusters);
+
+        // Assert
+        Map<Long, Long> expected = new HashMap<>();
+        for (EventQuadtree.Point point : points) {
+            if (point.longitude() >= -10 && point.longitude() < 30 && point.latitude() >= 35 && point.latitude() < 60
+                    && point.startEpochSecond() >= 100 && point.startEpochSecond() <= 600) {
+                expected.merge(EventQuadtree.cellKey(point.latitude(), point.longitude(), 8), 1L, Long::sum);
+            }
+        }
+        assertEquals(expected.keySet(), clusters.keySet());
+        expected.forEach((key, count) -> assertEquals(count, clusters.get(key).count));
+    }
+
+    @Test
+    void cluster_WithWholeTimeRangeAtLowLevel_ShouldAggregateWholeSubtrees() {
+        // Arrange
+        EventQuadtree tree = new EventQuadtree();
+        for (long id = 1; id <= 100; id++) {
+            tree.put(new EventQuadtree.Point(id, 52.0 + id * 0.001, 21.0, id));
+        }
+
+        // Act
+        Map<Long, EventQuadtree.Cluster> clusters = new HashMap<>();
+        tree.cluster(-180, -90, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 0, 1000, 3, clusters);
+
+        // Assert
+        assertEquals(1, clusters.size());
+        EventQuadtree.Cluster cluster = clusters.values().iterator().next();
+        assertEquals(100, cluster.count);
+        assertEquals(52.0505, cluster.sumLat / cluster.count, 1e-9);
+        assertNull(cluster.eventId);
+    }
+
+    @Test
+    void put_WithExistingId_ShouldMovePoint() {
+        // Arrange
+        EventQuadtree tree = new EventQuadtree();
+        tree.put(new EventQuadtree.Point(1, 52.23, 21.01, 10));
+
+        // Act
+        tree.put(new EventQuadtree.Point(1, 50.06, 19.94, 10));
+
+        // Assert
+        Map<Long, EventQuadtree.Cluster> clusters = new HashMap<>();
+        tree.cluster(-180, -90, 180, 90, 0, 100, 10, clusters);
+        assertEquals(1, tree.size());
+        assertEquals(1, clusters.size());
+        EventQuadtree.Cluster cluster = clusters.get(EventQuadtree.cellKey(50.06, 19.94, 10));
+        assertNotNull(cluster);
+        assertEquals(1L, cluster.eventId);
+    }
+
+    @Test
+    void remove_ShouldDropPointsAndCollapseNodes() {
+        // Arrange
+        EventQuadtree tree = new EventQuadtree();
+        for (long id = 1; id <= 50; id++) {
+            tree.put(new EventQuadtree.Point(id, 52.0 + id * 0.01, 21.0, 0));
+        }
+
+        // Act
+        for (long id = 1; id <= 45; id++) {
+            assertTrue(tree.remove(id));
+        }
+
+        // Assert
+        assertFalse(tree.remove(1));
+        Map<Long, EventQuadtree.Cluster> clusters = new HashMap<>();
+        tree.cluster(-180, -90, 180, 90, 0, 0, 0, clusters);
+        assertEquals(5, tree.size());
+        assertEquals(5, clusters.values().iterator().next().count);
+    }
+}
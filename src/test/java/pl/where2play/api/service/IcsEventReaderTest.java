@@ -0,0 +1,106 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsEventReaderTest {
+
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    @Test
+    void next_ShouldReadEventsAndConvertTimesToZone() throws IOException {
+        // Arrange
+        String ics = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "VERSION:2.0",
+                "BEGIN:VTIMEZONE",
+                "TZID:Europe/London",
+                "END:VTIMEZONE",
+                "BEGIN:VEVENT",
+                "UID:1@example.com",
+                "SUMMARY:League match\\, round 3",
+                "DESCRIPTION:Bring your own\\nball and a long description that is folded onto",
+                "  the next line",
+                "DTSTART:20250601T160000Z",
+                "DURATION:PT1H30M",
+                "LOCATION:Stadium",
+                "GEO:52.23;21.01",
+                "STATUS:CANCELLED",
+                "BEGIN:VALARM",
+                "SUMMARY:Ignored",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "SUMMARY:Weekly training",
+                "DTSTART;TZID=Europe/London:20250603T180000",
+                "DTEND;TZID=Europe/London:20250603T190000",
+                "RRULE:FREQ=WEEKLY;COUNT=4",
+                "EXDATE;TZID=Europe/London:20250610T180000",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "SUMMARY:Festival",
+                "DTSTART;VALUE=DATE:20250701",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        try (IcsEventReader reader = new IcsEventReader(new BufferedReader(new StringReader(ics)), WARSAW)) {
+            // Act
+            ImportRecord match = reader.next();
+            ImportRecord training = reader.next();
+            ImportRecord festival = reader.next();
+            ImportRecord end = reader.next();
+
+            // Assert
+            assertTrue(match.errors().isEmpty());
+            assertEquals(6, match.line());
+            CalendarEvent event = match.event();
+            assertEquals("League match, round 3", event.getTitle());
+            assertEquals("Bring your own\nball and a long description that is folded onto the next line", event.getDescription());
+            assertEquals(LocalDateTime.of(2025, 6, 1, 18, 0), event.getStartTime());
+            assertEquals(LocalDateTime.of(2025, 6, 1, 19, 30), event.getEndTime());
+            assertEquals(52.23, event.getLatitude());
+            assertEquals(21.01, event.getLongitude());
+            assertEquals(CalendarEvent.EventStatus.CANCELLED, event.getStatus());
+
+            assertEquals(LocalDateTime.of(2025, 6, 3, 19, 0), training.event().getStartTime());
+            assertEquals("FREQ=WEEKLY;COUNT=4", training.event().getRecurrenceRule());
+            assertEquals("2025-06-10T19:00", training.event().getRecurrenceExceptions());
+
+            assertEquals(LocalDateTime.of(2025, 7, 1, 0, 0), festival.event().getStartTime());
+            assertEquals(LocalDateTime.of(2025, 7, 2, 0, 0), festival.event().getEndTime());
+            assertNull(end);
+        }
+    }
+
+    @Test
+    void next_WithInvalidValues_ShouldReportErrors() throws IOException {
+        // Arrange
+        String ics = "BEGIN:VCALENDAR\nBEGIN:VEVENT\nSUMMARY:Broken\nDTSTART:2025-06-01\nRECURRENCE-ID:20250601T100000\nEND:VEVENT\nEND:VCALENDAR\n";
+
+        try (IcsEventReader reader = new IcsEventReader(new BufferedReader(new StringReader(ics)), WARSAW)) {
+            // Act
+            ImportRecord record = reader.next();
+
+            // Assert
+            assertEquals(2, record.line());
+            assertTrue(record.errors().containsKey("startTime"));
+            assertTrue(record.errors().containsKey("recurrenceId"));
+        }
+    }
+
+    @Test
+    void constructor_WithoutCalendar_ShouldRejectFile() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> new IcsEventReader(new BufferedReader(new StringReader("title,startTime\n")), WARSAW));
+    }
+}
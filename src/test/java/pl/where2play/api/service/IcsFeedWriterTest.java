@@ -0,0 +1,113 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsFeedWriterTest {
+
+    private static final ZoneId WARSAW = ZoneId.of("Europe/Warsaw");
+
+    @Test
+    void write_ShouldWriteUtcTimesAndEscapedText() throws IOException {
+        // Arrange
+        CalendarEvent event = event(7L, "League match, round 3", LocalDateTime.of(2025, 6, 1, 18, 0));
+        event.setDescription("Bring a ball;\nand water");
+        event.setLatitude(52.23);
+        event.setLongitude(21.01);
+        event.setRecurrenceRule("FREQ=WEEKLY;COUNT=4");
+        event.setRecurrenceExceptions("2025-06-08T18:00");
+
+        // Act
+        String ics = render(event);
+
+        // Assert
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+        assertTrue(ics.contains("\r\nUID:7@where2play.pl\r\n"));
+        assertTrue(ics.contains("\r\nDTSTART:20250601T160000Z\r\n"));
+        assertTrue(ics.contains("\r\nDTEND:20250601T180000Z\r\n"));
+        assertTrue(ics.contains("\r\nSUMMARY:League match\\, round 3\r\n"));
+        assertTrue(ics.contains("\r\nDESCRIPTION:Bring a ball\\;\\nand water\r\n"));
+        assertTrue(ics.contains("\r\nGEO:52.23;21.01\r\n"));
+        assertTrue(ics.contains("\r\nRRULE:FREQ=WEEKLY;COUNT=4\r\n"));
+        assertTrue(ics.contains("\r\nEXDATE:20250608T160000Z\r\n"));
+    }
+
+    @Test
+    void write_ShouldFoldLongLinesWithoutSplittingCharacters() throws IOException {
+        // Arrange
+        CalendarEvent event = event(8L, "Mecz", LocalDateTime.of(2025, 6, 1, 18, 0));
+        event.setDescription("Zażółć gęślą jaźń ".repeat(10));
+
+        // Act
+        byte[] ics = renderBytes(event);
+
+        // Assert - every physical line fits in 75 octets and is valid UTF-8 on its own
+        int lineStart = 0;
+        for (int i = 0; i < ics.length - 1; i++) {
+            if (ics[i] == '\r' && ics[i + 1] == '\n') {
+                assertTrue(i - lineStart <= 75, "line longer than 75 octets");
+                String line = new String(ics, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                assertFalse(line.contains("\uFFFD"), "line splits a UTF-8 sequence: " + line);
+                lineStart = i + 2;
+            }
+        }
+        String unfolded = new String(ics, StandardCharsets.UTF_8).replace("\r\n ", "");
+        assertTrue(unfolded.contains("DESCRIPTION:" + "Zażółć gęślą jaźń ".repeat(10) + "\r\n"));
+    }
+
+    @Test
+    void write_ShouldBeReadableByImport() throws IOException {
+        // Arrange
+        CalendarEvent event = event(9L, "Round trip", LocalDateTime.of(2025, 11, 3, 9, 30));
+        event.setLocation("Hall; East");
+        event.setStatus(CalendarEvent.EventStatus.CANCELLED);
+
+        // Act
+        IcsEventReader reader = new IcsEventReader(new BufferedReader(new StringReader(render(event))), WARSAW);
+        ImportRecord record = reader.next();
+
+        // Assert
+        assertNotNull(record);
+        assertTrue(record.errors().isEmpty());
+        assertEquals("Round trip", record.event().getTitle());
+        assertEquals("Hall; East", record.event().getLocation());
+        assertEquals(LocalDateTime.of(2025, 11, 3, 9, 30), record.event().getStartTime());
+        assertEquals(LocalDateTime.of(2025, 11, 3, 11, 30), record.event().getEndTime());
+        assertEquals(CalendarEvent.EventStatus.CANCELLED, record.event().getStatus());
+        assertNull(reader.next());
+    }
+
+    private static CalendarEvent event(Long id, String title, LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(id);
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(start.plusHours(2));
+        event.setCreatedBy("feed_writer");
+        event.setUpdatedAt(start.minusDays(1));
+        return event;
+    }
+
+    private static String render(CalendarEvent event) throws IOException {
+        return new String(renderBytes(event), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] renderBytes(CalendarEvent event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IcsFeedWriter writer = new IcsFeedWriter(out, WARSAW, "where2play.pl", "Test feed");
+        writer.write(event);
+        writer.finish();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,145 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.FreeBusy;
+import pl.where2play.api.model.TimeSlot;
+import pl.where2play.api.repository.CalendarEventInterval;
+import pl.where2play.api.repository.CalendarEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationAvailabilityServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    @Mock
+    private CalendarEventRepository calendarEventRepository;
+
+    @Spy
+    private RecurrenceExpander recurrenceExpander = new RecurrenceExpander(100, 1000);
+
+    @InjectMocks
+    private LocationAvailabilityServiceImpl locationAvailabilityService;
+
+    @Test
+    void getFreeBusy_ShouldMergeOverlappingAndBackToBackEvents() {
+        // Arrange - 9-10, 9:30-11, 11-12 and 14-15
+        when(calendarEventRepository.findOverlappingAtLocation(eq("main hall"), eq(DAY.withHour(8)), eq(DAY.withHour(18)), any()))
+                .thenReturn(List.of(
+                        interval(1L, DAY.withHour(9), DAY.withHour(10)),
+                        interval(2L, DAY.withHour(9).withMinute(30), DAY.withHour(11)),
+                        interval(3L, DAY.withHour(11), DAY.withHour(12)),
+                        interval(4L, DAY.withHour(14), DAY.withHour(15))));
+
+        // Act
+        FreeBusy freeBusy = locationAvailabilityService.getFreeBusy(" Main Hall", DAY.withHour(8), DAY.withHour(18));
+
+        // Assert
+        assertEquals(List.of(
+                new TimeSlot(DAY.withHour(9), DAY.withHour(12)),
+                new TimeSlot(DAY.withHour(14), DAY.withHour(15))), freeBusy.getBusy());
+        assertEquals(List.of(
+                new TimeSlot(DAY.withHour(8), DAY.withHour(9)),
+                new TimeSlot(DAY.withHour(12), DAY.withHour(14)),
+                new TimeSlot(DAY.withHour(15), DAY.withHour(18))), freeBusy.getFree());
+    }
+
+    @Test
+    void getFreeBusy_ShouldClipToWindowAndIncludeSeriesOccurrences() {
+        // Arrange - an event running into the window and a daily series at 16-17
+        when(calendarEventRepository.findOverlappingAtLocation(eq("main hall"), any(), any(), any()))
+                .thenReturn(List.of(interval(1L, DAY.minusHours(2), DAY.withHour(9))));
+        CalendarEvent series = event(7L, DAY.minusDays(3).withHour(16), DAY.minusDays(3).withHour(17));
+        series.setRecurrenceRule("FREQ=DAILY");
+        when(calendarEventRepository.findRecurringSeriesAtLocation(eq("main hall"), any(), any())).thenReturn(List.of(series));
+
+        // Act
+        FreeBusy freeBusy = locationAvailabilityService.getFreeBusy("Main Hall", DAY, DAY.withHour(18));
+
+        // Assert
+        assertEquals(List.of(
+                new TimeSlot(DAY, DAY.withHour(9)),
+                new TimeSlot(DAY.withHour(16), DAY.withHour(17))), freeBusy.getBusy());
+    }
+
+    @Test
+    void getFreeBusy_WithInvertedRange_ShouldThrowInvalidRequest() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> locationAvailabilityService.getFreeBusy("Main Hall", DAY.withHour(18), DAY.withHour(8)));
+    }
+
+    @Test
+    void findConflicts_ShouldReportOverlapsOfAnyOccurrence() {
+        // Arrange - weekly candidate on Mondays 18-20; an existing event overlaps the third occurrence only
+        CalendarEvent candidate = event(null, DAY.withHour(18), DAY.withHour(20));
+        candidate.setRecurrenceRule("FREQ=WEEKLY;COUNT=4");
+        when(calendarEventRepository.findOverlappingAtLocation(eq("main hall"), any(), any(), any()))
+                .thenReturn(List.of(
+                        interval(3L, DAY.plusDays(14).withHour(19), DAY.plusDays(14).withHour(21)),
+                        interval(4L, DAY.plusDays(15).withHour(18), DAY.plusDays(15).withHour(20)),
+                        interval(5L, DAY.withHour(20), DAY.withHour(21))));
+
+        // Act
+        List<Long> conflicts = locationAvailabilityService.findConflicts(candidate);
+
+        // Assert
+        assertEquals(List.of(3L), conflicts);
+    }
+
+    @Test
+    void findConflicts_WithoutLocation_ShouldNotQuery() {
+        // Arrange
+        CalendarEvent candidate = event(null, DAY.withHour(18), DAY.withHour(20));
+        candidate.setLocation(null);
+
+        // Act
+        List<Long> conflicts = locationAvailabilityService.findConflicts(candidate);
+
+        // Assert
+        assertTrue(conflicts.isEmpty());
+        verifyNoInteractions(calendarEventRepository);
+    }
+
+    private CalendarEvent event(Long id, LocalDateTime start, LocalDateTime end) {
+        CalendarEvent event = new CalendarEvent();
+        event.setId(id);
+        event.setTitle("Event");
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setLocation("Main Hall");
+        return event;
+    }
+
+    private CalendarEventInterval interval(Long id, LocalDateTime start, LocalDateTime end) {
+        return new CalendarEventInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package pl.where2play.api.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.where2play.api.config.Bulkheads;
+import pl.where2play.api.config.Bulkheads.Workload;
+import pl.where2play.api.config.RequestDeadlineFilter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "calendar-events.query-timeouts.cross-join=PT1S",
+        "calendar-events.bulkheads.search.max-concurrent=1",
+        "calendar-events.bulkheads.search.queue-timeout=PT5S"
+})
+@AutoConfigureMockMvc
+class QueryTimeoutCancellationTest {
+
+    // Ten billion rows; runs far longer than its timeout
+    private static final String CROSS_JOIN =
+            "SELECT SUM(a.X * b.X) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b";
+
+    @Autowired
+    private QueryTimeouts queryTimeouts;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void readOnly_ShouldCancelStatementRunningPastItsTimeout() {
+        // Act
+        long started = System.nanoTime();
+        assertThrows(jakarta.persistence.QueryTimeoutException.class, () -> queryTimeouts.readOnly("cross-join",
+                () -> entityManager.createNativeQuery(CROSS_JOIN).getSingleResult()));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Assert - cancelled by the database after about a second, and the connection is usable again
+        assertTrue(elapsedMillis < 10_000, "Query ran for " + elapsedMillis + " ms");
+        assertEquals(1, ((Number) queryTimeouts.readOnly("cross-join",
+                () -> entityManager.createNativeQuery("SELECT 1").getSingleResult())).intValue());
+    }
+
+    @Test
+    void search_WhenClientDeadlinePassesWhileQueued_ShouldFailWithQueryTimeout() throws Exception {
+        // Arrange - another search holds the only slot past the client's deadline
+        CountDownLatch held = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bulkheads.call(Workload.SEARCH, () -> {
+                held.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert
+            mockMvc.perform(get("/api/events/search").param("title", "deadline")
+                            .header(RequestDeadlineFilter.HEADER, "50"))
+                    .andExpect(status().isGatewayTimeout())
+                    .andExpect(jsonPath("$.errorCode").value("QUERY_TIMEOUT"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import pl.where2play.api.config.RequestDeadlineFilter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTimeoutsTest {
+
+    private final List<TransactionDefinition> transactions = new ArrayList<>();
+    private final QueryTimeouts queryTimeouts = new QueryTimeouts(new NoOpTransactionManager() {
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            transactions.add(definition);
+        }
+    }, new MockEnvironment()
+            .withProperty("calendar-events.query-timeouts.default", "PT5S")
+            .withProperty("calendar-events.query-timeouts.search-events-by-title", "PT2S"));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnly_ShouldRunReadInReadOnlyTransactionWithItsTimeout() {
+        // Act
+        String result = queryTimeouts.readOnly("search-events-by-title", () -> "events");
+
+        // Assert
+        assertEquals("events", result);
+        assertEquals(1, transactions.size());
+        assertTrue(transactions.get(0).isReadOnly());
+        assertEquals(2, transactions.get(0).getTimeout());
+    }
+
+    @Test
+    void getTimeout_WithoutConfiguredTimeout_ShouldUseDefault() {
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(2), queryTimeouts.getTimeout("search-events-by-title"));
+        assertEquals(Duration.ofSeconds(5), queryTimeouts.getTimeout("get-all-events"));
+    }
+
+    @Test
+    void timeoutSeconds_WithClientDeadline_ShouldBeCutToTimeLeftRoundedUp() throws Exception {
+        // Arrange - the client waits 1.5 seconds
+        withClientTimeout("1500");
+
+        // Act & Assert
+        assertEquals(2, queryTimeouts.timeoutSeconds("get-all-events"));
+        assertEquals(2, queryTimeouts.timeoutSeconds("search-events-by-title"));
+    }
+
+    @Test
+    void timeoutSeconds_WithMalformedClientTimeout_ShouldIgnoreIt() throws Exception {
+        // Arrange
+        withClientTimeout("soon");
+
+        // Act & Assert
+        assertEquals(5, queryTimeouts.timeoutSeconds("get-all-events"));
+    }
+
+    @Test
+    void readOnly_WhenClientDeadlinePassed_ShouldNotStartQuery() throws Exception {
+        // Arrange
+        withClientTimeout("1");
+        Thread.sleep(5);
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> queryTimeouts.readOnly("get-all-events", () -> fail("Query started")));
+        assertTrue(transactions.isEmpty());
+    }
+
+    private static void withClientTimeout(String timeoutMillis) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.addHeader(RequestDeadlineFilter.HEADER, timeoutMillis);
+        new RequestDeadlineFilter().doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,160 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceExpanderTest {
+
+    private final RecurrenceExpander expander = new RecurrenceExpander(100, 1000);
+
+    @Test
+    void weeklyByDay_ShouldOnlyReturnOccurrencesInsideWindow() {
+        // Arrange - Monday 2025-01-06, every Tuesday and Thursday
+        CalendarEvent series = series("FREQ=WEEKLY;BYDAY=TU,TH", LocalDateTime.of(2025, 1, 6, 18, 0));
+
+        // Act
+        long[] starts = expander.occurrenceStarts(series,
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 9, 0, 0));
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 3, 4, 18, 0),
+                LocalDateTime.of(2025, 3, 6, 18, 0)), toDateTimes(starts));
+    }
+
+    @Test
+    void weeklyWithCount_ShouldStopAfterCountEvenWhenJumpingAhead() {
+        // Arrange - 5 occurrences on Mondays and Wednesdays starting Wednesday 2025-01-08: 8, 13, 15, 20, 22
+        CalendarEvent series = series("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=5", LocalDateTime.of(2025, 1, 8, 9, 0));
+
+        // Act
+        long[] starts = expander.occurrenceStarts(series,
+                LocalDateTime.of(2025, 1, 20, 0, 0), LocalDateTime.of(2025, 2, 28, 0, 0));
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 20, 9, 0),
+                LocalDateTime.of(2025, 1, 22, 9, 0)), toDateTimes(starts));
+    }
+
+    @Test
+    void monthlyOnThe31st_ShouldSkipShorterMonths() {
+        // Arrange
+        CalendarEvent series = series("FREQ=MONTHLY", LocalDateTime.of(2025, 1, 31, 12, 0));
+
+        // Act
+        long[] starts = expander.occurrenceStarts(series,
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 6, 1, 0, 0));
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 31, 12, 0),
+                LocalDateTime.of(2025, 3, 31, 12, 0),
+                LocalDateTime.of(2025, 5, 31, 12, 0)), toDateTimes(starts));
+    }
+
+    @Test
+    void yearlyOnLeapDay_ShouldOnlyOccurInLeapYears() {
+        // Arrange
+        CalendarEvent series = series("FREQ=YEARLY", LocalDateTime.of(2024, 2, 29, 10, 0));
+
+        // Act
+        long[] starts = expander.occurrenceStarts(series,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2032, 12, 31, 0, 0));
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 2, 29, 10, 0),
+                LocalDateTime.of(2028, 2, 29, 10, 0),
+                LocalDateTime.of(2032, 2, 29, 10, 0)), toDateTimes(starts));
+    }
+
+    @Test
+    void dailyWithExceptionsAndUntil_ShouldSkipExcludedDates() {
+        // Arrange
+        CalendarEvent series = series("FREQ=DAILY;INTERVAL=2;UNTIL=20250109T235959", LocalDateTime.of(2025, 1, 1, 8, 0));
+        series.setRecurrenceExceptions("2025-01-05T08:00:00");
+
+        // Act
+        long[] starts = expander.occurrenceStarts(series,
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0));
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 1, 8, 0),
+                LocalDateTime.of(2025, 1, 3, 8, 0),
+                LocalDateTime.of(2025, 1, 7, 8, 0),
+                LocalDateTime.of(2025, 1, 9, 8, 0)), toDateTimes(starts));
+    }
+
+    @Test
+    void cachedExpansion_WithArbitraryWindows_ShouldMatchDirectExpansionAndUseBucketKeys() {
+        // Arrange - a persisted series, viewed through windows shifted by an hour at a time over five days
+        CalendarEvent series = series("FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=40", LocalDateTime.of(2025, 1, 6, 18, 0));
+        series.setId(7L);
+        series.setChangeSeq(3L);
+        LocalDateTime firstFrom = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        for (int hour = 0; hour < 120; hour++) {
+            LocalDateTime from = firstFrom.plusHours(hour);
+            LocalDateTime to = from.plusDays(30).plusMinutes(hour);
+
+            // Act
+            long[] cached = expander.occurrenceStarts(series, from, to);
+
+            // Assert
+            long[] direct = expander.expand(series, RecurrenceExpander.toEpochSecond(from), RecurrenceExpander.toEpochSecond(to), 1000);
+            assertArrayEquals(direct, cached);
+        }
+        assertTrue(expander.cachedExpansions() <= 3, "Cached expansions: " + expander.cachedExpansions());
+    }
+
+    @Test
+    void lastOccurrenceEnd_ShouldHonourCountAndDuration() {
+        // Arrange
+        CalendarEvent counted = series("FREQ=WEEKLY;COUNT=3", LocalDateTime.of(2025, 1, 6, 18, 0));
+        CalendarEvent endless = series("FREQ=DAILY", LocalDateTime.of(2025, 1, 6, 18, 0));
+
+        // Act & Assert
+        assertEquals(LocalDateTime.of(2025, 1, 20, 19, 30), expander.lastOccurrenceEnd(counted));
+        assertNull(expander.lastOccurrenceEnd(endless));
+    }
+
+    @Test
+    void invalidRule_ShouldThrowInvalidRequest() {
+        // Arrange
+        CalendarEvent series = series("FREQ=HOURLY", LocalDateTime.of(2025, 1, 6, 18, 0));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> expander.lastOccurrenceEnd(series));
+    }
+
+    @Test
+    void epochDay_ShouldMatchLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(17)) {
+            assertEquals(date.toEpochDay(), RecurrenceExpander.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.lengthOfMonth(), RecurrenceExpander.lengthOfMonth(date.getYear(), date.getMonthValue()));
+        }
+    }
+
+    private CalendarEvent series(String rule, LocalDateTime start) {
+        CalendarEvent event = new CalendarEvent();
+        event.setTitle("Training");
+        event.setStartTime(start);
+        event.setEndTime(start.plusMinutes(90));
+        event.setRecurrenceRule(rule);
+        return event;
+    }
+
+    private List<LocalDateTime> toDateTimes(long[] starts) {
+        return Arrays.stream(starts).mapToObj(RecurrenceExpander::fromEpochSecond).toList();
+    }
+}
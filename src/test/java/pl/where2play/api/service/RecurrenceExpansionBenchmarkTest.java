@@ -0,0 +1,75 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Expansion of 10k series over a one-year window. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("Benchmark")
+class RecurrenceExpansionBenchmarkTest {
+
+    private static final int SERIES = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final String[] RULES = {
+            "FREQ=WEEKLY;BYDAY=TU,TH",
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=150",
+            "FREQ=DAILY;INTERVAL=3",
+            "FREQ=MONTHLY;BYMONTHDAY=1,15",
+            "FREQ=YEARLY"
+    };
+
+    @Test
+    void expand10kSeriesOverOneYear() {
+        // Arrange - series started at different points during the previous two years
+        RecurrenceRule[] rules = new RecurrenceRule[SERIES];
+        long[] starts = new long[SERIES];
+        LocalDateTime origin = LocalDateTime.of(2023, 1, 2, 7, 0);
+        for (int i = 0; i < SERIES; i++) {
+            rules[i] = RecurrenceRule.parse(RULES[i % RULES.length]);
+            starts[i] = RecurrenceExpander.toEpochSecond(origin.plusDays(i % 730).plusMinutes(15L * (i % 48)));
+        }
+        long windowStart = RecurrenceExpander.toEpochSecond(LocalDateTime.of(2025, 1, 1, 0, 0));
+        long windowEnd = RecurrenceExpander.toEpochSecond(LocalDateTime.of(2025, 12, 31, 23, 59));
+        RecurrenceExpander.LongList buffer = new RecurrenceExpander.LongList();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            expandAll(rules, starts, windowStart, windowEnd, buffer);
+        }
+
+        // Act
+        long occurrences = 0;
+        long bestNanos = Long.MAX_VALUE;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long started = System.nanoTime();
+            occurrences = expandAll(rules, starts, windowStart, windowEnd, buffer);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+        }
+        long allocatedPerRound = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / MEASURED_ROUNDS;
+
+        // Assert
+        System.out.printf("Recurrence expansion: %d series, %d occurrences, best %.1f ms, %.0f bytes allocated per occurrence%n",
+                SERIES, occurrences, bestNanos / 1_000_000.0, (double) allocatedPerRound / occurrences);
+        assertTrue(occurrences > SERIES);
+    }
+
+    private long expandAll(RecurrenceRule[] rules, long[] starts, long windowStart, long windowEnd,
+                           RecurrenceExpander.LongList buffer) {
+        long total = 0;
+        long[] noExceptions = new long[0];
+        for (int i = 0; i < rules.length; i++) {
+            total += RecurrenceExpander.expand(rules[i], starts[i], noExceptions, windowStart, windowEnd, 1000, buffer).length;
+        }
+        return total;
+    }
+}
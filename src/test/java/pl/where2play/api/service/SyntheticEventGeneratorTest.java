@@ -0,0 +1,132 @@
+package pl.where2play.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.where2play.api.exception.InvalidRequestException;
+import pl.where2play.api.model.CalendarEvent;
+import pl.where2play.api.model.SyntheticDataSpec;
+import pl.where2play.api.repository.CalendarEventBatchWriter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class SyntheticEventGeneratorTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2025, 6, 1);
+
+    @Test
+    void batch_WithSameSpec_ShouldYieldSameEventsInAnyOrder() {
+        // Arrange
+        SyntheticEventGenerator.Dataset first = new SyntheticEventGenerator.Dataset(spec(5000));
+        SyntheticEventGenerator.Dataset second = new SyntheticEventGenerator.Dataset(spec(5000));
+
+        // Act - the second dataset generates its batches in reverse order
+        List<CalendarEvent> forward = LongStream.range(0, 5).boxed().flatMap(batch -> first.batch(batch).stream()).toList();
+        List<List<CalendarEvent>> backward = new ArrayList<>();
+        for (long batch = 4; batch >= 0; batch--) {
+            backward.add(second.batch(batch));
+        }
+        Collections.reverse(backward);
+
+        // Assert
+        assertEquals(forward, backward.stream().flatMap(List::stream).toList());
+        assertNotEquals(first.batch(0), first.batch(1));
+    }
+
+    @Test
+    void batch_ShouldProduceSkewedRealisticEvents() {
+        // Arrange
+        SyntheticEventGenerator.Dataset dataset = new SyntheticEventGenerator.Dataset(spec(20_000));
+
+        // Act
+        List<CalendarEvent> events = LongStream.range(0, 20).boxed().flatMap(batch -> dataset.batch(batch).stream()).toList();
+
+        // Assert
+        assertEquals(20_000, events.size());
+        for (CalendarEvent event : events) {
+            assertTrue(event.getEndTime().isAfter(event.getStartTime()));
+            assertFalse(event.getStartTime().isBefore(ANCHOR.minusDays(730).atStartOfDay()));
+            assertTrue(event.getStartTime().isBefore(ANCHOR.plusDays(180).atStartOfDay()));
+            assertEquals("synthetic-42", event.getTestRunId());
+            assertEquals("Online".equals(event.getLocation()), event.getLatitude() == null);
+        }
+        // With 500 locations a uniform mix would give each 0.2%; the most popular one gets far more
+        Map<String, Long> byLocation = count(events, CalendarEvent::getLocation);
+        byLocation.remove("Online");
+        assertTrue(Collections.max(byLocation.values()) > 20 * events.size() / 500,
+                "Most popular location: " + Collections.max(byLocation.values()));
+        Map<String, Long> byCreator = count(events, CalendarEvent::getCreatedBy);
+        assertTrue(byCreator.get("user_1") > byCreator.getOrDefault("user_100", 0L) * 10);
+        // Past events are mostly completed, future ones scheduled
+        List<CalendarEvent> past = events.stream().filter(event -> event.getEndTime().isBefore(ANCHOR.atStartOfDay())).toList();
+        assertTrue(past.size() > events.size() / 2);
+        Map<CalendarEvent.EventStatus, Long> pastStatuses = count(past, CalendarEvent::getStatus);
+        assertTrue(pastStatuses.get(CalendarEvent.EventStatus.COMPLETED) > past.size() * 0.8);
+        assertTrue(pastStatuses.get(CalendarEvent.EventStatus.CANCELLED) > 0);
+        // Evening starts are more common than early morning ones
+        Map<Integer, Long> byHour = count(events, event -> event.getStartTime().getHour());
+        assertTrue(byHour.get(18) > byHour.getOrDefault(4, 0L) * 20);
+    }
+
+    @Test
+    void generate_ShouldInsertAllBatchesOnParallelThreadsAndPublishOneBulkLoad() {
+        // Arrange
+        CalendarEventBatchWriter batchWriter = mock(CalendarEventBatchWriter.class);
+        CalendarEventDailyStatsUpdater dailyStatsUpdater = mock(CalendarEventDailyStatsUpdater.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        SyntheticEventGenerator generator = new SyntheticEventGenerator(batchWriter, dailyStatsUpdater, eventPublisher,
+                new NoOpTransactionManager());
+        SyntheticDataSpec spec = spec(2500);
+        spec.setThreads(2);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> batchSizes.add(invocation.<List<?>>getArgument(0).size())).when(batchWriter).insert(any());
+
+        // Act
+        long generated = generator.generate(spec);
+
+        // Assert
+        assertEquals(2500, generated);
+        assertEquals(List.of(500, 1000, 1000), batchSizes.stream().sorted().toList());
+        // Stats are written with each batch; listeners only hear about the whole load, once
+        verify(dailyStatsUpdater, times(3)).applyDeltas(anyMap());
+        verify(eventPublisher).publishEvent(new CalendarEventsBulkLoadedEvent(2500));
+        verify(eventPublisher, never()).publishEvent(any(CalendarEventsChangedEvent.class));
+    }
+
+    @Test
+    void generate_WithInvalidSpec_ShouldThrowInvalidRequestException() {
+        // Arrange
+        SyntheticEventGenerator generator = new SyntheticEventGenerator(mock(CalendarEventBatchWriter.class),
+                mock(CalendarEventDailyStatsUpdater.class), mock(ApplicationEventPublisher.class), new NoOpTransactionManager());
+        SyntheticDataSpec spec = spec(0);
+        spec.setThreads(SyntheticEventGenerator.MAX_THREADS + 1);
+
+        // Act
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> generator.generate(spec));
+
+        // Assert
+        assertEquals(List.of("count", "threads"), new ArrayList<>(exception.getErrors().keySet()));
+    }
+
+    private static SyntheticDataSpec spec(long count) {
+        SyntheticDataSpec spec = new SyntheticDataSpec();
+        spec.setCount(count);
+        spec.setAnchor(ANCHOR);
+        return spec;
+    }
+
+    private static <K> Map<K, Long> count(List<CalendarEvent> events, Function<CalendarEvent, K> key) {
+        return events.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+    }
+}
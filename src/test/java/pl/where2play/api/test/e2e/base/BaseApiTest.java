@@ -22,11 +22,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import pl.where2play.api.config.E2ETestRunTagging;
 import pl.where2play.api.repository.CalendarEventRepository;
 import pl.where2play.api.test.e2e.config.ApiTestConfig;
 import pl.where2play.api.test.e2e.config.TestConfig;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -62,6 +66,8 @@ public abstract class BaseApiTest {
     // Default values
     private static final int DEFAULT_PORT = 8080;
     private static final int DEFAULT_TIMEOUT_MILLIS = 1000;
+    private static final String CALENDAR_EVENTS_TABLE = "calendar_events";
+    private static final String BULK_DELETE_PATH = "/api/e2e-support/calendar/delete";
 
     @Autowired
     protected ApiTestConfig apiTestConfig;
@@ -74,6 +80,12 @@ public abstract class BaseApiTest {
 
     private RequestSpecification requestSpec;
 
+    private final EndpointLatencies latencies = new EndpointLatencies();
+
+    // Sent with every request, so that the server tags the calendar events created by this class's tests with it
+    // (the event's "testRunId") and teardown deletes them in one request even if their IDs were not tracked
+    private final String testRunId = "e2e-" + UUID.randomUUID();
+
     /**
      * Set up the test environment.
      * Configures RestAssured with the appropriate base URL and timeout settings.
@@ -103,6 +115,7 @@ public abstract class BaseApiTest {
                 .setBaseUri(urlComponents.getBaseUri())
                 .setPort(urlComponents.getPort())
                 .setContentType(ContentType.JSON)
+                .addHeader(E2ETestRunTagging.TEST_RUN_HEADER, testRunId)
                 .setConfig(config)
                 .build();
     }
@@ -120,6 +133,12 @@ public abstract class BaseApiTest {
         log.info("Cleaning up entities after all tests in class {}", getClass().getSimpleName());
         log.info("Cleaning up entityIdsByRepository before: {}", entityIdsByRepository);
 
+        // Calendar events go in one request; the per-ID deletion below is the fallback where the endpoint is not available
+        List<Object> eventIds = entityIdsByRepository.getOrDefault(CalendarEventRepository.class, List.of());
+        if (deleteEventsInBulk(eventIds)) {
+            entityIdsByRepository.remove(CalendarEventRepository.class);
+        }
+
         // Remove all tracked entities after all tests in the class
         entityIdsByRepository.forEach((repositoryClass, ids) -> {
             if (!ids.isEmpty()) {
@@ -152,6 +171,88 @@ public abstract class BaseApiTest {
         entityIdsByRepository.clear();
     }
 
+    /**
+     * Write the latencies of the requests made by this class to {@code e2e.latency.report-dir}, compare them with the
+     * same file in {@code e2e.latency.baseline-dir} if there is one, and fail if a {@link LatencyBudget} was exceeded.
+     * A p95 regression beyond {@code e2e.latency.regression-tolerance} over the baseline is logged, and fails the run
+     * too with {@code e2e.latency.fail-on-regression=true}.
+     */
+    @AfterAll
+    void checkLatencyBudgets() throws IOException {
+        if (latencies.isEmpty()) {
+            return;
+        }
+        String fileName = getClass().getSimpleName() + ".json";
+        Path report = Path.of(environment.getProperty("e2e.latency.report-dir", "target/e2e-latency"), fileName);
+        latencies.write(report);
+        latencies.summarize().forEach((endpoint, summary) -> log.info("{}: {}", endpoint, summary));
+        log.info("Latency report: {}", report);
+
+        List<String> failures = new ArrayList<>(latencies.checkBudgets(latencyBudgets()));
+        Path baseline = Path.of(environment.getProperty("e2e.latency.baseline-dir", "src/test/resources/e2e-latency"), fileName);
+        if (Files.exists(baseline)) {
+            double tolerance = environment.getProperty("e2e.latency.regression-tolerance", Double.class, 0.5);
+            List<String> regressions = latencies.compareWith(EndpointLatencies.read(baseline), tolerance);
+            regressions.forEach(regression -> log.warn("Latency regression against {}: {}", baseline, regression));
+            if (environment.getProperty("e2e.latency.fail-on-regression", Boolean.class, false)) {
+                failures.addAll(regressions);
+            }
+        }
+        if (!failures.isEmpty()) {
+            Assertions.fail("Latency budgets exceeded:\n" + String.join("\n", failures));
+        }
+    }
+
+    /**
+     * The budgets declared on this class and its superclasses; a subclass's budget replaces its superclass's budget
+     * for the same endpoint and percentile.
+     */
+    private Collection<LatencyBudget> latencyBudgets() {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> type = getClass(); type != null; type = type.getSuperclass()) {
+            hierarchy.push(type);
+        }
+        Map<String, LatencyBudget> budgets = new LinkedHashMap<>();
+        hierarchy.forEach(type -> {
+            for (LatencyBudget budget : type.getDeclaredAnnotationsByType(LatencyBudget.class)) {
+                budgets.put(budget.value() + " p" + budget.percentile(), budget);
+            }
+        });
+        return budgets.values();
+    }
+
+    protected String getTestRunId() {
+        return testRunId;
+    }
+
+    /**
+     * Delete the given calendar events and all events tagged with this class's test run ID in one request to the
+     * E2E support endpoint, which runs a single set-based delete.
+     *
+     * @param ids IDs of the events to delete (may be empty)
+     * @return true if the events were deleted; false if the endpoint is not available in this environment
+     */
+    protected boolean deleteEventsInBulk(Collection<?> ids) {
+        if (requestSpec == null) {
+            // setUp was aborted, nothing was sent
+            return false;
+        }
+        String body = "{\"ids\": [" + ids.stream().map(String::valueOf).collect(Collectors.joining(", ")) + "], "
+                + "\"testRunId\": \"" + testRunId + "\"}";
+        try {
+            // Sent directly, so that cleanup does not count towards the latency budgets
+            Response response = RestAssured.given(requestSpec).body(body).post(BULK_DELETE_PATH);
+            if (response.statusCode() == HttpStatus.OK.value()) {
+                log.info("Deleted {} calendar events of test run {}", response.jsonPath().getInt("deleted"), testRunId);
+                return true;
+            }
+            log.warn("Bulk delete of calendar events returned {}: {}", response.statusCode(), response.asString());
+        } catch (Exception e) {
+            log.warn("Bulk delete of calendar events failed: {}", e.getMessage());
+        }
+        return false;
+    }
+
     public <T, ID> void removeEntityById(JpaRepository<T, ID> repository, ID id) {
         try {
             repository.deleteById(id);
@@ -253,6 +354,8 @@ public abstract class BaseApiTest {
 
     /**
      * Delete records from a database table by their IDs and verify they were deleted.
+     * Calendar events are deleted through the E2E support endpoint where it is available, so that delta sync
+     * learns about the deletions; other tables, and environments without the endpoint, are cleaned up over JDBC.
      *
      * @param tableName        The name of the table to delete from
      * @param ids              List of IDs to delete
@@ -266,6 +369,11 @@ public abstract class BaseApiTest {
 
         log.info("Deleting {} records from table {}", ids.size(), tableName);
 
+        if (CALENDAR_EVENTS_TABLE.equals(tableName) && deleteEventsInBulk(ids)) {
+            verifyEntitiesDeleted(ids, verificationPath);
+            return;
+        }
+
         try {
             // Execute the delete SQL
             int rowsAffected = executeDeleteSql(tableName, ids);
@@ -435,14 +543,7 @@ public abstract class BaseApiTest {
             }
 
             // Execute request based on HTTP method
-            Response response = switch (method.toUpperCase()) {
-                case "GET" -> request.get(path);
-                case "POST" -> request.post(path);
-                case "PUT" -> request.put(path);
-                case "DELETE" -> request.delete(path);
-                case "PATCH" -> request.patch(path);
-                default -> throw new IllegalArgumentException("Unsupported HTTP method: " + method);
-            };
+            Response response = send(method, path, request);
 
             // Validate the response status
             response.then().statusCode(expectedStatus);
@@ -479,7 +580,15 @@ public abstract class BaseApiTest {
             request.contentType(MediaType.MULTIPART_FORM_DATA_VALUE);
         }
 
-        return switch (method.toUpperCase()) {
+        return send(method, path, request);
+    }
+
+    /**
+     * Execute the request and record its latency under its endpoint.
+     */
+    private Response send(String method, String path, RequestSpecification request) {
+        long start = System.nanoTime();
+        Response response = switch (method.toUpperCase()) {
             case "GET" -> request.get(path);
             case "POST" -> request.post(path);
             case "PUT" -> request.put(path);
@@ -487,6 +596,8 @@ public abstract class BaseApiTest {
             case "PATCH" -> request.patch(path);
             default -> throw new IllegalArgumentException("Unsupported HTTP method: " + method);
         };
+        latencies.record(method, path, System.nanoTime() - start);
+        return response;
     }
 
     protected void validateResponseBody(String expectedJson) {
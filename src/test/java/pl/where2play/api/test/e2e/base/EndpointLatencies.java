@@ -0,0 +1,109 @@
+package pl.where2play.api.test.e2e.base;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Latencies of the requests an E2E test class makes, per endpoint ({@code GET /api/events/{id}}; numeric path
+ * segments count as {@code {id}} and the query string is ignored). They are checked against the class's
+ * {@link LatencyBudget}s and written to a JSON file, which later runs can be compared against as a baseline.
+ */
+public class EndpointLatencies {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    // Recorded in microseconds, up to a minute, to three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+
+    public record Summary(long count, double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+    }
+
+    public synchronized void record(String method, String path, long nanos) {
+        histograms.computeIfAbsent(endpoint(method, path), e -> new Histogram(HIGHEST_TRACKABLE_MICROS, 3))
+                .recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    public synchronized boolean isEmpty() {
+        return histograms.isEmpty();
+    }
+
+    static String endpoint(String method, String path) {
+        int query = path.indexOf('?');
+        String withoutQuery = query < 0 ? path : path.substring(0, query);
+        return method.toUpperCase() + " " + NUMERIC_SEGMENT.matcher(withoutQuery).replaceAll("/{id}");
+    }
+
+    public synchronized Map<String, Summary> summarize() {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        histograms.forEach((endpoint, histogram) -> summaries.put(endpoint, new Summary(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()))));
+        return summaries;
+    }
+
+    /**
+     * @return a message for every budget exceeded; endpoints without requests are not checked
+     */
+    public synchronized List<String> checkBudgets(Iterable<LatencyBudget> budgets) {
+        List<String> violations = new ArrayList<>();
+        for (LatencyBudget budget : budgets) {
+            Histogram histogram = histograms.get(budget.value());
+            if (histogram == null) {
+                continue;
+            }
+            double actual = millis(histogram.getValueAtPercentile(budget.percentile()));
+            if (actual > budget.maxMillis()) {
+                String percentile = BigDecimal.valueOf(budget.percentile()).stripTrailingZeros().toPlainString();
+                violations.add(String.format("%s p%s = %.1f ms exceeds its budget of %d ms (%d requests)",
+                        budget.value(), percentile, actual, budget.maxMillis(), histogram.getTotalCount()));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * @param tolerance allowed relative increase of the p95 latency, e.g. 0.5 for 50%
+     * @return a message for every endpoint whose p95 latency rose more than the tolerance over the baseline
+     */
+    public List<String> compareWith(Map<String, Summary> baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        summarize().forEach((endpoint, summary) -> {
+            Summary before = baseline.get(endpoint);
+            if (before != null && summary.p95Millis() > before.p95Millis() * (1 + tolerance)) {
+                regressions.add(String.format("%s p95 = %.1f ms, baseline %.1f ms", endpoint, summary.p95Millis(),
+                        before.p95Millis()));
+            }
+        });
+        return regressions;
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writeValue(file.toFile(), summarize());
+    }
+
+    public static Map<String, Summary> read(Path file) throws IOException {
+        return OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<>() {
+        });
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
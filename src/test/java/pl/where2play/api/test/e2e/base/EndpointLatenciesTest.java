@@ -0,0 +1,74 @@
+package pl.where2play.api.test.e2e.base;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointLatenciesTest {
+
+    @LatencyBudget(value = "GET /api/events/{id}", percentile = 95, maxMillis = 50)
+    @LatencyBudget(value = "POST /api/events", maxMillis = 200)
+    @LatencyBudget(value = "DELETE /api/events/{id}", maxMillis = 1)
+    private static class Budgets {
+    }
+
+    @Test
+    void endpoint_ShouldReplaceNumericSegmentsAndDropQuery() {
+        assertEquals("GET /api/events/{id}", EndpointLatencies.endpoint("get", "/api/events/42"));
+        assertEquals("GET /api/events/{id}", EndpointLatencies.endpoint("GET", "/api/events/{id}"));
+        assertEquals("GET /api/events/search", EndpointLatencies.endpoint("GET", "/api/events/search?title=a"));
+        assertEquals("PUT /api/events/{id}/status", EndpointLatencies.endpoint("PUT", "/api/events/7/status"));
+        assertEquals("GET /api/events/v2", EndpointLatencies.endpoint("GET", "/api/events/v2"));
+    }
+
+    @Test
+    void checkBudgets_ShouldReportOnlyExceededPercentiles() {
+        // Arrange - 19 fast lookups and one slow one: p95 is fast, the max is not
+        EndpointLatencies latencies = new EndpointLatencies();
+        for (int i = 0; i < 19; i++) {
+            latencies.record("GET", "/api/events/" + i, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        latencies.record("GET", "/api/events/19", TimeUnit.MILLISECONDS.toNanos(500));
+        latencies.record("POST", "/api/events", TimeUnit.MILLISECONDS.toNanos(300));
+
+        // Act
+        List<String> violations = latencies.checkBudgets(List.of(Budgets.class.getAnnotationsByType(LatencyBudget.class)));
+
+        // Assert - DELETE had no requests, so its budget is not checked
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).startsWith("POST /api/events p95 = 300.0 ms exceeds its budget of 200 ms"),
+                violations.get(0));
+        EndpointLatencies.Summary lookups = latencies.summarize().get("GET /api/events/{id}");
+        assertEquals(20, lookups.count());
+        assertEquals(10.0, lookups.p95Millis(), 0.1);
+        assertEquals(500.0, lookups.maxMillis(), 1.0);
+    }
+
+    @Test
+    void compareWith_ShouldReportP95RegressionsBeyondTolerance(@TempDir Path directory) throws Exception {
+        // Arrange
+        EndpointLatencies baseline = new EndpointLatencies();
+        baseline.record("GET", "/api/events/1", TimeUnit.MILLISECONDS.toNanos(20));
+        baseline.record("POST", "/api/events", TimeUnit.MILLISECONDS.toNanos(100));
+        Path file = directory.resolve("baseline.json");
+        baseline.write(file);
+        EndpointLatencies current = new EndpointLatencies();
+        current.record("GET", "/api/events/2", TimeUnit.MILLISECONDS.toNanos(40));
+        current.record("POST", "/api/events", TimeUnit.MILLISECONDS.toNanos(120));
+        current.record("GET", "/api/events/search", TimeUnit.MILLISECONDS.toNanos(900));
+
+        // Act
+        Map<String, EndpointLatencies.Summary> stored = EndpointLatencies.read(file);
+        List<String> regressions = current.compareWith(stored, 0.5);
+
+        // Assert - only the lookup doubled; the search has no baseline
+        assertEquals(baseline.summarize(), stored);
+        assertEquals(List.of("GET /api/events/{id} p95 = 40.0 ms, baseline 20.0 ms"), regressions);
+    }
+}
@@ -0,0 +1,34 @@
+package pl.where2play.api.test.e2e.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Latency budget of an endpoint in an E2E test class, e.g.
+ * {@code @LatencyBudget(value = "GET /api/events/{id}", percentile = 95, maxMillis = 50)}. Checked after all tests of
+ * the class against the requests they made through {@link BaseApiTest}; a subclass may redeclare the budget of an
+ * endpoint and percentile to change it.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(LatencyBudget.List.class)
+public @interface LatencyBudget {
+
+    /**
+     * Method and path, with numeric path segments written as {@code {id}}.
+     */
+    String value();
+
+    double percentile() default 95;
+
+    long maxMillis();
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface List {
+        LatencyBudget[] value();
+    }
+}
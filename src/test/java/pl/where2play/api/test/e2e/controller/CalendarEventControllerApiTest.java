@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.http.HttpStatus;
 import pl.where2play.api.repository.CalendarEventRepository;
 import pl.where2play.api.test.e2e.base.BaseApiTest;
+import pl.where2play.api.test.e2e.base.LatencyBudget;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -17,6 +18,8 @@ import java.util.stream.Stream;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@LatencyBudget(value = "GET /api/events/{id}", percentile = 95, maxMillis = 50)
+@LatencyBudget(value = "POST /api/events", percentile = 95, maxMillis = 200)
 //@ActiveProfiles({"e2e", "dev"}) // Use dev profile by default, can be overridden with -Dspring.profiles.active=e2e,prod
 class CalendarEventControllerApiTest extends BaseApiTest {
 
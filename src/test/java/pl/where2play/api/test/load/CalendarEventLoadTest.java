@@ -0,0 +1,202 @@
+package pl.where2play.api.test.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import pl.where2play.api.W2pApiApplication;
+import pl.where2play.api.config.E2ETestRunTagging;
+import pl.where2play.api.test.e2e.config.ApiTestConfig;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pl.where2play.api.test.load.LoadProfile.constant;
+import static pl.where2play.api.test.load.LoadProfile.ramp;
+
+/**
+ * Open-model load on the calendar event API: a ramp up to {@code load.rate} requests per second, then that rate for
+ * {@code load.duration}, over a mix of lookups by ID, searches, range reads and creates. Reports are written to
+ * {@code load.report-dir}. Excluded from the default build; run with {@code mvn test -Pload}.
+ * <p>
+ * By default the suite starts the application itself on a free port (dev profile, H2), so nothing else has to run.
+ * With {@code -Dload.target=environment} it loads the base URL {@link ApiTestConfig} resolves for the active profile
+ * instead, e.g. {@code mvn test -Pload -Dload.target=environment -Dspring.profiles.active=qa}. Against an environment
+ * the run is read-only unless {@code load.write-weight} is set.
+ * <p>
+ * Every event the suite creates is tagged with a test run ID and deleted afterwards through the E2E support cleanup
+ * endpoint. Where that endpoint does not exist, only the seeded events are deleted, by ID.
+ */
+@Slf4j
+@Tag("Load")
+@SpringJUnitConfig(ApiTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CalendarEventLoadTest {
+
+    private static final String LOAD_CREATOR = "load_test";
+    private static final int SEED_EVENTS = 20;
+    private static final int LOCATIONS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Only used by the generator's scheduler thread, so the paths are the same on every run
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final List<Long> eventIds = new ArrayList<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final String testRunId = "load-" + UUID.randomUUID();
+
+    @Autowired
+    private ApiTestConfig apiTestConfig;
+
+    @Value("${load.target:local}")
+    private String target;
+
+    @Value("${load.rate:20}")
+    private double rate;
+
+    @Value("${load.ramp-up:PT5S}")
+    private String rampUp;
+
+    @Value("${load.duration:PT15S}")
+    private String duration;
+
+    // Weight of creates in the mix; 0 keeps the run read-only. Defaults to 1 locally and 0 against an environment
+    @Value("${load.write-weight:#{null}}")
+    private Integer writeWeight;
+
+    @Value("${load.request-timeout:PT10S}")
+    private String requestTimeout;
+
+    @Value("${load.report-dir:target/load-reports}")
+    private String reportDir;
+
+    private ConfigurableApplicationContext localInstance;
+    private URI baseUri;
+
+    @BeforeAll
+    void startTarget() throws Exception {
+        if ("local".equals(target)) {
+            localInstance = new SpringApplicationBuilder(W2pApiApplication.class).run("--server.port=0");
+            baseUri = URI.create("http://localhost:" + localInstance.getEnvironment().getProperty("local.server.port") + "/");
+        } else {
+            baseUri = URI.create(apiTestConfig.getBaseUrl() + "/");
+        }
+        if (writeWeight == null) {
+            writeWeight = localInstance != null ? 1 : 0;
+        }
+        seedEvents();
+    }
+
+    @AfterAll
+    void stopTarget() throws Exception {
+        try {
+            deleteLoadEvents();
+        } finally {
+            if (localInstance != null) {
+                localInstance.close();
+            }
+        }
+    }
+
+    @Test
+    void rampUpThenConstantArrivalRate() throws Exception {
+        // Arrange
+        LoadProfile profile = LoadProfile.of(
+                ramp("ramp-up", 1, rate, Duration.parse(rampUp)),
+                constant("steady", rate, Duration.parse(duration)));
+        LoadGenerator generator = new LoadGenerator(Duration.parse(requestTimeout), 42);
+
+        // Act
+        LoadResult result = generator.run("calendar-events", baseUri, profile, mix());
+        List<Path> reports = LoadReportWriter.write(result, Path.of(reportDir));
+
+        // Assert
+        result.requests().forEach(request -> log.info("{}: {} requests, statuses {}, response time {} ms",
+                request.name(), request.count(), request.statuses(), request.responseTime().percentilesMillis()));
+        log.info("Load reports: {}", reports);
+        assertEquals(result.scheduled(), result.completed());
+        assertEquals(0, result.errors());
+        for (Path report : reports) {
+            assertTrue(Files.size(report) > 0);
+        }
+    }
+
+    private List<LoadRequest> mix() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<LoadRequest> mix = new ArrayList<>(List.of(
+                LoadRequest.get("get-event-by-id", 5,
+                        () -> "api/events/" + eventIds.get(random.nextInt(eventIds.size()))),
+                LoadRequest.get("get-events-between", 3,
+                        () -> "api/events/between?start=" + now + "&end=" + now.plusDays(7)),
+                LoadRequest.get("search-events-by-title", 2,
+                        () -> "api/events/search?title=load%20" + random.nextInt(SEED_EVENTS)),
+                LoadRequest.get("get-events-by-location", 1,
+                        () -> "api/events/location?location=Load%20Hall%20" + random.nextInt(LOCATIONS))));
+        if (writeWeight > 0) {
+            mix.add(LoadRequest.postJson("create-event", writeWeight, "api/events",
+                    () -> eventJson(random.nextInt(SEED_EVENTS), now.plusHours(random.nextInt(24 * 30))))
+                    .withHeader(E2ETestRunTagging.TEST_RUN_HEADER, testRunId));
+        }
+        return mix;
+    }
+
+    private void seedEvents() throws Exception {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        for (int i = 0; i < SEED_EVENTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("api/events"))
+                    .header("Content-Type", "application/json")
+                    .header(E2ETestRunTagging.TEST_RUN_HEADER, testRunId)
+                    .POST(HttpRequest.BodyPublishers.ofString(eventJson(i, start.plusHours(i * 6L))))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, response.statusCode(), response.body());
+            eventIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+    }
+
+    private void deleteLoadEvents() throws Exception {
+        HttpRequest cleanup = HttpRequest.newBuilder(baseUri.resolve("api/e2e-support/calendar/delete"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"testRunId\":\"" + testRunId + "\"}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(cleanup, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            log.info("Deleted load test events of run {}: {}", testRunId, response.body());
+            return;
+        }
+        // No E2E support in this environment, so events were not tagged either; delete the seeded ones by ID
+        for (Long id : eventIds) {
+            HttpRequest delete = HttpRequest.newBuilder(baseUri.resolve("api/events/" + id)).DELETE().build();
+            httpClient.send(delete, HttpResponse.BodyHandlers.discarding());
+        }
+        if (writeWeight > 0) {
+            log.warn("Events created during the load test (createdBy {}) could not be deleted, cleanup returned {}",
+                    LOAD_CREATOR, response.statusCode());
+        }
+    }
+
+    private static String eventJson(int number, LocalDateTime start) {
+        return "{\"title\":\"Load " + number + "\",\"location\":\"Load Hall " + (number % LOCATIONS) + "\","
+                + "\"startTime\":\"" + start + "\",\"endTime\":\"" + start.plusHours(1) + "\","
+                + "\"createdBy\":\"" + LOAD_CREATOR + "\"}";
+    }
+}
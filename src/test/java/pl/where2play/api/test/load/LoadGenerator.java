@@ -0,0 +1,138 @@
+package pl.where2play.api.test.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives an open-model workload ({@link LoadProfile}) against an API: one scheduler thread sends each request at its
+ * arrival time without waiting for earlier responses, and the responses are recorded in HdrHistograms as they come
+ * in. Requests are picked from a weighted mix with a fixed seed, so runs with the same settings send the same
+ * sequence.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    // Latencies are recorded in microseconds, up to ten minutes, to three significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final long seed;
+
+    public LoadGenerator(Duration requestTimeout, long seed) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the workload and waits for the outstanding responses, at most the request timeout after the last arrival.
+     */
+    public LoadResult run(String scenario, URI baseUri, LoadProfile profile, List<LoadRequest> mix)
+            throws InterruptedException {
+        long[] arrivals = profile.arrivalOffsets();
+        int totalWeight = mix.stream().mapToInt(LoadRequest::weight).sum();
+        Map<String, RequestStats> stats = new LinkedHashMap<>();
+        mix.forEach(request -> stats.put(request.name(), new RequestStats()));
+        Histogram sendLag = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        SplittableRandom random = new SplittableRandom(seed);
+        CountDownLatch completed = new CountDownLatch(arrivals.length);
+
+        log.info("Load scenario '{}': {} requests over {} against {}", scenario, arrivals.length,
+                profile.totalDuration(), baseUri);
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        for (long arrival : arrivals) {
+            long due = start + arrival;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRequest request = pick(mix, random.nextInt(totalWeight));
+            RequestStats requestStats = stats.get(request.name());
+            HttpRequest httpRequest = request.factory().apply(baseUri).timeout(requestTimeout).build();
+            long sent = System.nanoTime();
+            sendLag.recordValue(micros(sent - due));
+            httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                requestStats.record(due, sent, System.nanoTime(), response == null ? 0 : response.statusCode());
+                completed.countDown();
+            });
+        }
+        if (!completed.await(requestTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            log.warn("Load scenario '{}': {} requests still outstanding", scenario, completed.getCount());
+        }
+        double durationSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<LoadResult.RequestSummary> summaries = new ArrayList<>();
+        Map<String, Histogram> responseTimes = new LinkedHashMap<>();
+        stats.forEach((name, requestStats) -> {
+            summaries.add(requestStats.summarize(name, durationSeconds));
+            responseTimes.put(name, requestStats.responseTime);
+        });
+        return new LoadResult(scenario, baseUri.toString(), startedAt, durationSeconds, arrivals.length,
+                arrivals.length - completed.getCount(), LoadResult.Latency.of(sendLag), summaries, responseTimes);
+    }
+
+    private static LoadRequest pick(List<LoadRequest> mix, int point) {
+        for (LoadRequest request : mix) {
+            point -= request.weight();
+            if (point < 0) {
+                return request;
+            }
+        }
+        throw new IllegalStateException("Empty load mix");
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static final class RequestStats {
+
+        private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long due, long sent, long completed, int status) {
+            if (status == 0) {
+                errors.increment();
+                return;
+            }
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            responseTime.recordValue(micros(completed - due));
+            serviceTime.recordValue(micros(completed - sent));
+        }
+
+        LoadResult.RequestSummary summarize(String name, double durationSeconds) {
+            Map<String, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+            long count = responseTime.getTotalCount();
+            return new LoadResult.RequestSummary(name, count, Math.round(count / durationSeconds * 10) / 10.0,
+                    statusCounts, errors.sum(), LoadResult.Latency.of(responseTime), LoadResult.Latency.of(serviceTime));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pl.where2play.api.test.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open-model workload: phases of a constant or linearly changing arrival rate (requests per second). Requests are
+ * sent at the arrival times whether or not earlier requests have completed, as independent users would send them,
+ * so a slow server faces a growing backlog instead of a slower client.
+ */
+public record LoadProfile(List<Phase> phases) {
+
+    public record Phase(String name, Duration duration, double fromRate, double toRate) {
+    }
+
+    public static LoadProfile of(Phase... phases) {
+        return new LoadProfile(List.of(phases));
+    }
+
+    public static Phase constant(String name, double rate, Duration duration) {
+        return new Phase(name, duration, rate, rate);
+    }
+
+    public static Phase ramp(String name, double fromRate, double toRate, Duration duration) {
+        return new Phase(name, duration, fromRate, toRate);
+    }
+
+    public Duration totalDuration() {
+        return phases.stream().map(Phase::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * Arrival times in nanoseconds from the start. The n-th request arrives when the integral of the arrival rate
+     * reaches n, so the rate is followed exactly, including across phase boundaries.
+     */
+    public long[] arrivalOffsets() {
+        List<Long> offsets = new ArrayList<>();
+        double arrivalsBefore = 0;
+        long phaseStart = 0;
+        for (Phase phase : phases) {
+            double seconds = phase.duration().toNanos() / 1e9;
+            double a = phase.fromRate();
+            double b = (phase.toRate() - phase.fromRate()) / seconds;
+            double arrivals = a * seconds + b * seconds * seconds / 2;
+            for (long n = (long) Math.floor(arrivalsBefore) + 1; n - arrivalsBefore <= arrivals; n++) {
+                double k = n - arrivalsBefore;
+                // Solves a*t + b*t^2/2 = k
+                double t = Math.abs(b) < 1e-9 ? k / a : (-a + Math.sqrt(a * a + 2 * b * k)) / b;
+                offsets.add(phaseStart + (long) (t * 1e9));
+            }
+            arrivalsBefore += arrivals;
+            phaseStart += phase.duration().toNanos();
+        }
+        return offsets.stream().mapToLong(Long::longValue).toArray();
+    }
+}
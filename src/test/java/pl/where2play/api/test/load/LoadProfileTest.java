@@ -0,0 +1,47 @@
+package pl.where2play.api.test.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadProfileTest {
+
+    @Test
+    void arrivalOffsets_AtConstantRate_ShouldBeEvenlySpaced() {
+        // Arrange
+        LoadProfile profile = LoadProfile.of(LoadProfile.constant("steady", 10, Duration.ofSeconds(2)));
+
+        // Act
+        long[] offsets = profile.arrivalOffsets();
+
+        // Assert
+        assertEquals(20, offsets.length);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), offsets[0], 1000);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2000), offsets[19], 1000);
+    }
+
+    @Test
+    void arrivalOffsets_WithRampThenConstantRate_ShouldFollowRate() {
+        // Arrange - ramp 0 -> 20 per second over 2 s (20 requests), then 20 per second for 1 s
+        LoadProfile profile = LoadProfile.of(
+                LoadProfile.ramp("ramp-up", 0, 20, Duration.ofSeconds(2)),
+                LoadProfile.constant("steady", 20, Duration.ofSeconds(1)));
+
+        // Act
+        long[] offsets = profile.arrivalOffsets();
+
+        // Assert
+        assertEquals(40, offsets.length);
+        for (int i = 1; i < offsets.length; i++) {
+            assertTrue(offsets[i] > offsets[i - 1]);
+        }
+        // Half of the ramp's requests arrive in its last 0.6 s (integral of the rate reaches 10 at t = sqrt(2) s)
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1414), offsets[9], TimeUnit.MILLISECONDS.toNanos(1));
+        // Gaps shrink along the ramp, then stay at 50 ms
+        assertTrue(offsets[1] - offsets[0] > offsets[19] - offsets[18]);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), offsets[39] - offsets[38], 1000);
+    }
+}
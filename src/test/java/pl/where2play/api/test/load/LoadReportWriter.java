@@ -0,0 +1,99 @@
+package pl.where2play.api.test.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a load result as {@code <scenario>.json} and {@code <scenario>.html}. The HTML report also holds the full
+ * response time distribution of every request kind in HdrHistogram's percentile format, which its plotter reads.
+ */
+public final class LoadReportWriter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private LoadReportWriter() {
+    }
+
+    public static List<Path> write(LoadResult result, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path json = directory.resolve(result.scenario() + ".json");
+        OBJECT_MAPPER.writeValue(json.toFile(), result);
+        Path html = directory.resolve(result.scenario() + ".html");
+        Files.writeString(html, html(result));
+        return List.of(json, html);
+    }
+
+    private static String html(LoadResult result) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Load report: ")
+                .append(escape(result.scenario())).append("</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}")
+                .append("</style></head><body>\n");
+        html.append("<h1>").append(escape(result.scenario())).append("</h1>\n<p>")
+                .append(escape(result.baseUrl())).append(", started ").append(result.startedAt())
+                .append(", ").append(String.format("%.1f", result.durationSeconds())).append(" s, ")
+                .append(result.completed()).append(" of ").append(result.scheduled()).append(" requests completed, ")
+                .append(result.errors()).append(" errors. Send lag p99: ")
+                .append(result.sendLag().percentilesMillis().get("p99")).append(" ms</p>\n");
+
+        html.append("<h2>Response time (from due time, ms)</h2>\n");
+        latencyTable(html, result, true);
+        html.append("<h2>Service time (from send time, ms)</h2>\n");
+        latencyTable(html, result, false);
+
+        html.append("<h2>Status codes</h2>\n<table><tr><th>Request</th><th>Count</th><th>Per second</th><th>Statuses</th><th>Errors</th></tr>\n");
+        for (LoadResult.RequestSummary request : result.requests()) {
+            html.append("<tr><td>").append(escape(request.name())).append("</td><td>").append(request.count())
+                    .append("</td><td>").append(request.requestsPerSecond()).append("</td><td>")
+                    .append(escape(request.statuses().toString())).append("</td><td>").append(request.errors())
+                    .append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+
+        html.append("<h2>Response time distributions</h2>\n");
+        for (Map.Entry<String, Histogram> entry : result.responseTimeHistograms().entrySet()) {
+            html.append("<h3>").append(escape(entry.getKey())).append("</h3>\n<pre>")
+                    .append(escape(distribution(entry.getValue()))).append("</pre>\n");
+        }
+        return html.append("</body></html>\n").toString();
+    }
+
+    private static void latencyTable(StringBuilder html, LoadResult result, boolean responseTime) {
+        html.append("<table><tr><th>Request</th><th>Count</th><th>Mean</th>");
+        result.sendLag().percentilesMillis().keySet().forEach(percentile -> html.append("<th>").append(percentile).append("</th>"));
+        html.append("<th>Max</th></tr>\n");
+        for (LoadResult.RequestSummary request : result.requests()) {
+            LoadResult.Latency latency = responseTime ? request.responseTime() : request.serviceTime();
+            html.append("<tr><td>").append(escape(request.name())).append("</td><td>").append(latency.count())
+                    .append("</td><td>").append(latency.meanMillis()).append("</td>");
+            latency.percentilesMillis().values().forEach(value -> html.append("<td>").append(value).append("</td>"));
+            html.append("<td>").append(latency.maxMillis()).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private static String distribution(Histogram histogram) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Recorded in microseconds, printed in milliseconds
+        histogram.outputPercentileDistribution(new PrintStream(out, true, StandardCharsets.UTF_8), 1000.0);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,30 @@
+package pl.where2play.api.test.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One kind of request in a load mix: the name it is reported under, its weight relative to the other kinds and a
+ * factory building a new request against the base URI.
+ */
+public record LoadRequest(String name, int weight, Function<URI, HttpRequest.Builder> factory) {
+
+    public static LoadRequest get(String name, int weight, Supplier<String> pathAndQuery) {
+        return new LoadRequest(name, weight, baseUri -> HttpRequest.newBuilder(baseUri.resolve(pathAndQuery.get())).GET());
+    }
+
+    public static LoadRequest postJson(String name, int weight, String path, Supplier<String> body) {
+        return new LoadRequest(name, weight, baseUri -> HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.get())));
+    }
+
+    /**
+     * Returns this kind of request with the given header added to every request.
+     */
+    public LoadRequest withHeader(String header, String value) {
+        return new LoadRequest(name, weight, baseUri -> factory.apply(baseUri).header(header, value));
+    }
+}
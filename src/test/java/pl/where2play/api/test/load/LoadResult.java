@@ -0,0 +1,53 @@
+package pl.where2play.api.test.load;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.HdrHistogram.Histogram;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a load run. Response times are measured from the time a request was due to be sent, so time a request
+ * spent waiting because the generator or the server fell behind is counted (coordinated omission correction);
+ * service times are measured from the time it was actually sent.
+ */
+public record LoadResult(String scenario, String baseUrl, Instant startedAt, double durationSeconds, long scheduled,
+                         long completed, Latency sendLag, List<RequestSummary> requests,
+                         @JsonIgnore Map<String, Histogram> responseTimeHistograms) {
+
+    static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99};
+
+    public record RequestSummary(String name, long count, double requestsPerSecond, Map<String, Long> statuses,
+                                 long errors, Latency responseTime, Latency serviceTime) {
+    }
+
+    public record Latency(long count, double meanMillis, Map<String, Double> percentilesMillis, double maxMillis) {
+
+        /**
+         * Summarizes a histogram of microseconds.
+         */
+        static Latency of(Histogram histogram) {
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                percentiles.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                        millis(histogram.getValueAtPercentile(percentile)));
+            }
+            return new Latency(histogram.getTotalCount(), millis(histogram.getMean()), percentiles,
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(double micros) {
+            return Math.round(micros) / 1000.0;
+        }
+    }
+
+    /**
+     * Requests that failed without a response (connection errors, client timeouts) or did not complete in time.
+     */
+    public long errors() {
+        return requests.stream().mapToLong(RequestSummary::errors).sum() + scheduled - completed;
+    }
+}